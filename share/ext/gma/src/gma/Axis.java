@@ -0,0 +1,178 @@
+package gma;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: Axis stores the ticks of an axis of the bitext space in parallel arrays of positions,
+ * vocabulary ids of the words and indexes in the axis file. Axis ticks are created on demand and know
+ * their index on the axis, so that the search can continue after any axis tick. The end-of-segment
+ * markers are kept apart from the axis ticks.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.Vocabulary;
+import gma.util.Word;
+
+public class Axis {
+
+  private float[] positions = new float[1024];  //positions of axis ticks
+  private int[] wordIds = new int[1024];        //vocabulary ids of the words of axis ticks
+  private int[] indexes = new int[1024];        //indexes of axis ticks in the axis file
+  private int size = 0;                         //number of axis ticks
+  private float[] boundaries = new float[64];   //positions of the end-of-segment markers
+  private int[] boundaryIndexes = new int[64];  //indexes of the end-of-segment markers in the axis file
+  private int boundaryCount = 0;                //number of end-of-segment markers
+  private float endPosition = 0f;               //position of the last line of the axis file
+  private final Vocabulary vocabulary;          //vocabulary of the words of axis ticks
+
+  /**
+   * Constructor.
+   * @param vocabulary            vocabulary of the bitext, in which the words of the axis are interned
+   */
+  public Axis(Vocabulary vocabulary) {
+    this.vocabulary = vocabulary;
+  }
+
+  /**
+   * Adds an axis tick at the end of the axis.
+   * @param index                 index of axis tick in the axis file
+   * @param position              position of axis tick
+   * @param word                  interned word of axis tick
+   */
+  public void add(int index, float position, Word word) {
+    if (size == positions.length) {
+      float[] newPositions = new float[2 * size];
+      int[] newWordIds = new int[2 * size];
+      int[] newIndexes = new int[2 * size];
+      System.arraycopy(positions, 0, newPositions, 0, size);
+      System.arraycopy(wordIds, 0, newWordIds, 0, size);
+      System.arraycopy(indexes, 0, newIndexes, 0, size);
+      positions = newPositions;
+      wordIds = newWordIds;
+      indexes = newIndexes;
+    }
+    positions[size] = position;
+    wordIds[size] = word.getId();
+    indexes[size] = index;
+    size++;
+  }
+
+  /**
+   * Adds an end-of-segment marker at the end of the axis.
+   * @param index                 index of end-of-segment marker in the axis file
+   * @param position              position of end-of-segment marker
+   */
+  public void addBoundary(int index, float position) {
+    if (boundaryCount == boundaries.length) {
+      float[] newBoundaries = new float[2 * boundaryCount];
+      int[] newBoundaryIndexes = new int[2 * boundaryCount];
+      System.arraycopy(boundaries, 0, newBoundaries, 0, boundaryCount);
+      System.arraycopy(boundaryIndexes, 0, newBoundaryIndexes, 0, boundaryCount);
+      boundaries = newBoundaries;
+      boundaryIndexes = newBoundaryIndexes;
+    }
+    boundaries[boundaryCount] = position;
+    boundaryIndexes[boundaryCount] = index;
+    boundaryCount++;
+  }
+
+  /**
+   * Gets the number of end-of-segment markers.
+   * @return                      number of end-of-segment markers
+   */
+  public int getBoundaryCount() {
+    return boundaryCount;
+  }
+
+  /**
+   * Gets the position of the indexed end-of-segment marker.
+   * @param boundaryIndex         index of end-of-segment marker
+   * @return                      position of end-of-segment marker
+   */
+  public float getBoundary(int boundaryIndex) {
+    return boundaries[boundaryIndex];
+  }
+
+  /**
+   * Gets the index in the axis file of the indexed end-of-segment marker.
+   * @param boundaryIndex         index of end-of-segment marker
+   * @return                      index of end-of-segment marker in the axis file
+   */
+  public int getBoundaryFileIndex(int boundaryIndex) {
+    return boundaryIndexes[boundaryIndex];
+  }
+
+  /**
+   * Sets the position of the last line of the axis file.
+   * @param position              position of the last line
+   */
+  public void setEndPosition(float position) {
+    endPosition = position;
+  }
+
+  /**
+   * Gets the position of the last line of the axis file, which is the end of the axis.
+   * @return                      position of the last line
+   */
+  public float getEndPosition() {
+    return endPosition;
+  }
+
+  /**
+   * Gets the number of axis ticks up to a position, i.e., the index on the axis of the first axis tick
+   * after the position. The positions of the axis ticks never decrease.
+   * @param position              position
+   * @return                      number of axis ticks at or before the position
+   */
+  public int countTicks(float position) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (positions[middle] <= position) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Gets the number of axis ticks.
+   * @return                      number of axis ticks
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the position of the indexed axis tick.
+   * @param axisIndex             index on the axis
+   * @return                      position of axis tick
+   */
+  public float getPosition(int axisIndex) {
+    return positions[axisIndex];
+  }
+
+  /**
+   * Gets the vocabulary id of the word of the indexed axis tick.
+   * @param axisIndex             index on the axis
+   * @return                      vocabulary id of the word
+   */
+  public int getWordId(int axisIndex) {
+    return wordIds[axisIndex];
+  }
+
+  /**
+   * Gets the indexed axis tick.
+   * @param axisIndex             index on the axis
+   * @return                      axis tick
+   */
+  public AxisTick getAxisTick(int axisIndex) {
+    if (axisIndex >= size) {
+      throw new IndexOutOfBoundsException("Index: " + axisIndex + ", Size: " + size);
+    }
+    return new AxisTick(indexes[axisIndex], positions[axisIndex], vocabulary.getWord(wordIds[axisIndex]), axisIndex);
+  }
+}
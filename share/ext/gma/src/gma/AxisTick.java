@@ -8,13 +8,16 @@ package gma;
  * @author Luke Shen
  */
 
+import gma.util.Word;
+
 import java.util.List;
 
 public class AxisTick {
 
   private int index;  //index of axis tick
   private float position; //position of axis tick
-  private List word;  //word of axis tick
+  private Word word;  //word of axis tick
+  private int axisIndex;  //index of axis tick on the axis of the bitext space, -1 if not on an axis
 
   /**
    * Constructor
@@ -22,10 +25,32 @@ public class AxisTick {
    * @param position          position of axis tick
    * @param word              word of axis tick
    */
-  public AxisTick(int index, float position, List word) {
+  public AxisTick(int index, float position, Word word) {
+    this(index, position, word, -1);
+  }
+
+  /**
+   * Constructor
+   * @param index             index of axis tick
+   * @param position          position of axis tick
+   * @param word              word of axis tick
+   * @param axisIndex         index of axis tick on the axis of the bitext space
+   */
+  public AxisTick(int index, float position, Word word, int axisIndex) {
     this.index = index;
     this.position = position;
     this.word = word;
+    this.axisIndex = axisIndex;
+  }
+
+  /**
+   * Constructor
+   * @param index             index of axis tick
+   * @param position          position of axis tick
+   * @param word              word of axis tick as a list of bytes
+   */
+  public AxisTick(int index, float position, List word) {
+    this(index, position, new Word(word));
   }
 
   /**
@@ -36,6 +61,14 @@ public class AxisTick {
     return index;
   }
 
+  /**
+   * Gets the index of axis tick on the axis of the bitext space.
+   * @return              index on the axis, -1 if not on an axis
+   */
+  public int getAxisIndex() {
+    return axisIndex;
+  }
+
   /**
    * Gets the position of axis tick.
    * @return              position of axis tick
@@ -48,7 +81,7 @@ public class AxisTick {
    * Gets the word of axis tick.
    * @return              word of axis tick
    */
-  public List getWord() {
+  public Word getWord() {
     return word;
   }
 
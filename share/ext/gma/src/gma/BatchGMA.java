@@ -0,0 +1,253 @@
+package gma;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: BatchGMA aligns the bitexts listed in a manifest file in one process. The property
+ * files are read once, the stop word lists and translation lexicon are loaded once and shared by all
+ * bitexts, and the bitexts are aligned concurrently on a number of threads. The axes and map points are
+ * handed from SIMR to GSA in memory.</p>
+ * <p>Each line of the manifest lists the x axis file, the y axis file and the GSA output file of a
+ * bitext, optionally followed by the SIMR output file. Empty lines and lines starting with '#' are
+ * skipped.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ *
+ * Example run:
+ * java -Xmx1024m gma/BatchGMA -properties config/GMA.config.default -manifest bitexts.txt -threads 4 -report bitexts.report
+ */
+
+import gma.gsa.GSA;
+import gma.simr.SIMR;
+import gma.util.InputFileHandler;
+import gma.util.OutputFileHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.StringTokenizer;
+
+public class BatchGMA {
+
+  // constants for command line arguments
+  public static final String MANIFEST = "manifest";
+  public static final String THREADS = "threads";
+  public static final String REPORT = "report";
+
+  private Properties properties = null;   //properties shared by all bitexts
+  private String manifestFile = null;     //manifest file
+  private String reportFile = null;       //report file, null for standard error
+  private int threads = 1;                //number of threads
+
+  private List bitexts = new ArrayList(); //files of each bitext
+  private int nextBitext = 0;             //index of the next bitext to align
+  private int[] mapPointCounts;           //number of map points of each bitext
+  private int[] alignedBlockCounts;       //number of aligned blocks of each bitext
+  private long[] simrTimes;               //milliseconds of SIMR for each bitext
+  private long[] gsaTimes;                //milliseconds of GSA for each bitext
+
+  /**
+   * Constructor.
+   * @param args                  command line arguments
+   */
+  public BatchGMA(String[] args) {
+    try {
+      parseArguments(args);
+    } catch (IllegalArgumentException e) {
+      printUsage();
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Prints command usage.
+   */
+  private void printUsage() {
+    StringBuffer buffer = new StringBuffer("Usage: java gma.BatchGMA [arguments]\n\n");
+    buffer.append("where [arguments] are:\n\n");
+    buffer.append("\t-properties properties\n\trequired argument; e.g., -properties ./GMA.properties\n\n");
+    buffer.append("\t-manifest manifest\n\trequired argument; e.g., -manifest ./bitexts.txt\n\n");
+    buffer.append("\t-threads threads\n\toptional argument; e.g., -threads 4\n\n");
+    buffer.append("\t-report report\n\toptional argument; e.g., -report ./bitexts.report\n\n");
+    System.err.println(buffer.toString());
+  }
+
+  /**
+   * Parses command line arguments.
+   * @param args                              command line arguments
+   * @throws IllegalArgumentException
+   */
+  private void parseArguments(String[] args) throws IllegalArgumentException {
+    if ((args.length % 2) != 0) {
+      throw new IllegalArgumentException("The number of arguments must be even.");
+    }
+
+    for (int index = 0; index < args.length; index++) {
+      if (args[index].equals(SIMR.DASH + SIMR.PROPERTIES)) {
+        properties = new GMA(new String[] {args[index], args[++index]}).properties;
+      } else if (args[index].equals(SIMR.DASH + MANIFEST)) {
+        manifestFile = args[++index];
+      } else if (args[index].equals(SIMR.DASH + THREADS)) {
+        try {
+          threads = Integer.parseInt(args[++index]);
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException(args[index] + " is not a number of threads.");
+        }
+      } else if (args[index].equals(SIMR.DASH + REPORT)) {
+        reportFile = args[++index];
+      } else {
+        throw new IllegalArgumentException(args[index] + "is an invalid argument.");
+      }
+    }
+
+    if (properties == null || manifestFile == null) {
+      throw new IllegalArgumentException("Property file and manifest must be specified at the command line.");
+    }
+  }
+
+  /**
+   * Reads the files of the bitexts from the manifest.
+   */
+  private void readManifest() {
+    InputFileHandler input = new InputFileHandler(manifestFile);
+    while (input.hasLine()) {
+      String line = input.nextLine().trim();
+      if (line.length() == 0 || line.startsWith("#")) {
+        continue;
+      }
+      StringTokenizer st = new StringTokenizer(line);
+      if (st.countTokens() < 3 || st.countTokens() > 4) {
+        System.err.println("The manifest line \"" + line + "\" does not list x axis file, y axis file, "
+                           + "GSA output file and optionally SIMR output file.");
+        System.exit(1);
+      }
+      String[] files = new String[st.countTokens()];
+      for (int index = 0; index < files.length; index++) {
+        files[index] = st.nextToken();
+      }
+      bitexts.add(files);
+    }
+    input.close();
+  }
+
+  /**
+   * Aligns the bitexts of the manifest and prints the report.
+   */
+  public void execute() {
+    readManifest();
+    mapPointCounts = new int[bitexts.size()];
+    alignedBlockCounts = new int[bitexts.size()];
+    simrTimes = new long[bitexts.size()];
+    gsaTimes = new long[bitexts.size()];
+
+    long start = System.currentTimeMillis();
+    Runnable worker = new Runnable() {
+      public void run() {
+        try {
+          for (int index = takeBitext(); index != -1; index = takeBitext()) {
+            alignBitext(index);
+          }
+        } catch (RuntimeException e) {
+          e.printStackTrace();
+          System.exit(1);
+        }
+      }
+    };
+    Thread[] workers = new Thread[Math.max(1, Math.min(threads, bitexts.size()))];
+    for (int index = 0; index < workers.length; index++) {
+      workers[index] = new Thread(worker, "gma-bitext-" + index);
+      workers[index].start();
+    }
+    for (int index = 0; index < workers.length; index++) {
+      try {
+        workers[index].join();
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+        System.exit(1);
+      }
+    }
+    printReport(System.currentTimeMillis() - start, workers.length);
+  }
+
+  private synchronized int takeBitext() {
+    return nextBitext < bitexts.size() ? nextBitext++ : -1;
+  }
+
+  /**
+   * Aligns a bitext.
+   * @param index                 index of the bitext in the manifest
+   */
+  private void alignBitext(int index) {
+    String[] files = (String[])bitexts.get(index);
+    Properties bitextProperties = new Properties();
+    bitextProperties.putAll(properties);
+    bitextProperties.put(SIMR.X_AXIS_FILE, files[0]);
+    bitextProperties.put(SIMR.Y_AXIS_FILE, files[1]);
+    bitextProperties.put(GSA.GSA + "." + SIMR.OUTPUT_FILE, files[2]);
+    if (files.length > 3) {
+      bitextProperties.put(SIMR.SIMR + "." + SIMR.OUTPUT_FILE, files[3]);
+    } else {
+      bitextProperties.remove(SIMR.SIMR + "." + SIMR.OUTPUT_FILE);
+    }
+
+    // simr part
+    long start = System.currentTimeMillis();
+    SIMR simr = new SIMR(bitextProperties);
+    SortedSet mapPoints = simr.generateBitextCorrespondence();
+    List bitextMap = simr.getBitextMap(mapPoints);
+    if (files.length > 3) {
+      simr.printMapPoints(mapPoints);
+    }
+    long simrEnd = System.currentTimeMillis();
+
+    // gsa part
+    GSA gsa = new GSA(bitextProperties);
+    List alignedBlocks = gsa.generateAlignedBlocks(simr.getBitextSpace(), bitextMap);
+    gsa.printAlignedBlocks(alignedBlocks);
+    long gsaEnd = System.currentTimeMillis();
+
+    mapPointCounts[index] = mapPoints.size();
+    alignedBlockCounts[index] = alignedBlocks.size();
+    simrTimes[index] = simrEnd - start;
+    gsaTimes[index] = gsaEnd - simrEnd;
+  }
+
+  /**
+   * Prints the number of map points, the number of aligned blocks and the time of SIMR and GSA
+   * for each bitext, and the total time.
+   * @param totalTime             milliseconds for all bitexts
+   * @param workerCount           number of threads
+   */
+  private void printReport(long totalTime, int workerCount) {
+    StringBuffer buffer = new StringBuffer();
+    buffer.append("#xAxisFile\tyAxisFile\tmapPoints\talignedBlocks\tsimrMillis\tgsaMillis\n");
+    long sumTime = 0;
+    for (int index = 0; index < bitexts.size(); index++) {
+      String[] files = (String[])bitexts.get(index);
+      buffer.append(files[0]).append("\t").append(files[1]).append("\t");
+      buffer.append(mapPointCounts[index]).append("\t").append(alignedBlockCounts[index]).append("\t");
+      buffer.append(simrTimes[index]).append("\t").append(gsaTimes[index]).append("\n");
+      sumTime += simrTimes[index] + gsaTimes[index];
+    }
+    buffer.append("#").append(bitexts.size()).append(" bitexts on ").append(workerCount).append(" threads in ");
+    buffer.append(totalTime).append(" ms (").append(sumTime).append(" ms of alignment)\n");
+
+    if (reportFile == null) {
+      System.err.print(buffer.toString());
+    } else {
+      OutputFileHandler out = new OutputFileHandler(reportFile);
+      out.write(buffer.toString());
+      out.close();
+    }
+  }
+
+  /**
+   * Main method.
+   * @param args                        command line arguments
+   */
+  public static void main(String[] args) {
+    BatchGMA batch = new BatchGMA(args);
+    batch.execute();
+    System.exit(0);
+  }
+}
@@ -14,9 +14,11 @@ import gma.util.InputFileHandler;
 import gma.util.ByteInputFileHandler;
 import gma.util.ByteParser;
 import gma.util.StringUtil;
+import gma.util.Vocabulary;
+import gma.util.Word;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.StringTokenizer;
@@ -26,6 +28,7 @@ public class BitextSpace {
   //constants in the config file
 
   public static final String EOS_MARKER = "eosMarker";
+  public static final String ANCHOR_FILE = "anchorFile";
 
   private static final String DOT = ".";
   private static final String AXIS_FILE_SUFFIX = "axisFileSuffix";
@@ -42,8 +45,9 @@ public class BitextSpace {
 
   private Properties properties = null;   //properties
 
-  private List xAxisTicks = null;   //x axis ticks
-  private List yAxisTicks = null;   //y axis ticks
+  private Axis xAxis = null;   //x axis ticks
+  private Axis yAxis = null;   //y axis ticks
+  private Vocabulary vocabulary = Vocabulary.newBitextVocabulary();   //vocabulary of the axis words
 
 
   /**
@@ -65,8 +69,8 @@ public class BitextSpace {
       suffix = properties.getProperty(AXIS_FILE_SUFFIX);
     }
 
-    xAxisTicks = generateAxis(suffix, SIMR.X_AXIS_FILE, X_STOP_WORD_FILE, X_AXIS_NORM);
-    yAxisTicks = generateAxis(suffix, SIMR.Y_AXIS_FILE, Y_STOP_WORD_FILE, Y_AXIS_NORM);
+    xAxis = generateAxis(suffix, SIMR.X_AXIS_FILE, X_STOP_WORD_FILE, X_AXIS_NORM);
+    yAxis = generateAxis(suffix, SIMR.Y_AXIS_FILE, Y_STOP_WORD_FILE, Y_AXIS_NORM);
   }
 
   /**
@@ -75,9 +79,9 @@ public class BitextSpace {
    * @param axisFileProperty        property name for axis file
    * @param stopWordProperty        property name for stop word file
    * @param normProperty            property name for normalization
-   * @return                        list of axis ticks
+   * @return                        axis ticks
    */
-  private List generateAxis(String suffix, String axisFileProperty,
+  private Axis generateAxis(String suffix, String axisFileProperty,
                     String stopWordProperty, String normProperty) {
 
     boolean needNormalization = DEFAULT_NORM_MODE;
@@ -85,33 +89,22 @@ public class BitextSpace {
       needNormalization = Boolean.valueOf(properties.getProperty(normProperty)).booleanValue();
     }
 
-    List stopWords = loadStopWordList(stopWordProperty);
+    BitSet stopWords = vocabulary.readWordSet(properties.getProperty(stopWordProperty));
     String axisFile = properties.getProperty(axisFileProperty);
 
     return doGenerateAxis(axisFile, suffix, needNormalization, stopWords);
   }
 
-  /**
-   * Loads stop words.
-   * @param propertyName                property name for stop word file
-   * @return                            list of stop words
-   */
-  private List loadStopWordList(String propertyName) {
-    String stopWordFile = properties.getProperty(propertyName);
-    ByteInputFileHandler input = new ByteInputFileHandler(stopWordFile);
-    return input.readWordList();
-  }
-
   /**
    * Does generate axis.
    * @param axisFile                    axis file
    * @param axisFileSuffix              suffix for axis file
    * @param needNormalization           true if words need normalization
-   * @param stopWords                   list of stop words
-   * @return                            list of axis ticks
+   * @param stopWords                   word ids of stop words
+   * @return                            axis ticks
    */
-  private List doGenerateAxis(String axisFile, String axisFileSuffix,
-                              boolean needNormalization, List stopWords) {
+  private Axis doGenerateAxis(String axisFile, String axisFileSuffix,
+                              boolean needNormalization, BitSet stopWords) {
     generateAxisFile(axisFile, axisFileSuffix);
     return generateAxisTicks(axisFile, needNormalization, stopWords);
   }
@@ -131,17 +124,19 @@ public class BitextSpace {
   }
 
   /**
-   * Generates axis ticks.
+   * Generates axis ticks. The words of the axis are interned in the vocabulary of the bitext.
    * @param axisFormatFile                  axis file
    * @param needNormalization               true for word normalization
-   * @param stopWords                       list of stop words
-   * @return                                list of axis ticks
+   * @param stopWords                       word ids of stop words
+   * @return                                axis ticks
    */
-  private List generateAxisTicks(String axisFormatFile, boolean needNormalization,
-                                                  List stopWords) {
+  private Axis generateAxisTicks(String axisFormatFile, boolean needNormalization,
+                                                  BitSet stopWords) {
 
-    List axisTicks = new LinkedList();
+    Axis axis = new Axis(vocabulary);
+    String eosMarker = properties.getProperty(EOS_MARKER);
     int counter = -1;
+    float position = 0f;
 
     ByteInputFileHandler input = new ByteInputFileHandler(axisFormatFile);
     
@@ -149,33 +144,22 @@ public class BitextSpace {
 
       counter++;
 
-      List arrayLine = input.nextLine();
-      if (debug) { System.err.println("arrayLine " + arrayLine); }
-      ByteParser bParser = new ByteParser(arrayLine);
+      ByteParser bParser = new ByteParser(input.getLineBuffer(), input.getLineLength());
+      if (debug) { System.err.println("arrayLine " + bParser.listToString()); }
 
-      /* now we need to break up the arrayLine into 2 portions */
-      List line = bParser.parseAxisLine();  
+      /* now we need to break up the line into 2 portions */
+      Word[] line = bParser.parseAxisLine();
       
-      /* StringTokenizer tokenizer = new StringTokenizer(line); */ 
-      if (line.size() != 2) {
+      if (line.length != 2) {
         System.err.println("The input file is not in the axis format.");
         input.close();
         System.exit(1);
       }
 
-
-
       /* first translate the position from byte to String */
-      StringBuffer sb = new StringBuffer();
-      Iterator li = ((List)line.get(0)).iterator();
-      while (li.hasNext()) {
-      	  sb.append( (char)((Integer)li.next()).intValue() );
-      }
+      position = Float.parseFloat(line[0].toString());
+      Word word = line[1];
 
-      String str = new String(sb);
-      float position = Float.parseFloat(str);
-      List word = (List)line.get(1);
-      
       /*
         //remove tags
         int tagIndex = word.indexOf("::");
@@ -195,22 +179,56 @@ public class BitextSpace {
         }
       */
       
-      // need to make sure that the word list itn't the EOS_MARKER
-      ByteParser wParser = new ByteParser(word);
-      
-      String wString = new String(wParser.listToString());
-      //if (debug) { System.err.println(position + "  " + wString); }
-      if (!wString.equals(properties.getProperty(EOS_MARKER))) {
-	  if (!stopWords.contains(word)) {
-	      AxisTick axisTick = new AxisTick(counter, position, word);
+      // need to make sure that the word isn't the EOS_MARKER
+      if (!word.contentEquals(eosMarker)) {
+	  word = vocabulary.intern(word);
+	  if (!stopWords.get(word.getId())) {
 	      //if (debug) { System.err.println(axisTick); }
-	      axisTicks.add(axisTick);
+	      axis.add(counter, position, word);
 	  }
-      } 
+      }
+      // a marker followed by white space, e.g., a carriage return, still ends a segment for GSA
+      if (isEndOfSegment(word, eosMarker)) {
+	  axis.addBoundary(counter, position);
+      }
       
     }
     input.close();
-  return axisTicks;
+    axis.setEndPosition(position);
+  return axis;
+  }
+
+  /**
+   * Checks whether the first token of the word of an axis line is the end-of-segment marker.
+   * @param word                        word of axis line
+   * @param eosMarker                   end-of-segment marker
+   * @return                            true if the line ends a segment
+   */
+  private static boolean isEndOfSegment(Word word, String eosMarker) {
+    if (eosMarker == null) {
+      return false;
+    }
+    int start = 0;
+    while (start < word.length() && isWhiteSpace(word.byteAt(start))) {
+      start++;
+    }
+    int end = start;
+    while (end < word.length() && !isWhiteSpace(word.byteAt(end))) {
+      end++;
+    }
+    if (end - start != eosMarker.length()) {
+      return false;
+    }
+    for (int index = start; index < end; index++) {
+      if (eosMarker.charAt(index - start) != (char)(word.byteAt(index) & 0xff)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isWhiteSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
   }
 
   /**
@@ -222,8 +240,8 @@ public class BitextSpace {
     } else {
 	//System.err.println("num " + ((AxisTick)yAxisTicks.get(yAxisTicks.size() - 1)).getPosition());
 	//System.err.println("den " + ((AxisTick)xAxisTicks.get(xAxisTicks.size() - 1)).getPosition());
-      double slope = (double)((AxisTick)yAxisTicks.get(yAxisTicks.size() - 1)).getPosition()
-          / (double)((AxisTick)xAxisTicks.get(xAxisTicks.size() - 1)).getPosition();
+      double slope = (double)yAxis.getPosition(yAxis.size() - 1)
+          / (double)xAxis.getPosition(xAxis.size() - 1);
       properties.put(MappingChain.SLOPE, String.valueOf(slope));
       //System.err.println("SLOPE=" + slope);
     }
@@ -237,32 +255,95 @@ public class BitextSpace {
    */
   public AxisTick getAxisTick(int index, boolean isXAxis) {
     if (isXAxis) {
-      return (AxisTick)xAxisTicks.get(0);
+      return xAxis.getAxisTick(index);
     } else {
-      return (AxisTick)yAxisTicks.get(0);
+      return yAxis.getAxisTick(index);
     }
   }
 
   /**
-   * Gets iterator for axis ticks.
-   * @param axisTick            axis tick after which the iterator starts
-   * @param isXAxis             true for iterator on x axis
-   * @return                    iterator for axis ticks
+   * Gets the number of axis ticks.
+   * @param isXAxis               true for x axis
+   * @return                      number of axis ticks
    */
-  public Iterator getAxisIterator(AxisTick axisTick, boolean isXAxis, int offset) {
+  public int getAxisSize(boolean isXAxis) {
     if (isXAxis) {
-	// changed to lastIndexOf on 03/04/04 to handle multiple instances
-	// of the same axis point
-	int maxXAxisIndex = xAxisTicks.indexOf(axisTick) + offset;
+      return xAxis.size();
+    } else {
+      return yAxis.size();
+    }
+  }
 
-	//int maxXAxisIndex = xAxisTicks.lastIndexOf(axisTick);
-	//System.err.println("XAxisTicks " + xAxisTicks.subList(maxXAxisIndex + 1,xAxisTicks.size()-1));
-      return xAxisTicks.listIterator(maxXAxisIndex + 1);
+  /**
+   * Gets an axis of the bitext space.
+   * @param isXAxis               true for x axis
+   * @return                      axis
+   */
+  public Axis getAxis(boolean isXAxis) {
+    if (isXAxis) {
+      return xAxis;
+    } else {
+      return yAxis;
+    }
+  }
+
+  /**
+   * Gets the position of the indexed axis tick.
+   * @param index                 indexed position
+   * @param isXAxis               true for x axis
+   * @return                      position of axis tick
+   */
+  public float getAxisPosition(int index, boolean isXAxis) {
+    if (isXAxis) {
+      return xAxis.getPosition(index);
+    } else {
+      return yAxis.getPosition(index);
+    }
+  }
+
+  /**
+   * Gets the number of axis ticks up to a position.
+   * @param position              position
+   * @param isXAxis               true for x axis
+   * @return                      number of axis ticks at or before the position
+   */
+  public int countAxisTicks(float position, boolean isXAxis) {
+    if (isXAxis) {
+      return xAxis.countTicks(position);
     } else {
-	int maxYAxisIndex = yAxisTicks.indexOf(axisTick) + offset;
-	//int maxYAxisIndex = yAxisTicks.lastIndexOf(axisTick);
-	//System.err.println("YAxisTicks " + yAxisTicks.subList(maxYAxisIndex + 1,yAxisTicks.size()-1));
-      return yAxisTicks.listIterator(maxYAxisIndex + 1);
+      return yAxis.countTicks(position);
+    }
+  }
+
+  /**
+   * Gets the anchors, i.e., points of the bitext space known to correspond. The anchors are read from
+   * the anchor file, which has the format of the SIMR output, so that hard boundaries or the map points
+   * of a first pass can be given. Without an anchor file, the end-of-segment markers are paired up
+   * if both axes have the same number of them.
+   * @return                      list of anchors, sorted by x axis position
+   */
+  public List getAnchors() {
+    List anchors = new ArrayList();
+    String anchorFile = properties.getProperty(ANCHOR_FILE);
+    if (anchorFile != null) {
+      InputFileHandler input = new InputFileHandler(anchorFile);
+      while (input.hasLine()) {
+        StringTokenizer st = new StringTokenizer(input.nextLine());
+        if (st.countTokens() < 2) {
+          continue;
+        }
+        AxisTick xAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), (Word)null);
+        AxisTick yAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), (Word)null);
+        anchors.add(new MapPoint(xAxisTick, yAxisTick));
+      }
+      input.close();
+    } else if (xAxis.getBoundaryCount() == yAxis.getBoundaryCount()) {
+      for (int index = 0; index < xAxis.getBoundaryCount(); index++) {
+        AxisTick xAxisTick = new AxisTick(-1, xAxis.getBoundary(index), (Word)null);
+        AxisTick yAxisTick = new AxisTick(-1, yAxis.getBoundary(index), (Word)null);
+        anchors.add(new MapPoint(xAxisTick, yAxisTick));
+      }
     }
+    return anchors;
   }
 }
@@ -170,8 +170,7 @@ public class GMA {
 	System.err.println("pathGMA " + pathGMA);
 	
 	if (!properties.containsKey("simr.outputFile")) {
-	    System.err.println("no simr file specified.. writting to /tmp/temp.map");
-	    properties.put("simr.outputFile","/tmp/temp.map");
+	    System.err.println("no simr file specified.. the map is passed to gsa in memory only");
 	}
 	if (!properties.containsKey("gsa.outputFile")) {
 	    System.err.println("no gsa file specified write alignment to std out");
@@ -184,11 +183,14 @@ public class GMA {
     // simr part
     SIMR simr = new SIMR(properties);
     SortedSet mapPoints = simr.generateBitextCorrespondence();
-    simr.printMapPoints(mapPoints);
+    List bitextMap = simr.getBitextMap(mapPoints);
+    if (properties.containsKey(SIMR.SIMR + "." + SIMR.OUTPUT_FILE)) {
+      simr.printMapPoints(mapPoints);
+    }
 
-    // gsa part
+    // gsa part, from the axes and the map in memory
     GSA gsa = new GSA(properties);
-    List alignedBlocks = gsa.generateAlignedBlocks();
+    List alignedBlocks = gsa.generateAlignedBlocks(simr.getBitextSpace(), bitextMap);
     gsa.printAlignedBlocks(alignedBlocks);
   }
 
@@ -28,22 +28,20 @@ package gma.gcalign;
 
  static String program_name;
  static int verbose = 0;
- align_core align = new align_core();
+ GaleChurchAligner aligner = new GaleChurchAligner();
 
 
+  /**
+   * Aligns two sequences of lengths given on the command line, e.g., -d <BRK> -i 1,2,<BRK>,3 .
+   * The lengths are parsed and aligned by GaleChurchAligner, which callers in the same process
+   * should use directly.
+   */
   public List gcalign(String[] args)
      {
 
 	 String soft_delimiter = null;
 	 String sInput = null;
-	 String stdout = null; strategy_delta DELTA1 = new strategy_delta();
-	 strategy newstrategy = new strategy();
-	 String input_file = null;int hsize = 0; int vsize = 0;
-	 int item1 = 0, item2 = 0;
-	 align_core align = new align_core();
-
-	 step_table alignment = new step_table();
-	 VAL_TABLE valtable1 = null, valtable2 = null;
+	 float[] valtable1 = null, valtable2 = null;
 
 	 /* Decode the program options.  */
 	 if(args.length <= 1)
@@ -89,49 +87,54 @@ package gma.gcalign;
 	System.exit(EXIT_ERROR_CODE);
 	}
 
-
-    //create value table from the data before the delimiter
-    if(st.hasMoreTokens())
-	{
-	    valtable1 = new VAL_TABLE(st.nextToken());
-	    if(verbose!=0)
-		{
-		    System.out.println("table1:");
-		    valtable1.print();
-		}
-	}
-
-    //create value table from the data after the delimiter
-    if(st.hasMoreTokens())
-	{
-	    valtable2 =  new VAL_TABLE(st.nextToken());
-	}
+    //create value tables from the data before and after the delimiter
+    valtable1 = parseValues(st.nextToken());
+    valtable2 = parseValues(st.nextToken());
 
     if(verbose!=0)
 	{
 	    System.out.println("table1:");
-	    valtable1.print();
+	    printValues(valtable1);
 	    System.out.println("table2:");
-	    valtable2.print();
+	    printValues(valtable2);
 	}
 
-
-
     /* the alignment process */
-    alignment = align.align_values (valtable1, valtable2, newstrategy, item1, item2);
+    int steps = aligner.align(valtable1, valtable1.length, valtable2, valtable2.length);
 
     List alignments = new ArrayList();
 
-    for (int i = alignment.length - 1 ;i >= 0; i--){
-	hsize = DELTA1.item1[alignment.STEP[i].sval];
-	vsize = DELTA1.item2[alignment.STEP[i].sval];
-        String alignmentString = new String("" + hsize + " <=> " + vsize);
+    for (int i = 0; i < steps; i++){
+        String alignmentString = new String("" + aligner.getXCount(i) + " <=> " + aligner.getYCount(i));
         alignments.add(alignmentString);
     }
 
     return alignments;
   }
 
+  /**
+   * Parses a comma separated sequence of lengths.
+   */
+  private static float[] parseValues(String inputstr)
+    {
+	StringTokenizer st = new StringTokenizer(inputstr, ",");
+	float[] values = new float[st.countTokens()];
+	for(int i = 0; st.hasMoreTokens(); i++)
+	    {
+		values[i] = Float.parseFloat(st.nextToken());
+	    }
+	return values;
+    }
+
+  private static void printValues(float[] values)
+    {
+        System.out.println("length = "+values.length);
+	for(int i = 0; i < values.length; i++)
+	    {
+		System.out.println(values[i]);
+	    }
+    }
+
   public static void main(String[] args) {
     GCalign gcalign = new GCalign();
     List alignments = gcalign.gcalign(args);
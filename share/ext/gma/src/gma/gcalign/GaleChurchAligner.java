@@ -0,0 +1,176 @@
+package gma.gcalign;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: GaleChurchAligner aligns two sequences of segment lengths by the dynamic programming of
+ * Gale and Church, "A Program for Aligning Sentences in Bilingual Corpora", Computational Linguistics, 1993.
+ * The costs and strategies of the cells are kept in flat int arrays indexed by x index * (y count + 1) +
+ * y index, and the arrays are reused by the next alignment of the same aligner, so an aligner must not be
+ * shared by threads.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+public class GaleChurchAligner {
+
+  // strategies, in the order in which they are tried; the last one of equal cost wins
+  public static final int SUBSTITUTION = 0;  //1-1
+  public static final int DELETION = 1;      //1-0
+  public static final int INSERTION = 2;     //0-1
+  public static final int CONTRACTION = 3;   //2-1
+  public static final int EXPANSION = 4;     //1-2
+  public static final int MELDING = 5;       //2-2
+  public static final int NUMBER_OF_STRATEGIES = 6;
+
+  private static final int[] X_COUNTS = {1, 1, 0, 2, 1, 2};  //x segments of each strategy
+  private static final int[] Y_COUNTS = {1, 0, 1, 1, 2, 2};  //y segments of each strategy
+
+  public static final int MEAN_RATIO = 1;
+  public static final double VARIANCE_RATIO = 6.8;
+  public static final int PENALTY_01 = 450;    //-100 * log([prob of 0-1 match] / [prob of 1-1 match])
+  public static final int PENALTY_21 = 230;    //-100 * log([prob of 2-1 match] / [prob of 1-1 match])
+  public static final int PENALTY_22 = 440;    //-100 * log([prob of 2-2 match] / [prob of 1-1 match])
+  public static final int BIG_DISTANCE = 2500; //cost of a match of probability 0
+
+  private int[] costs = new int[256];       //cost of the best alignment up to each cell
+  private int[] strategies = new int[256];  //last strategy of the best alignment up to each cell
+  private int[] path = new int[32];         //strategies of the best alignment, in order
+  private int pathLength = 0;               //number of steps of the best alignment
+
+  /**
+   * Aligns two sequences of segment lengths.
+   * @param xLengths              lengths of the x segments
+   * @param xCount                number of x segments
+   * @param yLengths              lengths of the y segments
+   * @param yCount                number of y segments
+   * @return                      number of steps of the best alignment
+   */
+  public int align(float[] xLengths, int xCount, float[] yLengths, int yCount) {
+    int width = yCount + 1;
+    int cellCount = (xCount + 1) * width;
+    if (costs.length < cellCount) {
+      costs = new int[Math.max(cellCount, 2 * costs.length)];
+      strategies = new int[costs.length];
+    }
+    if (path.length < xCount + yCount) {
+      path = new int[Math.max(xCount + yCount, 2 * path.length)];
+    }
+
+    costs[0] = 0;
+    strategies[0] = -1;
+    for (int xIndex = 0; xIndex <= xCount; xIndex++) {
+      for (int yIndex = xIndex == 0 ? 1 : 0; yIndex <= yCount; yIndex++) {
+        int bestCost = Integer.MAX_VALUE;
+        int bestStrategy = -1;
+        for (int strategy = 0; strategy < NUMBER_OF_STRATEGIES; strategy++) {
+          int xStart = xIndex - X_COUNTS[strategy];
+          int yStart = yIndex - Y_COUNTS[strategy];
+          if (xStart >= 0 && yStart >= 0) {
+            int cost = costs[xStart * width + yStart] + cost(strategy, xLengths, yLengths, xStart, yStart);
+            if (cost <= bestCost) {
+              bestCost = cost;
+              bestStrategy = strategy;
+            }
+          }
+        }
+        costs[xIndex * width + yIndex] = bestCost;
+        strategies[xIndex * width + yIndex] = bestStrategy;
+      }
+    }
+
+    // trace the best alignment back from the last cell, then reverse it
+    pathLength = 0;
+    for (int xIndex = xCount, yIndex = yCount; xIndex > 0 || yIndex > 0; ) {
+      int strategy = strategies[xIndex * width + yIndex];
+      path[pathLength++] = strategy;
+      xIndex -= X_COUNTS[strategy];
+      yIndex -= Y_COUNTS[strategy];
+    }
+    for (int low = 0, high = pathLength - 1; low < high; low++, high--) {
+      int strategy = path[low];
+      path[low] = path[high];
+      path[high] = strategy;
+    }
+    return pathLength;
+  }
+
+  /**
+   * Gets the strategy of a step of the last alignment.
+   * @param step                  index of the step
+   * @return                      strategy
+   */
+  public int getStrategy(int step) {
+    return path[step];
+  }
+
+  /**
+   * Gets the number of x segments of a step of the last alignment.
+   * @param step                  index of the step
+   * @return                      number of x segments
+   */
+  public int getXCount(int step) {
+    return X_COUNTS[path[step]];
+  }
+
+  /**
+   * Gets the number of y segments of a step of the last alignment.
+   * @param step                  index of the step
+   * @return                      number of y segments
+   */
+  public int getYCount(int step) {
+    return Y_COUNTS[path[step]];
+  }
+
+  /**
+   * Gets the cost of aligning the segments of a strategy starting at the given indexes.
+   */
+  private static int cost(int strategy, float[] xLengths, float[] yLengths, int x, int y) {
+    switch (strategy) {
+      case SUBSTITUTION:
+        return probabilityOfMatch(xLengths[x], yLengths[y]);
+      case DELETION:
+        return probabilityOfMatch(xLengths[x], 0) + PENALTY_01;
+      case INSERTION:
+        return probabilityOfMatch(0, yLengths[y]) + PENALTY_01;
+      case CONTRACTION:
+        return probabilityOfMatch(xLengths[x] + xLengths[x + 1], yLengths[y]) + PENALTY_21;
+      case EXPANSION:
+        return probabilityOfMatch(xLengths[x], yLengths[y] + yLengths[y + 1]) + PENALTY_21;
+      default:
+        return probabilityOfMatch(xLengths[x] + xLengths[x + 1], yLengths[y] + yLengths[y + 1]) + PENALTY_22;
+    }
+  }
+
+  /**
+   * Gets -100 * log of the probability that segments of the given lengths are translations.
+   * @param length1               length of the x segments
+   * @param length2               length of the y segments
+   * @return                      cost of the match
+   */
+  public static int probabilityOfMatch(float length1, float length2) {
+    if (length1 == 0 && length2 == 0) {
+      return 0;
+    }
+    double mean = (length1 + length2 / MEAN_RATIO) / 2;
+    double zScore = ((MEAN_RATIO * (length1 - length2)) / Math.sqrt(VARIANCE_RATIO * mean));
+    if (zScore < 0) {
+      zScore = -zScore;
+    }
+    double result = 2 * (1 - normalCdf(zScore));
+    if (result == 0) {
+      return BIG_DISTANCE;
+    } else {
+      return (int)(-100 * Math.log(result));
+    }
+  }
+
+  /**
+   * Gets the normal cdf of a positive value, a la Gradsteyn and Rhysiz, 26.2.17, p. 932.
+   */
+  private static double normalCdf(double zScore) {
+    double t = 1 / (1 + 0.2316419 * zScore);
+    double temp = (double)((-zScore * zScore) / 2);
+    return 1 - (0.3989423 * Math.exp(temp)
+                * ((((1.330274429 * t - 1.821255978) * t + 1.781477937) * t - 0.356563782) * t + 0.319381530) * t);
+  }
+}
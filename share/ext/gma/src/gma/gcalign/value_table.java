@@ -1,19 +0,0 @@
-package gma.gcalign;
-
-public class value_table
-  {
-
-      /* Array of values */
-
-	  int value;			/* value array */
-	  int length;			/* length of table (number of values) */
-
-	  //constructor
-     public value_table()
-           {
-		 	  value = 0;
-	          length = 0;
-		  }
-
-  }
-
@@ -8,13 +8,15 @@ package gma.gsa;
  * @author Luke Shen
  */
 
+import gma.Axis;
 import gma.AxisTick;
 import gma.BitextSpace;
 import gma.MapPoint;
-import gma.gcalign.GCalign;
+import gma.gcalign.GaleChurchAligner;
 import gma.simr.SIMR;
 import gma.util.InputFileHandler;
 import gma.util.OutputFileHandler;
+import gma.util.Word;
 
 import java.io.BufferedInputStream;
 import java.io.FileInputStream;
@@ -44,6 +46,10 @@ public class GSA {
   Map leftHash = new HashMap();
   Map rightHash = new HashMap();
 
+  private GaleChurchAligner aligner = new GaleChurchAligner();  //Gale-Church aligner, reused by all blocks
+  private float[] xDistances = new float[16];  //lengths of the x segments of a block
+  private float[] yDistances = new float[16];  //lengths of the y segments of a block
+
   /**
    * Constructor.
    * @param args                  command line arguments
@@ -162,8 +168,30 @@ public class GSA {
   public List generateAlignedBlocks() {
     List xAxisSegments = generateSegments(SIMR.X_AXIS_FILE);
     List yAxisSegments = generateSegments(SIMR.Y_AXIS_FILE);
-    List mapPoints = generateMapPoints();
-    
+    return alignSegments(xAxisSegments, yAxisSegments, generateMapPoints());
+  }
+
+  /**
+   * Template method to generate bitext alignments from the bitext space and bitext map of SIMR,
+   * without reading the axis files and the SIMR output file.
+   * @param bitextSpace             bitext space with generated axes
+   * @param mapPoints               list of map points of bitext correspondence, see SIMR.getBitextMap()
+   * @return                        list of aligned blocks
+   */
+  public List generateAlignedBlocks(BitextSpace bitextSpace, List mapPoints) {
+    List xAxisSegments = generateSegments(bitextSpace.getAxis(true));
+    List yAxisSegments = generateSegments(bitextSpace.getAxis(false));
+    return alignSegments(xAxisSegments, yAxisSegments, mapPoints);
+  }
+
+  /**
+   * Generates aligned blocks from segments and map points, and evens them out.
+   * @param xAxisSegments                   list of segments on the x axis
+   * @param yAxisSegments                   list of segments on the y axis
+   * @param mapPoints                       list of map points of bitext correspondence
+   * @return                                list of aligned blocks
+   */
+  private List alignSegments(List xAxisSegments, List yAxisSegments, List mapPoints) {
     List alignedBlocks = generateAlignedBlocks(xAxisSegments, yAxisSegments, mapPoints);
     backoffAlignment(alignedBlocks);
     gcAlign(alignedBlocks);
@@ -224,6 +252,30 @@ public class GSA {
     return segments;
   }
 
+  /**
+   * Generates segments from the end-of-segment markers of an axis, like generateSegments(String).
+   * @param axis                        axis of the bitext space
+   * @return                            list of segments
+   */
+  private List generateSegments(Axis axis) {
+    List segments = new ArrayList();
+    float startPosition = 0f;
+    float prevEndPosition = 0f;
+    for (int index = 0; index < axis.getBoundaryCount(); index++) {
+      float endPosition = axis.getBoundary(index);
+      // a segment is blank if there is no line between its end-of-segment marker and the previous one
+      int prevFileIndex = index > 0 ? axis.getBoundaryFileIndex(index - 1) : -1;
+      float length = 0f;
+      if (axis.getBoundaryFileIndex(index) != prevFileIndex + 1) {
+        length = endPosition - prevEndPosition;
+      }
+      segments.add(new Segment(index, startPosition, endPosition, length));
+      prevEndPosition = endPosition;
+      startPosition = endPosition;
+    }
+    return segments;
+  }
+
   /**
    * Generates map points based on the bitext correspondence produced by SIMR algorithm.
    * @return                          list of map points
@@ -234,8 +286,8 @@ public class GSA {
     while (input.hasLine()) {
       String line = input.nextLine();
       StringTokenizer st = new StringTokenizer(line);
-      AxisTick xAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), null); //index and word for axis tick are negligible in gsa
-      AxisTick yAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), null);
+      AxisTick xAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), (Word)null); //index and word for axis tick are negligible in gsa
+      AxisTick yAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), (Word)null);
       MapPoint mapPoint = new MapPoint(xAxisTick, yAxisTick);
 
 	
@@ -655,47 +707,17 @@ public class GSA {
 
         //only consult gcalign algorithm when the alignment involves more than 2 segments
 
-        GCalign gcAlign = new GCalign();
-        String[] params = new String[4];
-        params[0] = "-d";
-        params[1] = "<BRK>";
-        params[2] = "-i";
-
-        StringBuffer param = new StringBuffer();
-        boolean isFirst = true;
-
-        Iterator xSegmentIter = xSegments.iterator();
-        while (xSegmentIter.hasNext()) {
-          if (isFirst) {
-            isFirst = false;
-          } else {
-            param.append(",");
-          }
-          param.append(((Segment)xSegmentIter.next()).getDistance());
-        }
-
-        param.append(",").append(params[1]);
-
-        Iterator ySegmentIter = ySegments.iterator();
-        while (ySegmentIter.hasNext()) {
-          param.append(",");
-          param.append(((Segment)ySegmentIter.next()).getDistance());
-        }
-
-        params[3] = param.toString();
-        List alignmentStrings = gcAlign.gcalign(params);
+        xDistances = getDistances(xSegments, xDistances);
+        yDistances = getDistances(ySegments, yDistances);
+        int steps = aligner.align(xDistances, xSegments.size(), yDistances, ySegments.size());
 
         //insert new aligned blocks and remove the old aligned block
 
         int xStartIndex = 0;
         int yStartIndex = 0;
-        Iterator alignmentIter = alignmentStrings.iterator();
-        while (alignmentIter.hasNext()) {
-          String alignmentString = (String)alignmentIter.next();
-          StringTokenizer st = new StringTokenizer(alignmentString);
-          int xSegmentNumber = Integer.parseInt(st.nextToken());
-          st.nextToken();
-          int ySegmentNumber = Integer.parseInt(st.nextToken());
+        for (int step = 0; step < steps; step++) {
+          int xSegmentNumber = aligner.getXCount(step);
+          int ySegmentNumber = aligner.getYCount(step);
 
           AlignedBlock newAlignedBlock = new AlignedBlock();
           for (int xIndex = xStartIndex; xIndex < xStartIndex + xSegmentNumber; xIndex++) {
@@ -715,6 +737,22 @@ public class GSA {
     } // end of for loop
   }
 
+  /**
+   * Gets the lengths of segments.
+   * @param segments              list of segments
+   * @param distances             array to fill, if it is large enough
+   * @return                      array of the lengths of the segments
+   */
+  private float[] getDistances(List segments, float[] distances) {
+    if (distances.length < segments.size()) {
+      distances = new float[Math.max(segments.size(), 2 * distances.length)];
+    }
+    for (int index = 0; index < segments.size(); index++) {
+      distances[index] = ((Segment)segments.get(index)).getDistance();
+    }
+    return distances;
+  }
+
   /**
    * Prints out alignments.
    * @param alignedBlocks         list of aligned blocks
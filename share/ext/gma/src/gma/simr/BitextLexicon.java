@@ -0,0 +1,107 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: BitextLexicon looks up the words of a bitext in a translation lexicon. The lexicon index
+ * of a word is found once and kept in an array by word id, so that checking a word pair takes two array
+ * reads and a search of the translations of the source word. The match keys of a word are kept in a
+ * WordKeyCache. A bitext lexicon belongs to one matching predicate and is not thread-safe.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.Word;
+
+class BitextLexicon {
+
+  private static final int UNRESOLVED = -2;
+
+  private final TranslationLexicon lexicon;
+  private int[] lexiconIndexes = new int[0]; //lexicon index of each slot, -1 if not in the lexicon
+  private final WordKeyCache keyCache = new WordKeyCache();
+
+  /**
+   * Constructor.
+   * @param lexicon               translation lexicon
+   */
+  BitextLexicon(TranslationLexicon lexicon) {
+    this.lexicon = lexicon;
+  }
+
+  /**
+   * Gets the lexicon index of a word.
+   * @param word                  word
+   * @return                      lexicon index, or -1 if the word is not in the lexicon
+   */
+  int getLexiconIndex(Word word) {
+    if (word.getId() == Word.NO_ID) {
+      return lexicon.getLexiconIndex(word);
+    }
+    int slot = WordKeyCache.slot(word.getId());
+    if (slot >= lexiconIndexes.length) {
+      int[] newIndexes = new int[Math.max(slot + 1, 2 * lexiconIndexes.length)];
+      System.arraycopy(lexiconIndexes, 0, newIndexes, 0, lexiconIndexes.length);
+      for (int index = lexiconIndexes.length; index < newIndexes.length; index++) {
+        newIndexes[index] = UNRESOLVED;
+      }
+      lexiconIndexes = newIndexes;
+    }
+    int lexiconIndex = lexiconIndexes[slot];
+    if (lexiconIndex == UNRESOLVED) {
+      lexiconIndex = lexicon.getLexiconIndex(word);
+      lexiconIndexes[slot] = lexiconIndex;
+    }
+    return lexiconIndex;
+  }
+
+  /**
+   * Checks whether a word has translations.
+   * @param word                  source word
+   * @return                      true if the word has translations
+   */
+  boolean hasSource(Word word) {
+    return lexicon.hasTranslations(getLexiconIndex(word));
+  }
+
+  /**
+   * Checks whether a word is a translation.
+   * @param word                  target word
+   * @return                      true if the word is the translation of some word
+   */
+  boolean hasTarget(Word word) {
+    return lexicon.isTarget(getLexiconIndex(word));
+  }
+
+  /**
+   * Checks whether a word pair is in the lexicon.
+   * @param sourceWord            source word
+   * @param targetWord            target word
+   * @return                      true if the target word is a translation of the source word
+   */
+  boolean contains(Word sourceWord, Word targetWord) {
+    return lexicon.contains(getLexiconIndex(sourceWord), getLexiconIndex(targetWord));
+  }
+
+  /**
+   * Gets the match keys of a word. The words of the x axis are source words, whose keys are the lexicon
+   * indexes of their translations; the key of a word of the y axis is its lexicon index if it is a
+   * translation. The returned array is shared and must not be modified.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      match keys
+   */
+  int[] getKeys(Word word, boolean isXAxis) {
+    int[] keys = keyCache.get(word, isXAxis);
+    if (keys == null) {
+      int lexiconIndex = getLexiconIndex(word);
+      if (isXAxis) {
+        keys = lexicon.hasTranslations(lexiconIndex) ? lexicon.getTranslationIndexes(lexiconIndex)
+                                                     : WordKeyCache.NO_KEYS;
+      } else {
+        keys = lexicon.isTarget(lexiconIndex) ? new int[] {lexiconIndex} : WordKeyCache.NO_KEYS;
+      }
+      keyCache.put(word, isXAxis, keys);
+    }
+    return keys;
+  }
+}
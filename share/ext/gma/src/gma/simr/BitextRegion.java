@@ -0,0 +1,117 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: BitextRegion is a part of the bitext space between two anchors, i.e., a range of axis
+ * ticks on each axis. SIMR searches the regions of a bitext space independently of each other, so that
+ * no mapping chain crosses an anchor.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.BitextSpace;
+import gma.MapPoint;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+public class BitextRegion {
+
+  private int xStart;     //index on the x axis of the first axis tick
+  private int xEnd;       //index on the x axis after the last axis tick
+  private int yStart;     //index on the y axis of the first axis tick
+  private int yEnd;       //index on the y axis after the last axis tick
+  private double slope;   //slope of the diagonal of the region
+
+  /**
+   * Constructor.
+   * @param xStart                index on the x axis of the first axis tick
+   * @param xEnd                  index on the x axis after the last axis tick
+   * @param yStart                index on the y axis of the first axis tick
+   * @param yEnd                  index on the y axis after the last axis tick
+   * @param slope                 slope of the diagonal of the region
+   */
+  public BitextRegion(int xStart, int xEnd, int yStart, int yEnd, double slope) {
+    this.xStart = xStart;
+    this.xEnd = xEnd;
+    this.yStart = yStart;
+    this.yEnd = yEnd;
+    this.slope = slope;
+  }
+
+  /**
+   * Gets the index of the first axis tick.
+   * @param isXAxis               true for x axis
+   * @return                      index on the axis of the first axis tick
+   */
+  public int getStart(boolean isXAxis) {
+    return isXAxis ? xStart : yStart;
+  }
+
+  /**
+   * Gets the index after the last axis tick.
+   * @param isXAxis               true for x axis
+   * @return                      index on the axis after the last axis tick
+   */
+  public int getEnd(boolean isXAxis) {
+    return isXAxis ? xEnd : yEnd;
+  }
+
+  /**
+   * Gets the slope of the diagonal of the region, from the anchor before the region to its last axis ticks.
+   * @return                      slope of the diagonal
+   */
+  public double getSlope() {
+    return slope;
+  }
+
+  /**
+   * Splits the bitext space at anchors. An anchor is skipped if it does not follow the previous anchor
+   * on both axes, or if it would leave less than the minimum number of axis ticks on either axis of the
+   * regions before and after it.
+   * @param bitextSpace           bitext space
+   * @param anchors               list of anchors, sorted by x axis position
+   * @param minimumRegionSize     minimum number of axis ticks of a region on each axis
+   * @return                      list of regions, sorted by axis position
+   */
+  public static List partition(BitextSpace bitextSpace, List anchors, int minimumRegionSize) {
+    List regions = new ArrayList();
+    int xSize = bitextSpace.getAxisSize(true);
+    int ySize = bitextSpace.getAxisSize(false);
+    int xStart = 0;
+    int yStart = 0;
+    float xOrigin = 0f;
+    float yOrigin = 0f;
+
+    Iterator iterator = anchors.iterator();
+    while (iterator.hasNext()) {
+      MapPoint anchor = (MapPoint)iterator.next();
+      float xPosition = anchor.getXAxisTick().getPosition();
+      float yPosition = anchor.getYAxisTick().getPosition();
+      int xEnd = bitextSpace.countAxisTicks(xPosition, true);
+      int yEnd = bitextSpace.countAxisTicks(yPosition, false);
+      if (xPosition > xOrigin && yPosition > yOrigin
+          && xEnd - xStart >= minimumRegionSize && yEnd - yStart >= minimumRegionSize
+          && xSize - xEnd >= minimumRegionSize && ySize - yEnd >= minimumRegionSize) {
+        regions.add(createRegion(bitextSpace, xStart, xEnd, yStart, yEnd, xOrigin, yOrigin));
+        xStart = xEnd;
+        yStart = yEnd;
+        xOrigin = xPosition;
+        yOrigin = yPosition;
+      }
+    }
+    regions.add(createRegion(bitextSpace, xStart, xSize, yStart, ySize, xOrigin, yOrigin));
+    return regions;
+  }
+
+  /**
+   * Creates a region with the slope of its diagonal.
+   */
+  private static BitextRegion createRegion(BitextSpace bitextSpace, int xStart, int xEnd, int yStart, int yEnd,
+                                           float xOrigin, float yOrigin) {
+    double slope = ((double)bitextSpace.getAxisPosition(yEnd - 1, false) - (double)yOrigin)
+        / ((double)bitextSpace.getAxisPosition(xEnd - 1, true) - (double)xOrigin);
+    return new BitextRegion(xStart, xEnd, yStart, yEnd, slope);
+  }
+}
@@ -8,23 +8,18 @@ package gma.simr;
  */
 
 import gma.BitextSpace;
-import gma.util.InputFileHandler;
-import gma.util.ByteInputFileHandler;
-import gma.util.ByteParser;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.io.*;
+import gma.util.Vocabulary;
+import gma.util.Word;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.BitSet;
 import java.util.Properties;
-import java.util.StringTokenizer;
 
-public class ExactMatching implements MatchingPredicate {
+public class ExactMatching implements IndexedMatchingPredicate {
     
-  public List xStopWords = new ArrayList();
-  public List yStopWords = new ArrayList();
+  public BitSet xStopWords = new BitSet(); //word ids of x stop words
+  public BitSet yStopWords = new BitSet(); //word ids of y stop words
+  private Vocabulary vocabulary = Vocabulary.getInstance();
+  private WordKeyCache keyCache = new WordKeyCache(); //index keys of the words of the bitext
 
 
   /**
@@ -33,34 +28,22 @@ public class ExactMatching implements MatchingPredicate {
    */
   public void setProperties(Properties properties) {
 
-    xStopWords = loadStopWordList(properties, BitextSpace.X_STOP_WORD_FILE);
-    
-    yStopWords = loadStopWordList(properties, BitextSpace.Y_STOP_WORD_FILE);
+    xStopWords = vocabulary.readWordSet(properties.getProperty(BitextSpace.X_STOP_WORD_FILE));
 
-  }
+    yStopWords = vocabulary.readWordSet(properties.getProperty(BitextSpace.Y_STOP_WORD_FILE));
 
-  /**
-   * Loads stop word list.
-   * @param properties                  properties
-   * @param propertyName                property name for stop word file
-   * @return
-   */
-  private List loadStopWordList(Properties properties, String propertyName) {
-    String stopWordFile = properties.getProperty(propertyName);
-    ByteInputFileHandler input = new ByteInputFileHandler(stopWordFile);
-    return input.readWordList();
+    keyCache = new WordKeyCache();
   }
 
-
   /**
    * Checks whether two words "match".
    * @param wordForMatch                word to match from
    * @param wordToMatch                 word to match to
    * @return                            true if two words match
    */
-  public boolean isMatch(List inWord1, List inWord2, boolean isXAxis) {
-      List wordToMatch;
-      List wordForMatch;
+  public boolean isMatch(Word inWord1, Word inWord2, boolean isXAxis) {
+      Word wordToMatch;
+      Word wordForMatch;
 
       if (isXAxis) {
 	  wordToMatch = inWord1;
@@ -72,7 +55,7 @@ public class ExactMatching implements MatchingPredicate {
       // they may in fact be the same word, return true
       if (wordForMatch.equals(wordToMatch)) {
 	  // now check to make sure that the word isn't in either stoplist
-	  if ( (xStopWords.contains(wordForMatch)) || (yStopWords.contains(wordToMatch)) ) {
+	  if ( (vocabulary.contains(xStopWords, wordForMatch)) || (vocabulary.contains(yStopWords, wordToMatch)) ) {
 	      return false; 
 	  } else {
 	      return true;
@@ -81,6 +64,33 @@ public class ExactMatching implements MatchingPredicate {
       return false; 
   } // end of isMatch
 
+  /**
+   * Gets the keys under which a word is indexed: the word id, unless the word is a stop word.
+   * The keys are computed once per word; the returned array is shared and must not be modified.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      index keys
+   */
+  public int[] getIndexKeys(Word word, boolean isXAxis) {
+      int[] keys = keyCache.get(word, isXAxis);
+      if (keys == null) {
+	  if (vocabulary.contains(xStopWords, word) || vocabulary.contains(yStopWords, word)) {
+	      keys = WordKeyCache.NO_KEYS;
+	  } else {
+	      keys = new int[] {WordKeyCache.exactKey(word)};
+	  }
+	  keyCache.put(word, isXAxis, keys);
+      }
+      return keys;
+  }
 
-
+  /**
+   * Gets the keys of the words that a word can match, i.e., the index keys.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      query keys
+   */
+  public int[] getQueryKeys(Word word, boolean isXAxis) {
+      return getIndexKeys(word, isXAxis);
+  }
 }
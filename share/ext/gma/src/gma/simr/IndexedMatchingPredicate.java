@@ -0,0 +1,33 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: IndexedMatchingPredicate defines interface for word matching with a match index.
+ * Every word of an axis has index keys and query keys. Two words can only match if the query keys
+ * of each word share a key with the index keys of the other, so the search rectangle only tests
+ * the words that share a key with a new word.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.Word;
+
+interface IndexedMatchingPredicate extends MatchingPredicate {
+
+  /**
+   * Gets the keys under which a word is indexed.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      index keys, empty if the word matches no word
+   */
+  public int[] getIndexKeys(Word word, boolean isXAxis);
+
+  /**
+   * Gets the keys of the words that a word can match.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      query keys, empty if the word matches no word,
+   *                              or null if the word can match any word
+   */
+  public int[] getQueryKeys(Word word, boolean isXAxis);
+}
@@ -8,21 +8,19 @@ package gma.simr;
  * @author Ali Argyle
  */
 
-import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.ArrayList;
+import gma.util.Word;
+
 import java.util.Properties;
 
-public class LcsrLexMatching implements MatchingPredicate {
+public class LcsrLexMatching implements IndexedMatchingPredicate {
 
-  public Map hTrans = new HashMap(); // non-english keys
-  public Map vTrans = new HashMap();   // english keys
-  public List xStopWords = new ArrayList();
-  public List yStopWords = new ArrayList();
+  public TranslationLexicon lexicon = null;
   public DictExactMatching tralexMatching = new DictExactMatching();
   public LcsrMatching lcsrMatching = new LcsrMatching();
   public Properties myproperties = null;
+  private BitextLexicon bitextLexicon = null; //lexicon indexes and match keys of the words of the bitext
+  private WordKeyCache indexKeyCache = new WordKeyCache(); //index keys of the words of the bitext
+  private WordKeyCache queryKeyCache = new WordKeyCache(); //query keys of the words of the bitext
 
   /**
    * Sets properties.
@@ -30,9 +28,11 @@ public class LcsrLexMatching implements MatchingPredicate {
    */
   public void setProperties(Properties properties) {
       tralexMatching.setProperties(properties);
-      hTrans = tralexMatching.hTrans;
-      vTrans = tralexMatching.vTrans;
+      lexicon = tralexMatching.lexicon;
+      bitextLexicon = tralexMatching.bitextLexicon;
       lcsrMatching.setProperties(properties);
+      indexKeyCache = new WordKeyCache();
+      queryKeyCache = new WordKeyCache();
   }
 
   /**
@@ -41,9 +41,9 @@ public class LcsrLexMatching implements MatchingPredicate {
    * @param wordToMatch           word to match to
    * @return                      true if two words match
    */
-  public boolean isMatch(List inWord1, List inWord2, boolean isXAxis) {
-      List wordToMatch;
-      List wordForMatch;
+  public boolean isMatch(Word inWord1, Word inWord2, boolean isXAxis) {
+      Word wordToMatch;
+      Word wordForMatch;
       
       if (isXAxis) {
 	  wordToMatch = inWord1;
@@ -55,23 +55,9 @@ public class LcsrLexMatching implements MatchingPredicate {
 
       // if either word is in the tralex, 
       // then only accept if the other is a valid translation
-      if ((hTrans.containsKey(wordForMatch))  && (vTrans.containsKey(wordToMatch))) {
-	  
-	  List hmatchLex = (List)hTrans.get(wordForMatch);
-	  List vmatchLex = (List)vTrans.get(wordToMatch);
-	  
-	  if (hmatchLex.size() > vmatchLex.size()) {
-	      if (vmatchLex.contains(wordForMatch)) {
-		  return true;
-	      }
-	  
-	  } else {
-	      if (hmatchLex.contains(wordToMatch)) {
-		  return true;
-	      }
-	  }
-	  return false;
-      } else if ((hTrans.containsKey(wordForMatch)) || (vTrans.containsKey(wordToMatch))) {
+      if ((bitextLexicon.hasSource(wordForMatch))  && (bitextLexicon.hasTarget(wordToMatch))) {
+	  return bitextLexicon.contains(wordForMatch, wordToMatch);
+      } else if ((bitextLexicon.hasSource(wordForMatch)) || (bitextLexicon.hasTarget(wordToMatch))) {
 	  //System.err.println("Only one is in the dictionary");
 	  return false;
       }
@@ -80,4 +66,56 @@ public class LcsrLexMatching implements MatchingPredicate {
 
       return (lcsrMatching.isMatch(inWord1, inWord2, isXAxis));
   }
+
+  /**
+   * Gets the keys under which a word is indexed: the odd numbers of the lexicon keys if the word
+   * is in the translation lexicon, the even numbers of the longest common string keys otherwise.
+   * The keys are computed once per word; the returned array is shared and must not be modified.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      index keys
+   */
+  public int[] getIndexKeys(Word word, boolean isXAxis) {
+      int[] keys = indexKeyCache.get(word, isXAxis);
+      if (keys == null) {
+	  keys = getKeys(word, isXAxis, lcsrMatching.getIndexKeys(word, isXAxis));
+	  indexKeyCache.put(word, isXAxis, keys);
+      }
+      return keys;
+  }
+
+  /**
+   * Gets the keys of the words that a word can match. The keys are computed once per word; the
+   * returned array is shared and must not be modified.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      query keys, or null if the word can match any word
+   */
+  public int[] getQueryKeys(Word word, boolean isXAxis) {
+      int[] keys = queryKeyCache.get(word, isXAxis);
+      if (keys == null) {
+	  keys = getKeys(word, isXAxis, lcsrMatching.getQueryKeys(word, isXAxis));
+	  queryKeyCache.put(word, isXAxis, keys);
+      }
+      return keys;
+  }
+
+  private int[] getKeys(Word word, boolean isXAxis, int[] lcsrKeys) {
+      int[] keys;
+      if (isXAxis ? bitextLexicon.hasSource(word) : bitextLexicon.hasTarget(word)) {
+	  int[] lexiconKeys = bitextLexicon.getKeys(word, isXAxis);
+	  keys = new int[lexiconKeys.length];
+	  for (int index = 0; index < keys.length; index++) {
+	      keys[index] = 2 * lexiconKeys[index] + 1;
+	  }
+      } else if (lcsrKeys == null) {
+	  return null;
+      } else {
+	  keys = new int[lcsrKeys.length];
+	  for (int index = 0; index < keys.length; index++) {
+	      keys[index] = 2 * lcsrKeys[index];
+	  }
+      }
+      return keys;
+  }
 }
@@ -8,18 +8,25 @@ package gma.simr;
  * @author Luke Shen
  */
 
+import gma.util.Word;
+
+import java.util.Arrays;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.Properties;
 
-public class LcsrMatching implements MatchingPredicate {
+public class LcsrMatching implements IndexedMatchingPredicate {
 
   //constant in the property file
   public static final String LCSR_THRESHOLD = "lcsrThreshold";
   public static final String MINIMUM_WORD_LENGTH = "minimumWordLength";
 
+  private static final int BIT_PARALLEL_LENGTH = 64;  //maximum length of the shorter word for the bit-parallel LCS
+  private static final int MEMO_SIZE = 1 << 16;       //number of entries of the match cache of each thread
+
   private float lcsrThreshold;  //threshold in checking whether two words matches
   private int minimumWordLength;  //minimum length of word for matching
+  private ThreadLocal scratch = newScratch();  //scratch buffers and match cache of each thread
+  private int[][] lengthKeys = new int[0][];   //query keys of the words of each length
 
   /**
    * Sets properties.
@@ -28,84 +35,271 @@ public class LcsrMatching implements MatchingPredicate {
   public void setProperties(Properties properties) {
     lcsrThreshold = Float.parseFloat(properties.getProperty(LCSR_THRESHOLD));
     minimumWordLength = Integer.parseInt(properties.getProperty(MINIMUM_WORD_LENGTH));
+    scratch = newScratch();
+    lengthKeys = new int[0][];
+  }
+
+  private static ThreadLocal newScratch() {
+    return new ThreadLocal() {
+      protected Object initialValue() {
+        return new Scratch();
+      }
+    };
   }
 
   /**
-   * Checks whether two words matches.
+   * Checks whether two words matches. The result for two words of the vocabulary is cached.
    * @param wordForMatch          word to match from
    * @param wordToMatch           word to match to
    * @return                      true if two words match
    */
-  public boolean isMatch(List wordForMatch, List wordToMatch, boolean isXAxis) {
+  public boolean isMatch(Word wordForMatch, Word wordToMatch, boolean isXAxis) {
 
     if (wordForMatch.equals(wordToMatch)) {
       return true;
     }
 
-    //if (wordForMatch.length() < minimumWordLength || wordToMatch.length() < minimumWordLength) {
-    if (wordForMatch.size() < minimumWordLength || wordToMatch.size() < minimumWordLength) {
+    int lengthForMatch = wordForMatch.length();
+    int lengthToMatch = wordToMatch.length();
+    if (lengthForMatch < minimumWordLength || lengthToMatch < minimumWordLength) {
+      return false;
+    }
+
+    // the longest common string is not longer than the shorter word
+    int maxLength = Math.max(lengthForMatch, lengthToMatch);
+    if (!((float)Math.min(lengthForMatch, lengthToMatch) / maxLength > lcsrThreshold)) {
       return false;
     }
 
-    int lcsLength = computeLcs(wordForMatch, wordToMatch);
-    float ratio;
-    if (wordForMatch.size() > wordToMatch.size()) {
-	ratio = (float)lcsLength / wordForMatch.size();
-    } else {
-	ratio = (float)lcsLength / wordToMatch.size();
+    Scratch buffers = (Scratch)scratch.get();
+    int idForMatch = wordForMatch.getId();
+    int idToMatch = wordToMatch.getId();
+    if (idForMatch == Word.NO_ID || idToMatch == Word.NO_ID) {
+      return (float)computeLcs(wordForMatch.getBytes(), wordToMatch.getBytes(), buffers) / maxLength > lcsrThreshold;
+    }
+
+    // the ratio is symmetric, so is the cache
+    long key = idForMatch < idToMatch ? ((long)idForMatch << 32) | idToMatch
+                                      : ((long)idToMatch << 32) | idForMatch;
+    int slot = buffers.findMemo(key);
+    if (buffers.memoValues[slot] == Scratch.UNKNOWN) {
+      boolean match = (float)computeLcs(wordForMatch.getBytes(), wordToMatch.getBytes(), buffers) / maxLength > lcsrThreshold;
+      buffers.putMemo(slot, key, match);
+      return match;
+    }
+    return buffers.memoValues[slot] == Scratch.MATCH;
+  }
+
+  /**
+   * Gets the keys under which a word is indexed: twice the length of the word, or twice the word id
+   * plus one if the word is too short for matching, so that it only matches itself. A short word
+   * without an id is indexed by its length as well; isMatch() still only matches it with itself.
+   * The word is not interned, so matching never adds words to the shared vocabulary.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      index keys
+   */
+  public int[] getIndexKeys(Word word, boolean isXAxis) {
+    if (word.length() < minimumWordLength && word.getId() != Word.NO_ID) {
+      return new int[] {2 * word.getId() + 1};
+    }
+    return new int[] {2 * word.length()};
+  }
+
+  /**
+   * Gets the keys of the words that a word can match: twice the lengths for which the ratio
+   * of the shorter to the longer length is above the threshold.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      query keys, or null if the threshold allows any lengths
+   */
+  public int[] getQueryKeys(Word word, boolean isXAxis) {
+    int length = word.length();
+    if (length < minimumWordLength) {
+      return getIndexKeys(word, isXAxis);
+    }
+    if (!(lcsrThreshold > 0)) {
+      return null;
+    }
+    if (length >= lengthKeys.length) {
+      int[][] newLengthKeys = new int[Math.max(length + 1, 2 * lengthKeys.length)][];
+      System.arraycopy(lengthKeys, 0, newLengthKeys, 0, lengthKeys.length);
+      lengthKeys = newLengthKeys;
+    }
+    if (lengthKeys[length] == null) {
+      int[] keys = new int[length + 1];
+      int count = 0;
+      for (int otherLength = Math.max(minimumWordLength, 1); ; otherLength++) {
+        boolean isMatchable = otherLength == length
+                || (float)Math.min(length, otherLength) / Math.max(length, otherLength) > lcsrThreshold;
+        if (isMatchable) {
+          if (count == keys.length) {
+            int[] newKeys = new int[2 * keys.length];
+            System.arraycopy(keys, 0, newKeys, 0, count);
+            keys = newKeys;
+          }
+          keys[count++] = 2 * otherLength;
+        } else if (otherLength > length) {
+          break;
+        }
+      }
+      lengthKeys[length] = new int[count];
+      System.arraycopy(keys, 0, lengthKeys[length], 0, count);
     }
-    return ratio > lcsrThreshold;
+    return lengthKeys[length];
+  }
+
+  /**
+   * Checks whether two words matches.
+   * @param wordForMatch          word to match from, as a list of bytes
+   * @param wordToMatch           word to match to, as a list of bytes
+   * @return                      true if two words match
+   */
+  public boolean isMatch(List wordForMatch, List wordToMatch, boolean isXAxis) {
+    return isMatch(new Word(wordForMatch), new Word(wordToMatch), isXAxis);
   }
 
   /**
    * Computes longest common string.
-   * @param wordForMatch              word to match from
-   * @param wordToMatch               word to match to
+   * @param wordForMatch              word to match from, as a list of bytes
+   * @param wordToMatch               word to match to, as a list of bytes
    * @return                          length of longest common string
    */
   public int computeLcs(List wordForMatch, List wordToMatch) {
+    return computeLcs(new Word(wordForMatch).getBytes(), new Word(wordToMatch).getBytes());
+  }
 
-    int wordLengthForMatch = wordForMatch.size();
-    int wordLengthToMatch = wordToMatch.size();
-    int[][] table = new int[wordLengthForMatch][wordLengthToMatch];
+  /**
+   * Computes longest common string.
+   * @param wordForMatch              bytes of word to match from
+   * @param wordToMatch               bytes of word to match to
+   * @return                          length of longest common string
+   */
+  public int computeLcs(byte[] wordForMatch, byte[] wordToMatch) {
+    return computeLcs(wordForMatch, wordToMatch, (Scratch)scratch.get());
+  }
 
-    if (wordForMatch.get(0).equals(wordToMatch.get(0))) {
-      table[0][0] = 1;
-    } else {
-      table[0][0] = 0;
+  /**
+   * Computes longest common string, bit-parallel if the shorter word has at most 64 bytes.
+   */
+  private static int computeLcs(byte[] wordForMatch, byte[] wordToMatch, Scratch buffers) {
+    byte[] shorter = wordForMatch;
+    byte[] longer = wordToMatch;
+    if (shorter.length > longer.length) {
+      shorter = wordToMatch;
+      longer = wordForMatch;
     }
-
-    for (int index = 1; index < wordLengthForMatch; index++) {
-	if (wordForMatch.get(index).equals(wordToMatch.get(0))) {
-        table[index][0] = 1;
-      } else {
-        table[index][0] = table[index - 1][0];
-      }
+    if (shorter.length == 0) {
+      return 0;
     }
+    if (shorter.length <= BIT_PARALLEL_LENGTH) {
+      return computeBitParallelLcs(shorter, longer, buffers.masks);
+    }
+    return computeTableLcs(shorter, longer, buffers);
+  }
 
-    for (int index = 1; index < wordLengthToMatch; index++) {
-	if (wordForMatch.get(0).equals(wordToMatch.get(index))) {
-        table[0][index] = 1;
-      } else {
-        table[0][index] = table[0][index - 1];
-      }
+  /**
+   * Computes longest common string with one bit per byte of the shorter word (Hyyro, 2004). The zero bits
+   * of the row vector mark the positions where the length of the longest common string increases.
+   * @param shorter                   bytes of the shorter word, at most 64
+   * @param longer                    bytes of the longer word
+   * @param masks                     positions of each byte value in the shorter word, all zero
+   * @return                          length of longest common string
+   */
+  private static int computeBitParallelLcs(byte[] shorter, byte[] longer, long[] masks) {
+    for (int index = 0; index < shorter.length; index++) {
+      masks[shorter[index] & 0xff] |= 1L << index;
+    }
+    long row = -1L;
+    for (int index = 0; index < longer.length; index++) {
+      long matches = row & masks[longer[index] & 0xff];
+      row = (row + matches) | (row - matches);
     }
+    for (int index = 0; index < shorter.length; index++) {
+      masks[shorter[index] & 0xff] = 0L;
+    }
+    long used = shorter.length == BIT_PARALLEL_LENGTH ? -1L : (1L << shorter.length) - 1;
+    return bitCount(~row & used);
+  }
 
-    for (int outerIndex = 1; outerIndex < wordLengthForMatch; outerIndex++) {
-      for (int innerIndex = 1; innerIndex < wordLengthToMatch; innerIndex++) {
-	  if (wordForMatch.get(outerIndex).equals(wordToMatch.get(innerIndex))) {
-          table[outerIndex][innerIndex] = table[outerIndex - 1][innerIndex - 1] + 1;
+  private static int bitCount(long bits) {
+    bits = bits - ((bits >>> 1) & 0x5555555555555555L);
+    bits = (bits & 0x3333333333333333L) + ((bits >>> 2) & 0x3333333333333333L);
+    bits = (bits + (bits >>> 4)) & 0x0f0f0f0f0f0f0f0fL;
+    return (int)((bits * 0x0101010101010101L) >>> 56);
+  }
+
+  /**
+   * Computes longest common string with the dynamic programming table, keeping two rows.
+   */
+  private static int computeTableLcs(byte[] shorter, byte[] longer, Scratch buffers) {
+    if (buffers.previousRow.length <= shorter.length) {
+      buffers.previousRow = new int[shorter.length + 1];
+      buffers.currentRow = new int[shorter.length + 1];
+    }
+    int[] previousRow = buffers.previousRow;
+    int[] currentRow = buffers.currentRow;
+    for (int index = 0; index <= shorter.length; index++) {
+      previousRow[index] = 0;
+    }
+    currentRow[0] = 0;
+    for (int outerIndex = 0; outerIndex < longer.length; outerIndex++) {
+      byte outerByte = longer[outerIndex];
+      for (int innerIndex = 0; innerIndex < shorter.length; innerIndex++) {
+        if (outerByte == shorter[innerIndex]) {
+          currentRow[innerIndex + 1] = previousRow[innerIndex] + 1;
+        } else if (currentRow[innerIndex] > previousRow[innerIndex + 1]) {
+          currentRow[innerIndex + 1] = currentRow[innerIndex];
         } else {
-          if (table[outerIndex][innerIndex - 1] > table[outerIndex -1][innerIndex]) {
-            table[outerIndex][innerIndex] = table[outerIndex][innerIndex - 1];
-          } else {
-            table[outerIndex][innerIndex] = table[outerIndex -1][innerIndex];
-          }
+          currentRow[innerIndex + 1] = previousRow[innerIndex + 1];
         }
       }
+      int[] row = previousRow;
+      previousRow = currentRow;
+      currentRow = row;
     }
-
-    return table[wordLengthForMatch - 1][wordLengthToMatch - 1];
+    return previousRow[shorter.length];
   }
 
+  /**
+   * Scratch buffers and match cache of a thread.
+   */
+  private static class Scratch {
+    static final byte UNKNOWN = 0;
+    static final byte MATCH = 1;
+    static final byte NO_MATCH = 2;
+
+    long[] masks = new long[256];
+    int[] previousRow = new int[0];
+    int[] currentRow = new int[0];
+    long[] memoKeys = new long[MEMO_SIZE];
+    byte[] memoValues = new byte[MEMO_SIZE];
+    int memoCount = 0;
+
+    /**
+     * Finds the slot of a word pair in the match cache, or the empty slot for it.
+     */
+    int findMemo(long key) {
+      long hash = key * 0x9e3779b97f4a7c15L;
+      int slot = (int)(hash >>> 48) & (MEMO_SIZE - 1);
+      while (memoValues[slot] != UNKNOWN && memoKeys[slot] != key) {
+        slot = (slot + 1) & (MEMO_SIZE - 1);
+      }
+      return slot;
+    }
+
+    /**
+     * Puts a word pair in the empty slot of the match cache. The cache is emptied when it is 3/4 full.
+     */
+    void putMemo(int slot, long key, boolean match) {
+      if (memoCount >= MEMO_SIZE / 4 * 3) {
+        Arrays.fill(memoValues, UNKNOWN);
+        memoCount = 0;
+        slot = findMemo(key);
+      }
+      memoKeys[slot] = key;
+      memoValues[slot] = match ? MATCH : NO_MATCH;
+      memoCount++;
+    }
+  }
 }
@@ -0,0 +1,142 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: MatchIndex maps the keys of an IndexedMatchingPredicate to the axis ticks of one axis
+ * of the search rectangle. The ticks are identified by sequence numbers, which increase in the order
+ * in which the ticks are added; the ticks are removed from the lowest sequence number on when the
+ * search rectangle is reduced.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import java.util.Arrays;
+
+class MatchIndex {
+
+  private int[] keys = new int[64];         //keys of the hash table
+  private int[][] sequences = new int[64][]; //sequence numbers of the ticks of each key, null if no key
+  private int[] starts = new int[64];        //start of the sequence numbers in the rectangle
+  private int[] ends = new int[64];          //end of the sequence numbers
+  private int keyCount = 0;                  //number of keys
+  private int[] candidates = new int[64];    //sequence numbers found by the last search
+
+  /**
+   * Adds an axis tick.
+   * @param tickKeys              index keys of the axis tick
+   * @param sequence              sequence number of the axis tick
+   */
+  public void add(int[] tickKeys, int sequence) {
+    for (int index = 0; index < tickKeys.length; index++) {
+      int slot = findSlot(tickKeys[index]);
+      if (sequences[slot] == null) {
+        if (2 * (keyCount + 1) > keys.length) {
+          rehash();
+          slot = findSlot(tickKeys[index]);
+        }
+        keys[slot] = tickKeys[index];
+        sequences[slot] = new int[4];
+        keyCount++;
+      }
+      int[] tickSequences = sequences[slot];
+      int end = ends[slot];
+      if (end > 0 && tickSequences[end - 1] == sequence) {
+        continue;
+      }
+      if (end == tickSequences.length) {
+        int start = starts[slot];
+        if (start > end / 2) {
+          System.arraycopy(tickSequences, start, tickSequences, 0, end - start);
+          end -= start;
+          starts[slot] = 0;
+        } else {
+          int[] newSequences = new int[2 * tickSequences.length];
+          System.arraycopy(tickSequences, 0, newSequences, 0, end);
+          tickSequences = newSequences;
+          sequences[slot] = tickSequences;
+        }
+      }
+      tickSequences[end] = sequence;
+      ends[slot] = end + 1;
+    }
+  }
+
+  /**
+   * Finds the axis ticks that share a key with a set of query keys.
+   * @param queryKeys             query keys
+   * @param firstSequence         sequence number of the first axis tick of the search rectangle
+   * @return                      number of axis ticks found, see getCandidates()
+   */
+  public int findCandidates(int[] queryKeys, int firstSequence) {
+    int count = 0;
+    for (int index = 0; index < queryKeys.length; index++) {
+      int slot = findSlot(queryKeys[index]);
+      int[] tickSequences = sequences[slot];
+      if (tickSequences == null) {
+        continue;
+      }
+      int start = starts[slot];
+      int end = ends[slot];
+      while (start < end && tickSequences[start] < firstSequence) {
+        start++;
+      }
+      starts[slot] = start;
+      if (count + end - start > candidates.length) {
+        int[] newCandidates = new int[Math.max(2 * candidates.length, count + end - start)];
+        System.arraycopy(candidates, 0, newCandidates, 0, count);
+        candidates = newCandidates;
+      }
+      System.arraycopy(tickSequences, start, candidates, count, end - start);
+      count += end - start;
+    }
+    if (queryKeys.length > 1) {
+      Arrays.sort(candidates, 0, count);
+      int uniqueCount = 0;
+      for (int index = 0; index < count; index++) {
+        if (uniqueCount == 0 || candidates[index] != candidates[uniqueCount - 1]) {
+          candidates[uniqueCount++] = candidates[index];
+        }
+      }
+      count = uniqueCount;
+    }
+    return count;
+  }
+
+  /**
+   * Gets the sequence numbers found by the last search, in increasing order.
+   * @return                      sequence numbers
+   */
+  public int[] getCandidates() {
+    return candidates;
+  }
+
+  private int findSlot(int key) {
+    int mask = keys.length - 1;
+    int hash = key * 0x9e3779b9;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (sequences[slot] != null && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    int[] oldKeys = keys;
+    int[][] oldSequences = sequences;
+    int[] oldStarts = starts;
+    int[] oldEnds = ends;
+    keys = new int[2 * oldKeys.length];
+    sequences = new int[2 * oldKeys.length][];
+    starts = new int[2 * oldKeys.length];
+    ends = new int[2 * oldKeys.length];
+    for (int index = 0; index < oldKeys.length; index++) {
+      if (oldSequences[index] != null) {
+        int slot = findSlot(oldKeys[index]);
+        keys[slot] = oldKeys[index];
+        sequences[slot] = oldSequences[index];
+        starts[slot] = oldStarts[index];
+        ends[slot] = oldEnds[index];
+      }
+    }
+  }
+}
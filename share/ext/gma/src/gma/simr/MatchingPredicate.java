@@ -8,8 +8,9 @@ package gma.simr;
  * @author Luke Shen
  */
 
+import gma.util.Word;
+
 import java.util.Properties;
-import java.util.List;
 
 abstract interface MatchingPredicate {
   /**
@@ -25,5 +26,5 @@ abstract interface MatchingPredicate {
    * @return                      true if two words match
    */
   
-  public boolean isMatch(List wordForMatch, List wordToMatch, boolean isXAxis);
+  public boolean isMatch(Word wordForMatch, Word wordToMatch, boolean isXAxis);
 }
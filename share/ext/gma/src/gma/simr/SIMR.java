@@ -13,6 +13,7 @@ import gma.BitextSpace;
 import gma.MapPoint;
 import gma.util.InputFileHandler;
 import gma.util.OutputFileHandler;
+import gma.util.Word;
 
 import java.io.BufferedInputStream;
 import java.io.InputStreamReader;
@@ -48,6 +49,9 @@ public class SIMR {
   public static final String Y_AXIS_FILE = "yAxisFile";
   public static final String OUTPUT_FILE = "outputFile";
   public static final String DEF_OUT = "/tmp/temp.simr";
+  public static final String REGION_THREADS = "regionThreads";
+  public static final String MINIMUM_REGION_SIZE = "minimumRegionSize";
+  private static final int DEFAULT_MINIMUM_REGION_SIZE = 5000;
   
   public boolean debug  = false;
   public String level  = "1"; // some output by default 
@@ -55,6 +59,7 @@ public class SIMR {
   private Properties properties = new Properties(); //properties
 
   private BitextSpace bitextSpace = null; //bitext space
+  private BitextRegion region = null;     //region of the bitext space to search
 
   private boolean isDone = false; //true when finish searching the whole bitext space
   
@@ -81,6 +86,18 @@ public class SIMR {
     verbose = new Integer(level);
   }
 
+  /**
+   * Constructor for the search of a region of a bitext space.
+   * @param properties            properties
+   * @param bitextSpace           bitext space with generated axes
+   * @param region                region to search
+   */
+  private SIMR(Properties properties, BitextSpace bitextSpace, BitextRegion region) {
+    this(properties);
+    this.bitextSpace = bitextSpace;
+    this.region = region;
+  }
+
   /**
    * Prints command usage.
    */
@@ -203,9 +220,32 @@ public class SIMR {
    */
   public SortedSet generateBitextCorrespondence() {
     bitextSpace = new BitextSpace(properties);
-    /** @todo load anchor file */
     bitextSpace.generateAxes(); /* reading in the axis files */
+    boolean hasSlope = properties.getProperty(MappingChain.SLOPE) != null;
     bitextSpace.updateSlopeProperty();
+
+    int regionThreads = Integer.parseInt(properties.getProperty(REGION_THREADS, "1"));
+    if (regionThreads > 1) {
+      int minimumRegionSize = DEFAULT_MINIMUM_REGION_SIZE;
+      if (properties.containsKey(MINIMUM_REGION_SIZE)) {
+        minimumRegionSize = Integer.parseInt(properties.getProperty(MINIMUM_REGION_SIZE));
+      }
+      List regions = BitextRegion.partition(bitextSpace, bitextSpace.getAnchors(), minimumRegionSize);
+      if (regions.size() > 1) {
+        return generateRegionCorrespondence(regions, regionThreads, hasSlope);
+      }
+    }
+
+    region = new BitextRegion(0, bitextSpace.getAxisSize(true), 0, bitextSpace.getAxisSize(false),
+                              Double.parseDouble(properties.getProperty(MappingChain.SLOPE)));
+    return searchRegion();
+  }
+
+  /**
+   * Generates bitext correspondence of the region.
+   * @return                  sortedset of bitext correspondence
+   */
+  private SortedSet searchRegion() {
     SortedSet mappingChains = generateMappingChains();
     // the printChain method will write the chains as they are before
     // disambiguation to a file named [simr output file].debug
@@ -215,6 +255,86 @@ public class SIMR {
     /** @todo extra pass for those gaps caused by inversed mapping */
   }
 
+  /**
+   * Generates bitext correspondence by searching the regions of the bitext space on several threads.
+   * The map points of the regions are joined; no mapping chain crosses the border of two regions.
+   * @param regions                 list of regions, sorted by axis position
+   * @param regionThreads           number of threads
+   * @param hasSlope                true if the slope is a property, false to use the slope of each region
+   * @return                        sortedset of bitext correspondence
+   */
+  private SortedSet generateRegionCorrespondence(List regions, int regionThreads, boolean hasSlope) {
+    if (verbose.intValue() >= 1 ) {
+      System.err.println("Searching " + regions.size() + " regions on " + Math.min(regionThreads, regions.size()) + " threads");
+    }
+    RegionSearch search = new RegionSearch(regions, hasSlope);
+    Thread[] threads = new Thread[Math.min(regionThreads, regions.size())];
+    for (int index = 0; index < threads.length; index++) {
+      threads[index] = new Thread(search, "simr-region-" + index);
+      threads[index].start();
+    }
+    for (int index = 0; index < threads.length; index++) {
+      try {
+        threads[index].join();
+      } catch (InterruptedException e) {
+        e.printStackTrace();
+        System.exit(1);
+      }
+    }
+
+    SortedSet mapPoints = new TreeSet();
+    for (int index = 0; index < regions.size(); index++) {
+      mapPoints.addAll(search.regionMapPoints[index]);
+    }
+    return mapPoints;
+  }
+
+  /**
+   * RegionSearch hands out the regions of the bitext space to the threads, one region at a time.
+   */
+  private class RegionSearch implements Runnable {
+
+    private List regions;                //regions to search
+    private boolean hasSlope;            //true if the slope is a property
+    private int nextRegion = 0;          //index of the next region to search
+    private SortedSet[] regionMapPoints; //map points of each region
+
+    RegionSearch(List regions, boolean hasSlope) {
+      this.regions = regions;
+      this.hasSlope = hasSlope;
+      regionMapPoints = new SortedSet[regions.size()];
+    }
+
+    private synchronized int takeRegion() {
+      return nextRegion < regions.size() ? nextRegion++ : -1;
+    }
+
+    public void run() {
+      try {
+        for (int index = takeRegion(); index != -1; index = takeRegion()) {
+          BitextRegion bitextRegion = (BitextRegion)regions.get(index);
+          Properties regionProperties = new Properties();
+          regionProperties.putAll(properties);
+          if (!hasSlope) {
+            regionProperties.put(MappingChain.SLOPE, String.valueOf(bitextRegion.getSlope()));
+          }
+          regionMapPoints[index] = new SIMR(regionProperties, bitextSpace, bitextRegion).searchRegion();
+        }
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+        System.exit(1);
+      }
+    }
+  }
+
+  /**
+   * Gets the bitext space of the last generated bitext correspondence.
+   * @return                  bitext space, null before generateBitextCorrespondence()
+   */
+  public BitextSpace getBitextSpace() {
+    return bitextSpace;
+  }
+
   /**
    * Prints out a list of chains for debugging purposes
    * @param mappingChains            sorted set of map points of bitext correspondence
@@ -255,9 +375,9 @@ public class SIMR {
     SortedSet mappingChains = new TreeSet();
     SearchRectangle searchRectangle = new SearchRectangle(properties);
 
-    searchRectangle.expandSearchRectangle(bitextSpace.getAxisTick(0, true), true); //expand xAxis
+    searchRectangle.expandSearchRectangle(bitextSpace.getAxisTick(region.getStart(true), true), true); //expand xAxis
 
-    searchRectangle.expandSearchRectangle(bitextSpace.getAxisTick(0, false), false); //expand yAxis
+    searchRectangle.expandSearchRectangle(bitextSpace.getAxisTick(region.getStart(false), false), false); //expand yAxis
 
     while (!isDone) {
       MappingChain mappingChain = searchMappingChains(searchRectangle);
@@ -279,17 +399,14 @@ public class SIMR {
    * @return                                mapping chain
    */
   private MappingChain searchMappingChains(SearchRectangle searchRectangle) {
-      AxisTick xTick = searchRectangle.getBoundaryAxisTick(true, false);
-      AxisTick yTick = searchRectangle.getBoundaryAxisTick(false, false);
-      int xoffset = searchRectangle.getNumInstances(true, xTick);
-      int yoffset = searchRectangle.getNumInstances(false, yTick);
-
-
-    Iterator xTickIterator = bitextSpace.getAxisIterator(searchRectangle.getBoundaryAxisTick(true, false), true, xoffset-1);
-    Iterator yTickIterator = bitextSpace.getAxisIterator(searchRectangle.getBoundaryAxisTick(false, false), false, yoffset-1);
+    //continue after the last axis ticks of the search rectangle
+    int xIndex = searchRectangle.getBoundaryAxisTick(true, false).getAxisIndex() + 1;
+    int yIndex = searchRectangle.getBoundaryAxisTick(false, false).getAxisIndex() + 1;
+    int xSize = region.getEnd(true);
+    int ySize = region.getEnd(false);
 
     boolean first = true;
-    while (xTickIterator.hasNext()) {
+    while (xIndex < xSize) {
       if (first || searchRectangle.hasNewPoint()) {
 	  first = false;
 	  if (searchRectangle.hasMappingChain()) {
@@ -297,10 +414,10 @@ public class SIMR {
 	  }
 
       }
-      searchRectangle.expandSearchRectangle((AxisTick)xTickIterator.next(), true);
-      while (yTickIterator.hasNext()) {
+      searchRectangle.expandSearchRectangle(bitextSpace.getAxisTick(xIndex++, true), true);
+      while (yIndex < ySize) {
         if (searchRectangle.canExpandYAxis()) {
-	    searchRectangle.expandSearchRectangle((AxisTick)yTickIterator.next(), false);
+	    searchRectangle.expandSearchRectangle(bitextSpace.getAxisTick(yIndex++, false), false);
         } else {
           break;
         }
@@ -455,6 +572,10 @@ public class SIMR {
    * @param bestPoints            sorted set of map points of bitext correspondence
    */ 
   public String getTerminus(SortedSet bestPoints){
+    if (bitextSpace != null) {
+      // the axes are loaded, no need to read the axis files again
+      return bitextSpace.getAxis(true).getEndPosition() + " " + bitextSpace.getAxis(false).getEndPosition();
+    }
     InputFileHandler xInput = new InputFileHandler(properties.getProperty(X_AXIS_FILE));
     String xLastLine = "null";
     while (xInput.hasLine()) {
@@ -481,30 +602,54 @@ public class SIMR {
     return terminus;
   }
   /**
-   * Prints out map points of bitext correspondence.
+   * Gets the bitext map, i.e., the map points of bitext correspondence from the origin to the terminus
+   * of the bitext space, as printed by printMapPoints.
    * @param bestPoints            sorted set of map points of bitext correspondence
+   * @return                      list of map points
    */
-  public void printMapPoints(SortedSet bestPoints) {
-    OutputFileHandler out = new OutputFileHandler(properties.getProperty(SIMR + "." + OUTPUT_FILE));
-    Iterator iterator = bestPoints.iterator();
-    out.write ("0.0 0.0\n");
+  public List getBitextMap(SortedSet bestPoints) {
+    List bitextMap = new ArrayList();
+    bitextMap.add(createMapPoint("0.0 0.0"));
     String lastLine = getTerminus(bestPoints);
+    Iterator iterator = bestPoints.iterator();
     if (iterator.hasNext()) {
-	String first = (((MapPoint)iterator.next()).toString());
-	if (!(first.equals("0.0 0.0"))) {
-	    out.write(first + "\n");
+	MapPoint first = (MapPoint)iterator.next();
+	if (!(first.toString().equals("0.0 0.0"))) {
+	    bitextMap.add(first);
 	}
 	while (iterator.hasNext()) {
-	    out.write(((MapPoint)iterator.next()).toString() + "\n");
+	    bitextMap.add(iterator.next());
 	}
 	MapPoint mp = (MapPoint)bestPoints.last();
 	// they are equal
 	if (!(lastLine.equals(mp.toString())) ) {
-	    out.write(lastLine);
-	    out.write("\n");
+	    bitextMap.add(createMapPoint(lastLine));
 	}
     } else {
-	out.write(lastLine + "\n");
+	bitextMap.add(createMapPoint(lastLine));
+    }
+    return bitextMap;
+  }
+
+  /**
+   * Creates a map point from its string representation.
+   */
+  private MapPoint createMapPoint(String line) {
+    StringTokenizer st = new StringTokenizer(line);
+    AxisTick xAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), (Word)null);
+    AxisTick yAxisTick = new AxisTick(-1, Float.parseFloat(st.nextToken()), (Word)null);
+    return new MapPoint(xAxisTick, yAxisTick);
+  }
+
+  /**
+   * Prints out map points of bitext correspondence.
+   * @param bestPoints            sorted set of map points of bitext correspondence
+   */
+  public void printMapPoints(SortedSet bestPoints) {
+    OutputFileHandler out = new OutputFileHandler(properties.getProperty(SIMR + "." + OUTPUT_FILE));
+    Iterator iterator = getBitextMap(bestPoints).iterator();
+    while (iterator.hasNext()) {
+	out.write(((MapPoint)iterator.next()).toString() + "\n");
     }
     out.close();
     // Now also write to stdout if no output file was specified
@@ -11,10 +11,10 @@ package gma.simr;
 
 import gma.AxisTick;
 import gma.MapPoint;
-import gma.util.ByteParser;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +55,13 @@ public class SearchRectangle {
 
   private Properties properties = null; //properties
   private MatchingPredicate matching = null;  //matching predicate
+  private IndexedMatchingPredicate indexedMatching = null; //matching predicate with match index, or null
+
+  private MatchIndex xMatchIndex = new MatchIndex();  //match index of x axis ticks
+  private MatchIndex yMatchIndex = new MatchIndex();  //match index of y axis ticks
+  private int xReducedTicks = 0;  //number of x axis ticks removed by reduction, i.e., sequence number of the first tick
+  private int yReducedTicks = 0;  //number of y axis ticks removed by reduction
+  private Set mapPointPositions = new HashSet(); //positions of the map points, to find duplicate map points
 
   
   /**
@@ -71,6 +78,9 @@ public class SearchRectangle {
       matching = (MatchingPredicate)matchingObject;
       
       matching.setProperties(properties);
+      if (matching instanceof IndexedMatchingPredicate) {
+        indexedMatching = (IndexedMatchingPredicate)matching;
+      }
 
     } catch (ClassNotFoundException e) {
       e.printStackTrace();
@@ -106,10 +116,16 @@ public class SearchRectangle {
     // true if this is the XAxis 
     if (isXAxis) {
       xAxisTicks.add(axisTick);
+      if (indexedMatching != null) {
+        xMatchIndex.add(indexedMatching.getIndexKeys(axisTick.getWord(), true), xReducedTicks + xAxisTicks.size() - 1);
+      }
       matchPoints(yAxisTicks, axisTick, false);
 
     } else {
       yAxisTicks.add(axisTick);
+      if (indexedMatching != null) {
+        yMatchIndex.add(indexedMatching.getIndexKeys(axisTick.getWord(), false), yReducedTicks + yAxisTicks.size() - 1);
+      }
       matchPoints(xAxisTicks, axisTick, true);
     }
 
@@ -139,10 +155,10 @@ public class SearchRectangle {
   private void reduceAxisTicks(boolean isXAxis) {
     if (isXAxis) {
       AxisTick minAxisTick = bestChain.getEndMapPoint(true, true).getXAxisTick();
-      doReduceAxisTicks(xAxisTicks, minAxisTick);
+      xReducedTicks += doReduceAxisTicks(xAxisTicks, minAxisTick);
     } else {
       AxisTick minAxisTick = bestChain.getEndMapPoint(false, true).getYAxisTick();
-      doReduceAxisTicks(yAxisTicks, minAxisTick);
+      yReducedTicks += doReduceAxisTicks(yAxisTicks, minAxisTick);
     }
   }
 
@@ -150,17 +166,15 @@ public class SearchRectangle {
    * Does reduce axis ticks.
    * @param axisTicks                     list of axis ticks to be reduced
    * @param minAxisTick                   threshold for axis tick reduction
+   * @return                              number of removed axis ticks
    */
-  private void doReduceAxisTicks(List axisTicks, AxisTick minAxisTick) {
-    Iterator iterator = axisTicks.iterator();
-    while (iterator.hasNext()) {
-      AxisTick axisTick = (AxisTick)iterator.next();
-      if (axisTick.isMaxAxisTick(minAxisTick) != 1) {
-        iterator.remove();
-      } else {
-        break;
-      }
+  private int doReduceAxisTicks(List axisTicks, AxisTick minAxisTick) {
+    int count = 0;
+    while (count < axisTicks.size() && ((AxisTick)axisTicks.get(count)).isMaxAxisTick(minAxisTick) != 1) {
+      count++;
     }
+    axisTicks.subList(0, count).clear();
+    return count;
   }
 
   /**
@@ -176,37 +190,13 @@ public class SearchRectangle {
       if (mapPoint.getXAxisTick().isMaxAxisTick(minXAxisTick) != 1 ||
             mapPoint.getYAxisTick().isMaxAxisTick(minYAxisTick) != 1) {
         iterator.remove();
+        mapPointPositions.remove(getPositionKey(mapPoint));
         updateAmbiguityCounters(mapPoint, false);
       }
     }
   }
 
 
-  /**
-   * Gets the number of instances the axis tick has in the search rectangle.
-   * @param isXAxis                       true if x axis boundary
-   * @param axisTick                      axis tick to look for
-   * @return                              number of instances
-   */
-   public int getNumInstances(boolean isXAxis, AxisTick axisTick) {
-       int count = 0;
-     if (isXAxis) {
-	 Iterator xTicks = xAxisTicks.iterator();
-	 while (xTicks.hasNext()) {
-	     if (((AxisTick)xTicks.next()).equals(axisTick)) {
-		 count = count +1;
-	     }
-	 }
-     } else {
-	 Iterator yTicks = yAxisTicks.iterator();
-	 while (yTicks.hasNext()) {
-	     if (((AxisTick)yTicks.next()).equals(axisTick)) {
-		 count = count +1;
-	     }
-	 }
-     }
-     return count;
-   }
   /**
    * Gets axis tick on the boundary of the search rectangle.
    * @param isXAxis                       true if x axis boundary
@@ -242,7 +232,8 @@ public class SearchRectangle {
 
 
   /**
-   * Matches points.
+   * Matches points. With a match index, only the axis ticks that share a key with the axis tick are tested,
+   * in the order of the list.
    * @param axisTicks                 list of axis ticks
    * @param axisTick                  axis tick
    * @param listIsXAxis               true if the list is for x axis ticks
@@ -250,17 +241,36 @@ public class SearchRectangle {
   private void matchPoints(List axisTicks, AxisTick axisTick, boolean listIsXAxis) {
       //  axisTick is the new element in the direction we are expanding
       //  it will be compared to all elements in axisTicks for matches
-    Iterator iterator = axisTicks.iterator();
-    
-    while (iterator.hasNext()) {
-	
-      AxisTick tick = (AxisTick)iterator.next();
+    int[] queryKeys = null;
+    if (indexedMatching != null) {
+      queryKeys = indexedMatching.getQueryKeys(axisTick.getWord(), !listIsXAxis);
+    }
+    if (queryKeys == null) {
+      for (int index = 0; index < axisTicks.size(); index++) {
+        matchPoint((AxisTick)axisTicks.get(index), axisTick, listIsXAxis);
+      }
+      return;
+    }
+
+    MatchIndex matchIndex = listIsXAxis ? xMatchIndex : yMatchIndex;
+    int firstSequence = listIsXAxis ? xReducedTicks : yReducedTicks;
+    int count = matchIndex.findCandidates(queryKeys, firstSequence);
+    int[] candidates = matchIndex.getCandidates();
+    for (int index = 0; index < count; index++) {
+      matchPoint((AxisTick)axisTicks.get(candidates[index] - firstSequence), axisTick, listIsXAxis);
+    }
+  }
+
+  /**
+   * Adds the map point of two axis ticks if their words match.
+   * @param tick                      axis tick of the list
+   * @param axisTick                  new axis tick
+   * @param listIsXAxis               true if the list is for x axis ticks
+   */
+  private void matchPoint(AxisTick tick, AxisTick axisTick, boolean listIsXAxis) {
       //do these two words match?
       if (matching.isMatch(axisTick.getWord(), tick.getWord(), listIsXAxis)) {
 
-	ByteParser bp1 = new ByteParser(axisTick.getWord());
-	ByteParser bp2 = new ByteParser(tick.getWord());
-
         MapPoint mapPoint;
         if (listIsXAxis) {
           mapPoint = new MapPoint(tick, axisTick);
@@ -269,18 +279,8 @@ public class SearchRectangle {
         }
        
         mapPoint.computeDisplacement(defaultSlope);
-	boolean dup = false;
-	Iterator iteratorTmp = mapPoints.iterator();
-	while (iteratorTmp.hasNext()) {
-	    MapPoint mapPointTmp = (MapPoint)iteratorTmp.next();
-	    if (mapPoint.getXAxisTick().equals(mapPointTmp.getXAxisTick()) &&
-		mapPoint.getYAxisTick().equals(mapPointTmp.getYAxisTick())) {
-		// this exact map point has already been added
-		dup = true;
-		break;
-	    }
-	}
-	if (dup == false) {
+	// skip the map point if this exact map point has already been added
+	if (mapPointPositions.add(getPositionKey(mapPoint))) {
 	    mapPoints.add(mapPoint);
 	    int ambiguityCounter = getAmbiguityCounters(mapPoint);
 	    updateAmbiguityCounters(mapPoint, true);
@@ -290,7 +290,18 @@ public class SearchRectangle {
 	}
 	
       }
-    }
+  }
+
+  /**
+   * Gets the positions of a map point as a key. Map points are equal if their positions are equal.
+   * @param mapPoint              map point
+   * @return                      positions of the map point
+   */
+  private static Long getPositionKey(MapPoint mapPoint) {
+    // adding 0 turns -0.0 to 0.0, which are equal positions
+    long xPosition = Float.floatToIntBits(mapPoint.getXAxisTick().getPosition() + 0.0f);
+    long yPosition = Float.floatToIntBits(mapPoint.getYAxisTick().getPosition() + 0.0f);
+    return new Long((xPosition << 32) | (yPosition & 0xffffffffL));
   }
 		
 		
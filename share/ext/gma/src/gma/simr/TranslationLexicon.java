@@ -0,0 +1,295 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: TranslationLexicon is a set of word pairs in the binary lexicon format, which is either
+ * memory-mapped from a file written by TranslationLexiconBuilder or built in memory from a text lexicon.
+ * The translations of each source word are a sorted range of an int array, so that looking up a word pair
+ * is a binary search in the range. The words of the lexicon are sorted by their bytes and found by a binary
+ * search as well, so a lexicon does not depend on the vocabulary and is shared by the bitexts of a process;
+ * the lexicon indexes of the words of a bitext are looked up once by BitextLexicon.
+ * The format has no hash table of the words, which would take more space than the text lexicon; looking up
+ * a word takes about log2(word count) comparisons instead.</p>
+ * <p>The binary format consists of big-endian ints and, at the end, the bytes of the words:
+ * <pre>
+ *   header           MAGIC, VERSION, word count, pair count, number of word bytes
+ *   word offsets     word count + 1 offsets of the words in the word bytes
+ *   source offsets   word count + 1 offsets of the translations of the words in the translations
+ *   translations     pair count word indexes, sorted for each source word
+ *   targets          bitmap of the words that are translations
+ *   word bytes       bytes of the words, sorted as unsigned bytes (WORD_ORDER)
+ * </pre></p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.Word;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TranslationLexicon {
+
+  public static final int MAGIC = 0x474d4c58; // "GMLX"
+  public static final int VERSION = 2;
+  static final int HEADER_SIZE = 5; //number of ints of the header
+
+  /**
+   * Order of the words of the binary format: by their bytes as unsigned numbers, a prefix first.
+   */
+  static final Comparator WORD_ORDER = new Comparator() {
+    public int compare(Object object1, Object object2) {
+      Word word1 = (Word)object1;
+      Word word2 = (Word)object2;
+      int length = Math.min(word1.length(), word2.length());
+      for (int offset = 0; offset < length; offset++) {
+        int difference = (word1.byteAt(offset) & 0xff) - (word2.byteAt(offset) & 0xff);
+        if (difference != 0) {
+          return difference;
+        }
+      }
+      return word1.length() - word2.length();
+    }
+  };
+
+  private static final Map loadedLexicons = new HashMap(); //lexicons loaded by this process, by file, date and stop words
+
+  private final ByteBuffer image;  //lexicon in the binary format
+  private final int wordCount;     //number of words
+  private final int pairCount;     //number of word pairs
+  private final int wordOffsetBase;        //positions of the sections in the image
+  private final int sourceOffsetBase;
+  private final int translationBase;
+  private final int targetBase;
+  private final int byteBase;
+
+  /**
+   * Constructor.
+   * @param image                 lexicon in the binary format
+   * @throws IOException          if the image is not in the binary format
+   */
+  TranslationLexicon(ByteBuffer image) throws IOException {
+    this.image = image;
+    if (image.limit() < 4 * HEADER_SIZE || image.getInt(0) != MAGIC) {
+      throw new IOException("The translation lexicon is not in the binary format.");
+    }
+    if (image.getInt(4) != VERSION) {
+      throw new IOException("The binary translation lexicon has version " + image.getInt(4)
+                            + ", expected version " + VERSION + "; rebuild it with TranslationLexiconBuilder.");
+    }
+    wordCount = image.getInt(8);
+    pairCount = image.getInt(12);
+    int byteCount = image.getInt(16);
+    wordOffsetBase = 4 * HEADER_SIZE;
+    sourceOffsetBase = wordOffsetBase + 4 * (wordCount + 1);
+    translationBase = sourceOffsetBase + 4 * (wordCount + 1);
+    targetBase = translationBase + 4 * pairCount;
+    byteBase = targetBase + 4 * ((wordCount + 31) >>> 5);
+    if (byteBase + (long)byteCount != image.limit()) {
+      throw new IOException("The binary translation lexicon is truncated.");
+    }
+  }
+
+  /**
+   * Gets the lexicon index of a word. The matching predicates look up the words of a bitext once,
+   * see BitextLexicon, and use the lexicon indexes from then on.
+   * @param word                  word
+   * @return                      lexicon index, or -1 if the word is not in the lexicon
+   */
+  public int getLexiconIndex(Word word) {
+    return find(word);
+  }
+
+  /**
+   * Checks whether a word has translations.
+   * @param source                lexicon index of the source word, or -1
+   * @return                      true if the word has translations
+   */
+  public boolean hasTranslations(int source) {
+    return source >= 0 && translationStart(source) < translationStart(source + 1);
+  }
+
+  /**
+   * Checks whether a word is a translation.
+   * @param target                lexicon index of the target word, or -1
+   * @return                      true if the word is the translation of some word
+   */
+  public boolean isTarget(int target) {
+    return target >= 0 && (image.getInt(targetBase + 4 * (target >>> 5)) & (1 << (target & 31))) != 0;
+  }
+
+  /**
+   * Checks whether a word pair is in the lexicon.
+   * @param source                lexicon index of the source word, or -1
+   * @param target                lexicon index of the target word, or -1
+   * @return                      true if the target word is a translation of the source word
+   */
+  public boolean contains(int source, int target) {
+    if (source < 0 || target < 0) {
+      return false;
+    }
+    int low = translationStart(source);
+    int high = translationStart(source + 1) - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int translation = image.getInt(translationBase + 4 * middle);
+      if (translation < target) {
+        low = middle + 1;
+      } else if (translation > target) {
+        high = middle - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Gets the lexicon indexes of the translations of a word, which are the match keys of a source word.
+   * @param source                lexicon index of the source word, or -1
+   * @return                      lexicon indexes of the translations
+   */
+  public int[] getTranslationIndexes(int source) {
+    if (source < 0) {
+      return new int[0];
+    }
+    int start = translationStart(source);
+    int[] translationIndexes = new int[translationStart(source + 1) - start];
+    for (int index = 0; index < translationIndexes.length; index++) {
+      translationIndexes[index] = image.getInt(translationBase + 4 * (start + index));
+    }
+    return translationIndexes;
+  }
+
+  /**
+   * Gets the number of word pairs.
+   * @return                      number of word pairs
+   */
+  public int size() {
+    return pairCount;
+  }
+
+  private int translationStart(int index) {
+    return image.getInt(sourceOffsetBase + 4 * index);
+  }
+
+  /**
+   * Finds a word by a binary search in the sorted words of the image.
+   * @param word                  word
+   * @return                      lexicon index of the word, or -1 if the word is not in the lexicon
+   */
+  private int find(Word word) {
+    int low = 0;
+    int high = wordCount - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int comparison = compareWord(middle, word);
+      if (comparison < 0) {
+        low = middle + 1;
+      } else if (comparison > 0) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compares a word of the image with a word in WORD_ORDER.
+   */
+  private int compareWord(int index, Word word) {
+    int start = image.getInt(wordOffsetBase + 4 * index);
+    int length = image.getInt(wordOffsetBase + 4 * (index + 1)) - start;
+    int commonLength = Math.min(length, word.length());
+    for (int offset = 0; offset < commonLength; offset++) {
+      int difference = (image.get(byteBase + start + offset) & 0xff) - (word.byteAt(offset) & 0xff);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - word.length();
+  }
+
+  /**
+   * Loads a translation lexicon in binary, serial or text format. A binary lexicon is memory-mapped;
+   * the stop words are applied when it is built. Word pairs with a source word in the x stop words or
+   * a target word in the y stop words are skipped in text format. A lexicon is loaded once per process
+   * and shared by all users, unless the file changes.
+   * @param translationLexiconFile  translation lexicon file
+   * @param xStopWords              word ids of the x stop words
+   * @param yStopWords              word ids of the y stop words
+   * @return                        translation lexicon
+   */
+  public static TranslationLexicon load(String translationLexiconFile, BitSet xStopWords, BitSet yStopWords) {
+    File theFile = new File(translationLexiconFile);
+    if (!theFile.exists()) {
+      System.err.println("File " + theFile.getAbsolutePath() + " does not exist.");
+      System.exit(1);
+    }
+    try {
+      boolean isBinary = isBinary(theFile);
+      List key = Arrays.asList(new Object[] {theFile.getCanonicalPath(), new Long(theFile.lastModified()),
+                                             isBinary ? null : xStopWords, isBinary ? null : yStopWords});
+      synchronized (loadedLexicons) {
+        TranslationLexicon lexicon = (TranslationLexicon)loadedLexicons.get(key);
+        if (lexicon == null) {
+          if (isBinary) {
+            lexicon = map(theFile);
+          } else {
+            TranslationLexiconBuilder builder = new TranslationLexiconBuilder();
+            if (translationLexiconFile.endsWith(".serial")) {
+              builder.readSerial(translationLexiconFile);
+            } else {
+              builder.readText(translationLexiconFile, xStopWords, yStopWords);
+            }
+            lexicon = new TranslationLexicon(builder.build());
+          }
+          loadedLexicons.put(key, lexicon);
+        }
+        return lexicon;
+      }
+    } catch (IOException e) {
+      System.err.println("Binary lexicon not in the right format.");
+      e.printStackTrace();
+      System.exit(1);
+      return null;
+    }
+  }
+
+  private static boolean isBinary(File file) throws IOException {
+    if (file.length() < 4 * HEADER_SIZE) {
+      return false;
+    }
+    DataInputStream input = new DataInputStream(new FileInputStream(file));
+    try {
+      return input.readInt() == MAGIC;
+    } finally {
+      input.close();
+    }
+  }
+
+  /**
+   * Memory-maps a binary lexicon.
+   */
+  private static TranslationLexicon map(File file) throws IOException {
+    RandomAccessFile input = new RandomAccessFile(file, "r");
+    try {
+      FileChannel channel = input.getChannel();
+      return new TranslationLexicon(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } finally {
+      input.close();
+    }
+  }
+}
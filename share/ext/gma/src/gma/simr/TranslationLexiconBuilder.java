@@ -0,0 +1,309 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: TranslationLexiconBuilder reads a translation lexicon in text format, or a lexicon
+ * serialized by older versions of SerializeTralex, and builds the binary lexicon format of
+ * TranslationLexicon. Running it on a large lexicon once saves parsing the text on every GMA run:
+ * <pre>
+ *   java -cp lib/gma.jar gma.simr.TranslationLexiconBuilder -tralex rc/ME.tralex
+ *        -xstop rc/malay.stoplist -ystop rc/english.stoplist -output rc/ME.tralex.bin
+ * </pre>
+ * The stop words are applied when the lexicon is built. GMA recognizes a binary lexicon by its
+ * content, so the translationLexicon property can name the output file under any name.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.ByteInputFileHandler;
+import gma.util.ByteParser;
+import gma.util.Vocabulary;
+import gma.util.Word;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class TranslationLexiconBuilder {
+
+  //constants for command line arguments
+  public static final String DASH = "-";
+  public static final String TRALEX = "tralex";
+  public static final String XSTOP = "xstop";
+  public static final String YSTOP = "ystop";
+  public static final String OUTPUT = "output";
+  public static final String BINARY_SUFFIX = ".bin";
+
+  private Map wordIndexes = new HashMap(); //lexicon index of each word
+  private List words = new ArrayList();    //words by lexicon index
+  private long[] pairs = new long[1024];   //word pairs, source index in the high and target index in the low 32 bits
+  private int pairCount = 0;               //number of word pairs
+
+  /**
+   * Adds a word pair.
+   * @param from                  source word
+   * @param to                    target word
+   */
+  public void add(Word from, Word to) {
+    if (pairCount == pairs.length) {
+      long[] newPairs = new long[pairs.length * 2];
+      System.arraycopy(pairs, 0, newPairs, 0, pairCount);
+      pairs = newPairs;
+    }
+    pairs[pairCount++] = ((long)indexOf(from) << 32) | indexOf(to);
+  }
+
+  private int indexOf(Word word) {
+    Integer index = (Integer)wordIndexes.get(word);
+    if (index == null) {
+      index = new Integer(words.size());
+      wordIndexes.put(word, index);
+      words.add(word);
+    }
+    return index.intValue();
+  }
+
+  /**
+   * Reads a translation lexicon in text format, one "source <> target" pair per line. Word pairs with a
+   * source word in the x stop words or a target word in the y stop words are skipped.
+   * @param translationLexiconFile  translation lexicon file
+   * @param xStopWords              word ids of the x stop words
+   * @param yStopWords              word ids of the y stop words
+   */
+  public void readText(String translationLexiconFile, BitSet xStopWords, BitSet yStopWords) {
+    Vocabulary vocabulary = Vocabulary.getInstance();
+    ByteInputFileHandler input = new ByteInputFileHandler(translationLexiconFile);
+
+    while (input.hasLine()) {
+      ByteParser bParser = new ByteParser(input.getLineBuffer(), input.getLineLength());
+      Word[] pair = bParser.parseDictionaryLine();
+
+      if (pair.length != 2) {
+        System.err.println("The input file is not in the correct translation lexicon format.");
+        input.close();
+        System.exit(1);
+      }
+      //assumes the stopWords are all in the lower case
+      if (vocabulary.contains(xStopWords, pair[0]) || vocabulary.contains(yStopWords, pair[1])) {
+        continue;
+      }
+      add(pair[0], pair[1]);
+    }
+    input.close();
+  }
+
+  /**
+   * Reads a translation lexicon serialized by older versions of SerializeTralex, i.e., the maps of both
+   * directions. Lexicons that are serialized by the oldest versions have lists of bytes instead of
+   * words as keys and translations.
+   * @param translationLexiconFile  translation lexicon file
+   * @throws IOException            if the lexicon cannot be read
+   */
+  public void readSerial(String translationLexiconFile) throws IOException {
+    ObjectInputStream objStream = new ObjectInputStream(new FileInputStream(translationLexiconFile));
+    try {
+      addPairs((Map)objStream.readObject(), false); // non-english keys
+      addPairs((Map)objStream.readObject(), true);  // english keys
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Serialized lexicon not in the right format: " + e.getMessage());
+    } catch (ClassCastException e) {
+      throw new IOException("Serialized lexicon not in the right format: " + e.getMessage());
+    } finally {
+      objStream.close();
+    }
+  }
+
+  private void addPairs(Map lexicon, boolean reversed) {
+    Iterator iterator = lexicon.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry entry = (Map.Entry)iterator.next();
+      Word key = toWord(entry.getKey());
+      Iterator translationIterator = ((List)entry.getValue()).iterator();
+      while (translationIterator.hasNext()) {
+        Word translation = toWord(translationIterator.next());
+        if (reversed) {
+          add(translation, key);
+        } else {
+          add(key, translation);
+        }
+      }
+    }
+  }
+
+  private static Word toWord(Object word) {
+    if (word instanceof Word) {
+      return (Word)word;
+    }
+    return new Word((List)word);
+  }
+
+  /**
+   * Builds the lexicon in the binary format. The words are sorted, so their lexicon indexes change.
+   * @return                      lexicon in the binary format
+   * @throws IOException          if the lexicon is too large for the binary format
+   */
+  public ByteBuffer build() throws IOException {
+    int wordCount = words.size();
+    Word[] sortedWords = (Word[])words.toArray(new Word[wordCount]);
+    Arrays.sort(sortedWords, TranslationLexicon.WORD_ORDER);
+    int[] sortedIndexes = new int[wordCount];
+    for (int index = 0; index < wordCount; index++) {
+      sortedIndexes[indexOf(sortedWords[index])] = index;
+    }
+    for (int index = 0; index < pairCount; index++) {
+      pairs[index] = ((long)sortedIndexes[(int)(pairs[index] >>> 32)] << 32) | sortedIndexes[(int)pairs[index]];
+    }
+    words = new ArrayList(Arrays.asList(sortedWords));
+    for (int index = 0; index < wordCount; index++) {
+      wordIndexes.put(sortedWords[index], new Integer(index));
+    }
+
+    Arrays.sort(pairs, 0, pairCount);
+    int uniquePairCount = 0;
+    for (int index = 0; index < pairCount; index++) {
+      if (index == 0 || pairs[index] != pairs[index - 1]) {
+        pairs[uniquePairCount++] = pairs[index];
+      }
+    }
+    pairCount = uniquePairCount;
+
+    long byteCount = 0;
+    for (int index = 0; index < wordCount; index++) {
+      byteCount += sortedWords[index].length();
+    }
+    long size = 4L * (TranslationLexicon.HEADER_SIZE + 2 * (wordCount + 1) + pairCount
+                      + ((wordCount + 31) >>> 5)) + byteCount;
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("The translation lexicon is too large for the binary format.");
+    }
+
+    ByteBuffer image = ByteBuffer.allocate((int)size);
+    image.putInt(TranslationLexicon.MAGIC);
+    image.putInt(TranslationLexicon.VERSION);
+    image.putInt(wordCount);
+    image.putInt(pairCount);
+    image.putInt((int)byteCount);
+
+    // word offsets
+    int offset = 0;
+    for (int index = 0; index < wordCount; index++) {
+      image.putInt(offset);
+      offset += sortedWords[index].length();
+    }
+    image.putInt(offset);
+
+    // source offsets and translations
+    int pairIndex = 0;
+    for (int index = 0; index <= wordCount; index++) {
+      while (pairIndex < pairCount && (int)(pairs[pairIndex] >>> 32) < index) {
+        pairIndex++;
+      }
+      image.putInt(pairIndex);
+    }
+    int[] targets = new int[(wordCount + 31) >>> 5];
+    for (pairIndex = 0; pairIndex < pairCount; pairIndex++) {
+      int target = (int)pairs[pairIndex];
+      image.putInt(target);
+      targets[target >>> 5] |= 1 << (target & 31);
+    }
+
+    // targets
+    image.asIntBuffer().put(targets);
+    image.position(image.position() + 4 * targets.length);
+
+    // word bytes
+    for (int index = 0; index < wordCount; index++) {
+      image.put(sortedWords[index].getBytes());
+    }
+    image.flip();
+    return image;
+  }
+
+  /**
+   * Writes the lexicon in the binary format.
+   * @param fileName              output file
+   * @throws IOException          if the file cannot be written
+   */
+  public void write(String fileName) throws IOException {
+    ByteBuffer image = build();
+    FileOutputStream output = new FileOutputStream(fileName);
+    try {
+      FileChannel channel = output.getChannel();
+      while (image.hasRemaining()) {
+        channel.write(image);
+      }
+    } finally {
+      output.close();
+    }
+  }
+
+  /**
+   * Prints command usage.
+   */
+  private static void printUsage() {
+    StringBuffer buffer = new StringBuffer("Usage: java gma.simr.TranslationLexiconBuilder [arguments]\n\n");
+    buffer.append("where [arguments] are:\n\n");
+    buffer.append("\t-tralex tralex\n\trequired argument; e.g., -tralex ./tralex.O.E\n\n");
+    buffer.append("\t-xstop xstop\n\toptional argument; e.g., -xstop ./french.stoplist\n\n");
+    buffer.append("\t-ystop ystop\n\toptional argument; e.g., -ystop ./english.stoplist\n\n");
+    buffer.append("\t-output output\n\toptional argument; e.g., -output ./tralex.O.E.bin\n\n");
+    System.err.println(buffer.toString());
+  }
+
+  /**
+   * Main method.
+   * @param args                        command line arguments
+   */
+  public static void main(String[] args) {
+    Map arguments = new HashMap();
+    for (int index = 0; index + 1 < args.length; index += 2) {
+      if (!args[index].startsWith(DASH)) {
+        break;
+      }
+      arguments.put(args[index].substring(DASH.length()), args[index + 1]);
+    }
+    String tralex = (String)arguments.get(TRALEX);
+    if (args.length % 2 != 0 || tralex == null || arguments.size() != args.length / 2) {
+      printUsage();
+      System.exit(1);
+    }
+    Vocabulary vocabulary = Vocabulary.getInstance();
+    BitSet xStopWords = new BitSet();
+    BitSet yStopWords = new BitSet();
+    if (arguments.containsKey(XSTOP)) {
+      xStopWords = vocabulary.readWordSet((String)arguments.get(XSTOP));
+    }
+    if (arguments.containsKey(YSTOP)) {
+      yStopWords = vocabulary.readWordSet((String)arguments.get(YSTOP));
+    }
+    String output = (String)arguments.get(OUTPUT);
+    if (output == null) {
+      output = tralex + BINARY_SUFFIX;
+    }
+
+    TranslationLexiconBuilder builder = new TranslationLexiconBuilder();
+    try {
+      if (tralex.endsWith(".serial")) {
+        builder.readSerial(tralex);
+      } else {
+        builder.readText(tralex, xStopWords, yStopWords);
+      }
+      builder.write(output);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+    System.err.println("Wrote " + builder.pairCount + " word pairs to " + new File(output).getAbsolutePath());
+  }
+}
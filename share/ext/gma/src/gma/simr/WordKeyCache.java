@@ -0,0 +1,81 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: WordKeyCache keeps the match keys of the words of a bitext by word id, one array of
+ * keys for a word on the x axis and one for a word on the y axis. The shared vocabulary ids and the
+ * bitext vocabulary ids are interleaved in one slot range, so the arrays grow with the number of words
+ * of the bitext. The cached arrays are shared by all axis ticks of a word and must not be modified.
+ * A cache belongs to one matching predicate, i.e., one search rectangle, and is not thread-safe.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.Vocabulary;
+import gma.util.Word;
+
+class WordKeyCache {
+
+  static final int[] NO_KEYS = new int[0];
+
+  private int[][] xKeys = new int[0][]; //keys of the words on the x axis, by slot
+  private int[][] yKeys = new int[0][]; //keys of the words on the y axis, by slot
+
+  /**
+   * Gets the slot of a word id.
+   * @param id                    id of an interned word
+   * @return                      slot of the id
+   */
+  static int slot(int id) {
+    return id < Vocabulary.FIRST_BITEXT_ID ? 2 * id : 2 * (id - Vocabulary.FIRST_BITEXT_ID) + 1;
+  }
+
+  /**
+   * Gets a key that is the same for equal words: the word id, or a negative number derived from
+   * the hash code if the word is not interned.
+   * @param word                  word
+   * @return                      key of the word
+   */
+  static int exactKey(Word word) {
+    int id = word.getId();
+    return id != Word.NO_ID ? id : -1 - (word.hashCode() & 0x3fffffff);
+  }
+
+  /**
+   * Gets the cached keys of a word.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @return                      keys, or null if the keys are not cached
+   */
+  int[] get(Word word, boolean isXAxis) {
+    if (word.getId() == Word.NO_ID) {
+      return null;
+    }
+    int slot = slot(word.getId());
+    int[][] keys = isXAxis ? xKeys : yKeys;
+    return slot < keys.length ? keys[slot] : null;
+  }
+
+  /**
+   * Caches the keys of a word. The keys of a word that is not interned are not cached.
+   * @param word                  word of an axis tick
+   * @param isXAxis               true if the word is on the x axis
+   * @param keys                  keys
+   */
+  void put(Word word, boolean isXAxis, int[] keys) {
+    if (word.getId() == Word.NO_ID) {
+      return;
+    }
+    int slot = slot(word.getId());
+    if (slot >= xKeys.length) {
+      int length = Math.max(slot + 1, 2 * xKeys.length);
+      int[][] newXKeys = new int[length][];
+      int[][] newYKeys = new int[length][];
+      System.arraycopy(xKeys, 0, newXKeys, 0, xKeys.length);
+      System.arraycopy(yKeys, 0, newYKeys, 0, yKeys.length);
+      xKeys = newXKeys;
+      yKeys = newYKeys;
+    }
+    (isXAxis ? xKeys : yKeys)[slot] = keys;
+  }
+}
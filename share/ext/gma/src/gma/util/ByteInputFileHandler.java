@@ -9,25 +9,25 @@ package gma.util;
  */
 
 
-import java.io.ByteArrayInputStream;
-import java.io.BufferedInputStream;
 import java.io.FileInputStream;
-import java.io.InputStream;
-
-
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ByteInputFileHandler {
 
-    /*private InputStream reader = null; //buffered reader, reads text from a character input stream */
-    private FileInputStream reader; // buffered reader, reads text from a character input stream 
-    private int nextByte = 0; //next read in line 
-    private ArrayList nextLine;
+    private static final int BUFFER_SIZE = 65536;
+    private static final int NEWLINE = 10;
+    private static final int SPACE = 32;
+
+    private FileInputStream reader; // reads bytes from the input file
+    private byte[] buffer = new byte[BUFFER_SIZE]; // bytes read from the input file
+    private int bufferPosition = 0; // position of the next byte in the buffer
+    private int bufferLength = 0; // number of bytes in the buffer
+    private int nextByte = 0; //next read in byte
+    private byte[] line = new byte[256]; // next read in line
+    private int lineLength = 0; // number of bytes in the next read in line
 
   /**
    * Constructor.
@@ -35,8 +35,7 @@ public class ByteInputFileHandler {
    */
   public ByteInputFileHandler(String fileName) {
     try {
-	/* reader = new FileReader(fileName); */
-      reader = new FileInputStream(fileName); 
+      reader = new FileInputStream(fileName);
     } catch (FileNotFoundException e) {
       e.printStackTrace();
       close();
@@ -45,26 +44,40 @@ public class ByteInputFileHandler {
   }
 
   /**
-   * Checks if there are more bytes to read from the input file.
+   * Fills the buffer with the next bytes of the input file.
    * @return boolean, true if there are more bytes to read
    */
-  public boolean hasByte() {
-
-    nextByte = -1;
-    
+  private boolean fillBuffer() {
     try {
-      nextByte = reader.read();
+      int length = 0;
+      while (length == 0) {
+        length = reader.read(buffer, 0, buffer.length);
+      }
+      if (length == -1) {
+        return false;
+      }
+      bufferPosition = 0;
+      bufferLength = length;
+      return true;
     } catch (IOException e) {
       e.printStackTrace();
       close();
       System.exit(1);
+      return false;
     }
+  }
 
-    if (nextByte != -1) {
-      return true;
-    } else {
+  /**
+   * Checks if there are more bytes to read from the input file.
+   * @return boolean, true if there are more bytes to read
+   */
+  public boolean hasByte() {
+    if (bufferPosition == bufferLength && !fillBuffer()) {
+      nextByte = -1;
       return false;
     }
+    nextByte = buffer[bufferPosition++] & 0xff;
+    return true;
   }
 
   /**
@@ -77,20 +90,29 @@ public class ByteInputFileHandler {
 
 
   /**
-   * Gets the next line as an list of bytes
+   * Reads the next line of bytes. A last line that is not terminated by a newline is not read.
    * @return true if there is another line of bytes
    */
   public boolean hasLine() {
-      nextLine = new ArrayList();
-      String tempString; 
-      while (hasByte()) {
-	  tempString = Integer.toString(nextByte);
-	  if (nextByte != 10) {
-	      nextLine.add(new Integer(nextByte)); 
-	  } else {
+      lineLength = 0;
+      while (bufferPosition < bufferLength || fillBuffer()) {
+	  int end = bufferPosition;
+	  while (end < bufferLength && buffer[end] != NEWLINE) {
+	      end++;
+	  }
+	  int length = end - bufferPosition;
+	  if (lineLength + length > line.length) {
+	      byte[] newLine = new byte[Math.max(line.length * 2, lineLength + length)];
+	      System.arraycopy(line, 0, newLine, 0, lineLength);
+	      line = newLine;
+	  }
+	  System.arraycopy(buffer, bufferPosition, line, lineLength, length);
+	  lineLength += length;
+	  if (end < bufferLength) {
+	      bufferPosition = end + 1;
 	      return true;
 	  }
-	  
+	  bufferPosition = end;
       }
       return false;
   }
@@ -100,11 +122,25 @@ public class ByteInputFileHandler {
    * Gets the next line of bytes
    * @return next line of bytes
    */
-  public List nextLine() {
-      return nextLine;
+  public Word nextLine() {
+      return new Word(line, 0, lineLength);
   }
 
-  
+  /**
+   * Gets the buffer containing the next line of bytes. The buffer is reused by the next call of hasLine().
+   * @return buffer containing the next line of bytes
+   */
+  public byte[] getLineBuffer() {
+      return line;
+  }
+
+  /**
+   * Gets the number of bytes of the next line.
+   * @return number of bytes of the next line
+   */
+  public int getLineLength() {
+      return lineLength;
+  }
 
 
   /**
@@ -121,24 +157,22 @@ public class ByteInputFileHandler {
   }
 
 
-  public List strip(List inList) {
-      List outList = new ArrayList();
+  /**
+   * Strips the spaces at the start and the end of the next line.
+   * @return the next line without spaces at the start and the end
+   */
+  public Word strip() {
       int start = 0;
-      int end = inList.size();
+      int end = lineLength;
 
-      // don't let the list start or end with a space
-      while ( ((Integer)inList.get(start)).intValue() == 32) {
+      // don't let the word start or end with a space
+      while (start < end && line[start] == SPACE) {
 	  start = start + 1;
       }
-      while ( ((Integer)inList.get(end-1)).intValue() == 32) {
+      while (end > start && line[end-1] == SPACE) {
 	  end = end -1;
       }
-	      
-      for (int i=start; i< end; i++) 
-	  {
-	      outList.add(  (Integer)inList.get(i)  );
-	  }
-      return outList;
+      return new Word(line, start, end - start);
   }
 
 
@@ -151,13 +185,11 @@ public class ByteInputFileHandler {
       List words = new ArrayList();
 
       while (hasLine()) {
-	  List wordList = nextLine();
-	  words.add(strip(wordList));
+	  words.add(strip());
       }
 
       close();
       return words;
   }
-    
-}
 
+}
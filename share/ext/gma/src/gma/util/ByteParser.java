@@ -9,36 +9,32 @@ package gma.util;
  */
 
 
-import java.io.ByteArrayInputStream;
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.util.Iterator;
-
+public class ByteParser {
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+  private static final int SPACE = 32;
+  private static final int LESS_THAN = 60;
+  private static final int GREATER_THAN = 62;
+  private static final Word[] NO_WORDS = new Word[0];
 
-public class ByteParser {
+  private byte[] bytes; //bytes of the current line
+  private int length;   //number of bytes of the current line
 
-  private FileInputStream reader; //buffered reader, reads text from a character input stream
-  private int nextByte = 0; //next read in line
-  private List byteList;
-  private ArrayList wordList;
-  private ArrayList positionList;
-  private ArrayList dictFrom;
-  private ArrayList dictTo;    
+  /**
+   * Constructor.
+   * @param bytes                 buffer containing the line of bytes
+   * @param length                number of bytes of the line
+   */
+  public ByteParser(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+  }
 
   /**
    * Constructor.
-   * @param fileName              name of the input file
+   * @param word                  line of bytes
    */
-  public ByteParser(List inList) {
-      byteList = inList; 
+  public ByteParser(Word word) {
+      this(word.getBytes(), word.length());
   }
 
 
@@ -47,49 +43,35 @@ public class ByteParser {
    * @return string
    */
   public String listToString() {
-      StringBuffer outString = new StringBuffer();
-      Iterator li = byteList.iterator();      
-      while (li.hasNext()) {
-	  outString.append( (char)((Integer)li.next()).intValue() );
+      char[] chars = new char[length];
+      for (int i = 0; i < length; i++) {
+	  chars[i] = (char)(bytes[i] & 0xff);
       }
-      return outString.toString();
+      return new String(chars);
   }
 
   /**
-   * How big is the current byteList
-   * 
+   * How big is the current line
+   *
    */
   public int getSize() {
-      int ls = byteList.size();
-      return ls;
+      return length;
   }
 
   /**
-   * Parse the dictionary line in current byteList
-   * @return  list of bytes 
+   * Parse the dictionary line in current line
+   * @return  the words on each side of the last <> separator
    */
-  public List parseDictionaryLine() {
-      
-      List langList1 = new ArrayList();
-      List langList2 = new ArrayList();
-      List outList = new ArrayList();
+  public Word[] parseDictionaryLine() {
+
       int start = -1;
       int end = -1;
-      boolean preSpace = true;
-
-      for (int i = 0; i < byteList.size(); i++) {
-	  int c = ((Integer)byteList.get(i)).intValue();
-	  //System.err.println("c = " + c);
-	  if ( (c==62) && (i>1) ) {  
-	      /* check one backward */
-	      //System.err.println("--------------> got a 62");
-	      int cminus1 = ((Integer)byteList.get(i-1)).intValue();
-	      if (cminus1==60) {
-		  //System.err.println("--------------> got a 60");
-		  /* found an instance of <> */
-		  start = i-1;
-		  end = i;
-	      }
+
+      for (int i = 2; i < length; i++) {
+	  if ( (bytes[i] == GREATER_THAN) && (bytes[i-1] == LESS_THAN) ) {
+	      /* found an instance of <> */
+	      start = i-1;
+	      end = i;
 	  }
       }
       if ((start == -1) || (end == -1)) {
@@ -98,90 +80,73 @@ public class ByteParser {
 	  System.exit(1);
       }
 
-      for (int i = 0; i < byteList.size(); i++) {
-	  if (i < start) {
-	      /* put in langList1 */
-	      int c = ((Integer)byteList.get(i)).intValue();
-	      langList1.add(new Integer(c));
-	  } else if (i > end) {
-	      /* put in langList2 */
-	      int c = ((Integer)byteList.get(i)).intValue();
-	      langList2.add(new Integer(c));
-	  }
+      Word lang1 = null;
+      Word lang2 = null;
+      if (start > 0) {
+	  lang1 = strip(0, start);
       }
-      if (langList1.size() != 0) {
-	  outList.add( strip(langList1) );
+      if (end + 1 < length) {
+	  lang2 = strip(end + 1, length);
       }
-      if (langList2.size() != 0) {
-	  outList.add( strip(langList2) );
+      if (lang1 != null && lang2 != null) {
+	  return new Word[] {lang1, lang2};
+      } else if (lang1 != null) {
+	  return new Word[] {lang1};
+      } else if (lang2 != null) {
+	  return new Word[] {lang2};
       }
-
-      return outList;
+      return NO_WORDS;
   }
 
-  public List strip(List inList) {
-      List outList = new ArrayList();
-      int start = 0;
-      int end = inList.size();
+  /**
+   * Strips the spaces at the start and the end of a non-empty part of the current line.
+   * @param start                 start of the part
+   * @param end                   end of the part (exclusive)
+   * @return                      the part without spaces at the start and the end
+   */
+  public Word strip(int start, int end) {
 
-      // don't let the list start or end with a space
-      while ( ((Integer)inList.get(start)).intValue() == 32) {
+      // don't let the word start or end with a space
+      while (bytes[start] == SPACE) {
 	  start = start + 1;
 	  // catch the case where there is no corresponding entry
 	  if (start == end) {
 	      System.err.println("The lexicon contains an invalid entry");
-	      return outList;
+	      return Word.EMPTY;
 	  }
       }
-      while ( ((Integer)inList.get(end-1)).intValue() == 32) {
+      while (bytes[end-1] == SPACE) {
 	  end = end -1;
       }
-	      
-      for (int i=start; i< end; i++) 
-
-	  {
-	      outList.add(  (Integer)inList.get(i)  );
-	  }
-      return outList;
+      return new Word(bytes, start, end - start);
   }
+
   /**
-   * Parse the axis line in current byteList
-   * @return  list of bytes 
+   * Parse the axis line in current line
+   * @return  the position and the word of the axis line
    */
-  public List parseAxisLine() {
-      List positionList = new ArrayList();
-      List wordList = new ArrayList();
-      List outList = new ArrayList();
-      boolean preSpace = true;
-
-      for (int i = 0; i < byteList.size(); i++) {
-	  int c = ((Integer)byteList.get(i)).intValue();
-
-	    
-	  if ((c == 32) && (preSpace == true)) { /* 32 is the space character */
-	      if (positionList.size() != 0) {
-		  preSpace = false;
-	      }
-	  } else {       
-	      if (preSpace == true) {
-		  positionList.add(new Integer(c));
-	      }
-	      else {
-		  wordList.add(new Integer(c));
-	      }
-	  }
+  public Word[] parseAxisLine() {
+      int i = 0;
+      while (i < length && bytes[i] == SPACE) { /* 32 is the space character */
+	  i++;
+      }
+      int positionStart = i;
+      while (i < length && bytes[i] != SPACE) {
+	  i++;
       }
-      if (positionList.size() != 0) {
-	  outList.add( strip(positionList) );
+      int positionEnd = i;
+      int wordStart = i + 1;
+
+      if (positionStart == positionEnd) {
+	  return NO_WORDS;
       }
-      if (wordList.size() != 0) {
-	  outList.add( strip (wordList) );
+      Word position = strip(positionStart, positionEnd);
+      if (wordStart >= length) {
+	  return new Word[] {position};
       }
-      /* System.err.println("positionList " + positionList); */
-      /* System.err.println("wordList " + wordList); */
-      return outList;
+      return new Word[] {position, strip(wordStart, length)};
   }
 
-  
+
 }
- 
+
@@ -0,0 +1,172 @@
+package gma.util;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: Vocabulary maps words to int ids, so that every word is interned once: equal words have
+ * the same Word object and the same id. The shared vocabulary of the process holds the words of the stop
+ * word lists and translation lexicons, which are bounded by the resource files. The words of a bitext are
+ * interned in a vocabulary of their own, which is created on top of the shared vocabulary and discarded
+ * with the bitext. A word that is in the shared vocabulary when a bitext first interns it keeps its shared
+ * id, e.g., a stop word; the other words of a bitext get ids from FIRST_BITEXT_ID on, so that the ids of
+ * the two never collide.</p>
+ * <p>Words that are already interned are looked up without locking; only adding a word is synchronized.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Vocabulary {
+
+  public static final int FIRST_BITEXT_ID = 1 << 28; //first id of the words of a bitext vocabulary
+  private static final int MAXIMUM_SIZE = 1 << 28;    //maximum number of words of a vocabulary, so that
+                                                      //the match keys derived from the ids are positive
+
+  private static final Vocabulary instance = new Vocabulary(null);
+
+  private final Vocabulary shared; //shared vocabulary, null for the shared vocabulary itself
+  private final int firstId;      //id of the first word of this vocabulary
+  private final Map words = new ConcurrentHashMap(); //interned words
+  private volatile Word[] wordList = new Word[64]; //interned words by id - firstId
+  private int size = 0; //number of interned words
+  private final Map wordSets = new HashMap(); //word sets read by this process, by file name and date
+
+  private Vocabulary(Vocabulary shared) {
+    this.shared = shared;
+    firstId = shared == null ? 0 : FIRST_BITEXT_ID;
+  }
+
+  /**
+   * Gets the shared vocabulary.
+   * @return                      the vocabulary
+   */
+  public static Vocabulary getInstance() {
+    return instance;
+  }
+
+  /**
+   * Creates a vocabulary for the words of one bitext, on top of the shared vocabulary.
+   * @return                      the vocabulary
+   */
+  public static Vocabulary newBitextVocabulary() {
+    return new Vocabulary(instance);
+  }
+
+  /**
+   * Interns a word.
+   * @param word                  word to intern
+   * @return                      the interned word
+   */
+  public Word intern(Word word) {
+    if (word.getId() != Word.NO_ID) {
+      return word;
+    }
+    Word internedWord = lookup(word);
+    if (internedWord == null) {
+      internedWord = add(word);
+    }
+    return internedWord;
+  }
+
+  private Word lookup(Word word) {
+    Word internedWord = (Word)words.get(word);
+    if (internedWord == null && shared != null) {
+      internedWord = shared.lookup(word);
+    }
+    return internedWord;
+  }
+
+  private synchronized Word add(Word word) {
+    Word internedWord = (Word)words.get(word);
+    if (internedWord == null) {
+      if (size == MAXIMUM_SIZE) {
+        throw new IllegalStateException("The vocabulary is full.");
+      }
+      internedWord = new Word(word, firstId + size);
+      Word[] list = wordList;
+      if (size == list.length) {
+        Word[] newList = new Word[2 * size];
+        System.arraycopy(list, 0, newList, 0, size);
+        list = newList;
+      }
+      list[size++] = internedWord;
+      wordList = list;
+      words.put(internedWord, internedWord);
+    }
+    return internedWord;
+  }
+
+  /**
+   * Gets the id of a word without interning the word.
+   * @param word                  word
+   * @return                      id of the word, or Word.NO_ID if the word is not in the vocabulary
+   */
+  public int getId(Word word) {
+    if (word.getId() != Word.NO_ID) {
+      return word.getId();
+    }
+    Word internedWord = lookup(word);
+    return internedWord == null ? Word.NO_ID : internedWord.getId();
+  }
+
+  /**
+   * Gets the word of an id.
+   * @param id                    id of the word
+   * @return                      the interned word
+   */
+  public Word getWord(int id) {
+    if (id < firstId) {
+      return shared.getWord(id);
+    }
+    return wordList[id - firstId];
+  }
+
+  /**
+   * Gets the number of words interned in this vocabulary, not counting the words of the shared vocabulary.
+   * @return                      number of words
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Checks whether a word is in a set of word ids.
+   * @param wordIds               set of word ids
+   * @param word                  word
+   * @return                      true if the word is in the set
+   */
+  public boolean contains(BitSet wordIds, Word word) {
+    int id = getId(word);
+    return id != Word.NO_ID && wordIds.get(id);
+  }
+
+  /**
+   * Utility method to read a column of single words into a set of word ids. The words are interned
+   * in the shared vocabulary, and a file is read once per process unless it changes.
+   * @param fileName              name of the word list file
+   * @return                      set of word ids
+   */
+  public BitSet readWordSet(String fileName) {
+    if (shared != null) {
+      return shared.readWordSet(fileName);
+    }
+    String key = fileName + ":" + new File(fileName).lastModified();
+    synchronized (wordSets) {
+      BitSet wordIds = (BitSet)wordSets.get(key);
+      if (wordIds == null) {
+        wordIds = new BitSet();
+        ByteInputFileHandler input = new ByteInputFileHandler(fileName);
+        while (input.hasLine()) {
+          wordIds.set(intern(input.strip()).getId());
+        }
+        input.close();
+        wordSets.put(key, wordIds);
+      }
+      return (BitSet)wordIds.clone();
+    }
+  }
+}
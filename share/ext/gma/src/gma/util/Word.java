@@ -0,0 +1,167 @@
+package gma.util;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: Word is an immutable sequence of bytes, e.g., a word of an axis file, a stop word or
+ * a translation lexicon entry. Words are compared byte by byte, the hash code is computed once.</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import java.io.Serializable;
+import java.util.List;
+
+public final class Word implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  public static final int NO_ID = -1;
+  public static final Word EMPTY = new Word(new byte[0], 0, 0);
+
+  private final byte[] bytes; //bytes of the word
+  private final int hashCode; //hash code of the bytes
+  private final int id;       //id of the word in the vocabulary, or NO_ID if the word is not interned
+
+  /**
+   * Constructor.
+   * @param buffer                buffer containing the word
+   * @param offset                offset of the word in the buffer
+   * @param length                number of bytes of the word
+   */
+  public Word(byte[] buffer, int offset, int length) {
+    bytes = new byte[length];
+    System.arraycopy(buffer, offset, bytes, 0, length);
+    hashCode = computeHashCode(bytes);
+    id = NO_ID;
+  }
+
+  /**
+   * Constructor of interned words, used by the vocabulary.
+   * @param word                  word to intern
+   * @param id                    id of the word in the vocabulary
+   */
+  Word(Word word, int id) {
+    bytes = word.bytes;
+    hashCode = word.hashCode;
+    this.id = id;
+  }
+
+  /**
+   * Constructor.
+   * @param byteList              list of bytes, as Integer or Byte objects
+   */
+  public Word(List byteList) {
+    bytes = new byte[byteList.size()];
+    for (int index = 0; index < bytes.length; index++) {
+      bytes[index] = ((Number)byteList.get(index)).byteValue();
+    }
+    hashCode = computeHashCode(bytes);
+    id = NO_ID;
+  }
+
+  private static int computeHashCode(byte[] bytes) {
+    int hash = 1;
+    for (int index = 0; index < bytes.length; index++) {
+      hash = 31 * hash + bytes[index];
+    }
+    return hash;
+  }
+
+  /**
+   * Ids are only valid in the vocabulary of this process, so a deserialized word is not interned.
+   * @return                      the word without id
+   */
+  private Object readResolve() {
+    return id == NO_ID ? this : new Word(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Gets the id of the word in the vocabulary.
+   * @return                      id of the word, or NO_ID if the word is not interned
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Gets the number of bytes of the word.
+   * @return                      number of bytes
+   */
+  public int length() {
+    return bytes.length;
+  }
+
+  /**
+   * Gets the byte at the indexed position.
+   * @param index                 indexed position
+   * @return                      byte at the indexed position
+   */
+  public byte byteAt(int index) {
+    return bytes[index];
+  }
+
+  /**
+   * Gets the bytes of the word. The returned array is shared and must not be modified.
+   * @return                      bytes of the word
+   */
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Checks whether the word consists of the characters of a string, one byte per character.
+   * @param string                string for comparing
+   * @return                      true if the word and the string are equal
+   */
+  public boolean contentEquals(String string) {
+    if (string == null || string.length() != bytes.length) {
+      return false;
+    }
+    for (int index = 0; index < bytes.length; index++) {
+      if (string.charAt(index) != (char)(bytes[index] & 0xff)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compares whether two words have the same bytes.
+   * @param object                word for comparing
+   * @return                      true if the same bytes
+   */
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof Word)) {
+      return false;
+    }
+    Word word = (Word)object;
+    if (hashCode != word.hashCode || bytes.length != word.bytes.length) {
+      return false;
+    }
+    for (int index = 0; index < bytes.length; index++) {
+      if (bytes[index] != word.bytes[index]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int hashCode() {
+    return hashCode;
+  }
+
+  /**
+   * String representation of the word, one character per byte.
+   * @return                      string representation
+   */
+  public String toString() {
+    char[] chars = new char[bytes.length];
+    for (int index = 0; index < bytes.length; index++) {
+      chars[index] = (char)(bytes[index] & 0xff);
+    }
+    return new String(chars);
+  }
+}
@@ -0,0 +1,124 @@
+package gma.simr;
+
+/**
+ * <p>Title: </p>
+ * <p>Description: LcsrMatchingBenchmark times LcsrMatching on the word pairs that SIMR compares, i.e.,
+ * the words of an x axis file and the words of a y axis file near the bitext diagonal. It checks the
+ * lengths of the longest common strings against the full dynamic programming table.
+ * Usage: java gma.simr.LcsrMatchingBenchmark [xAxisFile yAxisFile [window]]</p>
+ * <p>Copyright: Copyright (C) 2004 I. Dan Melamed</p>
+ * <p>Company: Department of Computer Science, New York University</p>
+ */
+
+import gma.util.ByteInputFileHandler;
+import gma.util.ByteParser;
+import gma.util.Vocabulary;
+import gma.util.Word;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public class LcsrMatchingBenchmark {
+
+  private static final int ROUNDS = 5;
+
+  /**
+   * Reads the words of an axis file.
+   * @param axisFile              axis file
+   * @return                      array of interned words
+   */
+  private static Word[] readAxis(String axisFile) {
+    List words = new ArrayList();
+    ByteInputFileHandler input = new ByteInputFileHandler(axisFile);
+    while (input.hasLine()) {
+      Word[] line = new ByteParser(input.getLineBuffer(), input.getLineLength()).parseAxisLine();
+      if (line.length == 2) {
+        words.add(Vocabulary.getInstance().intern(line[1]));
+      }
+    }
+    input.close();
+    return (Word[])words.toArray(new Word[words.size()]);
+  }
+
+  /**
+   * Computes longest common string with the full dynamic programming table.
+   */
+  private static int computeTableLcs(byte[] wordForMatch, byte[] wordToMatch) {
+    int[][] table = new int[wordForMatch.length + 1][wordToMatch.length + 1];
+    for (int outerIndex = 0; outerIndex < wordForMatch.length; outerIndex++) {
+      for (int innerIndex = 0; innerIndex < wordToMatch.length; innerIndex++) {
+        if (wordForMatch[outerIndex] == wordToMatch[innerIndex]) {
+          table[outerIndex + 1][innerIndex + 1] = table[outerIndex][innerIndex] + 1;
+        } else {
+          table[outerIndex + 1][innerIndex + 1] = Math.max(table[outerIndex + 1][innerIndex],
+                                                           table[outerIndex][innerIndex + 1]);
+        }
+      }
+    }
+    return table[wordForMatch.length][wordToMatch.length];
+  }
+
+  public static void main(String[] args) {
+    String xAxisFile = args.length > 1 ? args[0] : "validation/french-test1.axis";
+    String yAxisFile = args.length > 1 ? args[1] : "validation/english-test1.axis";
+    int window = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+    Word[] xWords = readAxis(xAxisFile);
+    Word[] yWords = readAxis(yAxisFile);
+    Properties properties = new Properties();
+    properties.put(LcsrMatching.LCSR_THRESHOLD, "0.58");
+    properties.put(LcsrMatching.MINIMUM_WORD_LENGTH, "4");
+
+    // pairs near the diagonal
+    List pairList = new ArrayList();
+    for (int x = 0; x < xWords.length; x++) {
+      int center = (int)((long)x * yWords.length / xWords.length);
+      for (int y = Math.max(0, center - window); y < Math.min(yWords.length, center + window); y++) {
+        pairList.add(new Word[] {xWords[x], yWords[y]});
+      }
+    }
+    Word[][] pairs = (Word[][])pairList.toArray(new Word[pairList.size()][]);
+    System.out.println(pairs.length + " word pairs of " + xAxisFile + " and " + yAxisFile);
+
+    LcsrMatching matching = new LcsrMatching();
+    matching.setProperties(properties);
+    for (int index = 0; index < pairs.length; index++) {
+      byte[] wordForMatch = pairs[index][0].getBytes();
+      byte[] wordToMatch = pairs[index][1].getBytes();
+      if (wordForMatch.length > 0 && wordToMatch.length > 0
+          && matching.computeLcs(wordForMatch, wordToMatch) != computeTableLcs(wordForMatch, wordToMatch)) {
+        System.out.println("LCS differs for " + pairs[index][0] + " and " + pairs[index][1]);
+        System.exit(1);
+      }
+    }
+
+    for (int round = 0; round < ROUNDS; round++) {
+      long start = System.currentTimeMillis();
+      long total = 0;
+      for (int index = 0; index < pairs.length; index++) {
+        total += computeTableLcs(pairs[index][0].getBytes(), pairs[index][1].getBytes());
+      }
+      long table = System.currentTimeMillis() - start;
+
+      start = System.currentTimeMillis();
+      for (int index = 0; index < pairs.length; index++) {
+        total -= matching.computeLcs(pairs[index][0].getBytes(), pairs[index][1].getBytes());
+      }
+      long lcs = System.currentTimeMillis() - start;
+
+      matching = new LcsrMatching();
+      matching.setProperties(properties);
+      start = System.currentTimeMillis();
+      int matches = 0;
+      for (int index = 0; index < pairs.length; index++) {
+        if (matching.isMatch(pairs[index][0], pairs[index][1], true)) {
+          matches++;
+        }
+      }
+      long match = System.currentTimeMillis() - start;
+      System.out.println("round " + round + ": table LCS " + table + " ms, LCS " + lcs + " ms, isMatch "
+                         + match + " ms (" + matches + " matches)" + (total != 0 ? " LCS MISMATCH" : ""));
+    }
+  }
+}
@@ -10,6 +10,8 @@ package gma.simr;
  */
 
 import gma.util.StringUtil;
+import gma.util.Vocabulary;
+import gma.util.Word;
 import java.util.ArrayList;
 
 import java.util.Properties;
@@ -107,6 +109,37 @@ public class TestLcsrMatching extends TestCase {
         assertEquals(result, false);
     }
 
+    public void testComputeLcsLongWords() throws Exception {
+        StringBuffer repeated = new StringBuffer();
+        StringBuffer same = new StringBuffer();
+        for (int i=0; i<40; i++) {
+            repeated.append("ab");
+            same.append("aa");
+        }
+        // the shorter word has more than 64 bytes
+        assertEquals(40, matching.computeLcs(repeated.toString().getBytes("ISO-8859-1"),
+                                             same.toString().substring(0, 70).getBytes("ISO-8859-1")));
+        // the shorter word has 64 bytes
+        assertEquals(32, matching.computeLcs(repeated.toString().substring(0, 64).getBytes("ISO-8859-1"),
+                                             same.toString().getBytes("ISO-8859-1")));
+        assertEquals(64, matching.computeLcs(same.toString().substring(0, 64).getBytes("ISO-8859-1"),
+                                             same.toString().getBytes("ISO-8859-1")));
+    }
+
+    public void testIsMatchInterned() throws Exception {
+        Vocabulary vocabulary = Vocabulary.getInstance();
+        Word prophetes = vocabulary.intern(new Word("prophetes".getBytes("ISO-8859-1"), 0, 9));
+        Word prophets = vocabulary.intern(new Word("prophets".getBytes("ISO-8859-1"), 0, 8));
+        Word noise = vocabulary.intern(new Word("noise".getBytes("ISO-8859-1"), 0, 5));
+        Word nonsense = vocabulary.intern(new Word("nonsense".getBytes("ISO-8859-1"), 0, 8));
+        for (int i=0; i<2; i++) {
+            assertEquals(true, matching.isMatch(prophetes, prophets, true));
+            assertEquals(true, matching.isMatch(prophets, prophetes, false));
+            assertEquals(false, matching.isMatch(nonsense, noise, true));
+            assertEquals(false, matching.isMatch(noise, nonsense, false));
+        }
+    }
+
     public static void main(String[] args) {
         Test mySuite = new TestSuite(TestLcsrMatching.class);
         junit.textui.TestRunner.run(mySuite);
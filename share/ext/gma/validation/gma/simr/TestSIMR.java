@@ -9,6 +9,12 @@ package gma.simr;
  * @version 1.0
  */
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.SortedSet;
 
 import junit.framework.Test;
@@ -48,6 +54,42 @@ public class TestSIMR extends TestCase {
       assertTrue(mapPoints.last().toString().equals("66081.5 60603.5"));
     }
 
+    public void testGenerateRegionCorrespondence() throws Exception {
+      String[] args = new String[6];
+      args[0] = SIMR.DASH + SIMR.PROPERTIES;
+      args[1] = "./validation/GMA.config.M.E";
+      args[2] = SIMR.DASH + SIMR.X_AXIS_FILE;
+      args[3] = "./validation/malay-test2.axis";
+      args[4] = SIMR.DASH + SIMR.Y_AXIS_FILE;
+      args[5] = "./validation/english-test2.axis";
+      SortedSet mapPoints = new SIMR(args).generateBitextCorrespondence();
+
+      File regionConfig = File.createTempFile("SIMR.config", ".regions");
+      regionConfig.deleteOnExit();
+      PrintWriter writer = new PrintWriter(new FileWriter(regionConfig));
+      writer.println("#INCLUDE " + args[1]);
+      writer.println(SIMR.REGION_THREADS + " = 4");
+      writer.println(SIMR.MINIMUM_REGION_SIZE + " = 1000");
+      writer.close();
+      args[1] = regionConfig.getPath();
+      SortedSet regionMapPoints = new SIMR(args).generateBitextCorrespondence();
+
+      //the map points differ only near the anchors between the regions
+      Set commonMapPoints = new HashSet();
+      Iterator iterator = mapPoints.iterator();
+      while (iterator.hasNext()) {
+        commonMapPoints.add(iterator.next().toString());
+      }
+      Set regionPositions = new HashSet();
+      iterator = regionMapPoints.iterator();
+      while (iterator.hasNext()) {
+        regionPositions.add(iterator.next().toString());
+      }
+      commonMapPoints.retainAll(regionPositions);
+      assertTrue(commonMapPoints.size() >= 0.95 * mapPoints.size());
+      assertTrue(commonMapPoints.size() >= 0.95 * regionMapPoints.size());
+    }
+
     public static void main(String[] args) {
         Test mySuite = new TestSuite(TestSIMR.class);
         junit.textui.TestRunner.run(mySuite);
@@ -0,0 +1,96 @@
+package liblinear;
+
+import java.util.Random;
+
+/**
+* The random generator of the liblinear solvers, which draw their random numbers from the static field <code>Linear.random</code>.
+* This class is in the package of liblinear so that it can replace that field. The installed generator delegates to one generator
+* per thread, and <code>reseed()</code> gives the generator of the current thread the default liblinear seed. When every model is
+* trained by one thread and the generator is reseeded before each model, a model does not depend on which models were trained
+* before it or at the same time, and the solvers of different threads can run concurrently.
+*
+* @author Johan Hall
+* @since 1.4.1
+*/
+public final class ModelRandom extends Random {
+	private static final long serialVersionUID = 1L;
+	/** The seed of <code>new Random()</code> in liblinear.Linear */
+	private static final long DEFAULT_SEED = 0L;
+	private static ModelRandom installed;
+	private final ThreadLocal<Random> generator = new ThreadLocal<Random>() {
+		protected Random initialValue() {
+			return new Random(DEFAULT_SEED);
+		}
+	};
+
+	private ModelRandom() {
+		super(DEFAULT_SEED);
+	}
+
+	/**
+	 * Installs the per-thread generator as the generator of the liblinear solvers, if it is not installed yet.
+	 */
+	public static synchronized void install() {
+		if (installed == null) {
+			installed = new ModelRandom();
+		}
+		Linear.random = installed;
+	}
+
+	/**
+	 * Installs the per-thread generator, if needed, and gives the generator of the current thread the default seed. Call it before
+	 * each model is trained.
+	 */
+	public static void reseed() {
+		install();
+		installed.generator.get().setSeed(DEFAULT_SEED);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// Called by the constructor of Random, before the generator field is initialized
+		if (generator != null) {
+			generator.get().setSeed(seed);
+		}
+	}
+
+	@Override
+	public int nextInt() {
+		return generator.get().nextInt();
+	}
+
+	@Override
+	public int nextInt(int n) {
+		return generator.get().nextInt(n);
+	}
+
+	@Override
+	public long nextLong() {
+		return generator.get().nextLong();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return generator.get().nextBoolean();
+	}
+
+	@Override
+	public float nextFloat() {
+		return generator.get().nextFloat();
+	}
+
+	@Override
+	public double nextDouble() {
+		return generator.get().nextDouble();
+	}
+
+	@Override
+	public double nextGaussian() {
+		return generator.get().nextGaussian();
+	}
+
+	@Override
+	public void nextBytes(byte[] bytes) {
+		generator.get().nextBytes(bytes);
+	}
+}
@@ -94,10 +94,17 @@ public class MaltConsoleEngine {
 			SystemLogger.logger().info(SystemInfo.header() +"\n");
 			SystemLogger.logger().info("Started: " + new Date(System.currentTimeMillis()) +"\n");
 		}
-		Engine engine = new Engine();
-		engine.initialize(OPTION_CONTAINER);
-		engine.process(OPTION_CONTAINER);
-		engine.terminate(OPTION_CONTAINER);
+		if (OptionManager.instance().getOptionValue(OPTION_CONTAINER, "config", "flowchart").toString().equals("serve")) {
+			MaltServer server = new MaltServer(OPTION_CONTAINER);
+			server.initialize();
+			server.serve();
+			server.terminate();
+		} else {
+			Engine engine = new Engine();
+			engine.initialize(OPTION_CONTAINER);
+			engine.process(OPTION_CONTAINER);
+			engine.terminate(OPTION_CONTAINER);
+		}
 		if (SystemLogger.logger().isInfoEnabled()) {
 			SystemLogger.logger().info("Finished: " + new Date(System.currentTimeMillis())+"\n");
 		}
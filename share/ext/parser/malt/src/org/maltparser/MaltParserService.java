@@ -2,7 +2,14 @@ package org.maltparser;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.flow.FlowChartInstance;
@@ -14,6 +21,8 @@ import org.maltparser.core.options.OptionManager;
 import org.maltparser.core.syntaxgraph.DependencyGraph;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.Parser;
+import org.maltparser.parser.ParserPool;
 import org.maltparser.parser.SingleMalt;
 
 /**
@@ -25,6 +34,10 @@ import org.maltparser.parser.SingleMalt;
  *  done by the third-party program.
  *  
  *  How to use MaltParserService, please see the examples provided in the directory 'examples/apiexamples/srcex'
+ *  
+ *  The parse methods are thread-safe. The parser model (symbol tables, options and classifier models) is loaded once and shared, 
+ *  and each thread that parses a sentence uses its own parser with its own parser state and feature model. Several sentences 
+ *  can be parsed concurrently either by calling parse() from several threads or by calling parse() with an array of sentences.
  * 
  * @author Johan Hall
  */
@@ -36,6 +49,7 @@ public class MaltParserService {
 	private SingleMalt singleMalt;
 	private int optionContainer;
 	private boolean initialized = false;
+	private ParserPool parserPool;
 	
 	/**
 	 * Creates a MaltParserService with the option container 0
@@ -95,6 +109,7 @@ public class MaltParserService {
 				singleMalt.getSymbolTables(),
 				OptionManager.instance().getOptionValueString(optionContainer, "singlemalt", "null_value"), 
 				OptionManager.instance().getOptionValueString(optionContainer, "graph", "root_label"));
+		parserPool = new ParserPool(singleMalt);
 		initialized = true;
 	}
 	
@@ -131,17 +146,92 @@ public class MaltParserService {
 			}
 		}
 		outputGraph.setDefaultRootEdgeLabel(outputGraph.getSymbolTables().getSymbolTable("DEPREL"), "ROOT");
-		// Invoke parse with the output graph
-		singleMalt.parse(outputGraph);
+		// Invoke parse with the output graph, using a parser that no other thread is using
+		final Parser parser = parserPool.borrowParser();
+		try {
+			if (outputGraph.hasTokens()) {
+				parser.parse(outputGraph);
+			}
+		} finally {
+			parserPool.returnParser(parser);
+		}
 		return outputGraph;
 	}
 	
+	/**
+	 * Parses several sentences concurrently, using one thread per available processor, and returns the dependency structures 
+	 * in the same order as the sentences.
+	 * 
+	 * Note: To call this method requires that a parser model has been initialized by using the initializeParserModel(). 
+	 * 
+	 * @param sentences an array of sentences, where each sentence is an array of tokens
+	 * @return an array of dependency structures
+	 * @throws MaltChainedException
+	 */
+	public DependencyStructure[] parse(String[][] sentences) throws MaltChainedException {
+		return parse(sentences, Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Parses several sentences concurrently and returns the dependency structures in the same order as the sentences. 
+	 * The parser model is shared by all threads and each thread uses its own parser. 
+	 * 
+	 * Note: To call this method requires that a parser model has been initialized by using the initializeParserModel(). 
+	 * 
+	 * @param sentences an array of sentences, where each sentence is an array of tokens
+	 * @param numberOfThreads the maximum number of threads used for parsing
+	 * @return an array of dependency structures
+	 * @throws MaltChainedException
+	 */
+	public DependencyStructure[] parse(String[][] sentences, int numberOfThreads) throws MaltChainedException {
+		if (!initialized) {
+			throw new MaltChainedException("No parser model has been initialized. Please use the method initializeParserModel() before invoking this method.");
+		}
+		if (sentences == null || sentences.length == 0) {
+			throw new MaltChainedException("Nothing to parse. ");
+		}
+		final DependencyStructure[] outputGraphs = new DependencyStructure[sentences.length];
+		if (numberOfThreads <= 1 || sentences.length == 1) {
+			for (int i = 0; i < sentences.length; i++) {
+				outputGraphs[i] = parse(sentences[i]);
+			}
+			return outputGraphs;
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(numberOfThreads, sentences.length));
+		try {
+			final List<Future<DependencyStructure>> results = new ArrayList<Future<DependencyStructure>>(sentences.length);
+			for (int i = 0; i < sentences.length; i++) {
+				final String[] tokens = sentences[i];
+				results.add(executor.submit(new Callable<DependencyStructure>() {
+					public DependencyStructure call() throws MaltChainedException {
+						return parse(tokens);
+					}
+				}));
+			}
+			for (int i = 0; i < sentences.length; i++) {
+				outputGraphs[i] = results.get(i).get();
+			}
+		} catch (InterruptedException e) {
+			throw new MaltChainedException("The parsing of the sentences was interrupted. ", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof MaltChainedException) {
+				throw (MaltChainedException)e.getCause();
+			}
+			throw new MaltChainedException("The sentences could not be parsed. ", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return outputGraphs;
+	}
+	
 	/**
 	 * Terminates the parser model.
 	 * 
 	 * @throws MaltChainedException
 	 */
 	public void terminateParserModel() throws MaltChainedException {
+		initialized = false;
+		parserPool.terminateAll();
 		// Runs the postprocess chart items of the "parse" flow chart
 		if (flowChartInstance.hasPostProcessChartItems()) {
 			flowChartInstance.postprocess();
@@ -0,0 +1,433 @@
+package org.maltparser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Formatter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.maltparser.core.config.ConfigurationDir;
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.core.flow.FlowChartInstance;
+import org.maltparser.core.helper.SystemLogger;
+import org.maltparser.core.io.dataformat.DataFormatException;
+import org.maltparser.core.io.dataformat.DataFormatInstance;
+import org.maltparser.core.io.dataformat.DataFormatManager;
+import org.maltparser.core.io.dataformat.DataFormatSpecification.DataStructure;
+import org.maltparser.core.options.OptionManager;
+import org.maltparser.core.symbol.SymbolTable;
+import org.maltparser.core.symbol.frozen.AddedSymbolScope;
+import org.maltparser.core.syntaxgraph.DependencyGraph;
+import org.maltparser.core.syntaxgraph.DependencyStructure;
+import org.maltparser.core.syntaxgraph.edge.Edge;
+import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.core.syntaxgraph.reader.SyntaxGraphReader;
+import org.maltparser.core.syntaxgraph.writer.SyntaxGraphWriter;
+import org.maltparser.parser.Parser;
+import org.maltparser.parser.ParserPool;
+import org.maltparser.parser.SingleMalt;
+import org.maltparser.transform.pseudo.PseudoProjectivity;
+
+/**
+ * MaltServer is a long-running MaltParser that loads a parser model once and then parses sentences as they arrive. It is started
+ * with the flow chart <i>serve</i> (<code>-m serve</code>).
+ *
+ * If the option <code>--server-port</code> is zero (default), sentences are read from the standard input and the parsed sentences are written
+ * to the standard output. Otherwise the server listens on the specified port of the local host and each connection is handled as a separate
+ * stream of sentences. In both cases a request is one sentence in the input format of the parser model terminated by an empty line and the
+ * response is the parsed sentence terminated by an empty line, which is written as soon as the sentence is parsed. The latency of each
+ * request is written to the configuration log and, if the option <code>--server-latency</code> is true, also returned to the client as 
+ * a comment line <code># request n: t tokens, l ms</code> before the parsed sentence.
+ *
+ * A server that listens on a port is stopped by stopping the JVM (e.g. Ctrl-C or SIGTERM): the shutdown hook closes the server socket,
+ * lets the connections finish the sentences they have received and terminates the server, which logs the latency summary.
+ *
+ * @author Johan Hall
+ */
+public class MaltServer {
+	private final int optionContainer;
+	private Engine engine;
+	private FlowChartInstance flowChartInstance;
+	private SingleMalt singleMalt;
+	private PseudoProjectivity pproj;
+	private boolean pprojActive = false;
+	private boolean usePartialTree = false;
+	private DataFormatInstance inputDataFormatInstance;
+	private DataFormatInstance outputDataFormatInstance;
+	private Class<? extends SyntaxGraphReader> graphReaderClass;
+	private Class<? extends SyntaxGraphWriter> graphWriterClass;
+	private String inputCharSet;
+	private String outputCharSet;
+	private String readerOptions;
+	private String writerOptions;
+	private String rootLabels;
+	private Logger configLogger;
+	private ParserPool parserPool;
+	private int requestCounter = 0;
+	private long tokenCounter = 0;
+	private long totalLatency = 0;
+	private long maxLatency = 0;
+	private boolean returnLatency = false;
+	private volatile boolean stopped = false;
+	private volatile ServerSocket serverSocket;
+	private final Set<Socket> clientSockets = new HashSet<Socket>();
+	private final CountDownLatch terminated = new CountDownLatch(1);
+	private boolean isTerminated = false;
+
+	/**
+	 * Creates a MaltServer that uses the options in the specified option container
+	 *
+	 * @param optionContainer the option container index
+	 */
+	public MaltServer(int optionContainer) {
+		this.optionContainer = optionContainer;
+	}
+
+	/**
+	 * Loads the parser model. The options must already be parsed into the option container.
+	 *
+	 * @throws MaltChainedException
+	 */
+	public void initialize() throws MaltChainedException {
+		engine = new Engine();
+		flowChartInstance = engine.initialize(optionContainer);
+		final ConfigurationDir configDir = (ConfigurationDir)flowChartInstance.getFlowChartRegistry(org.maltparser.core.config.ConfigurationDir.class, "singlemalt");
+		final DataFormatManager dataFormatManager = configDir.getDataFormatManager();
+		if (dataFormatManager.getInputDataFormatSpec().getDataStructure() != DataStructure.DEPENDENCY) {
+			throw new DataFormatException("The server can only parse dependency structures. ");
+		}
+		final String nullValueStrategy = getOptionValue("singlemalt", "null_value");
+		rootLabels = getOptionValue("graph", "root_label");
+		inputCharSet = getOptionValue("input", "charset");
+		outputCharSet = getOptionValue("output", "charset");
+		readerOptions = getOptionValue("input", "reader_options");
+		writerOptions = getOptionValue("output", "writer_options");
+		usePartialTree = getOptionValue("singlemalt", "use_partial_tree").equals("true");
+		returnLatency = getOptionValue("server", "latency").equals("true");
+		pprojActive = !getOptionValue("pproj", "marking_strategy").trim().equalsIgnoreCase("none")
+			|| !getOptionValue("pproj", "covered_root").trim().equalsIgnoreCase("none");
+		try {
+			graphReaderClass = ((Class<?>)OptionManager.instance().getOptionValue(optionContainer, "input", "reader")).asSubclass(org.maltparser.core.syntaxgraph.reader.SyntaxGraphReader.class);
+			graphWriterClass = ((Class<?>)OptionManager.instance().getOptionValue(optionContainer, "output", "writer")).asSubclass(org.maltparser.core.syntaxgraph.writer.SyntaxGraphWriter.class);
+		} catch (ClassCastException e) {
+			throw new DataFormatException("The data reader or writer of the server is not a syntax graph reader or writer. ", e);
+		}
+
+		// Registers the data format instances in the same way as the read and write chart items in the parse flow chart
+		inputDataFormatInstance = dataFormatManager.getInputDataFormatSpec().createDataFormatInstance(configDir.getSymbolTables(), nullValueStrategy, rootLabels);
+		configDir.getDataFormatInstances().put(dataFormatManager.getInputDataFormatSpec().getDataFormatName(), inputDataFormatInstance);
+		if (dataFormatManager.getInputDataFormatSpec() != dataFormatManager.getOutputDataFormatSpec()) {
+			outputDataFormatInstance = dataFormatManager.getOutputDataFormatSpec().createDataFormatInstance(configDir.getSymbolTables(), nullValueStrategy, rootLabels);
+			configDir.getDataFormatInstances().put(dataFormatManager.getOutputDataFormatSpec().getDataFormatName(), outputDataFormatInstance);
+		} else {
+			outputDataFormatInstance = inputDataFormatInstance;
+		}
+
+		// Runs the preprocess chart items of the "serve" flow chart, which loads the parser model
+		if (flowChartInstance.hasPreProcessChartItems()) {
+			flowChartInstance.preprocess();
+		}
+		singleMalt = (SingleMalt)flowChartInstance.getFlowChartRegistry(org.maltparser.parser.SingleMalt.class, "singlemalt");
+		pproj = (PseudoProjectivity)flowChartInstance.getFlowChartRegistry(org.maltparser.transform.pseudo.PseudoProjectivity.class, "singlemalt");
+		configLogger = singleMalt.getConfigLogger();
+		parserPool = new ParserPool(singleMalt);
+	}
+
+	/**
+	 * Serves requests until the standard input is closed or, if a port is specified, until the server is stopped.
+	 *
+	 * @throws MaltChainedException
+	 */
+	public void serve() throws MaltChainedException {
+		final int port = (Integer)OptionManager.instance().getOptionValue(optionContainer, "server", "port");
+		if (port == 0) {
+			process(System.in, System.out, "stdin");
+		} else {
+			listen(port, (Integer)OptionManager.instance().getOptionValue(optionContainer, "server", "threads"));
+		}
+	}
+
+	private void listen(int port, int numberOfThreads) throws MaltChainedException {
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads));
+		final Thread shutdownHook = new Thread(new Runnable() {
+			public void run() {
+				stop();
+				try {
+					terminated.await();
+				} catch (InterruptedException e) { }
+			}
+		}, "malt-server-shutdown");
+		Runtime.getRuntime().addShutdownHook(shutdownHook);
+		try {
+			serverSocket = new ServerSocket(port, 50, InetAddress.getByName("localhost"));
+			if (SystemLogger.logger().isInfoEnabled()) {
+				SystemLogger.logger().info("Listening on port " + serverSocket.getLocalPort() + " ...\n");
+			}
+			while (!stopped) {
+				final Socket socket;
+				try {
+					socket = serverSocket.accept();
+				} catch (SocketException e) {
+					if (stopped) {
+						break;
+					}
+					throw e;
+				}
+				synchronized (clientSockets) {
+					if (stopped) {
+						socket.close();
+						break;
+					}
+					clientSockets.add(socket);
+				}
+				executor.execute(new Runnable() {
+					public void run() {
+						final String client = socket.getInetAddress().getHostAddress() + ":" + socket.getPort();
+						try {
+							process(socket.getInputStream(), socket.getOutputStream(), client);
+						} catch (MaltChainedException e) {
+							SystemLogger.logger().error("Request from " + client + " failed: " + e.getMessageChain());
+						} catch (IOException e) {
+							SystemLogger.logger().error("Request from " + client + " failed: " + e.getMessage() + "\n");
+						} finally {
+							synchronized (clientSockets) {
+								clientSockets.remove(socket);
+							}
+							try {
+								socket.close();
+							} catch (IOException e) { }
+						}
+					}
+				});
+			}
+		} catch (IOException e) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException ise) { }
+			throw new MaltChainedException("The server could not listen on port " + port + ". ", e);
+		} finally {
+			executor.shutdown();
+			closeServerSocket();
+		}
+		// The connections finish the sentences they have received, then the server is terminated by the caller
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) { }
+	}
+
+	/**
+	 * Stops a server that listens on a port: no more connections are accepted and the open connections read no more sentences, 
+	 * so that serve() returns when the sentences that are already received are parsed. 
+	 */
+	public void stop() {
+		stopped = true;
+		closeServerSocket();
+		synchronized (clientSockets) {
+			for (Socket socket : clientSockets) {
+				try {
+					socket.shutdownInput();
+				} catch (IOException e) { }
+			}
+		}
+	}
+
+	private void closeServerSocket() {
+		final ServerSocket socket = serverSocket;
+		if (socket != null) {
+			try {
+				socket.close();
+			} catch (IOException e) { }
+		}
+	}
+
+	/**
+	 * Parses the sentences of an input stream and writes each parsed sentence to the output stream as soon as it is parsed.
+	 *
+	 * @param is the input stream
+	 * @param os the output stream
+	 * @param client the name of the client used in the log
+	 * @throws MaltChainedException
+	 */
+	public void process(InputStream is, OutputStream os, String client) throws MaltChainedException {
+		final SyntaxGraphReader reader = newReader(is);
+		final SyntaxGraphWriter writer = newWriter(os);
+		final DependencyStructure inputGraph = newGraph();
+		final DependencyStructure outputGraph = newGraph();
+		try {
+			writer.writeProlog();
+			boolean moreInput = true;
+			while (moreInput) {
+				// The unknown symbols of a sentence are only kept until the sentence is written
+				AddedSymbolScope.open();
+				moreInput = reader.readSentence(inputGraph);
+				if (!inputGraph.hasTokens()) {
+					continue;
+				}
+				final long startTime = System.nanoTime();
+				copyTerminalStructure(inputGraph, outputGraph);
+				final Parser parser = parserPool.borrowParser();
+				try {
+					parser.parse(outputGraph);
+				} finally {
+					parserPool.returnParser(parser);
+				}
+				if (pprojActive) {
+					synchronized (pproj) {
+						pproj.deprojectivize(outputGraph);
+					}
+				}
+				final long latency = System.nanoTime() - startTime;
+				final int nTokens = outputGraph.nTokenNode();
+				final int request = addRequest(nTokens, latency);
+				if (returnLatency) {
+					writeLatency(os, new Formatter().format("# request %d: %d tokens, %.3f ms\n", request, nTokens, latency / 1000000.0).toString());
+				}
+				writer.writeSentence(outputGraph);
+				if (configLogger.isInfoEnabled()) {
+					configLogger.info(new Formatter().format("Request %d from %s: %d tokens, %.3f ms\n", request, client, nTokens, latency / 1000000.0).toString());
+				}
+			}
+			writer.writeEpilog();
+		} finally {
+			AddedSymbolScope.close();
+			reader.close();
+			writer.close();
+		}
+	}
+
+	/**
+	 * Writes the latency comment line of a request to the client. The writer of the parsed sentences flushes after each sentence, 
+	 * so the line is written directly to the output stream.
+	 */
+	private void writeLatency(OutputStream os, String line) throws MaltChainedException {
+		try {
+			os.write(line.getBytes(outputCharSet));
+			os.flush();
+		} catch (IOException e) {
+			throw new DataFormatException("Could not write the latency of the request. ", e);
+		}
+	}
+
+	/**
+	 * Terminates the server and the parser model. A server is only terminated once.
+	 *
+	 * @throws MaltChainedException
+	 */
+	public void terminate() throws MaltChainedException {
+		synchronized (this) {
+			if (isTerminated) {
+				return;
+			}
+			isTerminated = true;
+		}
+		try {
+			if (configLogger != null && configLogger.isInfoEnabled()) {
+				synchronized (this) {
+					configLogger.info(new Formatter().format("Served %d requests (%d tokens), average latency %.3f ms, maximum latency %.3f ms\n",
+							requestCounter, tokenCounter, requestCounter == 0 ? 0.0 : totalLatency / 1000000.0 / requestCounter, maxLatency / 1000000.0).toString());
+				}
+			}
+			if (parserPool != null) {
+				parserPool.terminateAll();
+			}
+			if (flowChartInstance.hasPostProcessChartItems()) {
+				flowChartInstance.postprocess();
+			}
+			engine.terminate(optionContainer);
+		} finally {
+			terminated.countDown();
+		}
+	}
+
+	private synchronized int addRequest(int nTokens, long latency) {
+		requestCounter++;
+		tokenCounter += nTokens;
+		totalLatency += latency;
+		if (latency > maxLatency) {
+			maxLatency = latency;
+		}
+		return requestCounter;
+	}
+
+	private DependencyStructure newGraph() throws MaltChainedException {
+		final DependencyStructure graph = new DependencyGraph(singleMalt.getSymbolTables());
+		graph.setDefaultRootEdgeLabels(rootLabels, inputDataFormatInstance.getDependencyEdgeLabelSymbolTables());
+		return graph;
+	}
+
+	private SyntaxGraphReader newReader(InputStream is) throws MaltChainedException {
+		try {
+			final SyntaxGraphReader reader = graphReaderClass.newInstance();
+			reader.open(is, inputCharSet);
+			reader.setDataFormatInstance(inputDataFormatInstance);
+			reader.setOptions(readerOptions);
+			return reader;
+		} catch (InstantiationException e) {
+			throw new DataFormatException("The data reader '"+graphReaderClass.getName()+"' cannot be initialized. ", e);
+		} catch (IllegalAccessException e) {
+			throw new DataFormatException("The data reader '"+graphReaderClass.getName()+"' cannot be initialized. ", e);
+		}
+	}
+
+	private SyntaxGraphWriter newWriter(OutputStream os) throws MaltChainedException {
+		try {
+			final SyntaxGraphWriter writer = graphWriterClass.newInstance();
+			writer.open(os, outputCharSet);
+			writer.setDataFormatInstance(outputDataFormatInstance);
+			writer.setOptions(writerOptions);
+			return writer;
+		} catch (InstantiationException e) {
+			throw new DataFormatException("The data writer '"+graphWriterClass.getName()+"' cannot be initialized. ", e);
+		} catch (IllegalAccessException e) {
+			throw new DataFormatException("The data writer '"+graphWriterClass.getName()+"' cannot be initialized. ", e);
+		}
+	}
+
+	/**
+	 * Copies the tokens (and the partial tree if the option <code>--singlemalt-use_partial_tree</code> is true) in the same way
+	 * as the copy chart item in the parse flow chart.
+	 */
+	private void copyTerminalStructure(DependencyStructure sourceGraph, DependencyStructure targetGraph) throws MaltChainedException {
+		targetGraph.clear();
+		for (int index : sourceGraph.getTokenIndices()) {
+			DependencyNode gnode = sourceGraph.getTokenNode(index);
+			DependencyNode pnode = targetGraph.addTokenNode(gnode.getIndex());
+			for (SymbolTable table : gnode.getLabelTypes()) {
+				pnode.addLabel(table, gnode.getLabelSymbol(table));
+			}
+		}
+		if (usePartialTree) {
+			SymbolTable partHead = sourceGraph.getSymbolTables().getSymbolTable("PARTHEAD");
+			SymbolTable partDeprel = sourceGraph.getSymbolTables().getSymbolTable("PARTDEPREL");
+			if (partHead == null || partDeprel == null) {
+				return;
+			}
+			SymbolTable deprel = targetGraph.getSymbolTables().getSymbolTable("DEPREL");
+			for (int index : sourceGraph.getTokenIndices()) {
+				DependencyNode snode = sourceGraph.getTokenNode(index);
+				DependencyNode tnode = targetGraph.getTokenNode(index);
+				if (snode != null && tnode != null) {
+					int spartheadindex = Integer.parseInt(snode.getLabelSymbol(partHead));
+					if (spartheadindex > 0) {
+						Edge tedge = targetGraph.addDependencyEdge(spartheadindex, snode.getIndex());
+						tedge.addLabel(deprel, snode.getLabelSymbol(partDeprel));
+					}
+				}
+			}
+		}
+	}
+
+	private String getOptionValue(String optiongroup, String optionname) throws MaltChainedException {
+		return OptionManager.instance().getOptionValue(optionContainer, optiongroup, optionname).toString();
+	}
+}
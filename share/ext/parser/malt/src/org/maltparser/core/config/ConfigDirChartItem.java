@@ -3,6 +3,7 @@ package org.maltparser.core.config;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.flow.FlowChartInstance;
@@ -11,12 +12,15 @@ import org.maltparser.core.flow.spec.ChartItemSpecification;
 import org.maltparser.core.helper.SystemInfo;
 import org.maltparser.core.helper.SystemLogger;
 import org.maltparser.core.options.OptionManager;
+import org.maltparser.core.symbol.frozen.FrozenSymbolTableHandler;
 /**
 *
 *
 * @author Johan Hall
 */
 public class ConfigDirChartItem extends ChartItem {
+	/** The symbol tables in binary form, which are memory-mapped from the mco-file and used when parsing */
+	public final static String BINARY_SYMBOL_TABLES_FILE = "symboltables.sym"+ConfigurationDir.STORED_FILE_SUFFIX;
 	private String idName;
 	private String taskName;
 	private String optionFileName;
@@ -116,6 +120,15 @@ public class ConfigDirChartItem extends ChartItem {
 				configDir.copyToConfig(new File(optionFileName));
 			}
 			configDir.initDataFormat();
+		} else if (taskName.equals("loadsymboltables")) {
+			// the symbol tables are frozen before the other chart items get the symbol table handler
+			final ByteBuffer buffer = configDir.getByteBufferFromConfigFileEntry(BINARY_SYMBOL_TABLES_FILE);
+			if (buffer != null) {
+				configDir.setSymbolTables(new FrozenSymbolTableHandler(buffer));
+			} else {
+				configDir.getSymbolTables().load(configDir.getInputStreamReaderFromConfigFileEntry("symboltables.sym",inCharSet));
+				configDir.setSymbolTables(new FrozenSymbolTableHandler(configDir.getSymbolTables()));
+			}
 		}
 	}
 	
@@ -125,8 +138,6 @@ public class ConfigDirChartItem extends ChartItem {
 			configDir.unpackConfigFile();
 		} else if (taskName.equals("info")) {
 			configDir.echoInfoFile();
-		} else if (taskName.equals("loadsymboltables")) {
-			configDir.getSymbolTables().load(configDir.getInputStreamReaderFromConfigFileEntry("symboltables.sym",inCharSet));
 		}
 		return signal;
 	}
@@ -145,11 +156,16 @@ public class ConfigDirChartItem extends ChartItem {
 			configDir.deleteConfigDirectory();
 		} else if (taskName.equals("savesymboltables")) {
 			configDir.getSymbolTables().save(configDir.getOutputStreamWriter("symboltables.sym", outCharSet));
+			FrozenSymbolTableHandler.save(configDir.getSymbolTables(), configDir.getFile(BINARY_SYMBOL_TABLES_FILE));
 		}
 		return signal;
 	}
 	
-	public void terminate() throws MaltChainedException { }
+	public void terminate() throws MaltChainedException {
+		if (configDir != null) {
+			configDir.closeArchive();
+		}
+	}
 	
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -0,0 +1,395 @@
+package org.maltparser.core.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+
+import org.maltparser.core.exception.MaltChainedException;
+
+/**
+* A configuration archive gives access to the entries of a MaltParser configuration file (mco-file) without unpacking it.
+* A mco-file on the local file system is kept open and the entries are read directly from the file, and a mco-file specified
+* by an URL is read into memory once.
+*
+* The archives are shared within the JVM: all configuration directories that use the same mco-file get the same archive, and the
+* classifier models loaded from the archive are shared by all of them. An archive is closed when the last configuration directory
+* that uses it has closed it.
+*
+* @author Johan Hall
+*/
+public class ConfigurationArchive {
+	private static final int BUFFER = 4096;
+	private static final HashMap<String, ConfigurationArchive> archives = new HashMap<String, ConfigurationArchive>();
+
+	private final String key;
+	private final String location;
+	private final JarFile jarFile;
+	private final File file;
+	private final HashMap<String, JarEntry> entries;
+	private final HashMap<String, byte[]> contents;
+	private final ConcurrentHashMap<String, Object> sharedModels;
+	private final URLStreamHandler urlHandler;
+	private int references = 0;
+
+	private ConfigurationArchive(String key, File mcoFile) throws MaltChainedException {
+		this.key = key;
+		this.location = mcoFile.getAbsolutePath();
+		this.file = mcoFile;
+		this.entries = new HashMap<String, JarEntry>();
+		this.contents = null;
+		this.sharedModels = new ConcurrentHashMap<String, Object>();
+		this.urlHandler = new ArchiveURLStreamHandler();
+		try {
+			jarFile = new JarFile(mcoFile);
+		} catch (IOException e) {
+			throw new ConfigurationException("The mco-file '"+location+"' cannot be opened. ", e);
+		}
+		final Enumeration<JarEntry> jarEntries = jarFile.entries();
+		while (jarEntries.hasMoreElements()) {
+			final JarEntry entry = jarEntries.nextElement();
+			if (!entry.isDirectory()) {
+				entries.put(normalizeEntryName(entry.getName()), entry);
+			}
+		}
+	}
+
+	private ConfigurationArchive(String key, URL url) throws MaltChainedException {
+		this.key = key;
+		this.location = url.toString();
+		this.jarFile = null;
+		this.file = null;
+		this.entries = new HashMap<String, JarEntry>();
+		this.contents = new HashMap<String, byte[]>();
+		this.sharedModels = new ConcurrentHashMap<String, Object>();
+		this.urlHandler = new ArchiveURLStreamHandler();
+		try {
+			final JarInputStream jis = new JarInputStream(url.openConnection().getInputStream());
+			final byte[] readBuffer = new byte[BUFFER];
+			JarEntry entry;
+			while ((entry = jis.getNextJarEntry()) != null) {
+				if (entry.isDirectory()) {
+					continue;
+				}
+				final ByteArrayOutputStream bos = new ByteArrayOutputStream(entry.getSize() > 0?(int)entry.getSize():BUFFER);
+				int n = 0;
+				while ((n = jis.read(readBuffer, 0, BUFFER)) != -1) {
+					bos.write(readBuffer, 0, n);
+				}
+				final String entryName = normalizeEntryName(entry.getName());
+				entries.put(entryName, entry);
+				contents.put(entryName, bos.toByteArray());
+			}
+			jis.close();
+		} catch (IOException e) {
+			throw new ConfigurationException("The mco-file '"+location+"' cannot be read. ", e);
+		}
+	}
+
+	/**
+	 * Opens the archive of a mco-file on the local file system. If the mco-file is already opened by another configuration
+	 * directory and has not been modified since then, the already opened archive is returned.
+	 *
+	 * @param mcoFile	the mco-file
+	 * @return	the archive of the mco-file
+	 * @throws MaltChainedException
+	 */
+	public static ConfigurationArchive open(File mcoFile) throws MaltChainedException {
+		if (!mcoFile.exists()) {
+			throw new ConfigurationException("Couldn't find mco-file '" +mcoFile.getAbsolutePath()+ "'");
+		}
+		String key;
+		try {
+			key = mcoFile.getCanonicalPath()+'|'+mcoFile.lastModified()+'|'+mcoFile.length();
+		} catch (IOException e) {
+			throw new ConfigurationException("Couldn't find mco-file '" +mcoFile.getAbsolutePath()+ "'", e);
+		}
+		synchronized (archives) {
+			ConfigurationArchive archive = archives.get(key);
+			if (archive == null) {
+				archive = new ConfigurationArchive(key, mcoFile);
+				archives.put(key, archive);
+			}
+			archive.references++;
+			return archive;
+		}
+	}
+
+	/**
+	 * Opens the archive of a mco-file specified by an URL. If the mco-file is already opened by another configuration
+	 * directory, the already opened archive is returned.
+	 *
+	 * @param url	an URL to a mco-file
+	 * @return	the archive of the mco-file
+	 * @throws MaltChainedException
+	 */
+	public static ConfigurationArchive open(URL url) throws MaltChainedException {
+		final String key = url.toString();
+		synchronized (archives) {
+			ConfigurationArchive archive = archives.get(key);
+			if (archive == null) {
+				archive = new ConfigurationArchive(key, url);
+				archives.put(key, archive);
+			}
+			archive.references++;
+			return archive;
+		}
+	}
+
+	/**
+	 * Closes the archive for one configuration directory. The mco-file is closed and the shared models are released when
+	 * no configuration directory uses the archive anymore.
+	 *
+	 * @param archive	the archive
+	 * @throws MaltChainedException
+	 */
+	public static void close(ConfigurationArchive archive) throws MaltChainedException {
+		synchronized (archives) {
+			archive.references--;
+			if (archive.references > 0) {
+				return;
+			}
+			if (archives.get(archive.key) == archive) {
+				archives.remove(archive.key);
+			}
+		}
+		archive.sharedModels.clear();
+		if (archive.jarFile != null) {
+			try {
+				archive.jarFile.close();
+			} catch (IOException e) {
+				throw new ConfigurationException("The mco-file '"+archive.location+"' cannot be closed. ", e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the entry of the archive, or null if the entry doesn't exist.
+	 *
+	 * @param entryName	the entry name (for example <i>model/symboltables.sym</i>)
+	 * @return	the entry or null
+	 */
+	public JarEntry getEntry(String entryName) {
+		return entries.get(normalizeEntryName(entryName));
+	}
+
+	/**
+	 * Returns an input stream for reading the content of an entry, or null if the entry doesn't exist.
+	 *
+	 * @param entryName	the entry name
+	 * @return	an input stream or null
+	 * @throws MaltChainedException
+	 */
+	public InputStream getInputStream(String entryName) throws MaltChainedException {
+		try {
+			return openEntry(normalizeEntryName(entryName));
+		} catch (IOException e) {
+			throw new ConfigurationException("The file entry '"+entryName+"' in the mco-file '"+location+"' cannot be loaded. ", e);
+		}
+	}
+
+	/**
+	 * Returns an URL that reads the content of an entry directly from the archive, or null if the entry doesn't exist.
+	 *
+	 * @param entryName	the entry name
+	 * @return	an URL or null
+	 * @throws MaltChainedException
+	 */
+	public URL getURL(String entryName) throws MaltChainedException {
+		final String name = normalizeEntryName(entryName);
+		if (!entries.containsKey(name)) {
+			return null;
+		}
+		try {
+			return new URL("mco", null, -1, "/"+name, urlHandler);
+		} catch (MalformedURLException e) {
+			throw new ConfigurationException("Couldn't create the URL of the file entry '"+entryName+"' in the mco-file '"+location+"'. ", e);
+		}
+	}
+
+	/**
+	 * Returns a read-only byte buffer with the content of an entry, or null if the entry doesn't exist. An entry that is
+	 * stored uncompressed in a mco-file on the local file system is memory-mapped directly from the mco-file, otherwise
+	 * the content is read into memory.
+	 *
+	 * @param entryName	the entry name
+	 * @return	a byte buffer or null
+	 * @throws MaltChainedException
+	 */
+	public ByteBuffer getByteBuffer(String entryName) throws MaltChainedException {
+		final String name = normalizeEntryName(entryName);
+		final JarEntry entry = entries.get(name);
+		if (entry == null) {
+			return null;
+		}
+		try {
+			if (contents != null) {
+				return ByteBuffer.wrap(contents.get(name)).asReadOnlyBuffer();
+			}
+			if (entry.getMethod() == ZipEntry.STORED) {
+				final ByteBuffer mapped = mapStoredEntry(name, entry.getSize());
+				if (mapped != null) {
+					return mapped;
+				}
+			}
+			final InputStream is = jarFile.getInputStream(entry);
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream(entry.getSize() > 0?(int)entry.getSize():BUFFER);
+			final byte[] readBuffer = new byte[BUFFER];
+			int n = 0;
+			while ((n = is.read(readBuffer, 0, BUFFER)) != -1) {
+				bos.write(readBuffer, 0, n);
+			}
+			is.close();
+			return ByteBuffer.wrap(bos.toByteArray()).asReadOnlyBuffer();
+		} catch (IOException e) {
+			throw new ConfigurationException("The file entry '"+entryName+"' in the mco-file '"+location+"' cannot be loaded. ", e);
+		}
+	}
+
+	/**
+	 * Memory-maps an uncompressed entry of the mco-file. The position of the entry data is found by reading the central
+	 * directory and the local file header of the entry. Returns null if the entry cannot be located (for example in a
+	 * ZIP64 file).
+	 */
+	private ByteBuffer mapStoredEntry(String name, long size) throws IOException {
+		if (size < 0) {
+			return null;
+		}
+		final RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = raf.getChannel();
+			final long fileLength = channel.size();
+			final int tailLength = (int)Math.min(fileLength, 22+65535);
+			final ByteBuffer tail = ByteBuffer.allocate(tailLength).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(tail, fileLength-tailLength);
+			int eocd = -1;
+			for (int i = tailLength-22; i >= 0; i--) {
+				if (tail.getInt(i) == 0x06054b50) {
+					eocd = i;
+					break;
+				}
+			}
+			if (eocd == -1) {
+				return null;
+			}
+			final long cdSize = tail.getInt(eocd+12) & 0xFFFFFFFFL;
+			final long cdOffset = tail.getInt(eocd+16) & 0xFFFFFFFFL;
+			if (cdOffset+cdSize > fileLength) {
+				return null;
+			}
+			final ByteBuffer cd = ByteBuffer.allocate((int)cdSize).order(ByteOrder.LITTLE_ENDIAN);
+			channel.read(cd, cdOffset);
+			int p = 0;
+			while (p+46 <= cdSize && cd.getInt(p) == 0x02014b50) {
+				final int nameLength = cd.getShort(p+28) & 0xFFFF;
+				final int extraLength = cd.getShort(p+30) & 0xFFFF;
+				final int commentLength = cd.getShort(p+32) & 0xFFFF;
+				final byte[] entryName = new byte[nameLength];
+				cd.position(p+46);
+				cd.get(entryName);
+				if (normalizeEntryName(new String(entryName, "UTF-8")).equals(name)) {
+					final long localOffset = cd.getInt(p+42) & 0xFFFFFFFFL;
+					final ByteBuffer local = ByteBuffer.allocate(30).order(ByteOrder.LITTLE_ENDIAN);
+					channel.read(local, localOffset);
+					if (local.getInt(0) != 0x04034b50) {
+						return null;
+					}
+					final long dataOffset = localOffset+30+(local.getShort(26) & 0xFFFF)+(local.getShort(28) & 0xFFFF);
+					if (dataOffset+size > fileLength) {
+						return null;
+					}
+					return channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, size);
+				}
+				p += 46+nameLength+extraLength+commentLength;
+			}
+			return null;
+		} finally {
+			raf.close();
+		}
+	}
+
+	/**
+	 * Returns a classifier model that has already been loaded from the archive, or null if the model is not loaded.
+	 *
+	 * @param fileName	the file name of the model within the configuration directory
+	 * @return a classifier model or null
+	 */
+	public Object getSharedModel(String fileName) {
+		return sharedModels.get(fileName);
+	}
+
+	/**
+	 * Shares a loaded classifier model with all users of the archive. If another model already has been shared for the file
+	 * name, the already shared model is kept and returned.
+	 *
+	 * @param fileName	the file name of the model within the configuration directory
+	 * @param model	a loaded classifier model
+	 * @return the model that is shared for the file name
+	 */
+	public Object shareModel(String fileName, Object model) {
+		final Object sharedModel = sharedModels.putIfAbsent(fileName, model);
+		return (sharedModel != null)?sharedModel:model;
+	}
+
+	/**
+	 * Returns the location of the mco-file
+	 *
+	 * @return the location of the mco-file
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	private InputStream openEntry(String name) throws IOException {
+		if (contents != null) {
+			final byte[] content = contents.get(name);
+			return (content != null)?new ByteArrayInputStream(content):null;
+		}
+		final JarEntry entry = entries.get(name);
+		return (entry != null)?jarFile.getInputStream(entry):null;
+	}
+
+	private static String normalizeEntryName(String entryName) {
+		String name = entryName.replace('\\', '/');
+		while (name.startsWith("/")) {
+			name = name.substring(1);
+		}
+		return name;
+	}
+
+	/**
+	 * Resolves the URLs returned by getURL() to the entries of the archive.
+	 */
+	private class ArchiveURLStreamHandler extends URLStreamHandler {
+		protected URLConnection openConnection(URL u) throws IOException {
+			return new URLConnection(u) {
+				public void connect() throws IOException { }
+
+				public InputStream getInputStream() throws IOException {
+					final InputStream is = openEntry(normalizeEntryName(getURL().getPath()));
+					if (is == null) {
+						throw new FileNotFoundException("The file entry '"+getURL().getPath()+"' in the mco-file '"+location+"' cannot be found. ");
+					}
+					return is;
+				}
+			};
+		}
+	}
+}
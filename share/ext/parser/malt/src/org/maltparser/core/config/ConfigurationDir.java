@@ -17,6 +17,7 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -27,6 +28,8 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.JarInputStream;
 import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
 
 import org.maltparser.core.config.version.Versioning;
 import org.maltparser.core.exception.MaltChainedException;
@@ -47,6 +50,10 @@ import org.maltparser.core.symbol.trie.TrieSymbolTableHandler;
 */
 public class ConfigurationDir  {
 	protected static final int BUFFER = 4096;
+	/**
+	 * Files with this suffix are stored uncompressed in the mco-file, so that they can be memory-mapped directly from the mco-file.
+	 */
+	public static final String STORED_FILE_SUFFIX = ".bin";
 	protected File configDirectory;
 	protected String name;
 	protected String type;
@@ -59,6 +66,7 @@ public class ConfigurationDir  {
 	private SymbolTableHandler symbolTables;
 	private DataFormatManager dataFormatManager;
 	private HashMap<String,DataFormatInstance> dataFormatInstances;
+	private ConfigurationArchive archive;
 	
 	
 	/**
@@ -248,40 +256,62 @@ public class ConfigurationDir  {
 		return getInputStreamReader(fileName, "UTF-8");
 	}
 	
-	public JarEntry getConfigFileEntry(String fileName) throws MaltChainedException {
-		File mcoPath = new File(workingDirectory.getPath()+File.separator+getName()+".mco");
-		try {
-			JarFile mcoFile = new JarFile(mcoPath.getAbsolutePath());
-			JarEntry entry = mcoFile.getJarEntry(getName()+'/'+fileName);
-			if (entry == null) {
-				entry = mcoFile.getJarEntry(getName()+'\\'+fileName);
+	/**
+	 * Returns the archive of the mco-file, which gives access to the entries of the mco-file without unpacking it. 
+	 * The archive is opened the first time it is needed.
+	 * 
+	 * @return the archive of the mco-file
+	 * @throws MaltChainedException
+	 */
+	public synchronized ConfigurationArchive getArchive() throws MaltChainedException {
+		if (archive == null) {
+			if (url != null) {
+				archive = ConfigurationArchive.open(url);
+			} else {
+				archive = ConfigurationArchive.open(new File(workingDirectory.getPath()+File.separator+getName()+".mco"));
 			}
-			return entry;
-		} catch (FileNotFoundException e) {
-			throw new ConfigurationException("The file entry '"+fileName+"' in mco-file '"+mcoPath+"' cannot be found. ", e);
-		} catch (IOException e) {
-			throw new ConfigurationException("The file entry '"+fileName+"' in mco-file '"+mcoPath+"' cannot be found. ", e);
+		}
+		return archive;
+	}
+	
+	/**
+	 * Closes the archive of the mco-file, if it is opened.
+	 * 
+	 * @throws MaltChainedException
+	 */
+	public synchronized void closeArchive() throws MaltChainedException {
+		if (archive != null) {
+			ConfigurationArchive.close(archive);
+			archive = null;
 		}
 	}
 	
+	/**
+	 * Returns a read-only byte buffer with the content of a file entry in the mco-file, or null if the entry doesn't exist. 
+	 * Files with the suffix STORED_FILE_SUFFIX are stored uncompressed in the mco-file and are memory-mapped.
+	 * 
+	 * @param fileName	a file name
+	 * @return	a byte buffer or null
+	 * @throws MaltChainedException
+	 */
+	public ByteBuffer getByteBufferFromConfigFileEntry(String fileName) throws MaltChainedException {
+		return getArchive().getByteBuffer(getName()+'/'+fileName);
+	}
+	
+	public JarEntry getConfigFileEntry(String fileName) throws MaltChainedException {
+		return getArchive().getEntry(getName()+'/'+fileName);
+	}
+	
 	public InputStreamReader getInputStreamReaderFromConfigFileEntry(String fileName, String charSet) throws MaltChainedException {
-		File mcoPath = new File(workingDirectory.getPath()+File.separator+getName()+".mco");
+		final ConfigurationArchive mcoFile = getArchive();
+		final InputStream is = mcoFile.getInputStream(getName()+'/'+fileName);
+		if (is == null) {
+			throw new ConfigurationException("The file entry '"+fileName+"' in the mco file '"+mcoFile.getLocation()+"' cannot be found. ");
+		}
 		try {
-			JarFile mcoFile = new JarFile(mcoPath.getAbsolutePath());
-			JarEntry entry = mcoFile.getJarEntry(getName()+'/'+fileName);
-			if (entry == null) {
-				entry = mcoFile.getJarEntry(getName()+'\\'+fileName);
-			}
-			if (entry == null) {
-				throw new FileNotFoundException();
-			}
-			return new InputStreamReader(mcoFile.getInputStream(entry),  charSet);
-		} catch (FileNotFoundException e) {
-			throw new ConfigurationException("The file entry '"+fileName+"' in the mco file '"+mcoPath+"' cannot be found. ", e);
+			return new InputStreamReader(is,  charSet);
 		} catch (UnsupportedEncodingException e) {
 			throw new ConfigurationException("The char set '"+charSet+"' is not supported. ", e);
-		} catch (IOException e) {
-			throw new ConfigurationException("The file entry '"+fileName+"' in the mco file '"+mcoPath+"' cannot be loaded. ", e);
 		}
 	}
 	
@@ -300,24 +330,15 @@ public class ConfigurationDir  {
 		return new File(configDirectory.getPath()+File.separator+fileName);
 	}
 	
+	/**
+	 * Returns an URL that reads a file entry directly from the mco-file, or null if the entry doesn't exist.
+	 * 
+	 * @param fileName	a file name
+	 * @return	an URL or null
+	 * @throws MaltChainedException
+	 */
 	public URL getConfigFileEntryURL(String fileName) throws MaltChainedException {
-		File mcoPath = new File(workingDirectory.getPath()+File.separator+getName()+".mco");
-		try {
-			if (!mcoPath.exists()) {
-				throw new ConfigurationException("Couldn't find mco-file '" +mcoPath.getAbsolutePath()+ "'");
-			}
-//			new URL("file", null, mcoPath.getAbsolutePath());
-			URL url = new URL("jar:"+new URL("file", null, mcoPath.getAbsolutePath())+"!/"+getName()+'/'+fileName + "\n");
-			try { 
-				InputStream is = url.openStream();
-				is.close();
-			} catch (IOException e) {
-				url = new URL("jar:"+new URL("file", null, mcoPath.getAbsolutePath())+"!/"+getName()+'\\'+fileName + "\n");
-			}
-			return url;
-		} catch (MalformedURLException e) {
-			throw new ConfigurationException("Couldn't find the URL '" +"jar:"+mcoPath.getAbsolutePath()+"!/"+getName()+'/'+fileName+ "'", e);
-		}
+		return getArchive().getURL(getName()+'/'+fileName);
 	}
 	
     /**
@@ -498,7 +519,7 @@ public class ConfigurationDir  {
 	}
 	
 	/**
-	 * Creates the malt configuration file (.mco). This file is compressed.   
+	 * Creates the malt configuration file (.mco). This file is compressed, except for files with the suffix STORED_FILE_SUFFIX.   
 	 * 
 	 * @throws MaltChainedException
 	 */
@@ -536,6 +557,18 @@ public class ConfigurationDir  {
 				String entryPath = f.getPath().substring(workingDirectory.getPath().length()+1);
 				entryPath = entryPath.replace('\\', '/');
 				JarEntry entry = new JarEntry(entryPath);
+				if (entryPath.endsWith(STORED_FILE_SUFFIX)) {
+					CRC32 crc = new CRC32();
+					while ((bytesIn = fis.read(readBuffer)) != -1) {
+						crc.update(readBuffer, 0, bytesIn);
+					}
+					fis.close();
+					fis = new FileInputStream(f);
+					entry.setMethod(ZipEntry.STORED);
+					entry.setSize(f.length());
+					entry.setCompressedSize(f.length());
+					entry.setCrc(crc.getValue());
+				}
 				jos.putNextEntry(entry);
 	
 				while ((bytesIn = fis.read(readBuffer)) != -1) {
@@ -1063,6 +1096,7 @@ public class ConfigurationDir  {
 			}
 		}
 		symbolTables = null;
+		closeArchive();
 //		configuration = null;
 	}
 	
@@ -1080,6 +1114,31 @@ public class ConfigurationDir  {
 		}
 	}
 	
+	/**
+	 * Returns a classifier model that has already been loaded from the configuration, or null if the model is not loaded. 
+	 * Loaded models are read-only and are shared by all parsers that use the same mco-file, also by parsers of other 
+	 * configuration directories in the same JVM.
+	 * 
+	 * @param fileName	the file name of the model within the configuration directory
+	 * @return a classifier model or null
+	 * @throws MaltChainedException
+	 */
+	public Object getSharedModel(String fileName) throws MaltChainedException {
+		return getArchive().getSharedModel(fileName);
+	}
+	
+	/**
+	 * Shares a loaded classifier model with all parsers that use the same mco-file. If another model already 
+	 * has been shared for the file name, the already shared model is kept and returned.
+	 * 
+	 * @param fileName	the file name of the model within the configuration directory
+	 * @param model	a loaded classifier model
+	 * @return the model that is shared for the file name
+	 */
+	public Object shareModel(String fileName, Object model) throws MaltChainedException {
+		return getArchive().shareModel(fileName, model);
+	}
+	
 	public SymbolTableHandler getSymbolTables() {
 		return symbolTables;
 	}
@@ -0,0 +1,185 @@
+package org.maltparser.core.feature;
+
+import java.util.ArrayList;
+
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.core.feature.function.AddressFunction;
+import org.maltparser.core.feature.function.FeatureFunction;
+import org.maltparser.core.feature.function.FeatureMapFunction;
+import org.maltparser.core.feature.value.FeatureValue;
+import org.maltparser.core.feature.value.SingleFeatureValue;
+
+/**
+* The flat extraction program of a feature model. The address functions and feature functions of the model are compiled
+* into arrays of steps that are run in one pass, first all address functions and then all feature functions. The feature
+* functions are in the order of the feature function cache of the model, where the argument features of a map feature
+* (Merge, Split, Prefix, ...) always come before the map feature. A map feature is therefore updated from the values of
+* its argument features with updateValue(), instead of updating its argument features once more.
+*
+* After each step the code of a single-valued feature is written into a preallocated array of codes, indexed by the slot
+* (the position in the feature function cache) of the feature function, so that the codes of a feature vector can be
+* read without going through the feature values.
+*
+* The plan is compiled again when functions are added to the caches of the feature model. A plan belongs to one feature
+* model and is not thread-safe.
+*
+* @author Johan Hall
+* @since 1.4
+*/
+public class FeatureExtractionPlan {
+	private final static byte UPDATE = 0;
+	private final static byte UPDATE_VALUE = 1;
+	private final ArrayList<AddressFunction> addressFunctionCache;
+	private final ArrayList<FeatureFunction> featureFunctionCache;
+	private AddressFunction[] addressFunctions;
+	private FeatureFunction[] featureFunctions;
+	private byte[] steps;
+	private int[] codes;
+	private boolean[] nullValues;
+	private boolean[] singleValues;
+	private int compilations;
+
+	/**
+	 * Constructs an extraction plan of the feature model
+	 *
+	 * @param featureModel	the feature model
+	 */
+	public FeatureExtractionPlan(FeatureModel featureModel) {
+		addressFunctionCache = featureModel.getAddressFunctionCache();
+		featureFunctionCache = featureModel.getFeatureFunctionCache();
+		compile();
+	}
+
+	private void compile() {
+		addressFunctions = addressFunctionCache.toArray(new AddressFunction[addressFunctionCache.size()]);
+		featureFunctions = featureFunctionCache.toArray(new FeatureFunction[featureFunctionCache.size()]);
+		final int n = featureFunctions.length;
+		steps = new byte[n];
+		for (int i = 0; i < n; i++) {
+			steps[i] = (featureFunctions[i] instanceof FeatureMapFunction)?UPDATE_VALUE:UPDATE;
+		}
+		codes = new int[n];
+		nullValues = new boolean[n];
+		singleValues = new boolean[n];
+		compilations++;
+	}
+
+	private void checkCompiled() {
+		if (addressFunctions.length != addressFunctionCache.size() || featureFunctions.length != featureFunctionCache.size()) {
+			compile();
+		}
+	}
+
+	/**
+	 * Runs the plan: updates all address functions and feature functions according to the current state.
+	 *
+	 * @throws MaltChainedException
+	 */
+	public void update() throws MaltChainedException {
+		checkCompiled();
+		final AddressFunction[] addressFunctions = this.addressFunctions;
+		for (int i = 0; i < addressFunctions.length; i++) {
+			addressFunctions[i].update();
+		}
+		updateFeatures();
+	}
+
+	/**
+	 * Runs the plan with the arguments passed to the address functions.
+	 *
+	 * @param arguments	the arguments of the address functions
+	 * @throws MaltChainedException
+	 */
+	public void update(Object[] arguments) throws MaltChainedException {
+		checkCompiled();
+		final AddressFunction[] addressFunctions = this.addressFunctions;
+		for (int i = 0; i < addressFunctions.length; i++) {
+			addressFunctions[i].update(arguments);
+		}
+		updateFeatures();
+	}
+
+	private void updateFeatures() throws MaltChainedException {
+		final FeatureFunction[] featureFunctions = this.featureFunctions;
+		final byte[] steps = this.steps;
+		for (int i = 0; i < featureFunctions.length; i++) {
+			if (steps[i] == UPDATE_VALUE) {
+				((FeatureMapFunction)featureFunctions[i]).updateValue();
+			} else {
+				featureFunctions[i].update();
+			}
+			final FeatureValue value = featureFunctions[i].getFeatureValue();
+			if (value instanceof SingleFeatureValue) {
+				codes[i] = ((SingleFeatureValue)value).getCode();
+				nullValues[i] = value.isNullValue();
+				singleValues[i] = true;
+			} else {
+				nullValues[i] = value.isNullValue();
+				singleValues[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of a feature function, i.e. the index of its code in the array of codes.
+	 *
+	 * @param featureFunction	a feature function of the feature model
+	 * @return the slot of the feature function, or -1 if the function is not a part of the plan
+	 */
+	public int getSlot(FeatureFunction featureFunction) {
+		checkCompiled();
+		for (int i = 0; i < featureFunctions.length; i++) {
+			if (featureFunctions[i] == featureFunction) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the codes of the last update, indexed by slot. The code of a slot is only valid if the feature value of the slot
+	 * is single-valued. The array is replaced when the plan is compiled again.
+	 *
+	 * @return the codes of the last update
+	 */
+	public int[] getCodes() {
+		return codes;
+	}
+
+	/**
+	 * Returns for each slot true if the feature value of the last update is a null value
+	 *
+	 * @return the null value flags of the last update
+	 */
+	public boolean[] getNullValues() {
+		return nullValues;
+	}
+
+	/**
+	 * Returns for each slot true if the feature value of the last update is single-valued
+	 *
+	 * @return the single value flags of the last update
+	 */
+	public boolean[] getSingleValues() {
+		return singleValues;
+	}
+
+	/**
+	 * Returns the number of times the plan has been compiled. The slots of the feature functions remain the same,
+	 * but the arrays returned by getCodes(), getNullValues() and getSingleValues() are replaced by a compilation.
+	 *
+	 * @return the number of compilations
+	 */
+	public int getCompilations() {
+		return compilations;
+	}
+
+	/**
+	 * Returns the number of feature functions of the plan
+	 *
+	 * @return the number of feature functions
+	 */
+	public int size() {
+		return featureFunctions.length;
+	}
+}
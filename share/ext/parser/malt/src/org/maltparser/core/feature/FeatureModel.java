@@ -29,6 +29,7 @@ public class FeatureModel extends HashMap<String, FeatureVector> {
 	protected FeatureEngine featureEngine;
 	protected FeatureVector mainFeatureVector = null; 
 	protected final Pattern splitPattern;
+	protected final FeatureExtractionPlan extractionPlan;
 	
 	public FeatureModel(SpecificationModel specModel, ConfigurationRegistry registry, FeatureEngine engine) throws MaltChainedException {
 		setSpecModel(specModel);
@@ -50,6 +51,7 @@ public class FeatureModel extends HashMap<String, FeatureVector> {
 				put(subModel.getSubModelName(), fv);
 			}
 		}
+		extractionPlan = new FeatureExtractionPlan(this);
 	}
 
 	public SpecificationModel getSpecModel() {
@@ -68,6 +70,15 @@ public class FeatureModel extends HashMap<String, FeatureVector> {
 		return featureFunctionCache;
 	}
 	
+	/**
+	 * Returns the compiled extraction plan of the feature model, which holds the codes of the last update
+	 * 
+	 * @return the extraction plan of the feature model
+	 */
+	public FeatureExtractionPlan getExtractionPlan() {
+		return extractionPlan;
+	}
+	
 	public ConfigurationRegistry getRegistry() {
 		return registry;
 	}
@@ -93,23 +104,11 @@ public class FeatureModel extends HashMap<String, FeatureVector> {
 	}
 	
 	public void update() throws MaltChainedException {
-		for (int i = 0, n = addressFunctionCache.size(); i < n; i++) {
-			addressFunctionCache.get(i).update();
-		}
-		
-		for (int i = 0, n = featureFunctionCache.size(); i < n; i++) {
-			featureFunctionCache.get(i).update();
-		}
+		extractionPlan.update();
 	}
 	
 	public void update(Object[] arguments) throws MaltChainedException {
-		for (int i = 0, n = addressFunctionCache.size(); i < n; i++) {
-			addressFunctionCache.get(i).update(arguments);
-		}
-		
-		for (int i = 0, n = featureFunctionCache.size(); i < n; i++) {
-			featureFunctionCache.get(i).update();
-		}
+		extractionPlan.update(arguments);
 	}
 	
 	public void updateCardinality() throws MaltChainedException {
@@ -1,9 +1,18 @@
 package org.maltparser.core.feature.function;
+
+import org.maltparser.core.exception.MaltChainedException;
 /**
 *
 *
 * @author Johan Hall
 */
 public interface FeatureMapFunction extends FeatureFunction {
-
+	/**
+	 * Cause the feature function to update the feature value from the current values of its argument features, 
+	 * without updating the argument features. update() is equal to updating the argument features followed 
+	 * by updateValue().
+	 * 
+	 * @throws MaltChainedException
+	 */
+	public void updateValue() throws MaltChainedException;
 }
@@ -9,8 +9,11 @@ import org.maltparser.core.feature.value.FunctionValue;
 import org.maltparser.core.feature.value.SingleFeatureValue;
 import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
+import org.maltparser.core.symbol.frozen.FrozenSymbolTable;
+import org.maltparser.core.symbol.frozen.MergedCodeIndex;
 /**
-*
+* Merges the values of three features into one value, the symbols joined by '~'. The merged values are looked up in the
+* same way as by MergeFeature when the symbol tables are frozen.
 *
 * @author Johan Hall
 */
@@ -21,6 +24,7 @@ public class Merge3Feature implements FeatureMapFunction {
 	protected SymbolTableHandler tableHandler;
 	protected SymbolTable table;
 	protected SingleFeatureValue singleFeatureValue;
+	protected MergedCodeIndex mergedCodeIndex;
 	
 	public Merge3Feature(SymbolTableHandler tableHandler) throws MaltChainedException {
 		super();
@@ -46,23 +50,34 @@ public class Merge3Feature implements FeatureMapFunction {
 		setThirdFeature((FeatureFunction)arguments[2]);
 		setSymbolTable(tableHandler.addSymbolTable("MERGE3_"+firstFeature.getSymbolTable().getName()+"_"+secondFeature.getSymbolTable().getName()+"_"+thirdFeature.getSymbolTable().getName(), 
 				firstFeature.getSymbolTable()));
+		if (table instanceof FrozenSymbolTable && firstFeature.getSymbolTable() instanceof FrozenSymbolTable 
+				&& secondFeature.getSymbolTable() instanceof FrozenSymbolTable && thirdFeature.getSymbolTable() instanceof FrozenSymbolTable) {
+			mergedCodeIndex = ((FrozenSymbolTable)table).getMergedCodeIndex(new FrozenSymbolTable[] {(FrozenSymbolTable)firstFeature.getSymbolTable(), 
+					(FrozenSymbolTable)secondFeature.getSymbolTable(), (FrozenSymbolTable)thirdFeature.getSymbolTable()});
+		}
 	}
 	
 	public void update() throws MaltChainedException {
-		singleFeatureValue.reset();
 		firstFeature.update();
 		secondFeature.update();
 		thirdFeature.update();
+		updateValue();
+	}
+	
+	public void updateValue() throws MaltChainedException {
+		singleFeatureValue.reset();
 		FunctionValue firstValue = firstFeature.getFeatureValue();
 		FunctionValue secondValue = secondFeature.getFeatureValue();
 		FunctionValue thirdValue = thirdFeature.getFeatureValue();
 		if (firstValue instanceof SingleFeatureValue && secondValue instanceof SingleFeatureValue && thirdValue instanceof SingleFeatureValue) {
-			String symbol = ((SingleFeatureValue)firstValue).getSymbol();
 			if (((FeatureValue)firstValue).isNullValue() && ((FeatureValue)secondValue).isNullValue() && ((FeatureValue)thirdValue).isNullValue()) {
+				String symbol = ((SingleFeatureValue)firstValue).getSymbol();
 				singleFeatureValue.setCode(firstFeature.getSymbolTable().getSymbolStringToCode(symbol));
 				singleFeatureValue.setKnown(firstFeature.getSymbolTable().getKnown(symbol));
 				singleFeatureValue.setSymbol(symbol);
 				singleFeatureValue.setNullValue(true);
+			} else if (mergedCodeIndex != null) {
+				lookupMergedValue((SingleFeatureValue)firstValue, (SingleFeatureValue)secondValue, (SingleFeatureValue)thirdValue);
 			} else {
 				StringBuilder mergedValue = new StringBuilder();
 				mergedValue.append(((SingleFeatureValue)firstValue).getSymbol());
@@ -80,6 +95,35 @@ public class Merge3Feature implements FeatureMapFunction {
 		}
 	}
 	
+	/**
+	 * Sets the merged value of three values that are not all null values, without adding the merged symbol to the frozen table.
+	 */
+	protected void lookupMergedValue(SingleFeatureValue firstValue, SingleFeatureValue secondValue, SingleFeatureValue thirdValue) throws MaltChainedException {
+		final FrozenSymbolTable frozenTable = (FrozenSymbolTable)table;
+		singleFeatureValue.setNullValue(false);
+		if (((FrozenSymbolTable)firstFeature.getSymbolTable()).isFrozen(firstValue.getCode()) && 
+				((FrozenSymbolTable)secondFeature.getSymbolTable()).isFrozen(secondValue.getCode()) &&
+				((FrozenSymbolTable)thirdFeature.getSymbolTable()).isFrozen(thirdValue.getCode())) {
+			final int code = mergedCodeIndex.get(firstValue.getCode(), secondValue.getCode(), thirdValue.getCode());
+			if (code != -1) {
+				singleFeatureValue.setCode(code);
+				singleFeatureValue.setKnown(true);
+				singleFeatureValue.setSymbolTable(frozenTable);
+				return;
+			}
+		}
+		final String mergedValue = firstValue.getSymbol()+MergedCodeIndex.SEPARATOR+secondValue.getSymbol()+MergedCodeIndex.SEPARATOR+thirdValue.getSymbol();
+		final int code = frozenTable.lookupSymbol(mergedValue);
+		if (code != -1) {
+			singleFeatureValue.setCode(code);
+			singleFeatureValue.setKnown(frozenTable.getKnown(code));
+		} else {
+			singleFeatureValue.setCode(frozenTable.getUnknownCode());
+			singleFeatureValue.setKnown(false);
+		}
+		singleFeatureValue.setSymbol(mergedValue);
+	}
+	
 	public Class<?>[] getParameterTypes() {
 		Class<?>[] paramTypes = { 	org.maltparser.core.feature.function.FeatureFunction.class, 
 				org.maltparser.core.feature.function.FeatureFunction.class, 
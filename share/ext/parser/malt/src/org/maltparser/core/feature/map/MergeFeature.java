@@ -10,8 +10,13 @@ import org.maltparser.core.feature.value.FunctionValue;
 import org.maltparser.core.feature.value.SingleFeatureValue;
 import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
+import org.maltparser.core.symbol.frozen.FrozenSymbolTable;
+import org.maltparser.core.symbol.frozen.MergedCodeIndex;
 /**
-*
+* Merges the values of two features into one value, the symbols joined by '~'. When a parser model is used for parsing (the
+* symbol tables are frozen), the merged values are looked up without adding new symbols to the table: a merge of known
+* values is found on their codes by the merged code index of the table, and a merge that was not seen during training gets
+* the unknown code of the table.
 *
 * @author Johan Hall
 */
@@ -21,6 +26,7 @@ public class MergeFeature implements FeatureMapFunction {
 	protected SymbolTableHandler tableHandler;
 	protected SymbolTable table;
 	protected SingleFeatureValue singleFeatureValue;
+	protected MergedCodeIndex mergedCodeIndex;
 	
 	public MergeFeature(SymbolTableHandler tableHandler) throws MaltChainedException {
 		super();
@@ -41,24 +47,33 @@ public class MergeFeature implements FeatureMapFunction {
 		setFirstFeature((FeatureFunction)arguments[0]);
 		setSecondFeature((FeatureFunction)arguments[1]);
 		setSymbolTable(tableHandler.addSymbolTable("MERGE2_"+firstFeature.getSymbolTable().getName()+"_"+secondFeature.getSymbolTable().getName(), firstFeature.getSymbolTable()));
+		if (table instanceof FrozenSymbolTable && firstFeature.getSymbolTable() instanceof FrozenSymbolTable && secondFeature.getSymbolTable() instanceof FrozenSymbolTable) {
+			mergedCodeIndex = ((FrozenSymbolTable)table).getMergedCodeIndex(new FrozenSymbolTable[] {(FrozenSymbolTable)firstFeature.getSymbolTable(), (FrozenSymbolTable)secondFeature.getSymbolTable()});
+		}
 	}
 	
 	public void update() throws MaltChainedException {
-//		multipleFeatureValue.reset();
-		singleFeatureValue.reset();
 		firstFeature.update();
 		secondFeature.update();
+		updateValue();
+	}
+	
+	public void updateValue() throws MaltChainedException {
+//		multipleFeatureValue.reset();
+		singleFeatureValue.reset();
 		FunctionValue firstValue = firstFeature.getFeatureValue();
 		FunctionValue secondValue = secondFeature.getFeatureValue();
 		if (firstValue instanceof SingleFeatureValue && secondValue instanceof SingleFeatureValue) {
-			String symbol = ((SingleFeatureValue)firstValue).getSymbol();
 			if (((FeatureValue)firstValue).isNullValue() && ((FeatureValue)secondValue).isNullValue()) {
+				String symbol = ((SingleFeatureValue)firstValue).getSymbol();
 				singleFeatureValue.setCode(firstFeature.getSymbolTable().getSymbolStringToCode(symbol));
 				singleFeatureValue.setKnown(firstFeature.getSymbolTable().getKnown(symbol));
 				singleFeatureValue.setSymbol(symbol);
 				singleFeatureValue.setNullValue(true);
 //				multipleFeatureValue.addFeatureValue(firstFeature.getSymbolTable().getSymbolStringToCode(symbol), symbol, true);
 //				multipleFeatureValue.setNullValue(true);
+			} else if (mergedCodeIndex != null) {
+				lookupMergedValue((SingleFeatureValue)firstValue, (SingleFeatureValue)secondValue);
 			} else {
 				StringBuilder mergedValue = new StringBuilder();
 				mergedValue.append(((SingleFeatureValue)firstValue).getSymbol());
@@ -77,6 +92,35 @@ public class MergeFeature implements FeatureMapFunction {
 		}
 	}
 	
+	/**
+	 * Sets the merged value of two values that are not both null values, without adding the merged symbol to the frozen table.
+	 */
+	protected void lookupMergedValue(SingleFeatureValue firstValue, SingleFeatureValue secondValue) throws MaltChainedException {
+		final FrozenSymbolTable frozenTable = (FrozenSymbolTable)table;
+		singleFeatureValue.setNullValue(false);
+		if (((FrozenSymbolTable)firstFeature.getSymbolTable()).isFrozen(firstValue.getCode()) && 
+				((FrozenSymbolTable)secondFeature.getSymbolTable()).isFrozen(secondValue.getCode())) {
+			final int code = mergedCodeIndex.get(firstValue.getCode(), secondValue.getCode());
+			if (code != -1) {
+				singleFeatureValue.setCode(code);
+				singleFeatureValue.setKnown(true);
+				singleFeatureValue.setSymbolTable(frozenTable);
+				return;
+			}
+		}
+		// The symbol of a merge of new or unseen values is kept for the features that use it, e.g. nested merges
+		final String mergedValue = firstValue.getSymbol()+MergedCodeIndex.SEPARATOR+secondValue.getSymbol();
+		final int code = frozenTable.lookupSymbol(mergedValue);
+		if (code != -1) {
+			singleFeatureValue.setCode(code);
+			singleFeatureValue.setKnown(frozenTable.getKnown(code));
+		} else {
+			singleFeatureValue.setCode(frozenTable.getUnknownCode());
+			singleFeatureValue.setKnown(false);
+		}
+		singleFeatureValue.setSymbol(mergedValue);
+	}
+	
 	public Class<?>[] getParameterTypes() {
 		Class<?>[] paramTypes = { org.maltparser.core.feature.function.FeatureFunction.class, org.maltparser.core.feature.function.FeatureFunction.class };
 		return paramTypes; 
@@ -61,6 +61,10 @@ public class PrefixFeature implements FeatureMapFunction {
 
 	public void update() throws MaltChainedException {
 		parentFeature.update();
+		updateValue();
+	}
+	
+	public void updateValue() throws MaltChainedException {
 		FeatureValue value = parentFeature.getFeatureValue();
 		if (value instanceof SingleFeatureValue) {
 			String symbol = ((SingleFeatureValue)value).getSymbol();
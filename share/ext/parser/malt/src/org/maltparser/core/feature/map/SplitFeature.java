@@ -13,9 +13,12 @@ import org.maltparser.core.feature.value.MultipleFeatureValue;
 import org.maltparser.core.feature.value.SingleFeatureValue;
 import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
+import org.maltparser.core.symbol.frozen.FrozenSymbolTable;
 
 /**
-*
+* Splits the value of a feature into a set of values. When the symbol tables are frozen, the split values are looked up
+* without adding new symbols to the table, and a split value that was not seen during training gets the unknown code of
+* the table.
 *
 * @author Johan Hall
 */
@@ -66,8 +69,12 @@ public class SplitFeature implements FeatureMapFunction {
 	}
 
 	public void update() throws MaltChainedException {
-		multipleFeatureValue.reset();
 		parentFeature.update();
+		updateValue();
+	}
+	
+	public void updateValue() throws MaltChainedException {
+		multipleFeatureValue.reset();
 		FunctionValue value = parentFeature.getFeatureValue();
 		if (value instanceof SingleFeatureValue) {
 			String symbol = ((SingleFeatureValue)value).getSymbol();
@@ -83,7 +90,7 @@ public class SplitFeature implements FeatureMapFunction {
 				}
 				for (int i = 0; i < items.length; i++) {
 					if (items[i].length() > 0) {
-						multipleFeatureValue.addFeatureValue(table.addSymbol(items[i]), items[i], table.getKnown(items[i]));
+						addSplitValue(items[i]);
 					}
 				}
 				multipleFeatureValue.setNullValue(false);
@@ -101,7 +108,7 @@ public class SplitFeature implements FeatureMapFunction {
 						throw new FeatureException("The split feature '"+this.toString()+"' could not split the value using the following separators '"+separators+"'", e);
 					}
 					for (int i = 0; i < items.length; i++) {
-						multipleFeatureValue.addFeatureValue(table.addSymbol(items[i]), items[i], table.getKnown(items[i]));
+						addSplitValue(items[i]);
 					}
 					multipleFeatureValue.setNullValue(false);
 				}
@@ -109,6 +116,19 @@ public class SplitFeature implements FeatureMapFunction {
 		}
 	}
 
+	private void addSplitValue(String item) throws MaltChainedException {
+		if (table instanceof FrozenSymbolTable) {
+			final int code = ((FrozenSymbolTable)table).lookupSymbol(item);
+			if (code != -1) {
+				multipleFeatureValue.addFeatureValue(code, item, table.getKnown(code));
+			} else {
+				multipleFeatureValue.addFeatureValue(((FrozenSymbolTable)table).getUnknownCode(), item, false);
+			}
+		} else {
+			multipleFeatureValue.addFeatureValue(table.addSymbol(item), item, table.getKnown(item));
+		}
+	}
+
 	public void updateCardinality() throws MaltChainedException {
 		parentFeature.updateCardinality();
 		multipleFeatureValue.setCardinality(table.getValueCounter()); 
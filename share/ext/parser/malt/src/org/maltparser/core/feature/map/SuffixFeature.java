@@ -62,6 +62,10 @@ public class SuffixFeature implements FeatureMapFunction {
 
 	public void update() throws MaltChainedException {
 		parentFeature.update();
+		updateValue();
+	}
+	
+	public void updateValue() throws MaltChainedException {
 		FunctionValue value = parentFeature.getFeatureValue();
 		if (value instanceof SingleFeatureValue) {
 			String symbol = ((SingleFeatureValue)value).getSymbol();
@@ -17,6 +17,8 @@ import org.maltparser.core.feature.function.Function;
 public class MultipleFeatureValue extends FeatureValue {
 	protected SortedMap<Integer, String> featureValues;
 	protected Map<Integer, Boolean> featureKnown;
+	private int[] codeArray = new int[8];
+	private int nCodes;
 	
 	public MultipleFeatureValue(Function function) {
 		super(function);
@@ -27,22 +29,63 @@ public class MultipleFeatureValue extends FeatureValue {
 		super.reset();
 		featureValues.clear();
 		featureKnown.clear();
+		nCodes = 0;
 	}
 	
 	public void addFeatureValue(int code, String Symbol, boolean known) {
-		featureValues.put(code, Symbol);
+		if (featureValues.put(code, Symbol) == null) {
+			insertCode(code);
+		}
 		featureKnown.put(code, known);
 	}
 	
 	protected void setFeatureValues(SortedMap<Integer, String> featureValues, Map<Integer, Boolean> featureKnown) {
 		this.featureValues = featureValues;
 		this.featureKnown = featureKnown;
+		nCodes = 0;
+		for (Integer code : featureValues.keySet()) {
+			insertCode(code);
+		}
+	}
+	
+	private void insertCode(int code) {
+		if (nCodes == codeArray.length) {
+			final int[] newCodeArray = new int[codeArray.length*2];
+			System.arraycopy(codeArray, 0, newCodeArray, 0, nCodes);
+			codeArray = newCodeArray;
+		}
+		int i = nCodes;
+		while (i > 0 && codeArray[i-1] > code) {
+			codeArray[i] = codeArray[i-1];
+			i--;
+		}
+		codeArray[i] = code;
+		nCodes++;
 	}
 	
 	public Set<Integer> getCodes() {
 		return (Set<Integer>)featureValues.keySet();
 	}
 	
+	/**
+	 * Returns the codes in ascending order, in the same order as getCodes(). Only the first nCodes() elements of the array
+	 * are codes of the feature value, and the array is reused when the feature value is updated.
+	 * 
+	 * @return the codes in ascending order
+	 */
+	public int[] getCodeArray() {
+		return codeArray;
+	}
+	
+	/**
+	 * Returns the number of codes of the feature value
+	 * 
+	 * @return the number of codes
+	 */
+	public int nCodes() {
+		return nCodes;
+	}
+	
 	public int getFirstCode() {
 		return featureValues.firstKey();
 	}
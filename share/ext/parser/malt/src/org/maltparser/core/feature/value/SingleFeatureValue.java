@@ -1,6 +1,8 @@
 package org.maltparser.core.feature.value;
 
+import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.feature.function.Function;
+import org.maltparser.core.symbol.SymbolTable;
 /**
  *  
  *
@@ -11,6 +13,10 @@ public class SingleFeatureValue extends FeatureValue {
 	protected int code;
 	protected String symbol;
 	protected boolean known;
+	/**
+	 * The symbol table that the symbol of the code is looked up in when the symbol is needed, or null if the symbol is set
+	 */
+	protected SymbolTable symbolTable;
 	
 	public SingleFeatureValue(Function function) {
 		super(function);
@@ -34,12 +40,28 @@ public class SingleFeatureValue extends FeatureValue {
 		this.code = code;
 	}
 
-	public String getSymbol() {
+	public String getSymbol() throws MaltChainedException {
+		if (symbolTable != null) {
+			symbol = symbolTable.getSymbolCodeToString(code);
+			symbolTable = null;
+		}
 		return symbol;
 	}
 
 	public void setSymbol(String symbol) {
 		this.symbol = symbol;
+		this.symbolTable = null;
+	}
+	
+	/**
+	 * Defers the symbol of the feature value: the symbol of the current code is looked up in the symbol table 
+	 * first when getSymbol() is called. Feature values that are only used as codes never look up their symbols.
+	 * 
+	 * @param symbolTable	the symbol table of the code
+	 */
+	public void setSymbolTable(SymbolTable symbolTable) {
+		this.symbol = null;
+		this.symbolTable = symbolTable;
 	}
 
 	public boolean isKnown() {
@@ -50,6 +72,14 @@ public class SingleFeatureValue extends FeatureValue {
 		this.known = known;
 	}
 	
+	private String getSymbolString() {
+		try {
+			return getSymbol();
+		} catch (MaltChainedException e) {
+			return null;
+		}
+	}
+	
 	public boolean equals(Object obj) {
 		if (this == obj)
 			return true;
@@ -57,14 +87,20 @@ public class SingleFeatureValue extends FeatureValue {
 			return false;
 		if (getClass() != obj.getClass())
 			return false;
-		if (!symbol.equals(((SingleFeatureValue)obj).symbol))
-			return false;
-		if (code != ((SingleFeatureValue)obj).code)
+		final SingleFeatureValue other = (SingleFeatureValue)obj;
+		if (code != other.code)
 			return false;
+		if (symbolTable == null || !symbolTable.equals(other.symbolTable)) {
+			// the symbols are not deferred to the same symbol table, so they may differ even if the codes are equal
+			final String thisSymbol = getSymbolString();
+			final String otherSymbol = other.getSymbolString();
+			if (thisSymbol == null ? otherSymbol != null : !thisSymbol.equals(otherSymbol))
+				return false;
+		}
 		return super.equals(obj);
 	}
 	
 	public String toString() {
-		return super.toString()+ "{" + symbol + " -> " + code + ", known=" + known +"} ";
+		return super.toString()+ "{" + getSymbolString() + " -> " + code + ", known=" + known +"} ";
 	}
 }
@@ -0,0 +1,141 @@
+package org.maltparser.core.symbol.frozen;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+A scope for the symbols that one thread adds to frozen symbol tables, for example the unknown words of the sentences
+that a server parses for one request. While a scope is open in a thread, a symbol that is neither frozen nor already
+added to the table when the table is first used in the scope is kept in the scope instead of in the table, and it is
+discarded when the scope is opened again or closed. Without a scope, an added symbol is kept by the table for as long as
+the table lives, so that the symbols of a parsed sentence can be read by any thread at any time.
+
+The codes of the symbols in a scope follow the codes of the table when the scope first used it, so they are never
+frozen codes and never known to the learners. They can only be decoded by the thread of the scope while the scope is
+open, so a graph labelled in a scope must be written before the scope is closed.
+
+@author Johan Hall
+@since 1.4
+*/
+public final class AddedSymbolScope {
+	private final static ThreadLocal<AddedSymbolScope> scopes = new ThreadLocal<AddedSymbolScope>();
+	private final IdentityHashMap<FrozenSymbolTable, AddedSymbols> tables;
+
+	private AddedSymbolScope() {
+		tables = new IdentityHashMap<FrozenSymbolTable, AddedSymbols>();
+	}
+
+	/**
+	 * Opens a scope in the current thread. If the thread already has an open scope, the symbols of that scope are discarded.
+	 */
+	public static void open() {
+		final AddedSymbolScope scope = scopes.get();
+		if (scope == null) {
+			scopes.set(new AddedSymbolScope());
+		} else {
+			scope.tables.clear();
+		}
+	}
+
+	/**
+	 * Closes the scope of the current thread and discards its symbols
+	 */
+	public static void close() {
+		scopes.remove();
+	}
+
+	/**
+	 * Returns the symbols of a table in the scope of the current thread, or null if the thread has no open scope or the
+	 * table has not been used in the scope.
+	 */
+	static AddedSymbols find(FrozenSymbolTable table) {
+		final AddedSymbolScope scope = scopes.get();
+		return (scope == null)?null:scope.tables.get(table);
+	}
+
+	/**
+	 * Returns the symbols of a table in the scope of the current thread, starting them at the value counter of the table
+	 * if the table has not been used in the scope, or null if the thread has no open scope.
+	 */
+	static AddedSymbols get(FrozenSymbolTable table) {
+		final AddedSymbolScope scope = scopes.get();
+		if (scope == null) {
+			return null;
+		}
+		AddedSymbols symbols = scope.tables.get(table);
+		if (symbols == null) {
+			symbols = new AddedSymbols(table.getValueCounter());
+			scope.tables.put(table, symbols);
+		}
+		return symbols;
+	}
+
+	/**
+	 * The symbols that are added to a frozen symbol table after it is frozen, with consecutive codes from a first code. 
+	 * The symbols are not synchronized: the symbols of a table are guarded by the table and the symbols of a scope are
+	 * only used by its thread.
+	 */
+	static final class AddedSymbols {
+		private final int firstCode;
+		private final HashMap<String, Integer> codes;
+		private final ArrayList<String> symbols;
+		private final BitSet known;
+
+		AddedSymbols(int firstCode) {
+			this.firstCode = firstCode;
+			codes = new HashMap<String, Integer>();
+			symbols = new ArrayList<String>();
+			known = new BitSet();
+		}
+
+		int getFirstCode() {
+			return firstCode;
+		}
+
+		/**
+		 * Returns the code of a symbol, or -1 if the symbol is not added
+		 */
+		int getCode(String symbol) {
+			final Integer code = codes.get(symbol);
+			return (code == null)?-1:code;
+		}
+
+		/**
+		 * Adds a symbol that is not added and returns its code
+		 */
+		int add(String symbol) {
+			final int code = firstCode+symbols.size();
+			codes.put(symbol, code);
+			symbols.add(symbol);
+			return code;
+		}
+
+		/**
+		 * Returns the symbol of a code, or null if no symbol is added with the code
+		 */
+		String getSymbol(int code) {
+			final int i = code-firstCode;
+			return (i >= 0 && i < symbols.size())?symbols.get(i):null;
+		}
+
+		boolean isKnown(int code) {
+			return code >= firstCode && known.get(code-firstCode);
+		}
+
+		void setKnown(int code) {
+			if (code >= firstCode) {
+				known.set(code-firstCode);
+			}
+		}
+
+		int size() {
+			return symbols.size();
+		}
+
+		Iterable<Integer> getCodes() {
+			return codes.values();
+		}
+	}
+}
@@ -0,0 +1,645 @@
+package org.maltparser.core.symbol.frozen;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.core.io.dataformat.ColumnDescription;
+import org.maltparser.core.symbol.SymbolException;
+import org.maltparser.core.symbol.SymbolTable;
+import org.maltparser.core.symbol.frozen.AddedSymbolScope.AddedSymbols;
+import org.maltparser.core.symbol.nullvalue.InputNullValues;
+import org.maltparser.core.symbol.nullvalue.NullValues;
+import org.maltparser.core.symbol.nullvalue.OutputNullValues;
+import org.maltparser.core.symbol.nullvalue.NullValues.NullValueId;
+
+/**
+A symbol table with an immutable, compact representation of the symbols that were known when the table was frozen.
+The symbols are stored in one character arena, indexed by code, and an open-addressing hash table maps a symbol to its
+code, so that there is no object per symbol. The arena, the code index and the hash table are views of a byte buffer,
+which is memory-mapped from the mco-file when possible (see FrozenSymbolTableHandler).
+
+Symbols that are added after the table is frozen (for example unknown words during parsing) get new codes in the same
+way as in a TrieSymbolTable, and they are kept in a small synchronized overflow table. When the thread that adds a symbol
+has an open AddedSymbolScope, the symbol is kept in the scope instead, so that a long-running parser does not keep every
+unknown word that it has seen. The frozen part can be read concurrently without locking.
+
+The binary representation of a frozen symbol table is (all sections start at a 4-byte boundary):
+
+<pre>
+string   name
+int      column category
+string   null-value strategy
+string   root label
+int      value counter
+int      code limit (the largest code plus one)
+int[]    start of each code in the arena (code limit)
+int[]    length of each code in the arena, -1 if the code has no symbol (code limit)
+int      number of characters in the arena
+char[]   arena
+int      number of slots in the hash table (a power of two)
+int[]    slots, the code plus one of a symbol or 0 if the slot is empty
+</pre>
+
+A string is an int length (-1 for null) followed by the characters.
+
+@author Johan Hall
+@since 1.4
+*/
+public class FrozenSymbolTable implements SymbolTable {
+	private final String name;
+	private final int columnCategory;
+	private final String rootLabel;
+	private final NullValues nullValues;
+	private final int codeLimit;
+	private final IntBuffer starts;
+	private final IntBuffer lengths;
+	private final CharBuffer arena;
+	private final IntBuffer slots;
+	private final int mask;
+	/** The first code of the symbols that are added after the table is frozen */
+	private final int firstAddedCode;
+	private final AddedSymbols addedSymbols;
+	private volatile int valueCounter;
+	/** The index of the merged codes, if the table is the table of a Merge or Merge3 feature */
+	private volatile MergedCodeIndex mergedCodeIndex;
+	/** Cache the hash code for the symbol table */
+	private int cachedHash;
+
+	/**
+	 * Constructs a frozen symbol table from its binary representation. The position of the buffer is moved to the end
+	 * of the symbol table.
+	 *
+	 * @param buffer	a buffer positioned at the beginning of a binary symbol table
+	 * @throws MaltChainedException
+	 */
+	public FrozenSymbolTable(ByteBuffer buffer) throws MaltChainedException {
+		try {
+			name = getString(buffer);
+			columnCategory = buffer.getInt();
+			final String nullValueStrategy = getString(buffer);
+			rootLabel = getString(buffer);
+			nullValues = createNullValues(columnCategory, nullValueStrategy, rootLabel);
+			valueCounter = buffer.getInt();
+			codeLimit = buffer.getInt();
+			starts = getIntBuffer(buffer, codeLimit);
+			lengths = getIntBuffer(buffer, codeLimit);
+			arena = getCharBuffer(buffer, buffer.getInt());
+			final int slotCount = buffer.getInt();
+			slots = getIntBuffer(buffer, slotCount);
+			mask = slotCount-1;
+		} catch (RuntimeException e) {
+			throw new SymbolException("The binary symbol table is corrupt. ", e);
+		}
+		firstAddedCode = valueCounter;
+		addedSymbols = new AddedSymbols(firstAddedCode);
+	}
+
+	/**
+	 * Constructs an empty frozen symbol table, in which all symbols are added after the table is frozen. The null-values and the
+	 * value counter are initialized in the same way as in a TrieSymbolTable.
+	 *
+	 * @param name	the name of the symbol table
+	 * @param columnCategory	the column category
+	 * @param nullValueStrategy	the null-value strategy
+	 * @param rootLabel	the root label, or null
+	 */
+	public FrozenSymbolTable(String name, int columnCategory, String nullValueStrategy, String rootLabel) {
+		this.name = name;
+		this.columnCategory = columnCategory;
+		this.rootLabel = rootLabel;
+		nullValues = createNullValues(columnCategory, nullValueStrategy, rootLabel);
+		valueCounter = nullValues.getNextCode();
+		codeLimit = 0;
+		starts = IntBuffer.allocate(0);
+		lengths = IntBuffer.allocate(0);
+		arena = CharBuffer.allocate(0);
+		slots = IntBuffer.allocate(1);
+		mask = 0;
+		firstAddedCode = valueCounter;
+		addedSymbols = new AddedSymbols(firstAddedCode);
+	}
+
+	private NullValues createNullValues(int columnCategory, String nullValueStrategy, String rootLabel) {
+		if (columnCategory == ColumnDescription.DEPENDENCY_EDGE_LABEL) {
+			return new OutputNullValues(nullValueStrategy, this, rootLabel);
+		}
+		return new InputNullValues(nullValueStrategy, this);
+	}
+
+	/**
+	 * Writes the binary representation of a symbol table.
+	 *
+	 * @param out	the output stream
+	 * @param name	the name of the symbol table
+	 * @param columnCategory	the column category
+	 * @param nullValueStrategy	the null-value strategy
+	 * @param rootLabel	the root label, or null
+	 * @param valueCounter	the value counter
+	 * @param symbols	the symbols of the table sorted by code
+	 * @throws IOException
+	 */
+	public static void write(DataOutputStream out, String name, int columnCategory, String nullValueStrategy, String rootLabel,
+			int valueCounter, SortedMap<Integer, String> symbols) throws IOException {
+		writeString(out, name);
+		out.writeInt(columnCategory);
+		writeString(out, nullValueStrategy);
+		writeString(out, rootLabel);
+		out.writeInt(valueCounter);
+		final int limit = (symbols.isEmpty())?0:symbols.lastKey()+1;
+		final int[] starts = new int[limit];
+		final int[] lengths = new int[limit];
+		final StringBuilder arena = new StringBuilder();
+		for (int code = 0; code < limit; code++) {
+			lengths[code] = -1;
+		}
+		for (Map.Entry<Integer, String> entry : symbols.entrySet()) {
+			starts[entry.getKey()] = arena.length();
+			lengths[entry.getKey()] = entry.getValue().length();
+			arena.append(entry.getValue());
+		}
+		out.writeInt(limit);
+		for (int i = 0; i < limit; i++) {
+			out.writeInt(starts[i]);
+		}
+		for (int i = 0; i < limit; i++) {
+			out.writeInt(lengths[i]);
+		}
+		out.writeInt(arena.length());
+		out.writeChars(arena.toString());
+		pad(out);
+
+		int slotCount = 1;
+		while (slotCount < 2*symbols.size()) {
+			slotCount <<= 1;
+		}
+		final int[] slots = new int[slotCount];
+		for (Map.Entry<Integer, String> entry : symbols.entrySet()) {
+			int i = hash(entry.getValue()) & (slotCount-1);
+			while (slots[i] != 0) {
+				i = (i+1) & (slotCount-1);
+			}
+			slots[i] = entry.getKey()+1;
+		}
+		out.writeInt(slotCount);
+		for (int i = 0; i < slotCount; i++) {
+			out.writeInt(slots[i]);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String str) throws IOException {
+		if (str == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(str.length());
+			out.writeChars(str);
+			pad(out);
+		}
+	}
+
+	private static void pad(DataOutputStream out) throws IOException {
+		while ((out.size() & 3) != 0) {
+			out.writeByte(0);
+		}
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if (length == -1) {
+			return null;
+		}
+		final char[] chars = new char[length];
+		buffer.asCharBuffer().get(chars);
+		buffer.position(align(buffer.position()+2*length));
+		return new String(chars);
+	}
+
+	private static IntBuffer getIntBuffer(ByteBuffer buffer, int size) {
+		final ByteBuffer slice = buffer.slice().order(buffer.order());
+		slice.limit(4*size);
+		buffer.position(buffer.position()+4*size);
+		return slice.asIntBuffer();
+	}
+
+	private static CharBuffer getCharBuffer(ByteBuffer buffer, int size) {
+		final ByteBuffer slice = buffer.slice().order(buffer.order());
+		slice.limit(2*size);
+		buffer.position(align(buffer.position()+2*size));
+		return slice.asCharBuffer();
+	}
+
+	private static int align(int position) {
+		return (position+3) & ~3;
+	}
+
+	private static int hash(CharSequence symbol) {
+		int h = 0;
+		if (symbol instanceof String) {
+			h = symbol.hashCode();
+		} else {
+			for (int i = 0, n = symbol.length(); i < n; i++) {
+				h = 31*h + symbol.charAt(i);
+			}
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the code of a symbol in the frozen part of the table, or -1 if the symbol was not known when the table was frozen.
+	 */
+	private int getFrozenCode(CharSequence symbol) {
+		final int length = symbol.length();
+		int i = hash(symbol) & mask;
+		int slot;
+		while ((slot = slots.get(i)) != 0) {
+			final int code = slot-1;
+			if (lengths.get(code) == length) {
+				final int start = starts.get(code);
+				int j = 0;
+				while (j < length && arena.get(start+j) == symbol.charAt(j)) {
+					j++;
+				}
+				if (j == length) {
+					return code;
+				}
+			}
+			i = (i+1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the code of a null value or a symbol in the frozen part of the table, or -1.
+	 */
+	int lookupFrozenCode(String symbol) {
+		if (nullValues.isNullValue(symbol)) {
+			return nullValues.symbolToCode(symbol);
+		}
+		return getFrozenCode(symbol);
+	}
+
+	int getCodeLimit() {
+		return codeLimit;
+	}
+
+	String getFrozenSymbol(int code) {
+		if (code < codeLimit) {
+			final int length = lengths.get(code);
+			if (length >= 0) {
+				final int start = starts.get(code);
+				final char[] chars = new char[length];
+				for (int j = 0; j < length; j++) {
+					chars[j] = arena.get(start+j);
+				}
+				return new String(chars);
+			}
+		}
+		return null;
+	}
+
+	private int addSymbolCode(CharSequence symbol) {
+		final int code = getFrozenCode(symbol);
+		if (code != -1) {
+			return code;
+		}
+		final String str = symbol.toString();
+		final AddedSymbols scopeSymbols = AddedSymbolScope.get(this);
+		synchronized (addedSymbols) {
+			final int addedCode = addedSymbols.getCode(str);
+			if (addedCode != -1 && (scopeSymbols == null || addedCode < scopeSymbols.getFirstCode())) {
+				return addedCode;
+			}
+			if (scopeSymbols == null) {
+				final int newCode = addedSymbols.add(str);
+				valueCounter = newCode+1;
+				return newCode;
+			}
+		}
+		final int scopeCode = scopeSymbols.getCode(str);
+		return (scopeCode != -1)?scopeCode:scopeSymbols.add(str);
+	}
+
+	/**
+	 * Returns the code of a symbol that is added after the table is frozen, either to the table or to the scope of the current
+	 * thread, or -1. The symbols that the table gets after the scope first used it are not seen by the scope.
+	 */
+	private int getAddedCode(CharSequence symbol) {
+		final String str = symbol.toString();
+		final AddedSymbols scopeSymbols = AddedSymbolScope.find(this);
+		synchronized (addedSymbols) {
+			final int code = addedSymbols.getCode(str);
+			if (code != -1 && (scopeSymbols == null || code < scopeSymbols.getFirstCode())) {
+				return code;
+			}
+		}
+		return (scopeSymbols == null)?-1:scopeSymbols.getCode(str);
+	}
+
+	/**
+	 * Returns the added symbols that a code that is not frozen belongs to: the symbols of the scope of the current thread if the
+	 * code is one of its codes, otherwise the symbols of the table.
+	 */
+	private AddedSymbols getAddedSymbols(int code) {
+		final AddedSymbols scopeSymbols = AddedSymbolScope.find(this);
+		return (scopeSymbols != null && code >= scopeSymbols.getFirstCode())?scopeSymbols:addedSymbols;
+	}
+
+	public int addSymbol(String symbol) throws MaltChainedException {
+		if (nullValues.isNullValue(symbol)) {
+			return nullValues.symbolToCode(symbol);
+		}
+		return addSymbolCode(symbol);
+	}
+
+	public int addSymbol(StringBuilder symbol) throws MaltChainedException {
+		if (nullValues.isNullValue(symbol)) {
+			return nullValues.symbolToCode(symbol);
+		}
+		return addSymbolCode(symbol);
+	}
+
+	public String getSymbolCodeToString(int code) throws MaltChainedException {
+		if (code >= 0) {
+			final String symbol = getFrozenSymbol(code);
+			if (symbol != null) {
+				return symbol;
+			}
+			if (nullValues.isNullValue(code)) {
+				return nullValues.codeToSymbol(code);
+			}
+			if (code >= firstAddedCode) {
+				final AddedSymbols symbols = getAddedSymbols(code);
+				final String addedSymbol;
+				synchronized (symbols) {
+					addedSymbol = symbols.getSymbol(code);
+				}
+				if (addedSymbol != null) {
+					return addedSymbol;
+				}
+			}
+			throw new SymbolException("The symbol code '"+code+"' cannot be found in the symbol table. ");
+		} else {
+			throw new SymbolException("The symbol code '"+code+"' cannot be found in the symbol table. ");
+		}
+	}
+
+	public int getSymbolStringToCode(String symbol) throws MaltChainedException {
+		if (symbol != null) {
+			if (!nullValues.isNullValue(symbol)) {
+				int code = getFrozenCode(symbol);
+				if (code == -1) {
+					code = getAddedCode(symbol);
+				}
+				if (code == -1) {
+					throw new SymbolException("Could not find the symbol '"+symbol+"' in the symbol table. ");
+				}
+				return code;
+			} else {
+				return nullValues.symbolToCode(symbol);
+			}
+		} else {
+			throw new SymbolException("The symbol code '"+symbol+"' cannot be found in the symbol table. ");
+		}
+	}
+
+	/**
+	 * Returns the code of a symbol without adding the symbol to the table.
+	 *
+	 * @param symbol	a symbol
+	 * @return the code of the symbol, or -1 if the symbol is not in the table
+	 */
+	public int lookupSymbol(String symbol) {
+		final int code = lookupFrozenCode(symbol);
+		return (code != -1)?code:getAddedCode(symbol);
+	}
+
+	/**
+	 * Returns the code of the values that are looked up by lookupSymbol() without being found. It is the first code after the
+	 * codes that the table had when it was frozen, so the learners of the parser model have never seen it.
+	 *
+	 * @return the code of unknown values
+	 */
+	public int getUnknownCode() {
+		return firstAddedCode;
+	}
+
+	/**
+	 * Returns true if a code is the code of a null value or a symbol that was known when the table was frozen.
+	 *
+	 * @param code	a code
+	 * @return true if the code was known when the table was frozen
+	 */
+	public boolean isFrozen(int code) {
+		return code >= 0 && code < firstAddedCode;
+	}
+
+	/**
+	 * Returns the index from the codes of the components of the merged symbols of the table to the merged codes. The
+	 * index is built the first time it is needed and is shared by all features that merge the same tables.
+	 *
+	 * @param components	the symbol tables of the merged features
+	 * @return the index of the merged codes
+	 */
+	public MergedCodeIndex getMergedCodeIndex(FrozenSymbolTable[] components) {
+		MergedCodeIndex index = mergedCodeIndex;
+		if (index == null || !index.hasComponents(components)) {
+			synchronized (this) {
+				index = mergedCodeIndex;
+				if (index == null || !index.hasComponents(components)) {
+					index = new MergedCodeIndex(this, components);
+					mergedCodeIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	public boolean getKnown(int code) {
+		if (code >= 0) {
+			if (code < codeLimit && lengths.get(code) >= 0) {
+				return true;
+			}
+			if (nullValues.isNullValue(code)) {
+				return true;
+			}
+			final AddedSymbols symbols = getAddedSymbols(code);
+			synchronized (symbols) {
+				return symbols.isKnown(code);
+			}
+		} else {
+			return false;
+		}
+	}
+
+	public boolean getKnown(String symbol) {
+		if (!nullValues.isNullValue(symbol)) {
+			if (getFrozenCode(symbol) != -1) {
+				return true;
+			}
+			final int code = getAddedCode(symbol);
+			if (code == -1) {
+				return false;
+			}
+			return getKnown(code);
+		} else {
+			return true;
+		}
+	}
+
+	public void makeKnown(int code) {
+		if (code >= firstAddedCode && !nullValues.isNullValue(code)) {
+			final AddedSymbols symbols = getAddedSymbols(code);
+			synchronized (symbols) {
+				symbols.setKnown(code);
+			}
+		}
+	}
+
+	public Set<Integer> getCodes() {
+		final TreeSet<Integer> codes = new TreeSet<Integer>();
+		for (int code = 0; code < codeLimit; code++) {
+			if (lengths.get(code) >= 0) {
+				codes.add(code);
+			}
+		}
+		synchronized (addedSymbols) {
+			for (Integer code : addedSymbols.getCodes()) {
+				codes.add(code);
+			}
+		}
+		return codes;
+	}
+
+	public void printSymbolTable(Logger logger) throws MaltChainedException {
+		for (Integer code : getCodes()) {
+			logger.info(code+"\t"+getSymbolCodeToString(code)+"\n");
+		}
+	}
+
+	public void saveHeader(BufferedWriter out) throws MaltChainedException  {
+		try {
+			out.append('\t');
+			out.append(getName());
+			out.append('\t');
+			out.append(Integer.toString(getColumnCategory()));
+			out.append('\t');
+			out.append(getNullValueStrategy());
+			out.append('\t');
+			if (nullValues instanceof OutputNullValues && rootLabel != null) {
+				out.append(rootLabel);
+			} else {
+				out.append("#DUMMY#");
+			}
+			out.append('\n');
+		} catch (IOException e) {
+			throw new SymbolException("Could not save the symbol table. ", e);
+		}
+	}
+
+	public void save(BufferedWriter out) throws MaltChainedException  {
+		try {
+			out.write(name);
+			out.write('\n');
+			for (Integer code : getCodes()) {
+				out.write(code+"");
+				out.write('\t');
+				out.write(getSymbolCodeToString(code));
+				out.write('\n');
+			}
+			out.write('\n');
+		} catch (IOException e) {
+			throw new SymbolException("Could not save the symbol table. ", e);
+		}
+	}
+
+	public void load(BufferedReader in) throws MaltChainedException {
+		throw new SymbolException("The symbol table '"+name+"' is frozen and cannot be loaded from a symbol table file. ");
+	}
+
+	public void copy(SymbolTable fromTable) throws MaltChainedException {
+		throw new SymbolException("The symbol table '"+name+"' is frozen and cannot be copied into. ");
+	}
+
+	public int size() {
+		int size = 0;
+		for (int code = 0; code < codeLimit; code++) {
+			if (lengths.get(code) >= 0) {
+				size++;
+			}
+		}
+		synchronized (addedSymbols) {
+			return size + addedSymbols.size();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getColumnCategory() {
+		return columnCategory;
+	}
+
+	public String getNullValueStrategy() {
+		return nullValues.getNullValueStrategy();
+	}
+
+	public String getRootLabel() {
+		return rootLabel;
+	}
+
+	public int getValueCounter() {
+		return valueCounter;
+	}
+
+	public int getNullValueCode(NullValueId nullValueIdentifier) throws MaltChainedException {
+		return nullValues.nullvalueToCode(nullValueIdentifier);
+	}
+
+	public String getNullValueSymbol(NullValueId nullValueIdentifier) throws MaltChainedException {
+		return nullValues.nullvalueToSymbol(nullValueIdentifier);
+	}
+
+	public boolean isNullValue(String symbol) throws MaltChainedException {
+		return nullValues.isNullValue(symbol);
+	}
+
+	public boolean isNullValue(int code) throws MaltChainedException {
+		return nullValues.isNullValue(code);
+	}
+
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		return ((name == null) ? ((FrozenSymbolTable)obj).name == null : name.equals(((FrozenSymbolTable)obj).name));
+	}
+
+	public int hashCode() {
+		if (cachedHash == 0) {
+			cachedHash = 31 * 7 + (null == name ? 0 : name.hashCode());
+		}
+		return cachedHash;
+	}
+
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(name);
+		sb.append(" ");
+		sb.append(valueCounter);
+		return sb.toString();
+	}
+}
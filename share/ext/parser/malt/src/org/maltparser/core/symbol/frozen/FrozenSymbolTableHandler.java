@@ -0,0 +1,262 @@
+package org.maltparser.core.symbol.frozen;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.core.symbol.SymbolException;
+import org.maltparser.core.symbol.SymbolTable;
+import org.maltparser.core.symbol.SymbolTableHandler;
+import org.maltparser.core.symbol.trie.TrieSymbolTable;
+import org.maltparser.core.symbol.trie.TrieSymbolTableHandler;
+
+/**
+A symbol table handler of frozen symbol tables, which is used when a parser model is used for parsing. The symbol tables are
+read from the binary symbol table file (symboltables.sym.bin) of the parser model, or they are frozen from the symbol tables
+of a TrieSymbolTableHandler after the text symbol table file (symboltables.sym) is loaded. The binary symbol table file is:
+
+<pre>
+int      magic number (BINARY_SYMBOL_TABLES_MAGIC)
+int      number of symbol tables
+...      the symbol tables (see FrozenSymbolTable)
+</pre>
+
+Symbol tables that are added after the symbol tables are frozen are empty frozen symbol tables.
+
+@author Johan Hall
+@since 1.4
+*/
+public class FrozenSymbolTableHandler implements SymbolTableHandler {
+	public final static int BINARY_SYMBOL_TABLES_MAGIC = 0x4D53594D;
+	private final HashMap<String, FrozenSymbolTable> symbolTables;
+
+	/**
+	 * Constructs a symbol table handler from a buffer containing a binary symbol table file.
+	 *
+	 * @param buffer	a buffer containing a binary symbol table file
+	 * @throws MaltChainedException
+	 */
+	public FrozenSymbolTableHandler(ByteBuffer buffer) throws MaltChainedException {
+		symbolTables = new HashMap<String, FrozenSymbolTable>();
+		final ByteBuffer bb = buffer.duplicate();
+		if (bb.remaining() < 8 || bb.getInt() != BINARY_SYMBOL_TABLES_MAGIC) {
+			throw new SymbolException("The binary symbol table file is not valid. ");
+		}
+		final int n = bb.getInt();
+		for (int i = 0; i < n; i++) {
+			final FrozenSymbolTable table = new FrozenSymbolTable(bb);
+			symbolTables.put(table.getName(), table);
+		}
+	}
+
+	/**
+	 * Constructs a symbol table handler by freezing the symbol tables of another symbol table handler.
+	 *
+	 * @param handler	a symbol table handler
+	 * @throws MaltChainedException
+	 */
+	public FrozenSymbolTableHandler(SymbolTableHandler handler) throws MaltChainedException {
+		this(toByteBuffer(handler));
+	}
+
+	private static ByteBuffer toByteBuffer(SymbolTableHandler handler) throws MaltChainedException {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		save(handler, bos);
+		return ByteBuffer.wrap(bos.toByteArray());
+	}
+
+	/**
+	 * Saves the symbol tables of a symbol table handler as a binary symbol table file. The value counter of each symbol table
+	 * is saved as it is when the text symbol table file is loaded, so that a parser model gets the same codes and cardinalities
+	 * with both symbol table files.
+	 *
+	 * @param handler	a symbol table handler
+	 * @param file	the binary symbol table file
+	 * @throws MaltChainedException
+	 */
+	public static void save(SymbolTableHandler handler, File file) throws MaltChainedException {
+		try {
+			final OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
+			try {
+				save(handler, os);
+			} finally {
+				os.close();
+			}
+		} catch (IOException e) {
+			throw new SymbolException("The binary symbol table file '"+file.getAbsolutePath()+"' cannot be created. ", e);
+		}
+	}
+
+	private static void save(SymbolTableHandler handler, OutputStream os) throws MaltChainedException {
+		try {
+			final DataOutputStream out = new DataOutputStream(os);
+			final Set<String> names = handler.getSymbolTableNames();
+			out.writeInt(BINARY_SYMBOL_TABLES_MAGIC);
+			out.writeInt(names.size());
+			for (String name : names) {
+				final SymbolTable table = handler.getSymbolTable(name);
+				final TreeMap<Integer, String> symbols = new TreeMap<Integer, String>();
+				for (Integer code : table.getCodes()) {
+					symbols.put(code, table.getSymbolCodeToString(code));
+				}
+				final int valueCounter = (symbols.isEmpty())?1:symbols.lastKey()+1;
+				if (table instanceof TrieSymbolTable) {
+					final TrieSymbolTable trieTable = (TrieSymbolTable)table;
+					FrozenSymbolTable.write(out, name, trieTable.getColumnCategory(), trieTable.getNullValueStrategy(),
+							trieTable.getRootLabel(), valueCounter, symbols);
+				} else if (table instanceof FrozenSymbolTable) {
+					final FrozenSymbolTable frozenTable = (FrozenSymbolTable)table;
+					FrozenSymbolTable.write(out, name, frozenTable.getColumnCategory(), frozenTable.getNullValueStrategy(),
+							frozenTable.getRootLabel(), valueCounter, symbols);
+				} else {
+					throw new SymbolException("The symbol table '"+name+"' cannot be frozen. ");
+				}
+			}
+			out.flush();
+		} catch (IOException e) {
+			throw new SymbolException("Could not save the binary symbol tables. ", e);
+		}
+	}
+
+	public synchronized FrozenSymbolTable addSymbolTable(String tableName) throws MaltChainedException {
+		FrozenSymbolTable symbolTable = symbolTables.get(tableName);
+		if (symbolTable == null) {
+			symbolTable = new FrozenSymbolTable(tableName, 0, "one", null);
+			symbolTables.put(tableName, symbolTable);
+		}
+		return symbolTable;
+	}
+
+	public synchronized FrozenSymbolTable addSymbolTable(String tableName, SymbolTable parentTable) throws MaltChainedException {
+		FrozenSymbolTable symbolTable = symbolTables.get(tableName);
+		if (symbolTable == null) {
+			final FrozenSymbolTable frozenParentTable = (FrozenSymbolTable)parentTable;
+			symbolTable = new FrozenSymbolTable(tableName, frozenParentTable.getColumnCategory(), frozenParentTable.getNullValueStrategy(), null);
+			symbolTables.put(tableName, symbolTable);
+		}
+		return symbolTable;
+	}
+
+	public synchronized FrozenSymbolTable addSymbolTable(String tableName, int columnCategory, String nullValueStrategy) throws MaltChainedException {
+		FrozenSymbolTable symbolTable = symbolTables.get(tableName);
+		if (symbolTable == null) {
+			symbolTable = new FrozenSymbolTable(tableName, columnCategory, nullValueStrategy, null);
+			symbolTables.put(tableName, symbolTable);
+		}
+		return symbolTable;
+	}
+
+	public synchronized FrozenSymbolTable addSymbolTable(String tableName, int columnCategory, String nullValueStrategy, String rootLabel) throws MaltChainedException {
+		FrozenSymbolTable symbolTable = symbolTables.get(tableName);
+		if (symbolTable == null) {
+			symbolTable = new FrozenSymbolTable(tableName, columnCategory, nullValueStrategy, rootLabel);
+			symbolTables.put(tableName, symbolTable);
+		}
+		return symbolTable;
+	}
+
+	public synchronized FrozenSymbolTable getSymbolTable(String tableName) {
+		return symbolTables.get(tableName);
+	}
+
+	public Set<String> getSymbolTableNames() {
+		return symbolTables.keySet();
+	}
+
+	public void save(OutputStreamWriter osw) throws MaltChainedException  {
+		try {
+			BufferedWriter bout = new BufferedWriter(osw);
+			for (FrozenSymbolTable table : symbolTables.values()) {
+				table.saveHeader(bout);
+			}
+			bout.write('\n');
+			for (FrozenSymbolTable table : symbolTables.values()) {
+				table.save(bout);
+			}
+			bout.close();
+		} catch (IOException e) {
+			throw new SymbolException("Could not save the symbol tables. ", e);
+		}
+	}
+
+	public void save(String fileName, String charSet) throws MaltChainedException  {
+		try {
+			save(new OutputStreamWriter(new FileOutputStream(fileName), charSet));
+		} catch (FileNotFoundException e) {
+			throw new SymbolException("The symbol table file '"+fileName+"' cannot be created. ", e);
+		} catch (UnsupportedEncodingException e) {
+			throw new SymbolException("The char set '"+charSet+"' is not supported. ", e);
+		}
+	}
+
+	/**
+	 * Loads a text symbol table file and freezes its symbol tables. Symbol tables with the same names are replaced.
+	 */
+	public void load(InputStreamReader isr) throws MaltChainedException  {
+		final TrieSymbolTableHandler trieSymbolTables = new TrieSymbolTableHandler();
+		trieSymbolTables.load(isr);
+		final FrozenSymbolTableHandler frozenSymbolTables = new FrozenSymbolTableHandler(trieSymbolTables);
+		synchronized (this) {
+			symbolTables.putAll(frozenSymbolTables.symbolTables);
+		}
+	}
+
+	public void load(String fileName, String charSet) throws MaltChainedException  {
+		try {
+			load(new InputStreamReader(new FileInputStream(fileName), charSet));
+		} catch (FileNotFoundException e) {
+			throw new SymbolException("The symbol table file '"+fileName+"' cannot be found. ", e);
+		} catch (UnsupportedEncodingException e) {
+			throw new SymbolException("The char set '"+charSet+"' is not supported. ", e);
+		}
+	}
+
+	public SymbolTable loadTagset(String fileName, String tableName, String charSet, int columnCategory, String nullValueStrategy) throws MaltChainedException {
+		return loadTagset(fileName, addSymbolTable(tableName, columnCategory, nullValueStrategy), charSet);
+	}
+
+	public SymbolTable loadTagset(String fileName, String tableName, String charSet, int columnCategory, String nullValueStrategy, String rootLabel) throws MaltChainedException {
+		return loadTagset(fileName, addSymbolTable(tableName, columnCategory, nullValueStrategy, rootLabel), charSet);
+	}
+
+	private SymbolTable loadTagset(String fileName, FrozenSymbolTable table, String charSet) throws MaltChainedException {
+		try {
+			BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), charSet));
+			String fileLine;
+			while ((fileLine = br.readLine()) != null) {
+				table.addSymbol(fileLine.trim());
+			}
+			br.close();
+			return table;
+		} catch (FileNotFoundException e) {
+			throw new SymbolException("The tagset file '"+fileName+"' cannot be found. ", e);
+		} catch (UnsupportedEncodingException e) {
+			throw new SymbolException("The char set '"+charSet+"' is not supported. ", e);
+		} catch (IOException e) {
+			throw new SymbolException("The tagset file '"+fileName+"' cannot be loaded. ", e);
+		}
+	}
+
+	public void printSymbolTables(Logger logger) throws MaltChainedException  {
+		for (FrozenSymbolTable table : symbolTables.values()) {
+			table.printSymbolTable(logger);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package org.maltparser.core.symbol.frozen;
+
+/**
+An index from the codes of two or three component symbols to the code of their merged symbol (the component symbols
+joined by '~', as produced by the Merge and Merge3 features) in a frozen symbol table. The index is built once from the
+frozen symbols of the merged table: every split of a merged symbol at a '~' whose parts are frozen symbols of the component
+tables is added, so that a merge of frozen component codes is looked up on codes without building the merged string.
+
+The index is an open-addressing hash table of the code tuples and is read-only after it is built, so it can be shared by
+concurrent parsers.
+
+@author Johan Hall
+@since 1.4
+*/
+public class MergedCodeIndex {
+	public final static char SEPARATOR = '~';
+	private final FrozenSymbolTable[] components;
+	private final int arity;
+	private int[] keys;
+	private int[] values;
+	private int mask;
+	private int size;
+
+	/**
+	 * Builds the index of a merged symbol table.
+	 *
+	 * @param table	the merged symbol table
+	 * @param components	the symbol tables of the two or three merged features
+	 */
+	MergedCodeIndex(FrozenSymbolTable table, FrozenSymbolTable[] components) {
+		this.components = components.clone();
+		arity = components.length;
+		keys = new int[arity*16];
+		values = new int[16];
+		mask = 15;
+		final int[] codes = new int[arity];
+		for (int code = 0, n = table.getCodeLimit(); code < n; code++) {
+			final String symbol = table.getFrozenSymbol(code);
+			if (symbol != null) {
+				addSplits(symbol, 0, 0, codes, code);
+			}
+		}
+	}
+
+	/**
+	 * Adds the code tuples of the splits of a merged symbol from a position on, where the codes of the components before
+	 * the position are already found.
+	 */
+	private void addSplits(String symbol, int start, int component, int[] codes, int code) {
+		if (component == arity-1) {
+			codes[component] = components[component].lookupFrozenCode(symbol.substring(start));
+			if (codes[component] != -1) {
+				put(codes, code);
+			}
+			return;
+		}
+		for (int i = symbol.indexOf(SEPARATOR, start); i != -1; i = symbol.indexOf(SEPARATOR, i+1)) {
+			codes[component] = components[component].lookupFrozenCode(symbol.substring(start, i));
+			if (codes[component] != -1) {
+				addSplits(symbol, i+1, component+1, codes, code);
+			}
+		}
+	}
+
+	private void put(int[] codes, int code) {
+		if (2*(size+1) > values.length) {
+			rehash();
+		}
+		int i = hash(codes[0], codes[1], (arity == 3)?codes[2]:0) & mask;
+		while (values[i] != 0) {
+			i = (i+1) & mask;
+		}
+		for (int j = 0; j < arity; j++) {
+			keys[arity*i+j] = codes[j];
+		}
+		values[i] = code+1;
+		size++;
+	}
+
+	private void rehash() {
+		final int[] oldKeys = keys;
+		final int[] oldValues = values;
+		keys = new int[2*oldKeys.length];
+		values = new int[2*oldValues.length];
+		mask = values.length-1;
+		size = 0;
+		final int[] codes = new int[arity];
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != 0) {
+				System.arraycopy(oldKeys, arity*i, codes, 0, arity);
+				put(codes, oldValues[i]-1);
+			}
+		}
+	}
+
+	private static int hash(int first, int second, int third) {
+		int h = (first*31 + second)*31 + third;
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns true if the index is built from the given component tables
+	 *
+	 * @param components	the symbol tables of the merged features
+	 * @return true if the index is built from the component tables
+	 */
+	boolean hasComponents(FrozenSymbolTable[] components) {
+		if (components.length != arity) {
+			return false;
+		}
+		for (int j = 0; j < arity; j++) {
+			if (components[j] != this.components[j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the code of the merge of two frozen component codes.
+	 *
+	 * @param first	the code of the first component
+	 * @param second	the code of the second component
+	 * @return the code of the merged symbol, or -1 if the merged symbol is not a frozen symbol
+	 */
+	public int get(int first, int second) {
+		int i = hash(first, second, 0) & mask;
+		int value;
+		while ((value = values[i]) != 0) {
+			if (keys[2*i] == first && keys[2*i+1] == second) {
+				return value-1;
+			}
+			i = (i+1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the code of the merge of three frozen component codes.
+	 *
+	 * @param first	the code of the first component
+	 * @param second	the code of the second component
+	 * @param third	the code of the third component
+	 * @return the code of the merged symbol, or -1 if the merged symbol is not a frozen symbol
+	 */
+	public int get(int first, int second, int third) {
+		int i = hash(first, second, third) & mask;
+		int value;
+		while ((value = values[i]) != 0) {
+			if (keys[3*i] == first && keys[3*i+1] == second && keys[3*i+2] == third) {
+				return value-1;
+			}
+			i = (i+1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the number of code tuples of the index
+	 *
+	 * @return the number of code tuples
+	 */
+	public int size() {
+		return size;
+	}
+}
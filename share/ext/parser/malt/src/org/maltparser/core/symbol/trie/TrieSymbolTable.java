@@ -17,14 +17,24 @@ import org.maltparser.core.symbol.nullvalue.NullValues;
 import org.maltparser.core.symbol.nullvalue.OutputNullValues;
 import org.maltparser.core.symbol.nullvalue.NullValues.NullValueId;
 /**
+A symbol table backed by a trie that is shared by all symbol tables of a symbol table handler. All access to the 
+shared trie is synchronized on the trie, which makes it possible for several parsers to use the same symbol tables
+concurrently.
 
 @author Johan Hall
 @since 1.0
 */
 public class TrieSymbolTable implements SymbolTable {
+	private final static int INITIAL_VIEW_SIZE = 64;
 	private final String name;
 	private final Trie trie;
 	private final SortedMap<Integer, TrieNode> codeTable;
+	/**
+	 * Dense views of the code table, indexed by code. A code is added to the views while holding the trie lock before
+	 * the code is handed out, so the symbol and the entry of a known code can be read without locking the trie.
+	 */
+	private volatile String[] codeSymbols = new String[INITIAL_VIEW_SIZE];
+	private volatile TrieEntry[] codeEntries = new TrieEntry[INITIAL_VIEW_SIZE];
 	private int columnCategory;
 	private NullValues nullValues;
 	private int valueCounter;
@@ -70,12 +80,15 @@ public class TrieSymbolTable implements SymbolTable {
 	
 	public int addSymbol(String symbol) throws MaltChainedException {
 		if (nullValues == null || !nullValues.isNullValue(symbol)) {
-			final TrieNode node = trie.addValue(symbol, this, -1);
-			final int code = node.getEntry(this).getCode();
-			if (!codeTable.containsKey(code)) {
-				codeTable.put(code, node);
+			synchronized (trie) {
+				final TrieNode node = trie.addValue(symbol, this, -1);
+				final int code = node.getEntry(this).getCode();
+				if (!codeTable.containsKey(code)) {
+					codeTable.put(code, node);
+					addToViews(code, symbol.toString(), node.getEntry(this));
+				}
+				return code;
 			}
-			return code;
 		} else {
 			return nullValues.symbolToCode(symbol);
 		}
@@ -83,12 +96,15 @@ public class TrieSymbolTable implements SymbolTable {
 	
 	public int addSymbol(StringBuilder symbol) throws MaltChainedException {
 		if (nullValues == null || !nullValues.isNullValue(symbol)) {
-			final TrieNode node = trie.addValue(symbol, this, -1);
-			final int code = node.getEntry(this).getCode();
-			if (!codeTable.containsKey(code)) {
-				codeTable.put(code, node);
+			synchronized (trie) {
+				final TrieNode node = trie.addValue(symbol, this, -1);
+				final int code = node.getEntry(this).getCode();
+				if (!codeTable.containsKey(code)) {
+					codeTable.put(code, node);
+					addToViews(code, symbol.toString(), node.getEntry(this));
+				}
+				return code;
 			}
-			return code;
 		} else {
 			return nullValues.symbolToCode(symbol);
 		}
@@ -96,11 +112,17 @@ public class TrieSymbolTable implements SymbolTable {
 	
 	public String getSymbolCodeToString(int code) throws MaltChainedException {
 		if (code >= 0) {
+			final String[] symbols = codeSymbols;
+			if (code < symbols.length && symbols[code] != null) {
+				return symbols[code];
+			}
 			if (nullValues == null || !nullValues.isNullValue(code)) {
 				if (trie == null) {
 					throw new SymbolException("The symbol table is corrupt. ");
 				}
-				return trie.getValue(codeTable.get(code), this);
+				synchronized (trie) {
+					return trie.getValue(codeTable.get(code), this);
+				}
 			} else {
 				return nullValues.codeToSymbol(code);
 			}
@@ -115,7 +137,10 @@ public class TrieSymbolTable implements SymbolTable {
 				if (trie == null) {
 					throw new SymbolException("The symbol table is corrupt. ");
 				} 
-				final TrieEntry entry = trie.getEntry(symbol, this);
+				final TrieEntry entry;
+				synchronized (trie) {
+					entry = trie.getEntry(symbol, this);
+				}
 				if (entry == null) {
 					throw new SymbolException("Could not find the symbol '"+symbol+"' in the symbol table. ");
 				}
@@ -140,10 +165,23 @@ public class TrieSymbolTable implements SymbolTable {
 		return columnCategory;
 	}
 
+	public String getRootLabel() {
+		if (nullValues instanceof OutputNullValues) {
+			return ((OutputNullValues)nullValues).getRootLabel();
+		}
+		return null;
+	}
+
 	public boolean getKnown(int code) {
 		if (code >= 0) {
+			final TrieEntry[] entries = codeEntries;
+			if (code < entries.length && entries[code] != null) {
+				return entries[code].isKnown();
+			}
 			if (nullValues == null || !nullValues.isNullValue(code)) {
-				return codeTable.get(code).getEntry(this).isKnown();
+				synchronized (trie) {
+					return codeTable.get(code).getEntry(this).isKnown();
+				}
 			} else {
 				return true;
 			}
@@ -154,7 +192,10 @@ public class TrieSymbolTable implements SymbolTable {
 
 	public boolean getKnown(String symbol) {
 		if (nullValues == null || !nullValues.isNullValue(symbol)) {
-			final TrieEntry entry = trie.getEntry(symbol, this);
+			final TrieEntry entry;
+			synchronized (trie) {
+				entry = trie.getEntry(symbol, this);
+			}
 			if (entry == null) {
 				return false;
 			}
@@ -167,7 +208,9 @@ public class TrieSymbolTable implements SymbolTable {
 	public void makeKnown(int code) {
 		if (code >= 0) {
 			if (nullValues == null || !nullValues.isNullValue(code)) {
-				codeTable.get(code).getEntry(this).setKnown(true);
+				synchronized (trie) {
+					codeTable.get(code).getEntry(this).setKnown(true);
+				}
 			} 
 		}
 	}
@@ -187,8 +230,8 @@ public class TrieSymbolTable implements SymbolTable {
 			out.append('\t');
 			out.append(getNullValueStrategy());
 			out.append('\t');
-			if (nullValues instanceof OutputNullValues && ((OutputNullValues)nullValues).getRootLabel() != null) {
-				out.append(((OutputNullValues)nullValues).getRootLabel());
+			if (getRootLabel() != null) {
+				out.append(getRootLabel());
 			} else {
 				out.append("#DUMMY#");
 			}
@@ -232,6 +275,7 @@ public class TrieSymbolTable implements SymbolTable {
 				final String str = fileLine.substring(index+1);
 				final TrieNode node = trie.addValue(str, this, code);
 				codeTable.put(node.getEntry(this).getCode(), node);
+				addToViews(node.getEntry(this).getCode(), str, node.getEntry(this));
 				if (max < code) {
 					max = code;
 				}
@@ -300,6 +344,7 @@ public class TrieSymbolTable implements SymbolTable {
 			final String str = trie.getValue(fromCodeTable.get(code), this);
 			final TrieNode node = trie.addValue(str, this, code);
 			codeTable.put(node.getEntry(this).getCode(), node);
+			addToViews(node.getEntry(this).getCode(), str, node.getEntry(this));
 			if (max < code) {
 				max = code;
 			}
@@ -307,6 +352,31 @@ public class TrieSymbolTable implements SymbolTable {
 		setValueCounter(max+1);
 	}
 
+	/**
+	 * Adds a code to the dense views. Must be called while holding the trie lock (or before the symbol table is shared).
+	 * 
+	 * @param code	the code
+	 * @param symbol	the symbol of the code
+	 * @param entry	the trie entry of the code
+	 */
+	private void addToViews(int code, String symbol, TrieEntry entry) {
+		String[] symbols = codeSymbols;
+		TrieEntry[] entries = codeEntries;
+		if (code >= symbols.length) {
+			final int size = Math.max(code+1, symbols.length*2);
+			final String[] newSymbols = new String[size];
+			System.arraycopy(symbols, 0, newSymbols, 0, symbols.length);
+			final TrieEntry[] newEntries = new TrieEntry[size];
+			System.arraycopy(entries, 0, newEntries, 0, entries.length);
+			symbols = newSymbols;
+			entries = newEntries;
+		}
+		symbols[code] = symbol;
+		entries[code] = entry;
+		codeSymbols = symbols;
+		codeEntries = entries;
+	}
+	
 	public SortedMap<Integer, TrieNode> getCodeTable() {
 		return codeTable;
 	}
@@ -37,7 +37,7 @@ public class TrieSymbolTableHandler implements SymbolTableHandler {
 		symbolTables = new HashMap<String, TrieSymbolTable>();
 	}
 
-	public TrieSymbolTable addSymbolTable(String tableName) throws MaltChainedException {
+	public synchronized TrieSymbolTable addSymbolTable(String tableName) throws MaltChainedException {
 		TrieSymbolTable symbolTable = symbolTables.get(tableName);
 		if (symbolTable == null) {
 			symbolTable = new TrieSymbolTable(tableName, trie);
@@ -46,7 +46,7 @@ public class TrieSymbolTableHandler implements SymbolTableHandler {
 		return symbolTable;
 	}
 	
-	public TrieSymbolTable addSymbolTable(String tableName, SymbolTable parentTable) throws MaltChainedException {
+	public synchronized TrieSymbolTable addSymbolTable(String tableName, SymbolTable parentTable) throws MaltChainedException {
 		TrieSymbolTable symbolTable = symbolTables.get(tableName);
 		if (symbolTable == null) {
 			TrieSymbolTable trieParentTable = (TrieSymbolTable)parentTable;
@@ -56,7 +56,7 @@ public class TrieSymbolTableHandler implements SymbolTableHandler {
 		return symbolTable;
 	}
 	
-	public TrieSymbolTable addSymbolTable(String tableName, int columnCategory, String nullValueStrategy) throws MaltChainedException {
+	public synchronized TrieSymbolTable addSymbolTable(String tableName, int columnCategory, String nullValueStrategy) throws MaltChainedException {
 		TrieSymbolTable symbolTable = symbolTables.get(tableName);
 		if (symbolTable == null) {
 			symbolTable = new TrieSymbolTable(tableName, trie, columnCategory, nullValueStrategy);
@@ -65,7 +65,7 @@ public class TrieSymbolTableHandler implements SymbolTableHandler {
 		return symbolTable;
 	}
 	
-	public TrieSymbolTable addSymbolTable(String tableName, int columnCategory, String nullValueStrategy, String rootLabel) throws MaltChainedException {
+	public synchronized TrieSymbolTable addSymbolTable(String tableName, int columnCategory, String nullValueStrategy, String rootLabel) throws MaltChainedException {
 		TrieSymbolTable symbolTable = symbolTables.get(tableName);
 		if (symbolTable == null) {
 			symbolTable = new TrieSymbolTable(tableName, trie, columnCategory, nullValueStrategy, rootLabel);
@@ -74,7 +74,7 @@ public class TrieSymbolTableHandler implements SymbolTableHandler {
 		return symbolTable;
 	}
 	
-	public TrieSymbolTable getSymbolTable(String tableName) {
+	public synchronized TrieSymbolTable getSymbolTable(String tableName) {
 		return symbolTables.get(tableName);
 	}
 	
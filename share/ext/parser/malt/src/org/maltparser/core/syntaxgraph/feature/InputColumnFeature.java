@@ -4,6 +4,7 @@ import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.feature.function.AddressFunction;
 import org.maltparser.core.feature.value.AddressValue;
 import org.maltparser.core.io.dataformat.DataFormatInstance;
+import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.nullvalue.NullValues.NullValueId;
 import org.maltparser.core.syntaxgraph.SyntaxGraphException;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
@@ -55,9 +56,11 @@ public final class InputColumnFeature extends ColumnFeature {
 				final DependencyNode node = (DependencyNode)a.getAddress();
 				
 				if (!node.isRoot()) { 
-					featureValue.setCode(node.getLabelCode(column.getSymbolTable()));
-					featureValue.setSymbol(column.getSymbolTable().getSymbolCodeToString(node.getLabelCode(column.getSymbolTable())));
-					featureValue.setKnown(column.getSymbolTable().getKnown(node.getLabelCode(column.getSymbolTable())));
+					final SymbolTable table = column.getSymbolTable();
+					final int code = node.getLabelCode(table);
+					featureValue.setCode(code);
+					featureValue.setSymbolTable(table);
+					featureValue.setKnown(table.getKnown(code));
 					featureValue.setNullValue(false);
 				} else { 
 					featureValue.setCode(column.getSymbolTable().getNullValueCode(NullValueId.ROOT_NODE));
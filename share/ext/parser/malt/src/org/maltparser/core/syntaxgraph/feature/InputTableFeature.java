@@ -4,6 +4,7 @@ import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.feature.function.AddressFunction;
 import org.maltparser.core.feature.value.AddressValue;
 import org.maltparser.core.io.dataformat.DataFormatInstance;
+import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.TableFeature;
 import org.maltparser.core.symbol.nullvalue.NullValues.NullValueId;
 import org.maltparser.core.syntaxgraph.SyntaxGraphException;
@@ -57,9 +58,11 @@ public class InputTableFeature extends TableFeature {
 				final DependencyNode node = (DependencyNode)a.getAddress();
 				if (!node.isRoot()) {
 					if (getSymbolTable() != null && node.hasLabel(getSymbolTable())) {
-						featureValue.setCode(node.getLabelCode(getSymbolTable()));
-						featureValue.setSymbol(getSymbolTable().getSymbolCodeToString(node.getLabelCode(getSymbolTable())));
-						featureValue.setKnown(getSymbolTable().getKnown(node.getLabelCode(getSymbolTable())));
+						final SymbolTable table = getSymbolTable();
+						final int code = node.getLabelCode(table);
+						featureValue.setCode(code);
+						featureValue.setSymbolTable(table);
+						featureValue.setKnown(table.getKnown(code));
 						featureValue.setNullValue(false);
 					} else {
 						featureValue.setCode(0);
@@ -4,6 +4,7 @@ import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.feature.function.AddressFunction;
 import org.maltparser.core.feature.value.AddressValue;
 import org.maltparser.core.io.dataformat.DataFormatInstance;
+import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
 import org.maltparser.core.symbol.TableFeature;
 import org.maltparser.core.symbol.nullvalue.NullValues.NullValueId;
@@ -57,9 +58,11 @@ public class OutputTableFeature extends TableFeature {
 				final DependencyNode node = (DependencyNode)a.getAddress();
 				if (!node.isRoot()) {
 					if (node.hasHead()) {
-						featureValue.setCode(node.getHeadEdge().getLabelCode(getSymbolTable()));
-						featureValue.setSymbol(getSymbolTable().getSymbolCodeToString(node.getHeadEdge().getLabelCode(getSymbolTable())));
-						featureValue.setKnown(getSymbolTable().getKnown(node.getHeadEdge().getLabelCode(getSymbolTable())));
+						final SymbolTable table = getSymbolTable();
+						final int code = node.getHeadEdge().getLabelCode(table);
+						featureValue.setCode(code);
+						featureValue.setSymbolTable(table);
+						featureValue.setKnown(table.getKnown(code));
 						featureValue.setNullValue(false);
 					} else {
 						featureValue.setCode(getSymbolTable().getNullValueCode(NullValueId.NO_VALUE));
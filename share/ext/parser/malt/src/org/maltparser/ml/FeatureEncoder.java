@@ -0,0 +1,145 @@
+package org.maltparser.ml;
+
+import org.maltparser.core.feature.FeatureExtractionPlan;
+import org.maltparser.core.feature.FeatureVector;
+import org.maltparser.core.feature.value.FeatureValue;
+import org.maltparser.core.feature.value.MultipleFeatureValue;
+import org.maltparser.core.feature.value.SingleFeatureValue;
+
+/**
+* Encodes a feature vector as the indices of the active binary features, which is the sparse format used by the
+* Liblinear and LIBSVM classifiers. The value of a feature function is mapped to the index <i>code + offset</i>, where
+* the offset of a feature function is the sum of the cardinalities of all preceding feature functions. Values with a
+* code that is not less than the cardinality of the feature function (unknown during training) are left out.
+*
+* The offsets are computed once and the index buffer is reused, so that the encoding of a feature vector during
+* classification doesn't allocate any objects. The codes of single-valued features are read from the extraction plan of
+* the feature model, which holds the codes of the last update of the feature model; the slots of the feature functions
+* in the plan are looked up once per feature vector. An encoder is not thread-safe; each learner has its own encoder.
+*
+* @author Johan Hall
+*/
+public class FeatureEncoder {
+	private final int[] cardinalities;
+	private final int[] offsets;
+	private final boolean excludeNullValues;
+	private int[] indices;
+	private int size;
+	private FeatureVector boundVector;
+	private int boundCompilations;
+	private int[] slots;
+
+	/**
+	 * Constructs a feature encoder.
+	 *
+	 * @param cardinalities	the number of distinct values of each feature function
+	 * @param firstIndex	the index of the first value of the first feature function
+	 * @param excludeNullValues	true if null values should be left out
+	 */
+	public FeatureEncoder(int[] cardinalities, int firstIndex, boolean excludeNullValues) {
+		this.cardinalities = cardinalities;
+		this.excludeNullValues = excludeNullValues;
+		offsets = new int[cardinalities.length];
+		int offset = firstIndex;
+		for (int i = 0; i < cardinalities.length; i++) {
+			offsets[i] = offset;
+			offset += cardinalities[i];
+		}
+		indices = new int[Math.max(cardinalities.length, 1)];
+	}
+
+	/**
+	 * Encodes the current values of the feature vector. The indices are available by getIndices() until the next
+	 * call of this method.
+	 *
+	 * @param featureVector	a feature vector
+	 * @return the number of active features
+	 */
+	public int encode(FeatureVector featureVector) {
+		final FeatureExtractionPlan plan = featureVector.getFeatureModel().getExtractionPlan();
+		if (featureVector != boundVector || plan.getCompilations() != boundCompilations) {
+			bind(featureVector, plan);
+		}
+		final int[] codes = plan.getCodes();
+		final boolean[] nullValues = plan.getNullValues();
+		final boolean[] singleValues = plan.getSingleValues();
+		int j = 0;
+		for (int i = 0, n = featureVector.size(); i < n; i++) {
+			final int slot = slots[i];
+			if (slot != -1 && singleValues[slot]) {
+				if (!(excludeNullValues == true && nullValues[slot]) && codes[slot] < cardinalities[i]) {
+					if (j == indices.length) {
+						growIndices();
+					}
+					indices[j++] = codes[slot] + offsets[i];
+				}
+				continue;
+			}
+			final FeatureValue featureValue = featureVector.get(i).getFeatureValue();
+			if (!(excludeNullValues == true && featureValue.isNullValue())) {
+				if (featureValue instanceof SingleFeatureValue) {
+					final int code = ((SingleFeatureValue)featureValue).getCode();
+					if (code < cardinalities[i]) {
+						if (j == indices.length) {
+							growIndices();
+						}
+						indices[j++] = code + offsets[i];
+					}
+				} else if (featureValue instanceof MultipleFeatureValue) {
+					final int[] values = ((MultipleFeatureValue)featureValue).getCodeArray();
+					for (int k = 0, m = ((MultipleFeatureValue)featureValue).nCodes(); k < m; k++) {
+						if (values[k] < cardinalities[i]) {
+							if (j == indices.length) {
+								growIndices();
+							}
+							indices[j++] = values[k] + offsets[i];
+						}
+					}
+				}
+			}
+		}
+		size = j;
+		return j;
+	}
+
+	/**
+	 * Looks up the slots of the feature functions of a feature vector in the extraction plan. A feature function that is 
+	 * not a part of the plan gets the slot -1 and is encoded from its feature value.
+	 */
+	private void bind(FeatureVector featureVector, FeatureExtractionPlan plan) {
+		slots = new int[featureVector.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = plan.getSlot(featureVector.get(i));
+		}
+		boundVector = featureVector;
+		boundCompilations = plan.getCompilations();
+	}
+
+	private void growIndices() {
+		final int[] newIndices = new int[indices.length*2];
+		System.arraycopy(indices, 0, newIndices, 0, indices.length);
+		indices = newIndices;
+	}
+
+	/**
+	 * Returns the index buffer. Only the first size() elements belong to the last encoded feature vector.
+	 *
+	 * @return the index buffer
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	/**
+	 * Returns the number of active features of the last encoded feature vector.
+	 *
+	 * @return the number of active features
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int[] getCardinalities() {
+		return cardinalities;
+	}
+}
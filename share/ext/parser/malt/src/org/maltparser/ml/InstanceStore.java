@@ -0,0 +1,812 @@
+package org.maltparser.ml;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+
+import org.maltparser.core.feature.FeatureVector;
+import org.maltparser.core.feature.value.FeatureValue;
+import org.maltparser.core.feature.value.MultipleFeatureValue;
+import org.maltparser.core.feature.value.SingleFeatureValue;
+
+/**
+* Stores the training instances of a learner in an append-only binary file, which replaces the tab-separated instance
+* files of earlier versions. An instance is the decision code and, for each feature function, the codes of its value
+* (-1 for an excluded null value). All numbers are written as variable-length integers (seven bits per byte, the
+* highest bit set on all bytes except the last), and the codes are shifted by one so that -1 takes one byte:
+*
+* <pre>
+*   entry        0, byte length of the record, record  |  r + 1 for a repetition of the r-th record of the file
+*   record       number of columns, decision code + 1, columns
+*   column       number of codes, code + 1 for each code
+* </pre>
+*
+* The file starts with the four bytes of MAGIC and a flags byte. If the store deduplicates the instances (the flag
+* DEDUPLICATED), an instance that is identical to an earlier instance of the file is written as a reference to the
+* earlier record. The records are hashed by their bytes, so the store keeps one copy of each distinct record in
+* memory; the cursor does the same to resolve the references. The order of the instances is kept, so a learner
+* that reads a deduplicated store sees the same instances as without deduplication.
+*
+* Instances are buffered and written in blocks; the store must be closed before the instances are read by a cursor.
+* The text format of earlier versions can still be exported for debugging (see the option save_instance_files) and
+* for external trainers.
+*
+* @author Johan Hall
+*/
+public class InstanceStore {
+	/**
+	 * Suffix of the instance files of the learners
+	 */
+	public final static String SUFFIX = ".insb";
+	public final static int MAGIC = 0x4d494e53; // "MINS"
+	/**
+	 * Flag of the files whose entries may refer to earlier records
+	 */
+	public final static int DEDUPLICATED = 1;
+	private final static int BUFFER_SIZE = 65536;
+
+	private final File file;
+	private OutputStream output;
+	private final byte[] buffer;
+	private int position;
+	private boolean deduplicated;
+	private byte[] record;
+	private int recordLength;
+	private int instanceCount;
+	private int recordCount;
+	// The distinct records of a deduplicating store: their bytes, the start of each record in the bytes (the end is
+	// the start of the next record), their hash codes and an open-addressing table of record index + 1
+	private byte[] records;
+	private int[] recordStarts;
+	private int[] recordHashes;
+	private int[] table;
+
+	/**
+	 * Opens an instance store for writing, without deduplication.
+	 *
+	 * @param file	the instance file
+	 * @param append	true if the instances are added after the instances already in the file, otherwise the file is truncated
+	 * @throws IOException
+	 */
+	public InstanceStore(File file, boolean append) throws IOException {
+		this(file, append, false);
+	}
+
+	/**
+	 * Opens an instance store for writing. When instances are added to a file that is not empty, the file decides
+	 * whether the store deduplicates the instances.
+	 *
+	 * @param file	the instance file
+	 * @param append	true if the instances are added after the instances already in the file, otherwise the file is truncated
+	 * @param deduplicate	true if identical instances are stored once
+	 * @throws IOException
+	 */
+	public InstanceStore(File file, boolean append, boolean deduplicate) throws IOException {
+		this.file = file;
+		final boolean empty = !append || !file.exists() || file.length() == 0;
+		buffer = new byte[BUFFER_SIZE];
+		position = 0;
+		record = new byte[256];
+		deduplicated = deduplicate;
+		if (empty) {
+			output = new FileOutputStream(file, false);
+			for (int shift = 24; shift >= 0; shift -= 8) {
+				buffer[position++] = (byte)(MAGIC >>> shift);
+			}
+			buffer[position++] = (byte)(deduplicate ? DEDUPLICATED : 0);
+			if (deduplicate) {
+				records = new byte[4096];
+				recordStarts = new int[256];
+				recordHashes = new int[256];
+			}
+		} else {
+			// Reads the instances already in the file and takes over the distinct records of the cursor
+			final Cursor cursor = new Cursor(file);
+			try {
+				while (cursor.next());
+			} finally {
+				cursor.close();
+			}
+			deduplicated = cursor.deduplicated;
+			instanceCount = cursor.instanceCount;
+			recordCount = cursor.recordCount;
+			if (deduplicated) {
+				records = cursor.records;
+				recordStarts = cursor.recordStarts;
+				recordHashes = new int[Math.max(256, recordStarts.length)];
+				for (int i = 0; i < recordCount; i++) {
+					recordHashes[i] = hash(records, recordStarts[i], recordStarts[i + 1]);
+				}
+			}
+			output = new FileOutputStream(file, true);
+		}
+		if (deduplicated) {
+			int capacity = 1024;
+			while (capacity < 2 * recordCount) {
+				capacity <<= 1;
+			}
+			table = new int[capacity];
+			for (int i = 0; i < recordCount; i++) {
+				insert(i);
+			}
+		}
+	}
+
+	/**
+	 * Adds an instance with the current values of a feature vector.
+	 *
+	 * @param decisionCode	the decision code
+	 * @param featureVector	the feature vector
+	 * @param excludeNullValues	true if null values are stored as -1
+	 * @throws IOException
+	 */
+	public void addInstance(int decisionCode, FeatureVector featureVector, boolean excludeNullValues) throws IOException {
+		final int n = featureVector.size();
+		recordLength = 0;
+		writeNumber(n);
+		writeCode(decisionCode);
+		for (int i = 0; i < n; i++) {
+			final FeatureValue featureValue = featureVector.get(i).getFeatureValue();
+			if (excludeNullValues == true && featureValue.isNullValue()) {
+				writeNumber(1);
+				writeCode(-1);
+			} else if (featureValue instanceof SingleFeatureValue) {
+				writeNumber(1);
+				writeCode(((SingleFeatureValue)featureValue).getCode());
+			} else if (featureValue instanceof MultipleFeatureValue) {
+				final int[] codes = ((MultipleFeatureValue)featureValue).getCodeArray();
+				final int nCodes = ((MultipleFeatureValue)featureValue).nCodes();
+				writeNumber(nCodes);
+				for (int k = 0; k < nCodes; k++) {
+					writeCode(codes[k]);
+				}
+			} else {
+				writeNumber(0);
+			}
+		}
+		writeRecord();
+	}
+
+	/**
+	 * Adds a copy of the instance at a cursor, without one of its columns.
+	 *
+	 * @param instance	the cursor positioned at an instance
+	 * @param excludeColumn	the index of the column to leave out, or -1
+	 * @throws IOException
+	 */
+	public void addInstance(Cursor instance, int excludeColumn) throws IOException {
+		final int n = instance.getColumnCount();
+		recordLength = 0;
+		writeNumber(excludeColumn >= 0 && excludeColumn < n ? n - 1 : n);
+		writeCode(instance.getDecisionCode());
+		for (int i = 0; i < n; i++) {
+			if (i != excludeColumn) {
+				writeColumn(instance, i);
+			}
+		}
+		writeRecord();
+	}
+
+	/**
+	 * Adds a copy of the instance at a cursor and inserts a column with a single code before each of the given
+	 * column indices. The index of the column count of the instance inserts the column last.
+	 *
+	 * @param instance	the cursor positioned at an instance
+	 * @param insertColumns	the indices of the columns before which the code is inserted
+	 * @param code	the code of the inserted columns
+	 * @throws IOException
+	 */
+	public void addInstance(Cursor instance, ArrayList<Integer> insertColumns, int code) throws IOException {
+		final int n = instance.getColumnCount();
+		int inserted = 0;
+		for (int i = 0; i <= n; i++) {
+			if (insertColumns.contains(i)) {
+				inserted++;
+			}
+		}
+		recordLength = 0;
+		writeNumber(n + inserted);
+		writeCode(instance.getDecisionCode());
+		for (int i = 0; i <= n; i++) {
+			if (insertColumns.contains(i)) {
+				writeNumber(1);
+				writeCode(code);
+			}
+			if (i < n) {
+				writeColumn(instance, i);
+			}
+		}
+		writeRecord();
+	}
+
+	private void writeColumn(Cursor instance, int column) {
+		final int end = instance.getColumnEnd(column);
+		final int start = instance.getColumnStart(column);
+		writeNumber(end - start);
+		for (int k = start; k < end; k++) {
+			writeCode(instance.getCode(k));
+		}
+	}
+
+	/**
+	 * Writes a code that is at least -1 to the current record as the variable-length integer of the code + 1.
+	 */
+	private void writeCode(int code) {
+		writeNumber(code + 1);
+	}
+
+	/**
+	 * Writes a non-negative number to the current record as a variable-length integer.
+	 */
+	private void writeNumber(int value) {
+		if (recordLength > record.length - 5) {
+			final byte[] newRecord = new byte[2 * record.length];
+			System.arraycopy(record, 0, newRecord, 0, recordLength);
+			record = newRecord;
+		}
+		while ((value & ~0x7F) != 0) {
+			record[recordLength++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		record[recordLength++] = (byte)value;
+	}
+
+	/**
+	 * Writes the entry of the current record, which is a reference to an identical earlier record if the store
+	 * deduplicates the instances.
+	 */
+	private void writeRecord() throws IOException {
+		instanceCount++;
+		if (deduplicated) {
+			final int h = hash(record, 0, recordLength);
+			final int mask = table.length - 1;
+			for (int slot = h & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+				final int r = table[slot] - 1;
+				if (recordHashes[r] == h && equalsRecord(r)) {
+					writeEntryNumber(r + 1);
+					return;
+				}
+			}
+			addRecord(h);
+		}
+		recordCount++;
+		writeEntryNumber(0);
+		writeEntryNumber(recordLength);
+		if (position > BUFFER_SIZE - recordLength) {
+			flush();
+		}
+		if (recordLength > BUFFER_SIZE) {
+			output.write(record, 0, recordLength);
+		} else {
+			System.arraycopy(record, 0, buffer, position, recordLength);
+			position += recordLength;
+		}
+	}
+
+	private void writeEntryNumber(int value) throws IOException {
+		if (position > BUFFER_SIZE - 5) {
+			flush();
+		}
+		while ((value & ~0x7F) != 0) {
+			buffer[position++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte)value;
+	}
+
+	private boolean equalsRecord(int r) {
+		final int start = recordStarts[r];
+		if (recordStarts[r + 1] - start != recordLength) {
+			return false;
+		}
+		for (int i = 0; i < recordLength; i++) {
+			if (records[start + i] != record[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Keeps the current record as the next distinct record of the store.
+	 */
+	private void addRecord(int h) {
+		final int r = recordCount;
+		if (recordStarts.length < r + 2) {
+			final int[] newRecordStarts = new int[2 * recordStarts.length];
+			System.arraycopy(recordStarts, 0, newRecordStarts, 0, r + 1);
+			recordStarts = newRecordStarts;
+		}
+		if (recordHashes.length < r + 1) {
+			final int[] newRecordHashes = new int[2 * recordHashes.length];
+			System.arraycopy(recordHashes, 0, newRecordHashes, 0, r);
+			recordHashes = newRecordHashes;
+		}
+		final int start = recordStarts[r];
+		if (records.length < start + recordLength) {
+			final byte[] newRecords = new byte[Math.max(start + recordLength, 2 * records.length)];
+			System.arraycopy(records, 0, newRecords, 0, start);
+			records = newRecords;
+		}
+		System.arraycopy(record, 0, records, start, recordLength);
+		recordStarts[r + 1] = start + recordLength;
+		recordHashes[r] = h;
+		if (2 * (r + 1) > table.length) {
+			table = new int[2 * table.length];
+			for (int i = 0; i < r; i++) {
+				insert(i);
+			}
+		}
+		insert(r);
+	}
+
+	private void insert(int r) {
+		final int mask = table.length - 1;
+		int slot = recordHashes[r] & mask;
+		while (table[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = r + 1;
+	}
+
+	private static int hash(byte[] bytes, int start, int end) {
+		int h = 1;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + bytes[i];
+		}
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		return h ^ (h >>> 13);
+	}
+
+	/**
+	 * Returns true if identical instances are stored once
+	 *
+	 * @return true if identical instances are stored once
+	 */
+	public boolean isDeduplicated() {
+		return deduplicated;
+	}
+
+	/**
+	 * Returns the number of instances of the store
+	 *
+	 * @return the number of instances
+	 */
+	public int getInstanceCount() {
+		return instanceCount;
+	}
+
+	/**
+	 * Returns the number of records of the store, which is the number of distinct instances if the store deduplicates
+	 * the instances and otherwise the number of instances
+	 *
+	 * @return the number of records
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Writes the buffered instances to the file.
+	 *
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		if (output == null) {
+			throw new IOException("The instance file '"+file.getName()+"' is closed. ");
+		}
+		output.write(buffer, 0, position);
+		position = 0;
+	}
+
+	/**
+	 * Writes the buffered instances and closes the file. A closed store can still be read by cursors, and the distinct
+	 * records kept for the deduplication are released.
+	 *
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if (output != null) {
+			flush();
+			output.close();
+			output = null;
+			records = null;
+			recordStarts = null;
+			recordHashes = null;
+			table = null;
+		}
+	}
+
+	/**
+	 * Returns true if the store is open for adding instances
+	 *
+	 * @return true if the store is open for adding instances
+	 */
+	public boolean isOpen() {
+		return output != null;
+	}
+
+	/**
+	 * Returns the instance file
+	 *
+	 * @return the instance file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Opens a cursor that reads the instances of a closed store from the beginning.
+	 *
+	 * @return a cursor before the first instance
+	 * @throws IOException
+	 */
+	public Cursor getCursor() throws IOException {
+		return new Cursor(file);
+	}
+
+	/**
+	 * Exports the instances in the tab-separated text format of earlier versions: the decision code and the columns
+	 * separated by tabs, the codes of a column separated by '|'.
+	 *
+	 * @param out	the writer of the text instance file, which is closed
+	 * @throws IOException
+	 */
+	public void exportText(Writer out) throws IOException {
+		final Cursor cursor = getCursor();
+		try {
+			final StringBuilder sb = new StringBuilder();
+			while (cursor.next()) {
+				sb.setLength(0);
+				sb.append(cursor.getDecisionCode());
+				sb.append('\t');
+				for (int i = 0, n = cursor.getColumnCount(); i < n; i++) {
+					for (int k = cursor.getColumnStart(i), end = cursor.getColumnEnd(i); k < end; k++) {
+						if (k > cursor.getColumnStart(i)) {
+							sb.append('|');
+						}
+						sb.append(cursor.getCode(k));
+					}
+					sb.append('\t');
+				}
+				sb.append('\n');
+				out.write(sb.toString());
+			}
+		} finally {
+			cursor.close();
+			out.close();
+		}
+	}
+
+	/**
+	 * Exports the instances in the sparse format of the LIBSVM and Liblinear command-line trainers. The code of a
+	 * column is mapped to the index <i>code + offset</i>, where the offset of a column is the index of the first column
+	 * plus the sum of the cardinalities of the preceding columns. Codes -1 are left out.
+	 *
+	 * @param out	the writer of the sparse instance file, which is closed
+	 * @param cardinalities	the number of distinct values of each column
+	 * @param firstIndex	the index of the first value of the first column
+	 * @throws IOException
+	 */
+	public void exportSparse(Writer out, int[] cardinalities, int firstIndex) throws IOException {
+		final Cursor cursor = getCursor();
+		try {
+			final StringBuilder sb = new StringBuilder();
+			while (cursor.next()) {
+				sb.setLength(0);
+				sb.append(cursor.getDecisionCode());
+				int offset = firstIndex;
+				for (int i = 0, n = cursor.getColumnCount(); i < n; i++) {
+					for (int k = cursor.getColumnStart(i), end = cursor.getColumnEnd(i); k < end; k++) {
+						if (cursor.getCode(k) != -1) {
+							sb.append(' ');
+							sb.append(cursor.getCode(k) + offset);
+							sb.append(":1");
+						}
+					}
+					offset += cardinalities[i];
+				}
+				sb.append('\n');
+				out.write(sb.toString());
+			}
+		} finally {
+			cursor.close();
+			out.close();
+		}
+	}
+
+	/**
+	 * Deletes the instance file. The store must be closed.
+	 *
+	 * @return true if the file is deleted
+	 */
+	public boolean delete() {
+		return file.delete();
+	}
+
+	/**
+	 * Reads the instances of an instance file one at a time. The codes of the current instance are kept in a buffer
+	 * that is reused by the next instance. A cursor of a deduplicated file keeps the bytes of the distinct records that
+	 * it has read, and tells which record each instance is a copy of.
+	 */
+	public static class Cursor {
+		private final InputStream input;
+		private final byte[] buffer;
+		private int position;
+		private int limit;
+		private final boolean deduplicated;
+		private int instanceCount;
+		private int recordCount;
+		private int recordIndex;
+		private boolean repeated;
+		private byte[] records;
+		private int[] recordStarts;
+		private int decisionCode;
+		private int columnCount;
+		private int[] columnEnds;
+		private int[] codes;
+
+		private Cursor(File file) throws IOException {
+			input = new FileInputStream(file);
+			buffer = new byte[BUFFER_SIZE];
+			position = 0;
+			limit = 0;
+			columnEnds = new int[16];
+			codes = new int[64];
+			int magic = 0;
+			for (int i = 0; i < 4; i++) {
+				final int b = readByte();
+				if (b == -1) {
+					throw new IOException("The instance file '"+file.getName()+"' is not a binary instance file. ");
+				}
+				magic = (magic << 8) | b;
+			}
+			final int flags = readByte();
+			if (magic != MAGIC || flags == -1) {
+				throw new IOException("The instance file '"+file.getName()+"' is not a binary instance file. ");
+			}
+			deduplicated = (flags & DEDUPLICATED) != 0;
+			records = new byte[4096];
+			recordStarts = new int[256];
+		}
+
+		/**
+		 * Moves the cursor to the next instance.
+		 *
+		 * @return false if there are no more instances
+		 * @throws IOException
+		 */
+		public boolean next() throws IOException {
+			if (position == limit && fill() == false) {
+				return false;
+			}
+			final int reference = readNumber();
+			if (reference == 0) {
+				final int length = readNumber();
+				// The records of a file without references are read into the same place
+				final int start = deduplicated ? recordStarts[recordCount] : 0;
+				if (records.length < start + length) {
+					final byte[] newRecords = new byte[Math.max(start + length, 2 * records.length)];
+					System.arraycopy(records, 0, newRecords, 0, start);
+					records = newRecords;
+				}
+				readBytes(records, start, length);
+				if (deduplicated) {
+					if (recordStarts.length < recordCount + 2) {
+						final int[] newRecordStarts = new int[2 * recordStarts.length];
+						System.arraycopy(recordStarts, 0, newRecordStarts, 0, recordCount + 1);
+						recordStarts = newRecordStarts;
+					}
+					recordStarts[recordCount + 1] = start + length;
+				}
+				recordIndex = recordCount++;
+				repeated = false;
+				decode(start, start + length);
+			} else {
+				if (!deduplicated || reference > recordCount) {
+					throw new IOException("The instance file refers to a record that cannot be found. ");
+				}
+				recordIndex = reference - 1;
+				repeated = true;
+				decode(recordStarts[recordIndex], recordStarts[recordIndex + 1]);
+			}
+			instanceCount++;
+			return true;
+		}
+
+		private void decode(int start, int end) throws IOException {
+			int p = start;
+			int value = 0;
+			int shift = 0;
+			int number = 0; // the index of the number in the record
+			int column = 0;
+			int remaining = 0; // the codes that remain of the current column
+			int k = 0;
+			while (p < end) {
+				final byte b = records[p++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+				if (b < 0) {
+					continue;
+				}
+				if (number == 0) {
+					columnCount = value;
+					if (columnEnds.length < columnCount) {
+						columnEnds = new int[Math.max(columnCount, 2 * columnEnds.length)];
+					}
+				} else if (number == 1) {
+					decisionCode = value - 1;
+				} else if (remaining == 0) {
+					remaining = value;
+					if (remaining == 0) {
+						columnEnds[column++] = k;
+					} else if (codes.length < k + remaining) {
+						final int[] newCodes = new int[Math.max(k + remaining, 2 * codes.length)];
+						System.arraycopy(codes, 0, newCodes, 0, k);
+						codes = newCodes;
+					}
+				} else {
+					codes[k++] = value - 1;
+					if (--remaining == 0) {
+						columnEnds[column++] = k;
+					}
+				}
+				number++;
+				value = 0;
+				shift = 0;
+			}
+			if (number < 2 || column != columnCount || remaining != 0 || shift != 0) {
+				throw new IOException("The instance file contains a record that cannot be read. ");
+			}
+		}
+
+		public int getDecisionCode() {
+			return decisionCode;
+		}
+
+		public int getColumnCount() {
+			return columnCount;
+		}
+
+		/**
+		 * Returns the index of the record of the current instance among the records of the file, which is the index of
+		 * the first instance of the file that is identical to the current instance if the file is deduplicated
+		 *
+		 * @return the index of the record of the current instance
+		 */
+		public int getRecordIndex() {
+			return recordIndex;
+		}
+
+		/**
+		 * Returns true if the current instance is a repetition of an earlier instance of a deduplicated file
+		 *
+		 * @return true if the current instance is a repetition of an earlier instance
+		 */
+		public boolean isRepeated() {
+			return repeated;
+		}
+
+		/**
+		 * Returns true if the instances of the file may be repetitions of earlier instances
+		 *
+		 * @return true if the file is deduplicated
+		 */
+		public boolean isDeduplicated() {
+			return deduplicated;
+		}
+
+		/**
+		 * Returns the number of records read by the cursor
+		 *
+		 * @return the number of records
+		 */
+		public int getRecordCount() {
+			return recordCount;
+		}
+
+		/**
+		 * Returns the number of instances read by the cursor
+		 *
+		 * @return the number of instances
+		 */
+		public int getInstanceCount() {
+			return instanceCount;
+		}
+
+		/**
+		 * Returns the position of the first code of a column in the codes of the current instance
+		 *
+		 * @param column	the column index
+		 * @return the position of the first code of the column
+		 */
+		public int getColumnStart(int column) {
+			return column == 0 ? 0 : columnEnds[column - 1];
+		}
+
+		/**
+		 * Returns the position after the last code of a column in the codes of the current instance
+		 *
+		 * @param column	the column index
+		 * @return the position after the last code of the column
+		 */
+		public int getColumnEnd(int column) {
+			return columnEnds[column];
+		}
+
+		/**
+		 * Returns a code of the current instance
+		 *
+		 * @param position	the position of the code, see getColumnStart() and getColumnEnd()
+		 * @return the code
+		 */
+		public int getCode(int position) {
+			return codes[position];
+		}
+
+		/**
+		 * Returns the first code of a column of the current instance, which is the only code of a single-valued column
+		 *
+		 * @param column	the column index
+		 * @return the first code of the column
+		 */
+		public int getFirstCode(int column) {
+			return codes[getColumnStart(column)];
+		}
+
+		public void close() throws IOException {
+			input.close();
+		}
+
+		private int readNumber() throws IOException {
+			int value = 0;
+			int shift = 0;
+			int b;
+			do {
+				b = readByte();
+				if (b == -1) {
+					throw new IOException("The instance file is truncated. ");
+				}
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80) != 0);
+			return value;
+		}
+
+		private void readBytes(byte[] bytes, int offset, int length) throws IOException {
+			while (length > 0) {
+				if (position == limit && fill() == false) {
+					throw new IOException("The instance file is truncated. ");
+				}
+				final int n = Math.min(length, limit - position);
+				System.arraycopy(buffer, position, bytes, offset, n);
+				position += n;
+				offset += n;
+				length -= n;
+			}
+		}
+
+		private int readByte() throws IOException {
+			if (position == limit && fill() == false) {
+				return -1;
+			}
+			return buffer[position++] & 0xFF;
+		}
+
+		private boolean fill() throws IOException {
+			final int n = input.read(buffer, 0, buffer.length);
+			if (n <= 0) {
+				return false;
+			}
+			position = 0;
+			limit = n;
+			return true;
+		}
+	}
+}
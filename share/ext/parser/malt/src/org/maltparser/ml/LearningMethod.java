@@ -1,6 +1,5 @@
 package org.maltparser.ml;
 
-import java.io.BufferedWriter;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Set;
@@ -35,7 +34,7 @@ public interface LearningMethod {
 	public void moveAllInstances(LearningMethod method, FeatureFunction divideFeature, ArrayList<Integer> divideFeatureIndexVector) throws MaltChainedException;
 	public void terminate() throws MaltChainedException;
 	public boolean predict(FeatureVector features, SingleDecision decision) throws MaltChainedException;
-	public BufferedWriter getInstanceWriter();
+	public InstanceStore getInstanceStore();
 	public void increaseNumberOfInstances();
 	public void decreaseNumberOfInstances();
 
@@ -0,0 +1,267 @@
+package org.maltparser.ml.liblinear;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+import liblinear.Model;
+
+import org.maltparser.core.exception.MaltChainedException;
+
+/**
+* A Liblinear model in a compact binary format, which can be used for classification without parsing the text model file.
+* The binary model file consists of a header, an index of the rows of the weight matrix and the rows of the weight matrix
+* that have a non-zero weight, all little-endian:
+*
+* <pre>
+* int     magic number (BINARY_MODEL_MAGIC)
+* int     nr_class
+* int     nr_feature
+* int     nr_w (the number of weights per feature)
+* double  bias
+* int[]   labels (nr_class)
+* int[]   rows (one per feature and the bias), the row of the weights of the feature in w, or -1 if all its weights are zero
+* double[] w (nr_w weights per row, starting at the first 8-byte boundary after the rows)
+* </pre>
+*
+* A feature whose weights are all zero does not change the decision values, so it is left out of the weight matrix. The file
+* is stored uncompressed in the mco-file, which is why the zero rows (often a third of the features) are not kept.
+*
+* The weights are read directly from the byte buffer given to the constructor, which is memory-mapped from the mco-file when possible.
+* The predictions are identical to the predictions of liblinear.Linear.predict() for the same model.
+*
+* @author Johan Hall
+*/
+public class BinaryModel {
+	public final static int BINARY_MODEL_MAGIC = 0x4C4C4D32;
+	private final static int HEADER_SIZE = 24;
+
+	private final int nr_class;
+	private final int nr_feature;
+	private final int nr_w;
+	private final int n;
+	private final double bias;
+	private final int[] labels;
+	private final IntBuffer rows;
+	private final DoubleBuffer w;
+
+	/**
+	 * Constructs a binary model from a Liblinear model that has been loaded from a text model file.
+	 *
+	 * @param model	a Liblinear model
+	 */
+	public BinaryModel(Model model) {
+		nr_class = model.getNrClass();
+		nr_feature = model.getNrFeature();
+		bias = model.getBias();
+		n = (bias >= 0)?nr_feature+1:nr_feature;
+		labels = model.getLabels();
+		final double[] weights = model.getFeatureWeights();
+		nr_w = (n > 0)?weights.length/n:nr_class;
+		final int[] rowIndex = getRows(weights, n, nr_w);
+		final double[] packed = new double[countRows(rowIndex)*nr_w];
+		for (int j = 0; j < n; j++) {
+			if (rowIndex[j] != -1) {
+				System.arraycopy(weights, j*nr_w, packed, rowIndex[j]*nr_w, nr_w);
+			}
+		}
+		rows = IntBuffer.wrap(rowIndex);
+		w = DoubleBuffer.wrap(packed);
+	}
+
+	/**
+	 * Constructs a binary model that reads the weights directly from a buffer containing a binary model file.
+	 *
+	 * @param buffer	a buffer containing a binary model file
+	 * @throws MaltChainedException
+	 */
+	public BinaryModel(ByteBuffer buffer) throws MaltChainedException {
+		final ByteBuffer bb = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		if (bb.remaining() < HEADER_SIZE || bb.getInt(0) != BINARY_MODEL_MAGIC) {
+			throw new LiblinearException("The binary Liblinear model file is not valid. ");
+		}
+		nr_class = bb.getInt(4);
+		nr_feature = bb.getInt(8);
+		nr_w = bb.getInt(12);
+		bias = bb.getDouble(16);
+		n = (bias >= 0)?nr_feature+1:nr_feature;
+		labels = new int[nr_class];
+		for (int i = 0; i < nr_class; i++) {
+			labels[i] = bb.getInt(HEADER_SIZE+4*i);
+		}
+		final int rowOffset = getRowOffset(nr_class);
+		final int weightOffset = getWeightOffset(nr_class, n);
+		if (bb.limit() < weightOffset) {
+			throw new LiblinearException("The binary Liblinear model file is truncated. ");
+		}
+		bb.position(rowOffset);
+		bb.limit(rowOffset+4*n);
+		rows = bb.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+		int nRows = 0;
+		for (int j = 0; j < n; j++) {
+			if (rows.get(j) != -1) {
+				nRows++;
+			}
+		}
+		bb.clear();
+		if ((long)bb.limit() < weightOffset+8L*nRows*nr_w) {
+			throw new LiblinearException("The binary Liblinear model file is truncated. ");
+		}
+		bb.position(weightOffset);
+		bb.limit(weightOffset+8*nRows*nr_w);
+		w = bb.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+	}
+
+	/**
+	 * Saves a Liblinear model as a binary model file.
+	 *
+	 * @param model	a Liblinear model
+	 * @param file	the binary model file
+	 * @throws MaltChainedException
+	 */
+	public static void save(Model model, File file) throws MaltChainedException {
+		final int nr_class = model.getNrClass();
+		final int n = (model.getBias() >= 0)?model.getNrFeature()+1:model.getNrFeature();
+		final double[] weights = model.getFeatureWeights();
+		final int nr_w = (n > 0)?weights.length/n:nr_class;
+		final int[] rowIndex = getRows(weights, n, nr_w);
+
+		final ByteBuffer header = ByteBuffer.allocate(getWeightOffset(nr_class, n)).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(BINARY_MODEL_MAGIC);
+		header.putInt(nr_class);
+		header.putInt(model.getNrFeature());
+		header.putInt(nr_w);
+		header.putDouble(model.getBias());
+		for (int label : model.getLabels()) {
+			header.putInt(label);
+		}
+		header.position(getRowOffset(nr_class));
+		for (int row : rowIndex) {
+			header.putInt(row);
+		}
+		header.clear();
+		try {
+			final FileOutputStream fos = new FileOutputStream(file);
+			final FileChannel channel = fos.getChannel();
+			try {
+				channel.write(header);
+				final ByteBuffer buffer = ByteBuffer.allocate(65536).order(ByteOrder.LITTLE_ENDIAN);
+				for (int j = 0; j < n; j++) {
+					if (rowIndex[j] == -1) {
+						continue;
+					}
+					for (int i = j*nr_w, end = i+nr_w; i < end; i++) {
+						if (buffer.remaining() < 8) {
+							buffer.flip();
+							channel.write(buffer);
+							buffer.clear();
+						}
+						buffer.putDouble(weights[i]);
+					}
+				}
+				buffer.flip();
+				channel.write(buffer);
+			} finally {
+				fos.close();
+			}
+		} catch (IOException e) {
+			throw new LiblinearException("The Liblinear learner cannot save the binary model file '"+file.getAbsolutePath()+"'. ", e);
+		}
+	}
+
+	/**
+	 * Returns the row in the weight matrix of each feature, numbering the features that have a non-zero weight in order, 
+	 * and -1 for the features whose weights are all zero.
+	 */
+	private static int[] getRows(double[] weights, int n, int nr_w) {
+		final int[] rowIndex = new int[n];
+		int nRows = 0;
+		for (int j = 0; j < n; j++) {
+			rowIndex[j] = -1;
+			for (int i = j*nr_w, end = i+nr_w; i < end; i++) {
+				if (weights[i] != 0) {
+					rowIndex[j] = nRows++;
+					break;
+				}
+			}
+		}
+		return rowIndex;
+	}
+
+	private static int countRows(int[] rowIndex) {
+		int nRows = 0;
+		for (int row : rowIndex) {
+			if (row != -1) {
+				nRows++;
+			}
+		}
+		return nRows;
+	}
+
+	private static int getRowOffset(int nr_class) {
+		return HEADER_SIZE+4*nr_class;
+	}
+
+	private static int getWeightOffset(int nr_class, int n) {
+		return (getRowOffset(nr_class)+4*n+7) & ~7;
+	}
+
+	/**
+	 * Computes the decision values of a binary feature vector and returns the predicted label. The feature vector is given 
+	 * as the indices of the features with value 1 (see org.maltparser.ml.FeatureEncoder). The decision values are computed 
+	 * in the same way as liblinear.Linear.predictValues() for feature nodes with value 1.
+	 *
+	 * @param x	the indices of the active features
+	 * @param length	the number of active features
+	 * @param dec_values	an array of at least nr_class elements that is filled with the decision values
+	 * @return the predicted label
+	 */
+	public int predictValues(int[] x, int length, double[] dec_values) {
+		for (int i = 0; i < nr_class; i++) {
+			dec_values[i] = 0;
+		}
+		for (int k = 0; k < length; k++) {
+			final int idx = x[k];
+			if (idx <= n) {
+				final int row = rows.get(idx-1);
+				if (row != -1) {
+					final int base = row*nr_w;
+					for (int i = 0; i < nr_w; i++) {
+						dec_values[i] += w.get(base+i);
+					}
+				}
+			}
+		}
+		if (nr_class == 2) {
+			return (dec_values[0] > 0)?labels[0]:labels[1];
+		}
+		int dec_max_idx = 0;
+		for (int i = 1; i < nr_class; i++) {
+			if (dec_values[i] > dec_values[dec_max_idx]) {
+				dec_max_idx = i;
+			}
+		}
+		return labels[dec_max_idx];
+	}
+
+	public int getNrClass() {
+		return nr_class;
+	}
+
+	public int getNrFeature() {
+		return nr_feature;
+	}
+
+	public int[] getLabels() {
+		return labels;
+	}
+
+	public double getBias() {
+		return bias;
+	}
+}
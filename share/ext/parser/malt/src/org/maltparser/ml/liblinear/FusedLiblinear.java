@@ -0,0 +1,111 @@
+package org.maltparser.ml.liblinear;
+
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.parser.guide.instance.InstanceModel;
+import org.maltparser.parser.history.kbest.CandidateSource;
+import org.maltparser.parser.history.kbest.KBestList;
+import org.maltparser.parser.history.kbest.ScoredKBestList;
+
+/**
+* A Liblinear learner with a fused scorer for k-best prediction. The learner is trained and saved exactly as the Liblinear
+* learner, but during classification the scores of all classes are computed in one pass over the weight rows of the
+* active features, and the k-best list is ranked on demand: only the best class is selected when the class is predicted,
+* and the next best class is selected first when the parser asks for it because the best class is not permissible.
+*
+* The ranking is identical to the ranking of the Liblinear learner, but a parser that usually accepts one of the first
+* candidates doesn't have to sort all classes.
+*
+* @author Johan Hall
+*/
+public class FusedLiblinear extends Liblinear implements CandidateSource {
+	private double[] scores = null;
+	private int[] ranking = null;
+	private int nrClass;
+	private int nextCandidate;
+	private int lastCandidate;
+	private float score;
+	/**
+	 * The k-best list that may still ask for candidates from this learner.
+	 */
+	private KBestList pendingList = null;
+
+	/**
+	 * Constructs a Liblinear learner with a fused k-best scorer.
+	 *
+	 * @param owner the guide model owner
+	 * @param learnerMode the mode of the learner TRAIN or CLASSIFY
+	 */
+	public FusedLiblinear(InstanceModel owner, Integer learnerMode) throws MaltChainedException {
+		super(owner, learnerMode);
+	}
+
+	protected void predict(BinaryModel model, int[] x, int length, KBestList kBestList) throws MaltChainedException {
+		if (pendingList != null) {
+			// the candidates of the previous prediction are needed before the buffers are overwritten
+			pendingList.addPendingCandidates();
+			pendingList = null;
+		}
+		if (kBestList.getK() == 1) {
+			super.predict(model, x, length, kBestList);
+			return;
+		}
+		nrClass = model.getNrClass();
+		if (scores == null || scores.length < nrClass) {
+			scores = new double[nrClass];
+			ranking = new int[nrClass];
+		}
+		model.predictValues(x, length, scores);
+		System.arraycopy(model.getLabels(), 0, ranking, 0, nrClass);
+		lastCandidate = (kBestList.getK() == -1)?nrClass:Math.min(kBestList.getK(), nrClass);
+		nextCandidate = 0;
+
+		final int actionCode = nextActionCode();
+		if (kBestList instanceof ScoredKBestList) {
+			((ScoredKBestList)kBestList).add(actionCode, score);
+		} else {
+			kBestList.add(actionCode);
+		}
+		if (nextCandidate < lastCandidate) {
+			kBestList.setCandidateSource(this);
+			pendingList = kBestList;
+		}
+	}
+
+	/**
+	 * Selects the class with the highest score among the classes that are not yet ranked. The selection is
+	 * the same as one step of the selection sort in liblinear_predict_with_kbestlist(), so that classes with equal
+	 * scores are ranked in the same order.
+	 */
+	public int nextActionCode() {
+		if (nextCandidate >= lastCandidate) {
+			return -1;
+		}
+		final int i = nextCandidate;
+		int largest = i;
+		for (int j = i+1; j < nrClass; j++) {
+			if (scores[j] > scores[largest]) {
+				largest = j;
+			}
+		}
+		final double tmpScore = scores[largest];
+		scores[largest] = scores[i];
+		scores[i] = tmpScore;
+		final int tmpLabel = ranking[largest];
+		ranking[largest] = ranking[i];
+		ranking[i] = tmpLabel;
+		score = (float)scores[i];
+		nextCandidate++;
+		return ranking[i];
+	}
+
+	public float getScore() {
+		return score;
+	}
+
+	public void terminate() throws MaltChainedException {
+		super.terminate();
+		scores = null;
+		ranking = null;
+		pendingList = null;
+	}
+}
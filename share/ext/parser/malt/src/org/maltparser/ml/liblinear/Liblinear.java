@@ -8,33 +8,33 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarEntry;
-import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import liblinear.FeatureNode;
 import liblinear.Linear;
 import liblinear.Model;
+import liblinear.ModelRandom;
 import liblinear.Parameter;
 import liblinear.Problem;
 import liblinear.SolverType;
 
 
 
+import org.maltparser.core.config.ConfigurationDir;
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.feature.FeatureVector;
 import org.maltparser.core.feature.function.FeatureFunction;
-import org.maltparser.core.feature.value.FeatureValue;
-import org.maltparser.core.feature.value.MultipleFeatureValue;
 import org.maltparser.core.feature.value.SingleFeatureValue;
-import org.maltparser.core.helper.NoPrintStream;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
+import org.maltparser.ml.FeatureEncoder;
+import org.maltparser.ml.InstanceStore;
 import org.maltparser.ml.LearningMethod;
 import org.maltparser.parser.DependencyParserConfig;
 import org.maltparser.parser.guide.instance.InstanceModel;
@@ -45,6 +45,11 @@ import org.maltparser.parser.history.kbest.ScoredKBestList;
 
 public class Liblinear implements LearningMethod {
 	public final static String LIBLINEAR_VERSION = "1.51";
+	/**
+	 * Suffix of the binary model file, which is memory-mapped during classification. The text model file is only written by 
+	 * an external liblinear-train and is removed when it has been converted into the binary model file.
+	 */
+	public final static String BINARY_MODEL_SUFFIX = ".mod"+ConfigurationDir.STORED_FILE_SUFFIX;
 	public enum Verbostity {
 		SILENT, ERROR, ALL
 	}
@@ -55,24 +60,30 @@ public class Liblinear implements LearningMethod {
 	protected String name;
 	protected int numberOfInstances;
 	protected boolean saveInstanceFiles;
+	protected boolean deduplicateInstances;
 	protected boolean excludeNullValues;
 	protected String pathExternalLiblinearTrain = null;
 	private int[] cardinalities;
 	/**
-	 * Instance output stream writer 
+	 * Instance store, open for adding instances until noMoreInstances() is called
 	 */
-	private BufferedWriter instanceOutput = null; 
+	private InstanceStore instances = null; 
 	/**
 	 * Liblinear model object, only used during classification.
 	 */
-	private Model model = null;
+	private BinaryModel model = null;
 	
 	/**
 	 * Parameter string
 	 */
 	private String paramString;
 
-	private ArrayList<FeatureNode> xlist = null;
+	/**
+	 * Encodes the feature vector during classification, together with reusable buffers for the decision values
+	 */
+	private FeatureEncoder encoder = null;
+	private double[] decValues = null;
+	private int[] predictionList = null;
 
 	private Verbostity verbosity;
 	/**
@@ -100,7 +111,11 @@ public class Liblinear implements LearningMethod {
 //					owner.getGuide().getConfiguration().getConfigLogger().info("  Learner              : Liblinear "+LIBLINEAR_VERSION+" "+ getLibLinearOptions() + "\n");
 //				}
 //			}
-			instanceOutput = new BufferedWriter(getInstanceOutputStreamWriter(".ins"));
+			try {
+				instances = new InstanceStore(getFile(InstanceStore.SUFFIX), true, deduplicateInstances);
+			} catch (IOException e) {
+				throw new LiblinearException("The Liblinear learner cannot create the instance file. ", e);
+			}
 		} 
 //		else {
 //			if (owner.getGuide().getConfiguration().getConfigLogger().isInfoEnabled()) {
@@ -117,33 +132,7 @@ public class Liblinear implements LearningMethod {
 			throw new LiblinearException("The decision cannot be found");
 		}	
 		try {
-			instanceOutput.write(decision.getDecisionCode()+"\t");
-			for (int i = 0; i < featureVector.size(); i++) {
-				FeatureValue featureValue = featureVector.get(i).getFeatureValue();
-				if (excludeNullValues == true && featureValue.isNullValue()) {
-					instanceOutput.write("-1");
-				} else {
-					if (featureValue instanceof SingleFeatureValue) {
-						instanceOutput.write(((SingleFeatureValue)featureValue).getCode()+"");
-					} else if (featureValue instanceof MultipleFeatureValue) {
-						Set<Integer> values = ((MultipleFeatureValue)featureValue).getCodes();
-						int j=0;
-						for (Integer value : values) {
-							instanceOutput.write(value.toString());
-							if (j != values.size()-1) {
-								instanceOutput.write("|");
-							}
-							j++;
-						}
-					}
-				}
-				if (i != featureVector.size()) {
-					instanceOutput.write('\t');
-				}
-			}
-
-			instanceOutput.write('\n');
-			instanceOutput.flush();
+			instances.addInstance(decision.getDecisionCode(), featureVector, excludeNullValues);
 			increaseNumberOfInstances();
 		} catch (IOException e) {
 			throw new LiblinearException("The Liblinear learner cannot write to the instance file. ", e);
@@ -156,7 +145,7 @@ public class Liblinear implements LearningMethod {
 	 * @see org.maltparser.ml.LearningMethod#noMoreInstances()
 	 */
 	public void noMoreInstances() throws MaltChainedException {
-		closeInstanceWriter();
+		closeInstanceStore();
 	}
 
 
@@ -172,28 +161,25 @@ public class Liblinear implements LearningMethod {
 		cardinalities = getCardinalities(featureVector);
 		if (pathExternalLiblinearTrain == null) {
 			try {
-				final Problem problem = readLibLinearProblem(getInstanceInputStreamReader(".ins"), cardinalities);
+				final Problem problem = readLibLinearProblem(instances, cardinalities);
 				if (owner.getGuide().getConfiguration().getConfigLogger().isInfoEnabled()) {
 					owner.getGuide().getConfiguration().getConfigLogger().info("Creating Liblinear model "+getFile(".mod").getName()+"\n");
+					if (instances.isDeduplicated()) {
+						owner.getGuide().getConfiguration().getConfigLogger().info(getDeduplicationReport());
+					}
 				}
-				final PrintStream out = System.out;
-				final PrintStream err = System.err;
-				System.setOut(NoPrintStream.NO_PRINTSTREAM);
-				System.setErr(NoPrintStream.NO_PRINTSTREAM);
-				Linear.saveModel(new File(getFile(".mod").getAbsolutePath()), Linear.train(problem, getLiblinearParameters()));
-				System.setOut(err);
-				System.setOut(out);
-				if (!saveInstanceFiles) {
-					getFile(".ins").delete();
-				}
+				Linear.disableDebugOutput();
+				// Each model is trained with a generator of its own, so that it is the same whatever the number of worker threads
+				ModelRandom.reseed();
+				final Model trainedModel = Linear.train(problem, getLiblinearParameters());
+				BinaryModel.save(trainedModel, getFile(BINARY_MODEL_SUFFIX));
+				removeInstanceStore();
 			} catch (OutOfMemoryError e) {
 				throw new LiblinearException("Out of memory. Please increase the Java heap size (-Xmx<size>). ", e);
 			} catch (IllegalArgumentException e) {
 				throw new LiblinearException("The Liblinear learner was not able to redirect Standard Error stream. ", e);
 			} catch (SecurityException e) {
 				throw new LiblinearException("The Liblinear learner cannot remove the instance file. ", e);
-			} catch (IOException e) {
-				throw new LiblinearException("The Liblinear learner cannot save the model file '"+getFile(".mod").getAbsolutePath()+"'. ", e);
 			}
 		} else {
 			trainExternal(featureVector);
@@ -216,14 +202,12 @@ public class Liblinear implements LearningMethod {
 		
 		//if (pathExternalLiblinearTrain == null) {
 			try {
-				final Problem problem = readLibLinearProblem(getInstanceInputStreamReader(".ins"), cardinalities);
+				final Problem problem = readLibLinearProblem(instances, cardinalities);
 				if (owner.getGuide().getConfiguration().getConfigLogger().isInfoEnabled()) {
 					owner.getGuide().getConfiguration().getConfigLogger().info("Doing cross validation for model "+ owner.getModelName() + "\n");
 				}
-				final PrintStream out = System.out;
-				final PrintStream err = System.err;
-				System.setOut(NoPrintStream.NO_PRINTSTREAM);
-				System.setErr(NoPrintStream.NO_PRINTSTREAM);
+				Linear.disableDebugOutput();
+				ModelRandom.reseed();
 
 				int[] target = new int[problem.l];
 				
@@ -236,8 +220,6 @@ public class Liblinear implements LearningMethod {
 				if(totalCorrect>0)
 					crossValidationAccuracy = 100.0 * totalCorrect / problem.l;
 								
-				System.setOut(err);
-				System.setOut(out);
 				//Don't delete the instance file here
 				//if (!saveInstanceFiles) {
 				//	getFile(".ins").delete();
@@ -258,7 +240,7 @@ public class Liblinear implements LearningMethod {
 	
 	private void trainExternal(FeatureVector featureVector) throws MaltChainedException {
 		try {		
-			maltSVMFormat2OriginalSVMFormat(getInstanceInputStreamReader(".ins"), getInstanceOutputStreamWriter(".ins.tmp"), cardinalities);
+			instances.exportSparse(getInstanceOutputStreamWriter(".ins.tmp"), cardinalities, 1);
 			owner.getGuide().getConfiguration().getConfigLogger().info("Creating Liblinear model (external) "+getFile(".mod").getName());
 
 			final String[] params = getLibLinearParamStringArray();
@@ -290,13 +272,16 @@ public class Liblinear implements LearningMethod {
 	        }
             if (child.waitFor() != 0) {
             	owner.getGuide().getConfiguration().getConfigLogger().info(" FAILED ("+child.exitValue()+")");
+            } else {
+            	BinaryModel.save(Linear.loadModel(getFile(".mod")), getFile(BINARY_MODEL_SUFFIX));
+            	getFile(".mod").delete();
             }
 	        in.close();
 	        err.close();
 	        if (!saveInstanceFiles) {
-				getFile(".ins").delete();
 				getFile(".ins.tmp").delete();
 	        }
+	        removeInstanceStore();
 	        owner.getGuide().getConfiguration().getConfigLogger().info('\n');
 		} catch (InterruptedException e) {
 			 throw new LiblinearException("Liblinear is interrupted. ", e);
@@ -368,47 +353,16 @@ public class Liblinear implements LearningMethod {
 		} 
 		
 		try {
-			final BufferedReader in = new BufferedReader(getInstanceInputStreamReader(".ins"));
-			final BufferedWriter out = method.getInstanceWriter();
-			final StringBuilder sb = new StringBuilder(6);
-			int l = in.read();
-			char c;
-			int j = 0;
-	
-			while(true) {
-				if (l == -1) {
-					sb.setLength(0);
-					break;
-				}
-				c = (char)l; 
-				l = in.read();
-				if (c == '\t') {
-					if (divideFeatureIndexVector.contains(j-1)) {
-						out.write(Integer.toString(((SingleFeatureValue)divideFeature.getFeatureValue()).getCode()));
-						out.write('\t');
-					}
-					out.write(sb.toString());
-					j++;
-					out.write('\t');
-					sb.setLength(0);
-				} else if (c == '\n') {
-					out.write(sb.toString());
-					if (divideFeatureIndexVector.contains(j-1)) {
-						out.write('\t');
-						out.write(Integer.toString(((SingleFeatureValue)divideFeature.getFeatureValue()).getCode()));
-					}
-					out.write('\n');
-					sb.setLength(0);
-					method.increaseNumberOfInstances();
-					this.decreaseNumberOfInstances();
-					j = 0;
-				} else {
-					sb.append(c);
-				}
-			}	
+			final InstanceStore.Cursor in = instances.getCursor();
+			final InstanceStore out = method.getInstanceStore();
+			final int divideCode = ((SingleFeatureValue)divideFeature.getFeatureValue()).getCode();
+			while (in.next()) {
+				out.addInstance(in, divideFeatureIndexVector, divideCode);
+				method.increaseNumberOfInstances();
+				this.decreaseNumberOfInstances();
+			}
 			in.close();
-			getFile(".ins").delete();
-			out.flush();
+			instances.delete();
 		} catch (SecurityException e) {
 			throw new LiblinearException("The Liblinear learner cannot remove the instance file. ", e);
 		} catch (NullPointerException  e) {
@@ -427,11 +381,7 @@ public class Liblinear implements LearningMethod {
 	public boolean predict(FeatureVector featureVector, SingleDecision decision) throws MaltChainedException {
 		
 		if (model == null) {
-			try {
-				model = Linear.loadModel(new BufferedReader(getInstanceInputStreamReaderFromConfigFile(".mod")));
-			} catch (IOException e) {
-				throw new LiblinearException("The model cannot be loaded. ", e);
-			}
+			model = loadModel();
 		}
 
 		if (cardinalities == null) {
@@ -442,76 +392,113 @@ public class Liblinear implements LearningMethod {
 			}
 		}
 		//System.out.println("METHOD PREDICT CARDINALITIES SIZE" + cardinalities.length + " FEATURE VECTOR SIZE " +featureVector.size());
-		if (xlist == null) {
-			xlist = new ArrayList<FeatureNode>(featureVector.size()); 
-		}
 		if (model == null) { 
 			throw new LiblinearException("The Liblinear learner cannot predict the next class, because the learning model cannot be found. ");
 		} else if (featureVector == null) {
 			throw new LiblinearException("The Liblinear learner cannot predict the next class, because the feature vector cannot be found. ");
 		}
-		int j = 0;
-		int offset = 1;
-		int i = 0;
-		for (FeatureFunction feature : featureVector) {
-			final FeatureValue featureValue = feature.getFeatureValue();
-			if (!(excludeNullValues == true && featureValue.isNullValue())) {
-				if (featureValue instanceof SingleFeatureValue) {
-					if (((SingleFeatureValue)featureValue).getCode() < cardinalities[i]) {
-						xlist.add(j++, new FeatureNode(((SingleFeatureValue)featureValue).getCode() + offset, 1));
-					}
-				} else if (featureValue instanceof MultipleFeatureValue) {
-					for (Integer value : ((MultipleFeatureValue)featureValue).getCodes()) {
-						if (value < cardinalities[i]) {
-							xlist.add(j++, new FeatureNode(value + offset, 1));
+		if (encoder == null) {
+			encoder = new FeatureEncoder(cardinalities, 1, excludeNullValues);
+			decValues = new double[model.getNrClass()];
+			predictionList = new int[model.getNrClass()];
+		}
+		final int n = encoder.encode(featureVector);
+		predict(model, encoder.getIndices(), n, decision.getKBestList());
+		return true;
+	}
+	
+	/**
+	 * Predicts the next class of an encoded feature vector and adds the predicted classes to the k-best list.
+	 * 
+	 * @param model	the model
+	 * @param x	the indices of the active features
+	 * @param length	the number of active features
+	 * @param kBestList	the k-best list
+	 * @throws MaltChainedException
+	 */
+	protected void predict(BinaryModel model, int[] x, int length, KBestList kBestList) throws MaltChainedException {
+		if (kBestList.getK() == 1) {
+			kBestList.add(model.predictValues(x, length, decValues));
+		} else {
+			liblinear_predict_with_kbestlist(model, x, length, kBestList);
+		}
+	}
+	
+
+	/**
+	 * Loads the model from the configuration file. The model is shared by all learners that read the same model file from 
+	 * the configuration directory, so concurrent parsers only keep one copy of it in memory. The binary model file is 
+	 * memory-mapped if it exists, otherwise the text model file is parsed (configurations created by earlier versions).
+	 * 
+	 * @return the loaded model
+	 * @throws MaltChainedException
+	 */
+	protected BinaryModel loadModel() throws MaltChainedException {
+		final ConfigurationDir configDir = getConfiguration().getConfigurationDir();
+		final String fileName = owner.getModelName()+getLearningMethodName()+".mod";
+		BinaryModel sharedModel = (BinaryModel)configDir.getSharedModel(fileName);
+		if (sharedModel == null) {
+			synchronized (configDir) {
+				sharedModel = (BinaryModel)configDir.getSharedModel(fileName);
+				if (sharedModel == null) {
+					final ByteBuffer buffer = configDir.getByteBufferFromConfigFileEntry(owner.getModelName()+getLearningMethodName()+BINARY_MODEL_SUFFIX);
+					if (buffer != null) {
+						sharedModel = new BinaryModel(buffer);
+					} else {
+						try {
+							sharedModel = new BinaryModel(Linear.loadModel(new BufferedReader(getInstanceInputStreamReaderFromConfigFile(".mod"))));
+						} catch (IOException e) {
+							throw new LiblinearException("The model cannot be loaded. ", e);
 						}
 					}
+					sharedModel = (BinaryModel)configDir.shareModel(fileName, sharedModel);
 				}
 			}
-			offset += cardinalities[i];
-			i++;
-		}
-		
-		FeatureNode[] xarray = new FeatureNode[j];
-		for (int k = 0; k < j; k++) {
-			xarray[k] = xlist.get(k);
 		}
-
-		if (decision.getKBestList().getK() == 1) {
-			decision.getKBestList().add(Linear.predict(model, xarray));
-		} else {
-			liblinear_predict_with_kbestlist(model, xarray, decision.getKBestList());
-		}
-		
-		xlist.clear();
-
-		return true;
+		return sharedModel;
 	}
-	
 
 	public void terminate() throws MaltChainedException { 
-		closeInstanceWriter();
+		closeInstanceStore();
+		instances = null;
 		model = null;
-		xlist = null;
+		encoder = null;
+		decValues = null;
+		predictionList = null;
 		owner = null;
 	}
 
-	public BufferedWriter getInstanceWriter() {
-		return instanceOutput;
+	public InstanceStore getInstanceStore() {
+		return instances;
 	}
 	
-	protected void closeInstanceWriter() throws MaltChainedException {
+	protected void closeInstanceStore() throws MaltChainedException {
 		try {
-			if (instanceOutput != null) {
-				instanceOutput.flush();
-				instanceOutput.close();
-				instanceOutput = null;
+			if (instances != null) {
+				instances.close();
 			}
 		} catch (IOException e) {
 			throw new LiblinearException("The Liblinear learner cannot close the instance file. ", e);
 		}
 	}
 	
+	/**
+	 * Removes the instance file after training. If the instance files are saved (--liblinear-save_instance_files), the 
+	 * instances are first exported in the text format.
+	 * 
+	 * @throws MaltChainedException
+	 */
+	protected void removeInstanceStore() throws MaltChainedException {
+		try {
+			if (saveInstanceFiles) {
+				instances.exportText(getInstanceOutputStreamWriter(".ins"));
+			}
+			instances.delete();
+		} catch (IOException e) {
+			throw new LiblinearException("The Liblinear learner cannot export the instance file. ", e);
+		}
+	}
+	
 	
 	/**
 	 * Returns the parameter string for used for configure Liblinear
@@ -556,16 +543,16 @@ public class Liblinear implements LearningMethod {
 		if(numberOfInstances!=0)
 			return numberOfInstances;
 		else{
-			//Do a line count of the instance file and return that
+			//Count the instances of the instance file and return that
 			
-			BufferedReader reader = new BufferedReader( getInstanceInputStreamReader(".ins"));
 			try {
-				while(reader.readLine()!=null){
+				final InstanceStore.Cursor cursor = instances.getCursor();
+				while(cursor.next()){
 					numberOfInstances++;
 					owner.increaseFrequency();
 				}
 				
-				reader.close();
+				cursor.close();
 			} catch (IOException e) {
 				throw new MaltChainedException("No instances found in file",e);
 			}
@@ -615,76 +602,90 @@ public class Liblinear implements LearningMethod {
 		return getConfiguration().getConfigurationDir().getConfigFileEntry(owner.getModelName()+getLearningMethodName()+suffix);
 	}
 	/**
-	 * Reads an instance file into a svm_problem object according to the Malt-SVM format, which is column fixed format (tab-separated).
+	 * Returns a line with the number of instances and distinct instances of the instance store, the ratio between them
+	 * and the size of the instance file
+	 * 
+	 * @return the deduplication report
+	 */
+	protected String getDeduplicationReport() {
+		final StringBuilder sb = new StringBuilder();
+		final int records = instances.getRecordCount();
+		sb.append("  Instances: ");
+		sb.append(instances.getInstanceCount());
+		sb.append(", distinct: ");
+		sb.append(records);
+		sb.append(", ratio: ");
+		sb.append(String.format("%.2f", records == 0 ? 1.0 : (double)instances.getInstanceCount() / records));
+		sb.append(", instance file: ");
+		sb.append(instances.getFile().length());
+		sb.append(" bytes\n");
+		return sb.toString();
+	}
+	
+	/**
+	 * Reads the instances of an instance store into a Problem object. The code of a column is mapped to the feature index
+	 * <i>code + offset</i>, where the offset of a column is 1 plus the sum of the cardinalities of the preceding columns.
 	 * 
-	 * @param isr	the instance stream reader for the instance file
+	 * @param store	the instance store
 	 * @param cardinalities	a array containing the number of distinct values for a particular column.
 	 * @throws LiblinearException
 	 */
-	public Problem readLibLinearProblem(InputStreamReader isr, int[] cardinalities) throws MaltChainedException {
+	public Problem readLibLinearProblem(InstanceStore store, int[] cardinalities) throws MaltChainedException {
 		Problem problem = new Problem();
-
-
 		
 		try {
-			final BufferedReader fp = new BufferedReader(isr);
+			final InstanceStore.Cursor cursor = store.getCursor();
 			int max_index = 0;
-			if (xlist == null) {
-				xlist = new ArrayList<FeatureNode>(); 
-			}
 			problem.bias = getBias();
 			problem.l = getNumberOfInstances();
 			problem.x = new FeatureNode[problem.l][];
 			problem.y = new int[problem.l];
+			// The instances of a deduplicated store that are copies of the same record share their feature nodes
+			final FeatureNode[][] rows = cursor.isDeduplicated() ? new FeatureNode[store.getRecordCount()][] : null;
 			int i = 0;
-			final Pattern tabPattern = Pattern.compile("\t");
-			final Pattern pipePattern = Pattern.compile("\\|");
-			while(true) {
-				String line = fp.readLine();
-
-				if(line == null) break;
-				String[] columns = tabPattern.split(line);
-
-				if (columns.length == 0) {
-					continue;
-				}
-				
-				int offset = 1; 
-				int j = 0;
+			while(cursor.next()) {
+				final int columns = cursor.getColumnCount();
 				try {
-					problem.y[i] = 
-						Integer.parseInt(columns[j]);
+					problem.y[i] = cursor.getDecisionCode();
+					if (cursor.isRepeated()) {
+						problem.x[i] = rows[cursor.getRecordIndex()];
+						i++;
+						continue;
+					}
 					int p = 0;
-					for(j = 1; j < columns.length; j++) {
-						final String[] items = pipePattern.split(columns[j]);	
-						for (int k = 0; k < items.length; k++) {
-							try {
-								if (Integer.parseInt(items[k]) != -1) {
-									xlist.add(p, new FeatureNode(Integer.parseInt(items[k])+offset, 1));
-									p++;
-								}
-							} catch (NumberFormatException e) {
-								throw new LiblinearException("The instance file contain a non-integer value '"+items[k]+"'", e);
+					for (int k = 0, end = columns == 0 ? 0 : cursor.getColumnEnd(columns - 1); k < end; k++) {
+						if (cursor.getCode(k) != -1) {
+							p++;
+						}
+					}
+					final FeatureNode[] x = new FeatureNode[p];
+					int offset = 1; 
+					p = 0;
+					for (int j = 0; j < columns; j++) {
+						for (int k = cursor.getColumnStart(j), end = cursor.getColumnEnd(j); k < end; k++) {
+							if (cursor.getCode(k) != -1) {
+								x[p++] = new FeatureNode(cursor.getCode(k)+offset, 1);
 							}
 						}
-						offset += cardinalities[j-1];
+						offset += cardinalities[j];
 					}
-					problem.x[i] = xlist.subList(0, p).toArray(new FeatureNode[0]);
-					if(columns.length > 1) {
-						max_index = Math.max(max_index, problem.x[i][p-1].index);
+					problem.x[i] = x;
+					if (rows != null) {
+						rows[cursor.getRecordIndex()] = x;
+					}
+					if (p > 0) {
+						max_index = Math.max(max_index, x[p-1].index);
 					}
 					i++;
-					xlist.clear();
 				} catch (ArrayIndexOutOfBoundsException e) {
 					throw new LiblinearException("Cannot read from the instance file. ", e);
 				}
 			}
-			fp.close();	
+			cursor.close();
 			problem.n = max_index;
 			if ( problem.bias >= 0 ) {
 				problem.n++;
 			}
-			xlist = null;
 		} catch (IOException e) {
 			throw new LiblinearException("Cannot read from the instance file. ", e);
 		}
@@ -698,6 +699,7 @@ public class Liblinear implements LearningMethod {
 			excludeNullValues = false;
 		}
 		saveInstanceFiles = ((Boolean)getConfiguration().getOptionValue("liblinear", "save_instance_files")).booleanValue();
+		deduplicateInstances = ((Boolean)getConfiguration().getOptionValue("liblinear", "dedup_instances")).booleanValue();
 			
 		if (!getConfiguration().getOptionValue("liblinear", "liblinear_external").toString().equals("")) {
 			try {
@@ -826,14 +828,13 @@ public class Liblinear implements LearningMethod {
 	}
 	
 	
-	public void liblinear_predict_with_kbestlist(Model model, FeatureNode[] x, KBestList kBestList) throws MaltChainedException {
+	public void liblinear_predict_with_kbestlist(BinaryModel model, int[] x, int length, KBestList kBestList) throws MaltChainedException {
 		int i;
 		final int nr_class = model.getNrClass();
-		final double[] dec_values = new double[nr_class];
+		final double[] dec_values = decValues;
 
-		Linear.predictValues(model, x, dec_values);
+		model.predictValues(x, length, dec_values);
 		final int[] labels = model.getLabels();
-		int[] predictionList = new int[nr_class];
 		for(i=0;i<nr_class;i++) {
 			predictionList[i] = labels[i];
 		}
@@ -935,7 +936,7 @@ public class Liblinear implements LearningMethod {
 	
 	protected void finalize() throws Throwable {
 		try {
-			closeInstanceWriter();
+			closeInstanceStore();
 		} finally {
 			super.finalize();
 		}
@@ -960,46 +961,36 @@ public class Liblinear implements LearningMethod {
 			Set<Integer> featureIdsToCreateSeparateBranchesForSet, ArrayList<Integer> divideFeatureIndexVector, String otherId)  throws MaltChainedException {
 
 		
-		//Create a hash map that maps every feature id to a writer
-		HashMap<Integer, BufferedWriter>   featureIdToWriterMap = new HashMap<Integer, BufferedWriter>();
-		
-		for(int element:featureIdsToCreateSeparateBranchesForSet){
-		 
-
-			BufferedWriter outputWriter = new BufferedWriter(getConfiguration().getConfigurationDir().getOutputStreamWriter(owner.getModelName().replace('.','_') + element + "." + getLearningMethodName()+".ins"));
-			featureIdToWriterMap.put(element, outputWriter);
-		
-		}
-		
-		BufferedWriter otherOutputWriter = new BufferedWriter(getConfiguration().getConfigurationDir().getOutputStreamWriter(owner.getModelName().replace('.','_') + otherId + "." + getLearningMethodName()+".ins"));
-
+		//Create a hash map that maps every feature id to an instance store
+		final HashMap<Integer, InstanceStore> featureIdToStoreMap = new HashMap<Integer, InstanceStore>();
 		
 		try {
-			final BufferedReader in = new BufferedReader(getInstanceInputStreamReader(".ins"));
-			//every line will be written to a separate file
-			String line = in.readLine();
-			final Pattern tabPattern = Pattern.compile("\t");
-			while(line!=null){
-				
-				//Find out which pot the line shall be put in
-				String[] lineArray = tabPattern.split(line);
+			for(int element:featureIdsToCreateSeparateBranchesForSet){
+				featureIdToStoreMap.put(element, new InstanceStore(getConfiguration().getConfigurationDir().getFile(owner.getModelName().replace('.','_') + element + "." + getLearningMethodName()+InstanceStore.SUFFIX), false, deduplicateInstances));
+			}
+			
+			final InstanceStore otherStore = new InstanceStore(getConfiguration().getConfigurationDir().getFile(owner.getModelName().replace('.','_') + otherId + "." + getLearningMethodName()+InstanceStore.SUFFIX), false, deduplicateInstances);
+			
+			final InstanceStore.Cursor in = instances.getCursor();
+			final int divideColumn = divideFeatureIndexVector.get(0);
+			//every instance will be written to a separate file
+			while(in.next()){
 				
-				int id = new Integer(lineArray[divideFeatureIndexVector.get(0)+1]);
+				//Find out which pot the instance shall be put in
+				final InstanceStore store = featureIdToStoreMap.get(in.getFirstCode(divideColumn));
 				
-				if(!featureIdToWriterMap.containsKey(id)){
-					otherOutputWriter.write(line + "\n");
+				if(store == null){
+					otherStore.addInstance(in, -1);
 				}else	 
-					featureIdToWriterMap.get(id).write(getLineToWrite(lineArray,divideFeatureIndexVector.get(0)+1));
-				
-				line = in.readLine();
+					store.addInstance(in, divideColumn);
 			}
 			
-			otherOutputWriter.close();
+			otherStore.close();
 			
 			in.close();
 			
-			for(BufferedWriter writer: featureIdToWriterMap.values())
-				writer.close();
+			for(InstanceStore store: featureIdToStoreMap.values())
+				store.close();
 
 		} catch (SecurityException e) {
 			throw new LiblinearException("The Liblinear learner cannot remove the instance file. ", e);
@@ -1016,17 +1007,6 @@ public class Liblinear implements LearningMethod {
 	}
 
 
-	private String getLineToWrite(String[] lineArray, int excludeIndex) {
-		StringBuffer buf = new StringBuffer();
-		
-		for(int n = 0; n < lineArray.length; n++)
-			if(n != excludeIndex)
-				buf.append(lineArray[n] + "\t");
-		buf.append("\n");		
-		return buf.toString();
-	}
-
-
 	@Override
 	public Map<Integer, Integer> createFeatureIdToCountMap(
 			ArrayList<Integer> divideFeatureIndexVector) throws MaltChainedException{
@@ -1036,17 +1016,11 @@ public class Liblinear implements LearningMethod {
 		//Go trough the file and count all feature ids in the given column(s)
 		
 		try {
-			final BufferedReader in = new BufferedReader(getInstanceInputStreamReader(".ins"));
-			//every line will be written to a separate file
-			String line = in.readLine();
-			final Pattern tabPattern = Pattern.compile("\t");
-			while(line!=null){
-				
-				//Find out which pot the line shall be put in
-				String[] lineArray = tabPattern.split(line);
+			final InstanceStore.Cursor in = instances.getCursor();
+			while(in.next()){
 				
 				for(int n = 0; n < divideFeatureIndexVector.size(); n++){
-					int id = new Integer(lineArray[divideFeatureIndexVector.get(n)+1]);
+					int id = in.getFirstCode(divideFeatureIndexVector.get(n));
 					
 					
 					if (!featureIdToCountMap.containsKey(id)) {
@@ -1060,8 +1034,6 @@ public class Liblinear implements LearningMethod {
 					featureIdToCountMap.put(id, previousCount + 1);
 					
 				}				
-				
-				line = in.readLine();
 			}
 			in.close();
 		} catch (SecurityException e) {
@@ -8,7 +8,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.PrintStream;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
@@ -16,23 +15,23 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarEntry;
-import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import libsvm.svm;
 import libsvm.svm_model;
 import libsvm.svm_node;
 import libsvm.svm_parameter;
+import libsvm.svm_print_interface;
 import libsvm.svm_problem;
 
+import org.maltparser.core.config.ConfigurationDir;
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.feature.FeatureVector;
 import org.maltparser.core.feature.function.FeatureFunction;
-import org.maltparser.core.feature.value.FeatureValue;
-import org.maltparser.core.feature.value.MultipleFeatureValue;
 import org.maltparser.core.feature.value.SingleFeatureValue;
-import org.maltparser.core.helper.NoPrintStream;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
+import org.maltparser.ml.FeatureEncoder;
+import org.maltparser.ml.InstanceStore;
 import org.maltparser.ml.LearningMethod;
 import org.maltparser.ml.liblinear.LiblinearException;
 import org.maltparser.ml.libsvm.LibsvmException;
@@ -52,6 +51,10 @@ about LIBSVM can be found at
 */
 public class Libsvm implements LearningMethod {
 	public final static String LIBSVM_VERSION = "2.91";
+	/** Discards the progress messages of LIBSVM, which otherwise are printed to the standard output during training */
+	private final static svm_print_interface NO_PRINT = new svm_print_interface() {
+		public void print(String s) { }
+	};
 	public enum Verbostity {
 		SILENT, ERROR, ALL
 	}
@@ -60,14 +63,15 @@ public class Libsvm implements LearningMethod {
 	protected String name;
 	protected int numberOfInstances;
 	protected boolean saveInstanceFiles;
+	protected boolean deduplicateInstances;
 	protected boolean excludeNullValues;
 	protected String pathExternalSVMTrain = null;
 	private int[] cardinalities;
 
 	/**
-	 * Instance output stream writer 
+	 * Instance store, open for adding instances until noMoreInstances() is called
 	 */
-	private BufferedWriter instanceOutput = null; 
+	private InstanceStore instances = null; 
 	/**
 	 * LIBSVM svm_model object, only used during classification.
 	 */
@@ -82,9 +86,15 @@ public class Libsvm implements LearningMethod {
 	 */
 	private String paramString;
 	/**
-	 * An array of LIBSVM svm_node objects, only used during classification.
+	 * An array of LIBSVM svm_node objects, only used when reading the training instances.
 	 */
-	private ArrayList<svm_node> xlist = null;
+	/**
+	 * Encodes the feature vector during classification. The svm_node objects are reused, and xarrays keeps one array 
+	 * for each number of active features, which all share the svm_node objects in xnodes.
+	 */
+	private FeatureEncoder encoder = null;
+	private svm_node[] xnodes = null;
+	private svm_node[][] xarrays = null;
 
 	private Verbostity verbosity;
 	/**
@@ -109,7 +119,11 @@ public class Libsvm implements LearningMethod {
 //					owner.getGuide().getConfiguration().getConfigLogger().info("  Learner              : LIBSVM "+LIBSVM_VERSION+" "+ getParamString() + "\n");
 //				}
 //			}
-			instanceOutput = new BufferedWriter(getInstanceOutputStreamWriter(".ins"));
+			try {
+				instances = new InstanceStore(getFile(InstanceStore.SUFFIX), true, deduplicateInstances);
+			} catch (IOException e) {
+				throw new LibsvmException("The LIBSVM learner cannot create the instance file. ", e);
+			}
 		} 
 //		else {
 //			if (owner.getGuide().getConfiguration().getConfigLogger().isInfoEnabled()) {
@@ -126,33 +140,7 @@ public class Libsvm implements LearningMethod {
 			throw new LibsvmException("The decision cannot be found");
 		}	
 		try {
-			instanceOutput.write(decision.getDecisionCode()+"\t");
-			for (int i = 0; i < featureVector.size(); i++) {
-				FeatureValue featureValue = featureVector.get(i).getFeatureValue();
-				if (excludeNullValues == true && featureValue.isNullValue()) {
-					instanceOutput.write("-1");
-				} else {
-					if (featureValue instanceof SingleFeatureValue) {
-						instanceOutput.write(((SingleFeatureValue)featureValue).getCode()+"");
-					} else if (featureValue instanceof MultipleFeatureValue) {
-						Set<Integer> values = ((MultipleFeatureValue)featureValue).getCodes();
-						int j=0;
-						for (Integer value : values) {
-							instanceOutput.write(value.toString());
-							if (j != values.size()-1) {
-								instanceOutput.write("|");
-							}
-							j++;
-						}
-					}
-				}
-				if (i != featureVector.size()) {
-					instanceOutput.write('\t');
-				}
-			}
-
-			instanceOutput.write('\n');
-			instanceOutput.flush();
+			instances.addInstance(decision.getDecisionCode(), featureVector, excludeNullValues);
 			increaseNumberOfInstances();
 		} catch (IOException e) {
 			throw new LibsvmException("The LIBSVM learner cannot write to the instance file. ", e);
@@ -165,7 +153,7 @@ public class Libsvm implements LearningMethod {
 	 * @see org.maltparser.ml.LearningMethod#noMoreInstances()
 	 */
 	public void noMoreInstances() throws MaltChainedException {
-		closeInstanceWriter();
+		closeInstanceStore();
 	}
 
 
@@ -181,22 +169,17 @@ public class Libsvm implements LearningMethod {
 		cardinalities = getCardinalities(featureVector);
 		if (pathExternalSVMTrain == null) {
 			try {
-				final svm_problem prob = readProblemMaltSVMFormat(getInstanceInputStreamReader(".ins"), cardinalities, svmParam);
+				final svm_problem prob = readProblemMaltSVMFormat(instances, cardinalities, svmParam);
 				if(svm.svm_check_parameter(prob, svmParam) != null) {
 					throw new LibsvmException(svm.svm_check_parameter(prob, svmParam));
 				}
 				owner.getGuide().getConfiguration().getConfigLogger().info("Creating LIBSVM model "+getFile(".mod").getName()+"\n");
-				final PrintStream out = System.out;
-				final PrintStream err = System.err;
-				System.setOut(NoPrintStream.NO_PRINTSTREAM);
-				System.setErr(NoPrintStream.NO_PRINTSTREAM);
-				
-				svm.svm_save_model(getFile(".mod").getAbsolutePath(), svm.svm_train(prob, svmParam));
-				System.setOut(err);
-				System.setOut(out);
-				if (!saveInstanceFiles) {
-					getFile(".ins").delete();
+				if (instances.isDeduplicated() && owner.getGuide().getConfiguration().getConfigLogger().isInfoEnabled()) {
+					owner.getGuide().getConfiguration().getConfigLogger().info(getDeduplicationReport());
 				}
+				svm.svm_set_print_string_function(NO_PRINT);
+				svm.svm_save_model(getFile(".mod").getAbsolutePath(), svm.svm_train(prob, svmParam));
+				removeInstanceStore();
 			} catch (OutOfMemoryError e) {
 				throw new LibsvmException("Out of memory. Please increase the Java heap size (-Xmx<size>). ", e);
 			} catch (IllegalArgumentException e) {
@@ -228,15 +211,12 @@ public class Libsvm implements LearningMethod {
 		double crossValidationAccuracy = 0.0;
 		
 			try {
-				final svm_problem prob = readProblemMaltSVMFormat(getInstanceInputStreamReader(".ins"), cardinalities, svmParam);
+				final svm_problem prob = readProblemMaltSVMFormat(instances, cardinalities, svmParam);
 				if(svm.svm_check_parameter(prob, svmParam) != null) {
 					throw new LibsvmException(svm.svm_check_parameter(prob, svmParam));
 				}
 				owner.getGuide().getConfiguration().getConfigLogger().info("Doing cross validation\n");
-				final PrintStream out = System.out;
-				final PrintStream err = System.err;
-				System.setOut(NoPrintStream.NO_PRINTSTREAM);
-				System.setErr(NoPrintStream.NO_PRINTSTREAM);
+				svm.svm_set_print_string_function(NO_PRINT);
 				
 				//svm.svm_save_model(getFile(".mod").getAbsolutePath(), svm.svm_train(prob, svmParam));
 				
@@ -244,10 +224,8 @@ public class Libsvm implements LearningMethod {
 				
 				svm.svm_cross_validation(prob, svmParam, nrOfSplits, target);				
 				
-				System.setOut(err);
-				System.setOut(out);
 				if (!saveInstanceFiles) {
-					getFile(".ins").delete();
+					instances.delete();
 				}
 				
 				
@@ -281,7 +259,7 @@ public class Libsvm implements LearningMethod {
 	
 	private void trainExternal(FeatureVector featureVector) throws MaltChainedException {
 		try {		
-			maltSVMFormat2OriginalSVMFormat(getInstanceInputStreamReader(".ins"), getInstanceOutputStreamWriter(".ins.tmp"), cardinalities);
+			instances.exportSparse(getInstanceOutputStreamWriter(".ins.tmp"), cardinalities, 0);
 			owner.getGuide().getConfiguration().getConfigLogger().info("Creating LIBSVM model (svm-train) "+getFile(".mod").getName());
 
 			final ArrayList<String> commands = new ArrayList<String>();
@@ -317,9 +295,9 @@ public class Libsvm implements LearningMethod {
 	        in.close();
 	        err.close();
 	        if (!saveInstanceFiles) {
-				getFile(".ins").delete();
 				getFile(".ins.tmp").delete();
 	        }
+	        removeInstanceStore();
 	        owner.getGuide().getConfiguration().getConfigLogger().info('\n');
 		} catch (InterruptedException e) {
 			 throw new LibsvmException("SVM-trainer is interrupted. ", e);
@@ -390,50 +368,16 @@ public class Libsvm implements LearningMethod {
 			throw new LibsvmException("The divide feature cannot be found. ");
 		} 
 		try {
-			final BufferedReader in = new BufferedReader(getInstanceInputStreamReader(".ins"));
-			final BufferedWriter out = method.getInstanceWriter();
-			final StringBuilder sb = new StringBuilder(6);
-			int l = in.read();
-			char c;
-			int j = 0;
-			while(true) {
-				if (l == -1) {
-					sb.setLength(0);
-					break;
-				}
-				
-				c = (char)l; 
-				l = in.read();
-				if (c == '\t') {
-					if (divideFeatureIndexVector.contains(j-1)) {
-						out.write(Integer.toString(((SingleFeatureValue)divideFeature.getFeatureValue()).getCode()));
-						out.write('\t');
-					}
-					out.write(sb.toString());
-					j++;
-					out.write('\t');
-					sb.setLength(0);
-				} else if (c == '\n') {
-					if (sb.length() > 0) { 
-						out.write(sb.toString());
-					}
-					if (divideFeatureIndexVector.contains(j-1)) {
-						if (sb.length() > 0) { 
-							out.write('\t');
-						}
-						out.write(Integer.toString(((SingleFeatureValue)divideFeature.getFeatureValue()).getCode()));
-					}
-					out.write('\n');
-					sb.setLength(0);
-					method.increaseNumberOfInstances();
-					this.decreaseNumberOfInstances();
-					j = 0;
-				} else {
-					sb.append(c);
-				}
-			}	
+			final InstanceStore.Cursor in = instances.getCursor();
+			final InstanceStore out = method.getInstanceStore();
+			final int divideCode = ((SingleFeatureValue)divideFeature.getFeatureValue()).getCode();
+			while (in.next()) {
+				out.addInstance(in, divideFeatureIndexVector, divideCode);
+				method.increaseNumberOfInstances();
+				this.decreaseNumberOfInstances();
+			}
 			in.close();
-			getFile(".ins").delete();
+			instances.delete();
 		} catch (SecurityException e) {
 			throw new LibsvmException("The LIBSVM learner cannot remove the instance file. ", e);
 		} catch (NullPointerException  e) {
@@ -450,11 +394,7 @@ public class Libsvm implements LearningMethod {
 	 */
 	public boolean predict(FeatureVector featureVector, SingleDecision decision) throws MaltChainedException {
 		if (model == null) {
-			try {
-				model = svm.svm_load_model(new BufferedReader(getInstanceInputStreamReaderFromConfigFile(".mod")));
-			} catch (IOException e) {
-				throw new LibsvmException("The model cannot be loaded. ", e);
-			}
+			model = loadModel();
 		}
 		if (cardinalities == null) {
 			if (getConfigFileEntry(".car") != null) {
@@ -463,50 +403,19 @@ public class Libsvm implements LearningMethod {
 				cardinalities = getCardinalities(featureVector);
 			}
 		}
-		if (xlist == null) {
-			xlist = new ArrayList<svm_node>(featureVector.size()); 
-		}
 		if (model == null) { 
 			throw new LibsvmException("The LIBSVM learner cannot predict the next class, because the learning model cannot be found. ");
 		} else if (featureVector == null) {
 			throw new LibsvmException("The LIBSVM learner cannot predict the next class, because the feature vector cannot be found. ");
 		}
-		int j = 0;
-		int offset = 0;
-		int i = 0;
-		for (FeatureFunction feature : featureVector) {
-			final FeatureValue featureValue = feature.getFeatureValue();
-			if (!(excludeNullValues == true && featureValue.isNullValue())) {
-				if (featureValue instanceof SingleFeatureValue) {
-					if (((SingleFeatureValue)featureValue).getCode() < cardinalities[i]) {
-						if (j >= xlist.size()) {
-							svm_node x =  new svm_node();
-							x.value = 1;
-							xlist.add(j,x);
-						}
-						xlist.get(j++).index = ((SingleFeatureValue)featureValue).getCode() + offset;
-					}
-				} else if (featureValue instanceof MultipleFeatureValue) {
-					for (Integer value : ((MultipleFeatureValue)featureValue).getCodes()) {
-						if (value < cardinalities[i]) {
-//						if (((MultipleFeatureValue)featureValue).isKnown(value)) {
-							if (j >= xlist.size()) {
-								svm_node x =  new svm_node();
-								x.value = 1;
-								xlist.add(j,x);
-							}
-							xlist.get(j++).index = value + offset;
-						}
-					}
-				}
-			}
-			offset += cardinalities[i];
-			i++;
+		if (encoder == null) {
+			encoder = new FeatureEncoder(cardinalities, 0, excludeNullValues);
 		}
-
-		svm_node[] xarray = new svm_node[j];
-		for (int k = 0; k < j; k++) {
-			xarray[k] = xlist.get(k);
+		final int n = encoder.encode(featureVector);
+		final int[] indices = encoder.getIndices();
+		final svm_node[] xarray = getNodeArray(n);
+		for (int k = 0; k < n; k++) {
+			xarray[k].index = indices[k];
 		}
 		try {
 			if (decision.getKBestList().getK() == 1 || svm.svm_get_svm_type(model) == svm_parameter.ONE_CLASS ||
@@ -525,30 +434,110 @@ public class Libsvm implements LearningMethod {
 	}
 	
 
+	/**
+	 * Returns a reusable array of n svm_node objects with the value 1. LIBSVM uses the length of the array as the number 
+	 * of features, so there is one array for each number of active features.
+	 * 
+	 * @param n	the number of active features
+	 * @return an array of n svm_node objects
+	 */
+	private svm_node[] getNodeArray(int n) {
+		if (xnodes == null || n > xnodes.length) {
+			final svm_node[] newNodes = new svm_node[Math.max(n, (xnodes == null)?16:xnodes.length*2)];
+			int k = 0;
+			if (xnodes != null) {
+				System.arraycopy(xnodes, 0, newNodes, 0, xnodes.length);
+				k = xnodes.length;
+			}
+			for (; k < newNodes.length; k++) {
+				newNodes[k] = new svm_node();
+				newNodes[k].value = 1;
+			}
+			xnodes = newNodes;
+		}
+		if (xarrays == null || n >= xarrays.length) {
+			final svm_node[][] newArrays = new svm_node[xnodes.length+1][];
+			if (xarrays != null) {
+				System.arraycopy(xarrays, 0, newArrays, 0, xarrays.length);
+			}
+			xarrays = newArrays;
+		}
+		if (xarrays[n] == null) {
+			xarrays[n] = new svm_node[n];
+			System.arraycopy(xnodes, 0, xarrays[n], 0, n);
+		}
+		return xarrays[n];
+	}
+
+	/**
+	 * Loads the model from the configuration file. The model is shared by all learners that read the same model file from 
+	 * the configuration directory, so concurrent parsers only keep one copy of it in memory.
+	 * 
+	 * @return the loaded model
+	 * @throws MaltChainedException
+	 */
+	protected svm_model loadModel() throws MaltChainedException {
+		final ConfigurationDir configDir = getConfiguration().getConfigurationDir();
+		final String fileName = owner.getModelName()+getLearningMethodName()+".mod";
+		svm_model sharedModel = (svm_model)configDir.getSharedModel(fileName);
+		if (sharedModel == null) {
+			synchronized (configDir) {
+				sharedModel = (svm_model)configDir.getSharedModel(fileName);
+				if (sharedModel == null) {
+					try {
+						sharedModel = svm.svm_load_model(new BufferedReader(getInstanceInputStreamReaderFromConfigFile(".mod")));
+					} catch (IOException e) {
+						throw new LibsvmException("The model cannot be loaded. ", e);
+					}
+					sharedModel = (svm_model)configDir.shareModel(fileName, sharedModel);
+				}
+			}
+		}
+		return sharedModel;
+	}
+
 	public void terminate() throws MaltChainedException { 
-		closeInstanceWriter();
+		closeInstanceStore();
+		instances = null;
 		model = null;
 		svmParam = null;
-		xlist = null;
+		encoder = null;
+		xnodes = null;
+		xarrays = null;
 		owner = null;
 	}
 
-	public BufferedWriter getInstanceWriter() {
-		return instanceOutput;
+	public InstanceStore getInstanceStore() {
+		return instances;
 	}
 	
-	protected void closeInstanceWriter() throws MaltChainedException {
+	protected void closeInstanceStore() throws MaltChainedException {
 		try {
-			if (instanceOutput != null) {
-				instanceOutput.flush();
-				instanceOutput.close();
-				instanceOutput = null;
+			if (instances != null) {
+				instances.close();
 			}
 		} catch (IOException e) {
 			throw new LibsvmException("The LIBSVM learner cannot close the instance file. ", e);
 		}
 	}
 	
+	/**
+	 * Removes the instance file after training. If the instance files are saved (--libsvm-save_instance_files), the 
+	 * instances are first exported in the text format.
+	 * 
+	 * @throws MaltChainedException
+	 */
+	protected void removeInstanceStore() throws MaltChainedException {
+		try {
+			if (saveInstanceFiles) {
+				instances.exportText(getInstanceOutputStreamWriter(".ins"));
+			}
+			instances.delete();
+		} catch (IOException e) {
+			throw new LibsvmException("The LIBSVM learner cannot export the instance file. ", e);
+		}
+	}
+	
 	/**
 	 * Initialize the LIBSVM according to the parameter string
 	 * 
@@ -605,16 +594,16 @@ public class Libsvm implements LearningMethod {
 		if(numberOfInstances!=0)
 			return numberOfInstances;
 		else{
-			//Do a line count of the instance file and return that
+			//Count the instances of the instance file and return that
 			
-			BufferedReader reader = new BufferedReader( getInstanceInputStreamReader(".ins"));
 			try {
-				while(reader.readLine()!=null){
+				final InstanceStore.Cursor cursor = instances.getCursor();
+				while(cursor.next()){
 					numberOfInstances++;
 					owner.increaseFrequency();
 				}
 				
-				reader.close();
+				cursor.close();
 			} catch (IOException e) {
 				throw new MaltChainedException("No instances found in file",e);
 			}
@@ -665,72 +654,91 @@ public class Libsvm implements LearningMethod {
 	}
 	
 	/**
-	 * Reads an instance file into a svm_problem object according to the Malt-SVM format, which is column fixed format (tab-separated).
+	 * Returns a line with the number of instances and distinct instances of the instance store, the ratio between them
+	 * and the size of the instance file
+	 * 
+	 * @return the deduplication report
+	 */
+	protected String getDeduplicationReport() {
+		final StringBuilder sb = new StringBuilder();
+		final int records = instances.getRecordCount();
+		sb.append("  Instances: ");
+		sb.append(instances.getInstanceCount());
+		sb.append(", distinct: ");
+		sb.append(records);
+		sb.append(", ratio: ");
+		sb.append(String.format("%.2f", records == 0 ? 1.0 : (double)instances.getInstanceCount() / records));
+		sb.append(", instance file: ");
+		sb.append(instances.getFile().length());
+		sb.append(" bytes\n");
+		return sb.toString();
+	}
+	
+	/**
+	 * Reads the instances of an instance store into a svm_problem object. The code of a column is mapped to the feature 
+	 * index <i>code + offset</i>, where the offset of a column is the sum of the cardinalities of the preceding columns.
 	 * 
-	 * @param isr	the instance stream reader for the instance file
+	 * @param store	the instance store
 	 * @param cardinalities	a array containing the number of distinct values for a particular column.
 	 * @param param	a svm_parameter object
 	 * @throws LibsvmException
 	 */
-	public final svm_problem readProblemMaltSVMFormat(InputStreamReader isr, int[] cardinalities, svm_parameter param) throws MaltChainedException {
+	public final svm_problem readProblemMaltSVMFormat(InstanceStore store, int[] cardinalities, svm_parameter param) throws MaltChainedException {
 		final svm_problem prob = new svm_problem();
 		try {
-			final BufferedReader fp = new BufferedReader(isr);
+			final InstanceStore.Cursor cursor = store.getCursor();
 			int max_index = 0;
-			if (xlist == null) {
-				xlist = new ArrayList<svm_node>(); 
-			}
 			prob.l = getNumberOfInstances();
 			prob.x = new svm_node[prob.l][];
 			prob.y = new double[prob.l];
+			// The instances of a deduplicated store that are copies of the same record share their nodes
+			final svm_node[][] rows = cursor.isDeduplicated() ? new svm_node[store.getRecordCount()][] : null;
 			int i = 0;
-			final Pattern tabPattern = Pattern.compile("\t");
-			final Pattern pipePattern = Pattern.compile("\\|");
-			while(true) {
-				String line = fp.readLine();
-				if(line == null) break;
-				String[] columns = tabPattern.split(line);
-
-				if (columns.length == 0) {
-					continue;
-				}
-				
-				int offset = 0; 
-				int j = 0;
+			while(cursor.next()) {
+				final int columns = cursor.getColumnCount();
 				try {
-					prob.y[i] = (double)Integer.parseInt(columns[j]);
+					prob.y[i] = (double)cursor.getDecisionCode();
+					if (cursor.isRepeated()) {
+						prob.x[i] = rows[cursor.getRecordIndex()];
+						i++;
+						continue;
+					}
 					int p = 0;
-					for(j = 1; j < columns.length; j++) {
-						final String[] items = pipePattern.split(columns[j]);	
-						for (int k = 0; k < items.length; k++) {
-							try {
-								if (Integer.parseInt(items[k]) != -1) {
-									xlist.add(p, new svm_node());
-									xlist.get(p).value = 1;
-									xlist.get(p).index = Integer.parseInt(items[k])+offset;
-									p++;
-								}
-							} catch (NumberFormatException e) {
-								throw new LibsvmException("The instance file contain a non-integer value '"+items[k]+"'", e);
+					for (int k = 0, end = columns == 0 ? 0 : cursor.getColumnEnd(columns - 1); k < end; k++) {
+						if (cursor.getCode(k) != -1) {
+							p++;
+						}
+					}
+					final svm_node[] x = new svm_node[p];
+					int offset = 0; 
+					p = 0;
+					for (int j = 0; j < columns; j++) {
+						for (int k = cursor.getColumnStart(j), end = cursor.getColumnEnd(j); k < end; k++) {
+							if (cursor.getCode(k) != -1) {
+								x[p] = new svm_node();
+								x[p].value = 1;
+								x[p].index = cursor.getCode(k)+offset;
+								p++;
 							}
 						}
-						offset += cardinalities[j-1];
+						offset += cardinalities[j];
+					}
+					prob.x[i] = x;
+					if (rows != null) {
+						rows[cursor.getRecordIndex()] = x;
 					}
-					prob.x[i] = xlist.subList(0, p).toArray(new svm_node[0]);
-					if(columns.length > 1) {
-						max_index = Math.max(max_index, xlist.get(p-1).index);
+					if (p > 0) {
+						max_index = Math.max(max_index, x[p-1].index);
 					}
 					i++;
-					xlist.clear();
 				} catch (ArrayIndexOutOfBoundsException e) {
 					throw new LibsvmException("Cannot read from the instance file. ", e);
 				}
 			}
-			fp.close();	
+			cursor.close();
 			if (param.gamma == 0) {
 				param.gamma = 1.0/max_index;
 			}
-			xlist = null;
 		} catch (IOException e) {
 			throw new LibsvmException("Cannot read from the instance file. ", e);
 		}
@@ -744,6 +752,7 @@ public class Libsvm implements LearningMethod {
 			excludeNullValues = false;
 		}
 		saveInstanceFiles = ((Boolean)getConfiguration().getOptionValue("libsvm", "save_instance_files")).booleanValue();
+		deduplicateInstances = ((Boolean)getConfiguration().getOptionValue("libsvm", "dedup_instances")).booleanValue();
 			
 		if (!getConfiguration().getOptionValue("libsvm", "libsvm_external").toString().equals("")) {
 			try {
@@ -1137,7 +1146,7 @@ public class Libsvm implements LearningMethod {
 	
 	protected void finalize() throws Throwable {
 		try {
-			closeInstanceWriter();
+			closeInstanceStore();
 		} finally {
 			super.finalize();
 		}
@@ -1162,46 +1171,36 @@ public class Libsvm implements LearningMethod {
 			Set<Integer> featureIdsToCreateSeparateBranchesForSet, ArrayList<Integer> divideFeatureIndexVector, String otherId)  throws MaltChainedException {
 
 		
-		//Create a hash map that maps every feature id to a writer
-		HashMap<Integer, BufferedWriter>   featureIdToWriterMap = new HashMap<Integer, BufferedWriter>();
-		
-		for(int element:featureIdsToCreateSeparateBranchesForSet){
-		 
-
-			BufferedWriter outputWriter = new BufferedWriter(getConfiguration().getConfigurationDir().getOutputStreamWriter(owner.getModelName().replace('.','_') + element + "." + getLearningMethodName()+".ins"));
-			featureIdToWriterMap.put(element, outputWriter);
-		
-		}
-		
-		BufferedWriter otherOutputWriter = new BufferedWriter(getConfiguration().getConfigurationDir().getOutputStreamWriter(owner.getModelName().replace('.','_') + otherId + "." + getLearningMethodName()+".ins"));
-
+		//Create a hash map that maps every feature id to an instance store
+		final HashMap<Integer, InstanceStore> featureIdToStoreMap = new HashMap<Integer, InstanceStore>();
 		
 		try {
-			final BufferedReader in = new BufferedReader(getInstanceInputStreamReader(".ins"));
-			//every line will be written to a separate file
-			String line = in.readLine();
-			final Pattern tabPattern = Pattern.compile("\t");
-			while(line!=null){
-				
-				//Find out which pot the line shall be put in
-				String[] lineArray = tabPattern.split(line);
+			for(int element:featureIdsToCreateSeparateBranchesForSet){
+				featureIdToStoreMap.put(element, new InstanceStore(getConfiguration().getConfigurationDir().getFile(owner.getModelName().replace('.','_') + element + "." + getLearningMethodName()+InstanceStore.SUFFIX), false, deduplicateInstances));
+			}
+			
+			final InstanceStore otherStore = new InstanceStore(getConfiguration().getConfigurationDir().getFile(owner.getModelName().replace('.','_') + otherId + "." + getLearningMethodName()+InstanceStore.SUFFIX), false, deduplicateInstances);
+			
+			final InstanceStore.Cursor in = instances.getCursor();
+			final int divideColumn = divideFeatureIndexVector.get(0);
+			//every instance will be written to a separate file
+			while(in.next()){
 				
-				int id = new Integer(lineArray[divideFeatureIndexVector.get(0)+1]);
+				//Find out which pot the instance shall be put in
+				final InstanceStore store = featureIdToStoreMap.get(in.getFirstCode(divideColumn));
 				
-				if(!featureIdToWriterMap.containsKey(id)){
-					otherOutputWriter.write(line + "\n");
+				if(store == null){
+					otherStore.addInstance(in, -1);
 				}else	 
-					featureIdToWriterMap.get(id).write(getLineToWrite(lineArray,divideFeatureIndexVector.get(0)+1));
-				
-				line = in.readLine();
+					store.addInstance(in, divideColumn);
 			}
 			
-			otherOutputWriter.close();
+			otherStore.close();
 			
 			in.close();
 			
-			for(BufferedWriter writer: featureIdToWriterMap.values())
-				writer.close();
+			for(InstanceStore store: featureIdToStoreMap.values())
+				store.close();
 
 		} catch (SecurityException e) {
 			throw new LiblinearException("The Liblinear learner cannot remove the instance file. ", e);
@@ -1218,21 +1217,6 @@ public class Libsvm implements LearningMethod {
 	}
 
 
-	private String getLineToWrite(String[] lineArray, int excludeIndex) {
-		StringBuffer buf = new StringBuffer();
-		
-		for(int n = 0; n < lineArray.length; n++)
-			if(n != excludeIndex)
-				buf.append(lineArray[n] + "\t");
-		
-		
-		buf.append("\n");		
-
-		
-		return buf.toString();
-	}
-
-
 	@Override
 	public Map<Integer, Integer> createFeatureIdToCountMap(
 			ArrayList<Integer> divideFeatureIndexVector) throws MaltChainedException{
@@ -1242,17 +1226,11 @@ public class Libsvm implements LearningMethod {
 		//Go trough the file and count all feature ids in the given column(s)
 		
 		try {
-			final BufferedReader in = new BufferedReader(getInstanceInputStreamReader(".ins"));
-			//every line will be written to a separate file
-			String line = in.readLine();
-			final Pattern tabPattern = Pattern.compile("\t");
-			while(line!=null){
-				
-				//Find out which pot the line shall be put in
-				String[] lineArray = tabPattern.split(line);
+			final InstanceStore.Cursor in = instances.getCursor();
+			while(in.next()){
 				
 				for(int n = 0; n < divideFeatureIndexVector.size(); n++){
-					int id = new Integer(lineArray[divideFeatureIndexVector.get(n)+1]);
+					int id = in.getFirstCode(divideFeatureIndexVector.get(n));
 					
 					
 					if (!featureIdToCountMap.containsKey(id)) {
@@ -1266,8 +1244,6 @@ public class Libsvm implements LearningMethod {
 					featureIdToCountMap.put(id, previousCount + 1);
 					
 				}				
-				
-				line = in.readLine();
 			}
 			
 
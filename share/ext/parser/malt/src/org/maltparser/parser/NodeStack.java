@@ -0,0 +1,203 @@
+package org.maltparser.parser;
+
+import java.util.EmptyStackException;
+
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.core.syntaxgraph.DependencyStructure;
+import org.maltparser.core.syntaxgraph.node.DependencyNode;
+
+/**
+ * A stack of dependency nodes used by the parser configurations for their stacks and input buffers. The stack keeps the
+ * token indices of the nodes in an int array and the nodes in a parallel array, so that a node or its index is accessed
+ * in constant time without synchronization (unlike java.util.Stack, which is a synchronized Vector).
+ *
+ * A stack is copied by its token indices, e.g. when a parser configuration is initialized from another configuration,
+ * and the nodes of the copy are looked up in the dependency structure of the copy.
+ *
+ * @author Johan Hall
+ * @since 1.4
+ */
+public class NodeStack {
+	private int[] indices;
+	private DependencyNode[] nodes;
+	private int size;
+
+	/**
+	 * Creates an empty stack
+	 */
+	public NodeStack() {
+		indices = new int[16];
+		nodes = new DependencyNode[16];
+	}
+
+	/**
+	 * Pushes a node onto the top of the stack
+	 *
+	 * @param node a dependency node
+	 * @return the node
+	 */
+	public DependencyNode push(DependencyNode node) {
+		if (size == indices.length) {
+			grow();
+		}
+		indices[size] = node.getIndex();
+		nodes[size++] = node;
+		return node;
+	}
+
+	/**
+	 * Removes the node at the top of the stack and returns it
+	 *
+	 * @return the node at the top of the stack
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public DependencyNode pop() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		final DependencyNode node = nodes[--size];
+		nodes[size] = null;
+		return node;
+	}
+
+	/**
+	 * Returns the node at the top of the stack without removing it
+	 *
+	 * @return the node at the top of the stack
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public DependencyNode peek() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		return nodes[size-1];
+	}
+
+	/**
+	 * Returns the node at a position counted from the bottom of the stack, as java.util.Stack.get()
+	 *
+	 * @param position the position from the bottom of the stack (0 is the bottom)
+	 * @return the node at the position
+	 */
+	public DependencyNode get(int position) {
+		if (position >= size) {
+			throw new ArrayIndexOutOfBoundsException(position);
+		}
+		return nodes[position];
+	}
+
+	/**
+	 * Returns the node at a depth counted from the top of the stack, or null if the stack is not that deep. This is the
+	 * node addressed by Stack[depth] and Input[depth] in the feature specification.
+	 *
+	 * @param depth the depth from the top of the stack (0 is the top)
+	 * @return the node at the depth, or null
+	 */
+	public DependencyNode getFromTop(int depth) {
+		if (depth < size) {
+			return nodes[size-1-depth];
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the token index of the node at a position counted from the bottom of the stack
+	 *
+	 * @param position the position from the bottom of the stack (0 is the bottom)
+	 * @return the token index of the node at the position
+	 */
+	public int getIndex(int position) {
+		if (position >= size) {
+			throw new ArrayIndexOutOfBoundsException(position);
+		}
+		return indices[position];
+	}
+
+	/**
+	 * Returns the token index of the node at the top of the stack
+	 *
+	 * @return the token index of the node at the top of the stack
+	 * @throws EmptyStackException if the stack is empty
+	 */
+	public int peekIndex() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		return indices[size-1];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			nodes[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Replaces the content of the stack with the nodes of the dependency structure that have the token indices
+	 * of the source stack.
+	 *
+	 * @param source a stack
+	 * @param dependencyStructure the dependency structure of the nodes of this stack
+	 * @throws MaltChainedException
+	 */
+	public void copy(NodeStack source, DependencyStructure dependencyStructure) throws MaltChainedException {
+		clear();
+		while (indices.length < source.size) {
+			grow();
+		}
+		for (int i = 0; i < source.size; i++) {
+			indices[i] = source.indices[i];
+			nodes[i] = dependencyStructure.getDependencyNode(source.indices[i]);
+		}
+		size = source.size;
+	}
+
+	/**
+	 * Returns true if the stack has the same token indices as another stack
+	 *
+	 * @param other a stack
+	 * @return true if the stacks have the same token indices
+	 */
+	public boolean hasSameIndices(NodeStack other) {
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (indices[i] != other.indices[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void grow() {
+		final int[] newIndices = new int[indices.length*2];
+		final DependencyNode[] newNodes = new DependencyNode[nodes.length*2];
+		System.arraycopy(indices, 0, newIndices, 0, size);
+		System.arraycopy(nodes, 0, newNodes, 0, size);
+		indices = newIndices;
+		nodes = newNodes;
+	}
+
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(indices[i]);
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+}
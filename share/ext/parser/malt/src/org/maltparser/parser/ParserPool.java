@@ -0,0 +1,78 @@
+package org.maltparser.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.maltparser.core.exception.MaltChainedException;
+
+/**
+ * A pool of parsers that share the parser model of a single malt configuration. A thread borrows a parser that no other thread
+ * is using, parses a sentence and returns the parser to the pool. The pool starts with the parser of the configuration and
+ * creates a new parser when all parsers are busy, so that there are never more parsers than threads that parse at the same time.
+ *
+ * The parsers created by the pool are terminated by terminateAll(); the parser of the configuration is terminated with the
+ * configuration.
+ *
+ * @author Johan Hall
+ * @since 1.4
+ */
+public class ParserPool {
+	private final SingleMalt singleMalt;
+	private final LinkedBlockingQueue<Parser> idleParsers = new LinkedBlockingQueue<Parser>();
+	private final List<Parser> workerParsers = new ArrayList<Parser>();
+
+	/**
+	 * Creates a pool of parsers of a single malt configuration
+	 *
+	 * @param singleMalt a single malt configuration with a loaded parser model
+	 */
+	public ParserPool(SingleMalt singleMalt) {
+		this.singleMalt = singleMalt;
+		idleParsers.offer((Parser)singleMalt.getAlgorithm());
+	}
+
+	/**
+	 * Returns a parser that is not used by any other thread. A new parser sharing the parser model is created if all parsers are busy.
+	 *
+	 * @return a parser
+	 * @throws MaltChainedException
+	 */
+	public Parser borrowParser() throws MaltChainedException {
+		Parser parser = idleParsers.poll();
+		if (parser == null) {
+			parser = singleMalt.newParser();
+			synchronized (workerParsers) {
+				workerParsers.add(parser);
+			}
+		}
+		return parser;
+	}
+
+	/**
+	 * Returns a borrowed parser to the pool
+	 *
+	 * @param parser a parser returned by borrowParser()
+	 */
+	public void returnParser(Parser parser) {
+		idleParsers.offer(parser);
+	}
+
+	/**
+	 * Terminates the parsers created by the pool and empties the pool
+	 *
+	 * @throws MaltChainedException
+	 */
+	public void terminateAll() throws MaltChainedException {
+		idleParsers.clear();
+		synchronized (workerParsers) {
+			for (Parser parser : workerParsers) {
+				parser.terminate();
+				if (parser.getGuide() != null) {
+					parser.getGuide().terminate();
+				}
+			}
+			workerParsers.clear();
+		}
+	}
+}
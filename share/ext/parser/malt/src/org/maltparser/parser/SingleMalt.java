@@ -120,6 +120,31 @@ public class SingleMalt implements DependencyParserConfig {
 		}
 	}
 	
+	/**
+	 * Creates a new deterministic parser that shares the symbol tables, the options and the loaded classifier models 
+	 * with this configuration, but has its own parser state, history and feature model. A parser created by 
+	 * this method can be used by one thread at the time, so that several sentences can be parsed concurrently
+	 * by using one parser per thread. 
+	 * 
+	 * @return a new deterministic parser
+	 * @throws MaltChainedException
+	 */
+	public synchronized Parser newParser() throws MaltChainedException {
+		if (mode != PARSE) {
+			throw new MaltChainedException("A parser can only be created when the single malt configuration is in parse mode. ");
+		}
+		// The deterministic parser registers itself, its parser factory and its guide objects in the registry, so it is 
+		// constructed with a private copy of the registry and the registry of this configuration is never changed
+		final ConfigurationRegistry sharedRegistry = registry;
+		registry = new ConfigurationRegistry();
+		registry.putAll(sharedRegistry);
+		try {
+			return new DeterministicParser(this);
+		} finally {
+			registry = sharedRegistry;
+		}
+	}
+	
 	public void oracleParse(DependencyStructure goldGraph, DependencyStructure oracleGraph) throws MaltChainedException {
 		if (oracleGraph.hasTokens()) {
 			if (getGuide() != null) {
@@ -253,6 +278,20 @@ public class SingleMalt implements DependencyParserConfig {
 		return parsingAlgorithm.getGuide();
 	}
 	
+	/**
+	 * Returns the name of the learner whose default feature models are used for a learner. A learner variant uses the 
+	 * default feature models of the learner that it is a variant of.
+	 * 
+	 * @param learner the name of the learner (the value of the option --guide-learner)
+	 * @return the name of the learner of the default feature models
+	 */
+	private static String getFeatureModelLearner(String learner) {
+		if (learner.equals("liblinear_fused")) {
+			return "liblinear";
+		}
+		return learner;
+	}
+	
 	public void checkOptionDependency() throws MaltChainedException {
 		try {
 			if (configDir.getInfoFileWriter() != null) {
@@ -265,7 +304,7 @@ public class SingleMalt implements DependencyParserConfig {
 				// use default feature model depending on the selected parser algorithm
 				OptionManager.instance().overloadOptionValue(optionContainerIndex, "guide", "features", getOptionValueString("singlemalt", "parsing_algorithm"));
 				featureModelFileName = getOptionValue("guide", "features").toString().trim();
-				featureModelFileName = featureModelFileName.replace("{learner}", getOptionValueString("guide", "learner"));
+				featureModelFileName = featureModelFileName.replace("{learner}", getFeatureModelLearner(getOptionValueString("guide", "learner")));
 				featureModelFileName = configDir.copyToConfig(Util.findURLinJars(featureModelFileName));
 			} else {
 				featureModelFileName = configDir.copyToConfig(featureModelFileName);
@@ -23,7 +23,7 @@ public class ArcEagerOracle extends Oracle {
 		NivreConfig nivreConfig = (NivreConfig)config;
 		DependencyNode stackPeek = nivreConfig.getStack().peek();
 		int stackPeekIndex = stackPeek.getIndex();
-		int inputPeekIndex = nivreConfig.getInput().peek().getIndex();
+		int inputPeekIndex = nivreConfig.getInput().peekIndex();
 		
 		if (!stackPeek.isRoot() && gold.getTokenNode(stackPeekIndex).getHead().getIndex() == inputPeekIndex) {
 			return updateActionContainers(ArcEager.LEFTARC, gold.getTokenNode(stackPeekIndex).getHeadEdge().getLabelSet());
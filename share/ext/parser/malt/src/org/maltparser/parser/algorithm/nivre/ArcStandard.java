@@ -1,10 +1,9 @@
 package org.maltparser.parser.algorithm.nivre;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.TransitionSystem;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -27,18 +26,18 @@ public class ArcStandard extends TransitionSystem {
 	
 	public void apply(GuideUserAction currentAction, ParserConfiguration config) throws MaltChainedException {
 		NivreConfig nivreConfig = (NivreConfig)config;
-		Stack<DependencyNode> stack = nivreConfig.getStack();
-		Stack<DependencyNode> input = nivreConfig.getInput();
+		NodeStack stack = nivreConfig.getStack();
+		NodeStack input = nivreConfig.getInput();
 		currentAction.getAction(actionContainers);
 		Edge e = null;
 		switch (transActionContainer.getActionCode()) {
 		case LEFTARC:
-			e = nivreConfig.getDependencyStructure().addDependencyEdge(input.peek().getIndex(), stack.peek().getIndex());
+			e = nivreConfig.getDependencyStructure().addDependencyEdge(input.peekIndex(), stack.peekIndex());
 			addEdgeLabels(e);
 			stack.pop();
 			break;
 		case RIGHTARC:
-			e = nivreConfig.getDependencyStructure().addDependencyEdge(stack.peek().getIndex(), input.peek().getIndex());
+			e = nivreConfig.getDependencyStructure().addDependencyEdge(stack.peekIndex(), input.peekIndex());
 			addEdgeLabels(e);
 			input.pop();
 			if (!stack.peek().isRoot()) {
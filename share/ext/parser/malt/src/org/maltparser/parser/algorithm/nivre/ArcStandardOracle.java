@@ -23,7 +23,7 @@ public class ArcStandardOracle extends Oracle {
 		NivreConfig nivreConfig = (NivreConfig)config;
 		DependencyNode stackPeek = nivreConfig.getStack().peek();
 		int stackPeekIndex = stackPeek.getIndex();
-		int inputPeekIndex = nivreConfig.getInput().peek().getIndex();
+		int inputPeekIndex = nivreConfig.getInput().peekIndex();
 		
 		if (nivreConfig.getRootHandling() != NivreConfig.NORMAL && stackPeek.isRoot()) {
 			return updateActionContainers(ArcStandard.SHIFT, null);
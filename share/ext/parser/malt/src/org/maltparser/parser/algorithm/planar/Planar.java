@@ -1,11 +1,10 @@
 package org.maltparser.parser.algorithm.planar;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.TransitionSystem;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -29,17 +28,17 @@ public class Planar extends TransitionSystem {
 	
 	public void apply(GuideUserAction currentAction, ParserConfiguration config) throws MaltChainedException {
 		PlanarConfig planarConfig = (PlanarConfig)config;
-		Stack<DependencyNode> stack = planarConfig.getStack();
-		Stack<DependencyNode> input = planarConfig.getInput();
+		NodeStack stack = planarConfig.getStack();
+		NodeStack input = planarConfig.getInput();
 		currentAction.getAction(actionContainers);
 		Edge e = null;
 		switch (transActionContainer.getActionCode()) {
 		case LEFTARC:
-			e = planarConfig.getDependencyStructure().addDependencyEdge(input.peek().getIndex(), stack.peek().getIndex());
+			e = planarConfig.getDependencyStructure().addDependencyEdge(input.peekIndex(), stack.peekIndex());
 			addEdgeLabels(e);
 			break;
 		case RIGHTARC:
-			e = planarConfig.getDependencyStructure().addDependencyEdge(stack.peek().getIndex(), input.peek().getIndex());
+			e = planarConfig.getDependencyStructure().addDependencyEdge(stack.peekIndex(), input.peekIndex());
 			addEdgeLabels(e);
 			break;
 		case REDUCE:
@@ -24,7 +24,7 @@ public class PlanarArcEagerOracle extends Oracle {
 		DependencyStructure dg = planarConfig.getDependencyGraph();
 		DependencyNode stackPeek = planarConfig.getStack().peek();
 		int stackPeekIndex = stackPeek.getIndex();
-		int inputPeekIndex = planarConfig.getInput().peek().getIndex();
+		int inputPeekIndex = planarConfig.getInput().peekIndex();
 		
 		if (!stackPeek.isRoot() && gold.getTokenNode(stackPeekIndex).getHead().getIndex() == inputPeekIndex
 				&& !checkIfArcExists ( dg , inputPeekIndex , stackPeekIndex ) )  {
@@ -1,7 +1,5 @@
 package org.maltparser.parser.algorithm.planar;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
@@ -9,6 +7,7 @@ import org.maltparser.core.syntaxgraph.DependencyGraph;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.ParsingException;
 /**
@@ -35,16 +34,16 @@ public class PlanarConfig extends ParserConfiguration {
 	public int connectedness = NO_CONNECTEDNESS; //connectedness constraint
 	
 	
-	private Stack<DependencyNode> stack;
-	private Stack<DependencyNode> input;
+	private NodeStack stack;
+	private NodeStack input;
 	private DependencyStructure dependencyGraph;
 	//private int rootHandling;
 
 	
 	public PlanarConfig(SymbolTableHandler symbolTableHandler, String noCoveredRoots , String acyclicity , String connectedness) throws MaltChainedException {
 		super();
-		stack = new Stack<DependencyNode>();
-		input = new Stack<DependencyNode>();
+		stack = new NodeStack();
+		input = new NodeStack();
 		dependencyGraph = new DependencyGraph(symbolTableHandler);
 		//setRootHandling(rootHandling);
 		setNoCoveredRoots(Boolean.valueOf(noCoveredRoots));
@@ -52,11 +51,11 @@ public class PlanarConfig extends ParserConfiguration {
 		setConnectedness(connectedness);
 	}
 	
-	public Stack<DependencyNode> getStack() {
+	public NodeStack getStack() {
 		return stack;
 	}
 	
-	public Stack<DependencyNode> getInput() {
+	public NodeStack getInput() {
 		return input;
 	}
 	
@@ -72,20 +71,14 @@ public class PlanarConfig extends ParserConfiguration {
 		if (index < 0) {
 			throw new ParsingException("Stack index must be non-negative in feature specification. ");
 		}
-		if (stack.size()-index > 0) {
-			return stack.get(stack.size()-1-index);
-		}
-		return null;
+		return stack.getFromTop(index);
 	}
 	
 	public DependencyNode getInputNode(int index) throws MaltChainedException {
 		if (index < 0) {
 			throw new ParsingException("Input index must be non-negative in feature specification. ");
 		}
-		if (input.size()-index > 0) {
-			return input.get(input.size()-1-index);
-		}	
-		return null;
+		return input.getFromTop(index);
 	}
 	
 	public void setDependencyGraph(DependencyStructure source) throws MaltChainedException {
@@ -118,15 +111,11 @@ public class PlanarConfig extends ParserConfiguration {
 	public void initialize(ParserConfiguration parserConfiguration) throws MaltChainedException {
 		if (parserConfiguration != null) {
 			PlanarConfig planarConfig = (PlanarConfig)parserConfiguration;
-			Stack<DependencyNode> sourceStack = planarConfig.getStack();
-			Stack<DependencyNode> sourceInput = planarConfig.getInput();
+			NodeStack sourceStack = planarConfig.getStack();
+			NodeStack sourceInput = planarConfig.getInput();
 			setDependencyGraph(planarConfig.getDependencyGraph());
-			for (int i = 0, n = sourceStack.size(); i < n; i++) {
-				stack.add(dependencyGraph.getDependencyNode(sourceStack.get(i).getIndex()));
-			}
-			for (int i = 0, n = sourceInput.size(); i < n; i++) {
-				input.add(dependencyGraph.getDependencyNode(sourceInput.get(i).getIndex()));
-			}
+			stack.copy(sourceStack, dependencyGraph);
+			input.copy(sourceInput, dependencyGraph);
 		} else {
 			stack.push(dependencyGraph.getDependencyRoot());
 			for (int i = dependencyGraph.getHighestTokenIndex(); i > 0; i--) {
@@ -225,15 +214,11 @@ public class PlanarConfig extends ParserConfiguration {
 			return false;
 		if (dependencyGraph.nEdges() != that.getDependencyGraph().nEdges())
 			return false;
-		for (int i = 0; i < stack.size(); i++) {
-			if (stack.get(i).getIndex() != that.getStack().get(i).getIndex()) {
-				return false;
-			}
+		if (!stack.hasSameIndices(that.getStack())) {
+			return false;
 		}
-		for (int i = 0; i < input.size(); i++) {
-			if (input.get(i).getIndex() != that.getInput().get(i).getIndex()) {
-				return false;
-			}
+		if (!input.hasSameIndices(that.getInput())) {
+			return false;
 		}		
 		return dependencyGraph.getEdges().equals(that.getDependencyGraph().getEdges());
 	}
@@ -1,10 +1,9 @@
 package org.maltparser.parser.algorithm.stack;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.TransitionSystem;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -30,8 +29,8 @@ public class NonProjective extends TransitionSystem {
 	
 	public void apply(GuideUserAction currentAction, ParserConfiguration configuration) throws MaltChainedException {
 		StackConfig config = (StackConfig)configuration;
-		Stack<DependencyNode> stack = config.getStack();
-		Stack<DependencyNode> input = config.getInput();
+		NodeStack stack = config.getStack();
+		NodeStack input = config.getInput();
 		currentAction.getAction(actionContainers);
 		Edge e = null;
 		DependencyNode head = null;
@@ -46,7 +45,7 @@ public class NonProjective extends TransitionSystem {
 			break;
 		case RIGHTARC:
 			dep = stack.pop(); 
-			e = config.getDependencyStructure().addDependencyEdge(stack.peek().getIndex(), dep.getIndex());
+			e = config.getDependencyStructure().addDependencyEdge(stack.peekIndex(), dep.getIndex());
 			addEdgeLabels(e);
 			break;
 		case SWAP:
@@ -73,8 +72,8 @@ public class NonProjective extends TransitionSystem {
 		if ((trans == LEFTARC || trans == RIGHTARC) && !isActionContainersLabeled()) {
 			return false;
 		}
-		Stack<DependencyNode> stack = config.getStack();
-		Stack<DependencyNode> input = config.getInput();
+		NodeStack stack = config.getStack();
+		NodeStack input = config.getInput();
 		if ((trans == LEFTARC || trans == RIGHTARC || trans == SWAP) && stack.size() < 2) {
 			return false;
 		}
@@ -84,7 +83,7 @@ public class NonProjective extends TransitionSystem {
 		if (trans == SHIFT && input.isEmpty()) { 
 			return false;
 		}
-		if (trans == SWAP && stack.get(stack.size()-2).getIndex() > stack.get(stack.size()-1).getIndex()) {
+		if (trans == SWAP && stack.getIndex(stack.size()-2) > stack.peekIndex()) {
 			return false;
 		}
 		return true;
@@ -1,11 +1,10 @@
 package org.maltparser.parser.algorithm.stack;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.LabelSet;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.TransitionSystem;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -28,8 +27,8 @@ public class Projective extends TransitionSystem {
 	
 	public void apply(GuideUserAction currentAction, ParserConfiguration configuration) throws MaltChainedException {
 		StackConfig config = (StackConfig)configuration;
-		Stack<DependencyNode> stack = config.getStack();
-		Stack<DependencyNode> input = config.getInput();
+		NodeStack stack = config.getStack();
+		NodeStack input = config.getInput();
 		currentAction.getAction(actionContainers);
 		Edge e = null;
 		DependencyNode head = null;
@@ -44,7 +43,7 @@ public class Projective extends TransitionSystem {
 			break;
 		case RIGHTARC:
 			dep = stack.pop(); 
-			e = config.getDependencyStructure().addDependencyEdge(stack.peek().getIndex(), dep.getIndex());
+			e = config.getDependencyStructure().addDependencyEdge(stack.peekIndex(), dep.getIndex());
 			addEdgeLabels(e);
 			break;
 		default:
@@ -64,8 +63,8 @@ public class Projective extends TransitionSystem {
 		if ((trans == LEFTARC || trans == RIGHTARC) && !isActionContainersLabeled()) {
 			return false;
 		}
-		Stack<DependencyNode> stack = config.getStack();
-		Stack<DependencyNode> input = config.getInput();
+		NodeStack stack = config.getStack();
+		NodeStack input = config.getInput();
 		if ((trans == LEFTARC || trans == RIGHTARC) && stack.size() < 2) {
 			return false;
 		}
@@ -1,11 +1,10 @@
 package org.maltparser.parser.algorithm.stack;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
 import org.maltparser.parser.DependencyParserConfig;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.Oracle;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -22,14 +21,14 @@ public class ProjectiveOracle  extends Oracle {
 	
 	public GuideUserAction predict(DependencyStructure gold, ParserConfiguration configuration) throws MaltChainedException {
 		StackConfig config = (StackConfig)configuration;
-		Stack<DependencyNode> stack = config.getStack();
+		NodeStack stack = config.getStack();
 
 		if (stack.size() < 2) {
 			return updateActionContainers(Projective.SHIFT, null);
 		} else {
 			DependencyNode left = stack.get(stack.size()-2);
 			int leftIndex = left.getIndex();
-			int rightIndex = stack.get(stack.size()-1).getIndex();
+			int rightIndex = stack.peekIndex();
 			if (!left.isRoot() && gold.getTokenNode(leftIndex).getHead().getIndex() == rightIndex) {
 				return updateActionContainers(Projective.LEFTARC, gold.getTokenNode(leftIndex).getHeadEdge().getLabelSet());
 			} else if (gold.getTokenNode(rightIndex).getHead().getIndex() == leftIndex && checkRightDependent(gold, config.getDependencyGraph(), rightIndex)) {
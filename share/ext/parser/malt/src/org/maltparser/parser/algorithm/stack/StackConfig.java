@@ -1,7 +1,5 @@
 package org.maltparser.parser.algorithm.stack;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
@@ -9,6 +7,7 @@ import org.maltparser.core.syntaxgraph.DependencyGraph;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.ParsingException;
 /**
@@ -16,23 +15,23 @@ import org.maltparser.parser.ParsingException;
  *
  */
 public class StackConfig extends ParserConfiguration {
-	private Stack<DependencyNode> stack;
-	private Stack<DependencyNode> input;
+	private NodeStack stack;
+	private NodeStack input;
 	private DependencyStructure dependencyGraph;
 	private int lookahead;
 	
 	public StackConfig(SymbolTableHandler symbolTableHandler) throws MaltChainedException {
 		super();
-		stack = new Stack<DependencyNode>();
-		input = new Stack<DependencyNode>();
+		stack = new NodeStack();
+		input = new NodeStack();
 		dependencyGraph = new DependencyGraph(symbolTableHandler);
 	}
 	
-	public Stack<DependencyNode> getStack() {
+	public NodeStack getStack() {
 		return stack;
 	}
 	
-	public Stack<DependencyNode> getInput() {
+	public NodeStack getInput() {
 		return input;
 	}
 	
@@ -48,20 +47,14 @@ public class StackConfig extends ParserConfiguration {
 		if (index < 0) {
 			throw new ParsingException("Stack index must be non-negative in feature specification. ");
 		}
-		if (stack.size()-index > 0) {
-			return stack.get(stack.size()-1-index);
-		}
-		return null;
+		return stack.getFromTop(index);
 	}
 	
 	private DependencyNode getBufferNode(int index) throws MaltChainedException {
 		if (index < 0) {
 			throw new ParsingException("Input index must be non-negative in feature specification. ");
 		}
-		if (input.size()-index > 0) {
-			return input.get(input.size()-1-index);
-		}	
-		return null;
+		return input.getFromTop(index);
 	}
 	
 	public DependencyNode getLookaheadNode(int index) throws MaltChainedException {	
@@ -115,15 +108,11 @@ public class StackConfig extends ParserConfiguration {
 	public void initialize(ParserConfiguration parserConfiguration) throws MaltChainedException {
 		if (parserConfiguration != null) {
 			StackConfig config = (StackConfig)parserConfiguration;
-			Stack<DependencyNode> sourceStack = config.getStack();
-			Stack<DependencyNode> sourceInput = config.getInput();
+			NodeStack sourceStack = config.getStack();
+			NodeStack sourceInput = config.getInput();
 			setDependencyGraph(config.getDependencyGraph());
-			for (int i = 0, n = sourceStack.size(); i < n; i++) {
-				stack.add(dependencyGraph.getDependencyNode(sourceStack.get(i).getIndex()));
-			}
-			for (int i = 0, n = sourceInput.size(); i < n; i++) {
-				input.add(dependencyGraph.getDependencyNode(sourceInput.get(i).getIndex()));
-			}
+			stack.copy(sourceStack, dependencyGraph);
+			input.copy(sourceInput, dependencyGraph);
 		} else {
 			stack.push(dependencyGraph.getDependencyRoot());
 			for (int i = dependencyGraph.getHighestTokenIndex(); i > 0; i--) {
@@ -152,15 +141,11 @@ public class StackConfig extends ParserConfiguration {
 			return false;
 		if (dependencyGraph.nEdges() != that.getDependencyGraph().nEdges())
 			return false;
-		for (int i = 0; i < stack.size(); i++) {
-			if (stack.get(i).getIndex() != that.getStack().get(i).getIndex()) {
-				return false;
-			}
+		if (!stack.hasSameIndices(that.getStack())) {
+			return false;
 		}
-		for (int i = 0; i < input.size(); i++) {
-			if (input.get(i).getIndex() != that.getInput().get(i).getIndex()) {
-				return false;
-			}
+		if (!input.hasSameIndices(that.getInput())) {
+			return false;
 		}		
 		return dependencyGraph.getEdges().equals(that.getDependencyGraph().getEdges());
 	}
@@ -1,12 +1,11 @@
 package org.maltparser.parser.algorithm.stack;
 
 import java.util.ArrayList;
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
 import org.maltparser.parser.DependencyParserConfig;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.Oracle;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -27,7 +26,7 @@ public class SwapEagerOracle extends Oracle {
 	
 	public GuideUserAction predict(DependencyStructure gold, ParserConfiguration configuration) throws MaltChainedException {
 		StackConfig config = (StackConfig)configuration;
-		Stack<DependencyNode> stack = config.getStack();
+		NodeStack stack = config.getStack();
 
 		if (!swapArrayActive) {
 			createSwapArray(gold);
@@ -39,7 +38,7 @@ public class SwapEagerOracle extends Oracle {
 		} else {
 			DependencyNode left = stack.get(stack.size()-2);
 			int leftIndex = left.getIndex();
-			int rightIndex = stack.get(stack.size()-1).getIndex();
+			int rightIndex = stack.peekIndex();
 			if (swapArray.get(leftIndex) > swapArray.get(rightIndex)) {
 				action =  updateActionContainers(NonProjective.SWAP, null);
 			} else if (!left.isRoot() && gold.getTokenNode(leftIndex).getHead().getIndex() == rightIndex
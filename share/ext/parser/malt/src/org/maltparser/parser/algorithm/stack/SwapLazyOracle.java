@@ -1,12 +1,11 @@
 package org.maltparser.parser.algorithm.stack;
 
 import java.util.ArrayList;
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
 import org.maltparser.parser.DependencyParserConfig;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.Oracle;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -27,7 +26,7 @@ public class SwapLazyOracle extends Oracle {
 	
 	public GuideUserAction predict(DependencyStructure gold, ParserConfiguration configuration) throws MaltChainedException {
 		StackConfig config = (StackConfig)configuration;
-		Stack<DependencyNode> stack = config.getStack();
+		NodeStack stack = config.getStack();
 
 		if (!swapArrayActive) {
 			createSwapArray(gold);
@@ -72,7 +71,7 @@ public class SwapLazyOracle extends Oracle {
 		return true;
 	}
 	
-	private boolean necessarySwap(DependencyStructure gold, DependencyStructure parse, DependencyNode node, Stack<DependencyNode> input) throws MaltChainedException {
+	private boolean necessarySwap(DependencyStructure gold, DependencyStructure parse, DependencyNode node, NodeStack input) throws MaltChainedException {
 		DependencyNode left = node;
 		int index = input.size() - 1;
 		if (index < 0) {
@@ -1,11 +1,10 @@
 package org.maltparser.parser.algorithm.twoplanar;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.TransitionSystem;
 import org.maltparser.parser.history.GuideUserHistory;
@@ -34,19 +33,19 @@ public class TwoPlanar extends TransitionSystem {
 	
 	public void apply(GuideUserAction currentAction, ParserConfiguration config) throws MaltChainedException {
 		TwoPlanarConfig planarConfig = (TwoPlanarConfig)config;
-		Stack<DependencyNode> activeStack = planarConfig.getActiveStack();
-		Stack<DependencyNode> inactiveStack = planarConfig.getInactiveStack();
-		Stack<DependencyNode> input = planarConfig.getInput();
+		NodeStack activeStack = planarConfig.getActiveStack();
+		NodeStack inactiveStack = planarConfig.getInactiveStack();
+		NodeStack input = planarConfig.getInput();
 		currentAction.getAction(actionContainers);
 		Edge e = null;
 		int actionCode = transActionContainer.getActionCode();
 		switch ( actionCode ) {
 		case LEFTARC:
-			e = planarConfig.getDependencyStructure().addDependencyEdge(input.peek().getIndex(), activeStack.peek().getIndex());
+			e = planarConfig.getDependencyStructure().addDependencyEdge(input.peekIndex(), activeStack.peekIndex());
 			addEdgeLabels(e);
 			break;
 		case RIGHTARC:
-			e = planarConfig.getDependencyStructure().addDependencyEdge(activeStack.peek().getIndex(), input.peek().getIndex());
+			e = planarConfig.getDependencyStructure().addDependencyEdge(activeStack.peekIndex(), input.peekIndex());
 			addEdgeLabels(e);
 			break;
 		case SWITCH:
@@ -44,7 +44,7 @@ public class TwoPlanarArcEagerOracle extends Oracle {
 		DependencyNode inactiveStackPeek = planarConfig.getInactiveStack().peek();
 		int activeStackPeekIndex = activeStackPeek.getIndex();
 		int inactiveStackPeekIndex = inactiveStackPeek.getIndex();
-		int inputPeekIndex = planarConfig.getInput().peek().getIndex();
+		int inputPeekIndex = planarConfig.getInput().peekIndex();
 		
 		//System.out.println("Initting crossings");
 		
@@ -256,7 +256,7 @@ public class TwoPlanarArcEagerOracle extends Oracle {
 	private Edge getFirstPendingLinkOnActivePlane ( TwoPlanarConfig config , DependencyStructure gold ) throws MaltChainedException
 	{
 		return getFirstPendingLinkOnPlane ( config , gold , config.getStackActivityState() == TwoPlanarConfig.FIRST_STACK ? FIRST_PLANE : SECOND_PLANE , 
-				config.getActiveStack().peek().getIndex() );
+				config.getActiveStack().peekIndex() );
 	}
 	
 	/**
@@ -268,7 +268,7 @@ public class TwoPlanarArcEagerOracle extends Oracle {
 	private Edge getFirstPendingLinkOnInactivePlane ( TwoPlanarConfig config , DependencyStructure gold ) throws MaltChainedException
 	{
 		return getFirstPendingLinkOnPlane ( config , gold , config.getStackActivityState() == TwoPlanarConfig.FIRST_STACK ? SECOND_PLANE : FIRST_PLANE ,
-				config.getInactiveStack().peek().getIndex() );
+				config.getInactiveStack().peekIndex() );
 	}
 	
 	private Edge getFirstPendingLinkOnAnyPlane ( TwoPlanarConfig config , DependencyStructure gold ) throws MaltChainedException
@@ -294,7 +294,7 @@ public class TwoPlanarArcEagerOracle extends Oracle {
 	{
 		TwoPlanarConfig planarConfig = (TwoPlanarConfig)config;
 		//DependencyStructure dg = planarConfig.getDependencyGraph(); -> no need, if rightmostLimit is well chosen, due to algorithm invariants
-		int inputPeekIndex = planarConfig.getInput().peek().getIndex();
+		int inputPeekIndex = planarConfig.getInput().peekIndex();
 		
 		Edge current = null;
 		int maxIndex;
@@ -1,7 +1,5 @@
 package org.maltparser.parser.algorithm.twoplanar;
 
-import java.util.Stack;
-
 import org.maltparser.core.exception.MaltChainedException;
 import org.maltparser.core.symbol.SymbolTable;
 import org.maltparser.core.symbol.SymbolTableHandler;
@@ -9,6 +7,7 @@ import org.maltparser.core.syntaxgraph.DependencyGraph;
 import org.maltparser.core.syntaxgraph.DependencyStructure;
 import org.maltparser.core.syntaxgraph.edge.Edge;
 import org.maltparser.core.syntaxgraph.node.DependencyNode;
+import org.maltparser.parser.NodeStack;
 import org.maltparser.parser.ParserConfiguration;
 import org.maltparser.parser.ParsingException;
 /**
@@ -39,15 +38,15 @@ public class TwoPlanarConfig extends ParserConfiguration {
 	public boolean reduceAfterSwitch = false;
 	
 	
-	private Stack<DependencyNode> firstStack;
-	private Stack<DependencyNode> secondStack;
+	private NodeStack firstStack;
+	private NodeStack secondStack;
 
 	public static final boolean FIRST_STACK = false;
 	public static final boolean SECOND_STACK = true;
 	
 	private boolean activeStack;
 	
-	private Stack<DependencyNode> input;
+	private NodeStack input;
 	
 	private DependencyStructure dependencyGraph;
 	
@@ -60,10 +59,10 @@ public class TwoPlanarConfig extends ParserConfiguration {
 	
 	public TwoPlanarConfig(SymbolTableHandler symbolTableHandler, String noCoveredRoots , String acyclicity , String reduceAfterSwitch , String rootHandling) throws MaltChainedException {
 		super();
-		firstStack = new Stack<DependencyNode>();
-		secondStack = new Stack<DependencyNode>();
+		firstStack = new NodeStack();
+		secondStack = new NodeStack();
 		activeStack = FIRST_STACK;
-		input = new Stack<DependencyNode>();
+		input = new NodeStack();
 		dependencyGraph = new DependencyGraph(symbolTableHandler);
 		setRootHandling(rootHandling);
 		setNoCoveredRoots(Boolean.valueOf(noCoveredRoots));
@@ -101,25 +100,25 @@ public class TwoPlanarConfig extends ParserConfiguration {
 		return activeStack;
 	}
 	
-	private Stack<DependencyNode> getFirstStack() {
+	private NodeStack getFirstStack() {
 		return firstStack;
 	}
 	
-	private Stack<DependencyNode> getSecondStack() {
+	private NodeStack getSecondStack() {
 		return secondStack;
 	}
 	
-	public Stack<DependencyNode> getActiveStack() {
+	public NodeStack getActiveStack() {
 		if ( activeStack == FIRST_STACK ) return getFirstStack();
 		else return getSecondStack();
 	}
 	
-	public Stack<DependencyNode> getInactiveStack() {
+	public NodeStack getInactiveStack() {
 		if ( activeStack == FIRST_STACK ) return getSecondStack();
 		else return getFirstStack();
 	}
 	
-	public Stack<DependencyNode> getInput() {
+	public NodeStack getInput() {
 		return input;
 	}
 	
@@ -131,14 +130,11 @@ public class TwoPlanarConfig extends ParserConfiguration {
 		return input.isEmpty();
 	}
 	
-	private DependencyNode getStackNode(Stack<DependencyNode> stack , int index) throws MaltChainedException {
+	private DependencyNode getStackNode(NodeStack stack , int index) throws MaltChainedException {
 		if (index < 0) {
 			throw new ParsingException("Stack index must be non-negative in feature specification. ");
 		}
-		if (stack.size()-index > 0) {
-			return stack.get(stack.size()-1-index);
-		}
-		return null;
+		return stack.getFromTop(index);
 	}
 	
 	public DependencyNode getActiveStackNode ( int index ) throws MaltChainedException {
@@ -153,10 +149,7 @@ public class TwoPlanarConfig extends ParserConfiguration {
 		if (index < 0) {
 			throw new ParsingException("Input index must be non-negative in feature specification. ");
 		}
-		if (input.size()-index > 0) {
-			return input.get(input.size()-1-index);
-		}	
-		return null;
+		return input.getFromTop(index);
 	}
 	
 	public void setDependencyGraph(DependencyStructure source) throws MaltChainedException {
@@ -187,19 +180,13 @@ public class TwoPlanarConfig extends ParserConfiguration {
 		if (parserConfiguration != null) {
 			TwoPlanarConfig planarConfig = (TwoPlanarConfig)parserConfiguration;
 			this.activeStack = planarConfig.activeStack;
-			Stack<DependencyNode> sourceActiveStack = planarConfig.getActiveStack();
-			Stack<DependencyNode> sourceInactiveStack = planarConfig.getInactiveStack();
-			Stack<DependencyNode> sourceInput = planarConfig.getInput();
+			NodeStack sourceActiveStack = planarConfig.getActiveStack();
+			NodeStack sourceInactiveStack = planarConfig.getInactiveStack();
+			NodeStack sourceInput = planarConfig.getInput();
 			setDependencyGraph(planarConfig.getDependencyGraph());
-			for (int i = 0, n = sourceActiveStack.size(); i < n; i++) {
-				getActiveStack().add(dependencyGraph.getDependencyNode(sourceActiveStack.get(i).getIndex()));
-			}
-			for ( int i =0, n = sourceInactiveStack.size() ; i < n ; i++ ) {
-				getInactiveStack().add(dependencyGraph.getDependencyNode(sourceInactiveStack.get(i).getIndex()));
-			}
-			for (int i = 0, n = sourceInput.size(); i < n; i++) {
-				input.add(dependencyGraph.getDependencyNode(sourceInput.get(i).getIndex()));
-			}
+			getActiveStack().copy(sourceActiveStack, dependencyGraph);
+			getInactiveStack().copy(sourceInactiveStack, dependencyGraph);
+			input.copy(sourceInput, dependencyGraph);
 		} else {
 			getActiveStack().push(dependencyGraph.getDependencyRoot());
 			getInactiveStack().push(dependencyGraph.getDependencyRoot());
@@ -273,20 +260,14 @@ public class TwoPlanarConfig extends ParserConfiguration {
 			return false;
 		if (dependencyGraph.nEdges() != that.getDependencyGraph().nEdges())
 			return false;
-		for (int i = 0; i < getActiveStack().size(); i++) {
-			if (getActiveStack().get(i).getIndex() != that.getActiveStack().get(i).getIndex()) {
-				return false;
-			}
+		if (!getActiveStack().hasSameIndices(that.getActiveStack())) {
+			return false;
 		}
-		for (int i = 0; i < getInactiveStack().size(); i++) {
-			if (getInactiveStack().get(i).getIndex() != that.getInactiveStack().get(i).getIndex()) {
-				return false;
-			}
+		if (!getInactiveStack().hasSameIndices(that.getInactiveStack())) {
+			return false;
 		}
-		for (int i = 0; i < input.size(); i++) {
-			if (input.get(i).getIndex() != that.getInput().get(i).getIndex()) {
-				return false;
-			}
+		if (!input.hasSameIndices(that.getInput())) {
+			return false;
 		}		
 		return dependencyGraph.getEdges().equals(that.getDependencyGraph().getEdges());
 	}
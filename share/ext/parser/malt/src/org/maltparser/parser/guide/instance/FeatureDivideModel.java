@@ -181,10 +181,9 @@ public class FeatureDivideModel implements InstanceModel {
 	}
 	
 	public void train() throws MaltChainedException {
-		for (AtomicModel divideModel : divideModels.values()) {
-			divideModel.train();
-		}
-		masterModel.train();
+		final ArrayList<AtomicModel> models = new ArrayList<AtomicModel>(divideModels.values());
+		models.add(masterModel);
+		new ParallelTrainer(getGuide()).train(models);
 		save();
 		for (AtomicModel divideModel : divideModels.values()) {
 			divideModel.terminate();
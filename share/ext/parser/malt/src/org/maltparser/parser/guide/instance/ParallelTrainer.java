@@ -0,0 +1,211 @@
+package org.maltparser.parser.guide.instance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.maltparser.core.exception.MaltChainedException;
+import org.maltparser.parser.guide.ClassifierGuide;
+import org.maltparser.parser.guide.GuideException;
+
+/**
+The parallel trainer runs independent training tasks (for example the training of the atomic models of a feature divide model)
+on a pool of worker threads. The number of worker threads is specified by the option <b>--guide-train_threads</b> and the memory
+that the running tasks may use is bounded by the option <b>--guide-train_memory</b>. The memory of a task is estimated from the number
+of training instances and the size of the feature vector; a task is not started until the estimated memory of the running tasks
+and the task is within the bound, except when no other task is running.
+
+The tasks are started in decreasing order of their memory estimate, which usually is the order of decreasing training time.
+With one worker thread, the tasks are run in the given order in the calling thread.
+
+@author Johan Hall
+@since 1.4
+*/
+public class ParallelTrainer {
+	/** The estimated number of bytes of one feature node of a training instance in memory */
+	private final static long BYTES_PER_FEATURE_NODE = 32;
+	private final int threads;
+	private final long memoryBound;
+	private long memoryInUse;
+	private int running;
+
+	/**
+	 * A training task
+	 */
+	public interface Task {
+		/**
+		 * Runs the task.
+		 *
+		 * @throws MaltChainedException
+		 */
+		public void run() throws MaltChainedException;
+		/**
+		 * Returns the estimated number of bytes that the task needs.
+		 *
+		 * @return the estimated number of bytes that the task needs
+		 */
+		public long getMemoryEstimate();
+	}
+
+	/**
+	 * Constructs a parallel trainer with the settings of the options <b>--guide-train_threads</b> and <b>--guide-train_memory</b>.
+	 *
+	 * @param guide the guide
+	 * @throws MaltChainedException
+	 */
+	public ParallelTrainer(ClassifierGuide guide) throws MaltChainedException {
+		int threads = 1;
+		long memoryBound = 0;
+		try {
+			final Object threadsValue = guide.getConfiguration().getOptionValue("guide", "train_threads");
+			if (threadsValue != null) {
+				threads = Integer.parseInt(threadsValue.toString());
+			}
+			final Object memoryValue = guide.getConfiguration().getOptionValue("guide", "train_memory");
+			if (memoryValue != null) {
+				memoryBound = Long.parseLong(memoryValue.toString())*1024*1024;
+			}
+		} catch (NumberFormatException e) {
+			throw new GuideException("The --guide-train_threads and --guide-train_memory options must be integer values. ", e);
+		}
+		if (threads == 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		if (memoryBound <= 0) {
+			memoryBound = Runtime.getRuntime().maxMemory()/2;
+		}
+		this.threads = Math.max(threads, 1);
+		this.memoryBound = memoryBound;
+	}
+
+	/**
+	 * Trains the atomic models. The atomic models are terminated after the training.
+	 *
+	 * @param models the atomic models
+	 * @throws MaltChainedException
+	 */
+	public void train(Collection<AtomicModel> models) throws MaltChainedException {
+		final ArrayList<Task> tasks = new ArrayList<Task>(models.size());
+		for (final AtomicModel model : models) {
+			tasks.add(new Task() {
+				public void run() throws MaltChainedException {
+					model.train();
+				}
+				public long getMemoryEstimate() {
+					return estimateMemory(model.getFrequency(), model.getFeatures().size());
+				}
+			});
+		}
+		run(tasks);
+	}
+
+	/**
+	 * Returns the estimated number of bytes of a set of training instances in memory.
+	 *
+	 * @param instances the number of training instances
+	 * @param features the number of features of each instance
+	 * @return the estimated number of bytes
+	 */
+	public static long estimateMemory(int instances, int features) {
+		return (long)instances*(features+1)*BYTES_PER_FEATURE_NODE;
+	}
+
+	/**
+	 * Runs the tasks and waits until all tasks are finished. If a task fails, the tasks that are not started
+	 * are cancelled and the exception of the first failed task (in the order of the tasks) is thrown.
+	 *
+	 * @param tasks the tasks
+	 * @throws MaltChainedException
+	 */
+	public void run(List<? extends Task> tasks) throws MaltChainedException {
+		if (threads == 1 || tasks.size() < 2) {
+			for (Task task : tasks) {
+				task.run();
+			}
+			return;
+		}
+		final ArrayList<Task> ordered = new ArrayList<Task>(tasks);
+		Collections.sort(ordered, new Comparator<Task>() {
+			public int compare(Task t1, Task t2) {
+				final long m1 = t1.getMemoryEstimate();
+				final long m2 = t2.getMemoryEstimate();
+				return (m1 > m2)?-1:((m1 < m2)?1:0);
+			}
+		});
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()));
+		try {
+			final ArrayList<Future<Object>> futures = new ArrayList<Future<Object>>(ordered.size());
+			for (final Task task : ordered) {
+				futures.add(executor.submit(new Callable<Object>() {
+					public Object call() throws Exception {
+						final long memory = acquire(task.getMemoryEstimate());
+						try {
+							task.run();
+						} finally {
+							release(memory);
+						}
+						return null;
+					}
+				}));
+			}
+			MaltChainedException failure = null;
+			int failureIndex = tasks.size();
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException e) {
+					executor.shutdownNow();
+					final int index = tasks.indexOf(ordered.get(i));
+					if (index < failureIndex) {
+						failureIndex = index;
+						if (e.getCause() instanceof MaltChainedException) {
+							failure = (MaltChainedException)e.getCause();
+						} else {
+							failure = new GuideException("The training of a model failed. ", e.getCause());
+						}
+					}
+				} catch (InterruptedException e) {
+					executor.shutdownNow();
+					throw new GuideException("The training is interrupted. ", e);
+				} catch (CancellationException e) { }
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private synchronized long acquire(long memory) throws InterruptedException {
+		final long m = Math.min(memory, memoryBound);
+		while (running > 0 && memoryInUse+m > memoryBound) {
+			wait();
+		}
+		memoryInUse += m;
+		running++;
+		return m;
+	}
+
+	private synchronized void release(long memory) {
+		memoryInUse -= memory;
+		running--;
+		notifyAll();
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getMemoryBound() {
+		return memoryBound;
+	}
+}
@@ -0,0 +1,25 @@
+package org.maltparser.parser.history.kbest;
+
+/**
+ * A candidate source ranks the candidates of a k-best list on demand. A learner that has added the best candidate
+ * to a k-best list can let the k-best list ask for the remaining candidates when they are needed, for example when
+ * the best candidate is not a permissible parser action.
+ *
+ * @author Johan Hall
+ * @see KBestList#setCandidateSource(CandidateSource)
+*/
+public interface CandidateSource {
+	/**
+	 * Returns the integer representation of the next candidate action, or -1 if there are no more candidates.
+	 *
+	 * @return the integer representation of the next candidate action, or -1
+	 */
+	public int nextActionCode();
+
+	/**
+	 * Returns the score of the candidate returned by the last call of nextActionCode().
+	 *
+	 * @return the score of the candidate
+	 */
+	public float getScore();
+}
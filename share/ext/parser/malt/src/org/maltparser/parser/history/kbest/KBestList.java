@@ -15,6 +15,7 @@ public class KBestList {
 	protected int topCandidateIndex;
 	protected int addCandidateIndex;
 	protected SingleDecision decision;
+	protected CandidateSource candidateSource;
 	
 	/**
 	 * Creates a unrestricted k-best list
@@ -55,6 +56,7 @@ public class KBestList {
 	public void reset() {
 		this.topCandidateIndex = 0;
 		this.addCandidateIndex = 0;
+		this.candidateSource = null;
 	}
 	
 	/**
@@ -90,6 +92,53 @@ public class KBestList {
 	}
 	
 
+	/**
+	 * Lets a candidate source add the remaining candidates to the k-best list when they are needed. The best candidate 
+	 * must already have been added. The candidate source is removed when the k-best list is reset.
+	 * 
+	 * @param candidateSource a candidate source that ranks the remaining candidates
+	 */
+	public void setCandidateSource(CandidateSource candidateSource) {
+		this.candidateSource = candidateSource;
+	}
+	
+	/**
+	 * Adds all remaining candidates of the candidate source to the k-best list.
+	 */
+	public void addPendingCandidates() {
+		while (addPendingCandidate());
+	}
+	
+	/**
+	 * Adds the next candidate of the candidate source to the k-best list.
+	 * 
+	 * @return true if a candidate has been added, otherwise false
+	 */
+	protected boolean addPendingCandidate() {
+		if (candidateSource == null) {
+			return false;
+		}
+		final int actionCode = (k != -1 && addCandidateIndex >= k)?-1:candidateSource.nextActionCode();
+		if (actionCode == -1) {
+			candidateSource = null;
+			return false;
+		}
+		addCandidate(actionCode, candidateSource.getScore());
+		return true;
+	}
+	
+	/**
+	 * Adds a candidate from the candidate source after the best candidate.
+	 * 
+	 * @param actionCode the integer representation of candidate action
+	 * @param score the score of the candidate
+	 */
+	protected void addCandidate(int actionCode, float score) {
+		if (addCandidateIndex >= kBestList.size()) { kBestList.add(new Candidate()); }
+		kBestList.get(addCandidateIndex).setActionCode(actionCode);
+		addCandidateIndex++;
+	}
+	
 	/**
 	 * Updates the corresponding single decision with the next value in the k-best list.
 	 * 
@@ -97,6 +146,9 @@ public class KBestList {
 	 * @throws MaltChainedException
 	 */
 	public boolean updateActionWithNextKBest() throws MaltChainedException {
+		if (topCandidateIndex >= addCandidateIndex) {
+			addPendingCandidate();
+		}
 		if (addCandidateIndex != 0 && topCandidateIndex < addCandidateIndex && topCandidateIndex < kBestList.size()) {
 			int actionCode = kBestList.get(topCandidateIndex).getActionCode();
 			if (decision instanceof SingleDecision) {
@@ -109,6 +161,9 @@ public class KBestList {
 	}
 	
 	public int peekNextKBest() {
+		if (topCandidateIndex >= addCandidateIndex) {
+			addPendingCandidate();
+		}
 		if (addCandidateIndex != 0 && topCandidateIndex < addCandidateIndex && topCandidateIndex < kBestList.size()) {
 			return kBestList.get(topCandidateIndex).getActionCode();
 		}
@@ -121,6 +176,7 @@ public class KBestList {
 	 * @return the current size of the k-best list
 	 */
 	public int getCurrentSize() {
+		addPendingCandidates();
 		return addCandidateIndex;
 		//return kBestList.size();
 	}
@@ -176,10 +232,12 @@ public class KBestList {
 	
 	
 	public int getKBestListSize() {
+		addPendingCandidates();
 		return kBestList.size();
 	}
 	
 	public ScoredCandidate getCandidate(int i) {
+		addPendingCandidates();
 		if (i >= kBestList.size()) {
 			return null;
 		}
@@ -190,6 +248,7 @@ public class KBestList {
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
+		addPendingCandidates();
 		StringBuilder sb = new StringBuilder();
 		sb.append("[ ");
 		for (int i = 0; i < addCandidateIndex; i++) {
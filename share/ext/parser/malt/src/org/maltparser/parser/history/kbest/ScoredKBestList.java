@@ -42,6 +42,16 @@ public class ScoredKBestList extends KBestList{
 		addCandidateIndex++;
 	}
 	
+	protected void addCandidate(int actionCode, float score) {
+		if (addCandidateIndex >= kBestList.size()) { kBestList.add(new ScoredCandidate()); }
+		final Candidate cand = kBestList.get(addCandidateIndex);
+		cand.setActionCode(actionCode);
+		if (cand instanceof ScoredCandidate) {
+			((ScoredCandidate)cand).setScore(score);
+		}
+		addCandidateIndex++;
+	}
+	
 	public void add(String symbol, float score) throws MaltChainedException {
 		if (decision instanceof SingleDecision) {
 			this.add(((SingleDecision)decision).getDecisionCode(symbol), score);
@@ -49,6 +59,9 @@ public class ScoredKBestList extends KBestList{
 	}
 	
 	public float peekNextKBestScore() {
+		if (topCandidateIndex >= addCandidateIndex) {
+			addPendingCandidate();
+		}
 		if (!(kBestList.get(addCandidateIndex) instanceof ScoredCandidate)) {
 			return Float.NaN;
 		}